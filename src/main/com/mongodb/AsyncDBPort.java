@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.io.Bits;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A non-blocking connection to a server, shared by any number of in-flight requests.  Messages are queued by the calling
+ * threads and written by the port's {@link NIOEventLoop}, which also reads the replies and hands each one to the
+ * {@link ReplyHandler} registered for its responseTo.
+ */
+class AsyncDBPort {
+
+    /**
+     * Receives the reply to a request, on the event loop thread.
+     */
+    interface ReplyHandler {
+        /**
+         * @param reply the whole message, from position 0 to the limit; the handler owns the buffer from then on
+         */
+        void onReply(ByteBuffer reply);
+
+        void onError(IOException e);
+    }
+
+    /**
+     * Connects to the server and authenticates every credential currently in the store.  The handshake is done in
+     * blocking mode, on the calling thread, before the channel is handed over to the event loop.
+     */
+    AsyncDBPort(final ServerAddress addr, final NIOEventLoop loop, final Mongo mongo) throws IOException {
+        _addr = addr;
+        _loop = loop;
+
+        MongoOptions options = mongo._options;
+        _timeoutNanos = TimeUnit.MILLISECONDS.toNanos(options.socketTimeout);
+        _channel = SocketChannel.open();
+        try {
+            _channel.socket().connect(addr.getSocketAddress(), options.connectTimeout);
+            _channel.socket().setTcpNoDelay(!DBPort.USE_NAGLE);
+            _channel.socket().setKeepAlive(options.socketKeepAlive);
+
+            if (!mongo.getAuthority().getCredentialsStore().getDatabases().isEmpty()) {
+                DBPort handshake = new DBPort(addr, null, options);
+                handshake.useSocket(_channel.socket());
+                try {
+                    handshake.checkAuth(mongo);
+                    _authenticatedDatabases.addAll(handshake.authenticatedDatabases);
+                } finally {
+                    handshake.releaseSocket();
+                }
+            }
+
+            _channel.configureBlocking(false);
+        } catch (IOException e) {
+            _channel.close();
+            throw e;
+        } catch (RuntimeException e) {
+            _channel.close();
+            throw e;
+        }
+
+        _loop.register(this);
+    }
+
+    /**
+     * Queues a group of messages to be written back-to-back, with nothing from other threads in between.  The handlers
+     * are registered before anything is written, so that no reply can arrive before its handler.  The port owns the
+     * messages from then on, and is done with each one once it has been written, or once the port fails.
+     *
+     * @param messages   the messages, in the order to write them
+     * @param requestIds the request ids of the messages that expect a reply
+     * @param handlers   the handlers for those replies
+     */
+    void send(final OutMessage[] messages, final int[] requestIds, final ReplyHandler[] handlers) {
+        PendingWrite[] writes = new PendingWrite[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            writes[i] = new PendingWrite(messages[i]);
+        }
+
+        long deadline = System.nanoTime() + _timeoutNanos;
+        for (int i = 0; i < requestIds.length; i++) {
+            _pending.put(requestIds[i], new PendingReply(handlers[i], deadline));
+        }
+
+        // the port may have failed before the handlers were registered, in which case nobody else would fail them
+        IOException failure = _failure;
+        if (failure != null) {
+            for (int requestId : requestIds) {
+                PendingReply pending = _pending.remove(requestId);
+                if (pending != null) {
+                    pending._handler.onError(failure);
+                }
+            }
+            for (PendingWrite write : writes) {
+                write.done();
+            }
+            return;
+        }
+
+        synchronized (_writeQueue) {
+            for (PendingWrite write : writes) {
+                _writeQueue.add(write);
+            }
+        }
+
+        // and it may have failed after the check, before the messages were queued
+        if (_failure != null) {
+            releaseWrites();
+            return;
+        }
+
+        if (_writeScheduled.compareAndSet(false, true)) {
+            _loop.scheduleWrite(this);
+        }
+    }
+
+    void registered(final SelectionKey key) {
+        _key = key;
+        if (_failure != null) {
+            key.cancel();
+        }
+    }
+
+    SocketChannel getChannel() {
+        return _channel;
+    }
+
+    /**
+     * Writes as much of the queue as the socket will take, and keeps write interest only while something is left.
+     * Called on the event loop thread.
+     */
+    void handleWrite() throws IOException {
+        if (_failure != null) {
+            return;
+        }
+        if (_key == null) {
+            // not registered yet; the registration is processed first on the next turn, so try again then
+            _loop.scheduleWrite(this);
+            return;
+        }
+
+        while (true) {
+            ByteBuffer[] buffers = queuedBuffers();
+            if (buffers.length == 0) {
+                _key.interestOps(SelectionKey.OP_READ);
+                _writeScheduled.set(false);
+                // a message may have been queued after the peek but before the flag was cleared
+                if (_writeQueue.isEmpty() || !_writeScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            // everything that is queued goes out in one vectored write
+            _channel.write(buffers);
+
+            PendingWrite write;
+            while ((write = _writeQueue.peek()) != null && write.isWritten()) {
+                _writeQueue.poll();
+                write.done();
+            }
+
+            if (buffers[buffers.length - 1].hasRemaining()) {
+                _key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+    }
+
+    // the buffers of the queued messages that still have something left to write, in order
+    private ByteBuffer[] queuedBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+        for (PendingWrite write : _writeQueue) {
+            for (ByteBuffer buf : write._buffers) {
+                if (buf.hasRemaining()) {
+                    buffers.add(buf);
+                }
+            }
+            if (buffers.size() >= MAX_BUFFERS_PER_WRITE) {
+                break;
+            }
+        }
+        return buffers.toArray(new ByteBuffer[buffers.size()]);
+    }
+
+    private void releaseWrites() {
+        PendingWrite write;
+        while ((write = _writeQueue.poll()) != null) {
+            write.done();
+        }
+    }
+
+    /**
+     * Reads whatever is available and dispatches every complete reply.  Called on the event loop thread.
+     */
+    void handleRead() throws IOException {
+        while (true) {
+            if (_body == null) {
+                if (read(_lengthBuffer) && !_lengthBuffer.hasRemaining()) {
+                    int len = Bits.readInt(_lengthBuffer.array());
+                    if (len < Response.HEADER_LENGTH || len > Response.MAX_LENGTH) {
+                        throw new IOException("bad response length: " + len);
+                    }
+                    _body = Response.BUFFER_POOL.get(len);
+                    _body.put(_lengthBuffer.array());
+                    _lengthBuffer.clear();
+                } else {
+                    return;
+                }
+            }
+
+            if (!read(_body) || _body.hasRemaining()) {
+                return;
+            }
+
+            ByteBuffer reply = _body;
+            reply.flip();
+            _body = null;
+            dispatch(reply);
+        }
+    }
+
+    // returns false if nothing could be read
+    private boolean read(final ByteBuffer buf) throws IOException {
+        int n = _channel.read(buf);
+        if (n < 0) {
+            throw new EOFException("connection to " + _addr + " closed by server");
+        }
+        return n > 0;
+    }
+
+    private void dispatch(final ByteBuffer reply) {
+        // a missing handler means the request was failed already
+        PendingReply pending = _pending.remove(Bits.readInt(reply.array(), 8));
+        if (pending == null) {
+            Response.BUFFER_POOL.release(reply);
+            return;
+        }
+        try {
+            pending._handler.onReply(reply);
+        } catch (RuntimeException e) {
+            _logger.log(Level.WARNING, "Exception handling reply from " + _addr, e);
+        }
+    }
+
+    /**
+     * Closes the connection and fails every request still waiting for a reply.
+     */
+    void fail(final IOException e) {
+        if (_failure == null) {
+            _failure = e;
+        }
+
+        if (_key != null) {
+            _key.cancel();
+        }
+        try {
+            _channel.close();
+        } catch (IOException ignored) {
+            // don't care
+        }
+
+        releaseWrites();
+
+        for (Integer requestId : _pending.keySet()) {
+            PendingReply pending = _pending.remove(requestId);
+            if (pending != null) {
+                try {
+                    pending._handler.onError(_failure);
+                } catch (RuntimeException re) {
+                    _logger.log(Level.WARNING, "Exception failing request to " + _addr, re);
+                }
+            }
+        }
+    }
+
+    void close() {
+        fail(new IOException("connection to " + _addr + " closed"));
+    }
+
+    boolean isOpen() {
+        return _failure == null;
+    }
+
+    boolean isAuthenticated(final Set<String> databases) {
+        return _authenticatedDatabases.containsAll(databases);
+    }
+
+    /**
+     * Fails the requests that have waited longer than the socket timeout for their reply.  The connection stays open for
+     * the others, and a reply that turns up later is dropped.  Called on the event loop thread.
+     */
+    void expireRequests(final long now) {
+        if (_timeoutNanos <= 0) {
+            return;
+        }
+        for (Map.Entry<Integer, PendingReply> entry : _pending.entrySet()) {
+            if (now - entry.getValue()._deadline < 0) {
+                continue;
+            }
+            PendingReply pending = _pending.remove(entry.getKey());
+            if (pending != null) {
+                try {
+                    pending._handler.onError(new SocketTimeoutException("no reply from " + _addr + " within "
+                                                                        + TimeUnit.NANOSECONDS.toMillis(_timeoutNanos) + "ms"));
+                } catch (RuntimeException re) {
+                    _logger.log(Level.WARNING, "Exception failing request to " + _addr, re);
+                }
+            }
+        }
+    }
+
+    ServerAddress serverAddress() {
+        return _addr;
+    }
+
+    @Override
+    public String toString() {
+        return "{AsyncDBPort  " + _addr + "}";
+    }
+
+    // a handler waiting for its reply, and the time after which it gets a timeout instead
+    private static class PendingReply {
+        PendingReply(final ReplyHandler handler, final long deadline) {
+            _handler = handler;
+            _deadline = deadline;
+        }
+
+        private final ReplyHandler _handler;
+        private final long _deadline;
+    }
+
+    // a message waiting to be written, which shares its buffers with the message until it is done with
+    private static class PendingWrite {
+        PendingWrite(final OutMessage message) {
+            _message = message;
+            _buffers = message.toByteBuffers();
+        }
+
+        boolean isWritten() {
+            return !_buffers[_buffers.length - 1].hasRemaining();
+        }
+
+        void done() {
+            if (_done.compareAndSet(false, true)) {
+                _message.doneWithMessage();
+            }
+        }
+
+        private final OutMessage _message;
+        private final ByteBuffer[] _buffers;
+        private final AtomicBoolean _done = new AtomicBoolean();
+    }
+
+    // more than the operating system takes in one call would be wasted
+    private static final int MAX_BUFFERS_PER_WRITE = 1024;
+
+    private static final Logger _logger = Logger.getLogger(Bytes.LOGGER.getName() + ".nio");
+
+    private final ServerAddress _addr;
+    private final NIOEventLoop _loop;
+    private final SocketChannel _channel;
+    private final Set<String> _authenticatedDatabases = Collections.synchronizedSet(new HashSet<String>());
+    private final ConcurrentMap<Integer, PendingReply> _pending = new ConcurrentHashMap<Integer, PendingReply>();
+    private final long _timeoutNanos; // 0 for none
+    private final Queue<PendingWrite> _writeQueue = new ConcurrentLinkedQueue<PendingWrite>();
+    private final AtomicBoolean _writeScheduled = new AtomicBoolean();
+    private volatile IOException _failure;
+
+    // only touched by the event loop thread
+    private volatile SelectionKey _key;
+    private final ByteBuffer _lengthBuffer = ByteBuffer.allocate(4);
+    private ByteBuffer _body;
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+/**
+ * A builder for an upsert, as part of a {@link BulkWriteOperation}.  If no document matches the query, one is inserted.
+ *
+ * @since 2.12.0
+ */
+public class BulkUpdateRequestBuilder {
+
+    BulkUpdateRequestBuilder( BulkWriteRequestBuilder builder ){
+        _builder = builder;
+    }
+
+    /**
+     * Adds an upsert that updates all the documents that match the query.
+     *
+     * @param update the update, which must only contain update operators
+     */
+    public void update( DBObject update ){
+        _builder.addUpdate( update , true , true );
+    }
+
+    /**
+     * Adds an upsert that updates at most one document that matches the query.
+     *
+     * @param update the update, which must only contain update operators
+     */
+    public void updateOne( DBObject update ){
+        _builder.addUpdate( update , true , false );
+    }
+
+    /**
+     * Adds an upsert that replaces at most one document that matches the query.
+     *
+     * @param document the replacement document, which must not contain update operators
+     */
+    public void replaceOne( DBObject document ){
+        _builder.addReplace( document , true );
+    }
+
+    private final BulkWriteRequestBuilder _builder;
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.Comparator;
+
+/**
+ * The error of a single write of a {@link BulkWriteOperation}.
+ *
+ * @since 2.12.0
+ */
+public class BulkWriteError {
+
+    static final Comparator<BulkWriteError> BY_INDEX = new Comparator<BulkWriteError>() {
+        public int compare( BulkWriteError e1 , BulkWriteError e2 ){
+            return e1._index < e2._index ? -1 : ( e1._index == e2._index ? 0 : 1 );
+        }
+    };
+
+    BulkWriteError( int index , int code , String message , DBObject details ){
+        _index = index;
+        _code = code;
+        _message = message;
+        _details = details;
+    }
+
+    /**
+     * @return the index of the write, in the order the writes were added
+     */
+    public int getIndex(){
+        return _index;
+    }
+
+    /**
+     * @return the error code, or -1 if the server didn't send one
+     */
+    public int getCode(){
+        return _code;
+    }
+
+    /**
+     * @return the error message
+     */
+    public String getMessage(){
+        return _message;
+    }
+
+    /**
+     * @return the whole getLastError result for the write
+     */
+    public DBObject getDetails(){
+        return _details;
+    }
+
+    @Override
+    public String toString(){
+        return "BulkWriteError{index=" + _index + ", code=" + _code + ", message='" + _message + "'}";
+    }
+
+    private final int _index;
+    private final int _code;
+    private final String _message;
+    private final DBObject _details;
+}
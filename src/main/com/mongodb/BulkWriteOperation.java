@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.io.BasicOutputBuffer;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk write operation, made of inserts, updates, replacements and removes on one collection.  Create one with
+ * {@link DBCollection#initializeOrderedBulkOperation()} or {@link DBCollection#initializeUnorderedBulkOperation()}, add
+ * the writes, and then call {@link #execute()} once.
+ *
+ * <p>A server that has write commands (2.6 and later) gets each run of writes of the same kind as one insert, update or
+ * delete command, split where the batch would go over the server's maximum BSON object size or write batch size.  Each
+ * reply says which writes of the batch failed.  An ordered operation sends the runs in order and stops at the first error.
+ * An unordered one first puts all the inserts together, then the updates and then the removes, and carries on after
+ * errors.</p>
+ *
+ * <p>Older servers can only report errors for the last write before a getLastError, so there every write is acknowledged
+ * by its own getLastError.  An ordered operation runs its writes one at a time, in order, and stops at the first error.
+ * An unordered operation splits its writes into groups that fit in one maximum sized BSON object, sends each group
+ * back-to-back with its getLastError commands on a connection of its own, and runs all the groups at once, so its writes
+ * may be applied in any order and an error doesn't stop the others.</p>
+ *
+ * <p>Instances are not thread safe.</p>
+ *
+ * @since 2.12.0
+ */
+public class BulkWriteOperation {
+
+    /**
+     * The most writes sent in one group by an unordered operation.
+     */
+    static final int MAX_WRITES_PER_GROUP = 1000;
+
+    /**
+     * The first wire version with the insert, update and delete commands.
+     */
+    static final int WRITE_COMMANDS_WIRE_VERSION = 2;
+
+    BulkWriteOperation( boolean ordered , DBCollection collection ){
+        _ordered = ordered;
+        _collection = collection;
+    }
+
+    /**
+     * @return true if the writes are done in order, stopping at the first error
+     */
+    public boolean isOrdered(){
+        return _ordered;
+    }
+
+    /**
+     * Adds an insert.  As with {@link DBCollection#insert(DBObject...)}, an _id is added to the document if it doesn't
+     * have one.
+     *
+     * @param document the document to insert
+     */
+    public void insert( DBObject document ){
+        checkNotExecuted();
+        _collection.prepareInsert( Collections.singletonList( document ) , true );
+        _requests.add( new WriteRequest( WriteRequest.Type.INSERT , null , document , false , false ) );
+    }
+
+    /**
+     * Starts a write to the documents that match a query.
+     *
+     * @param query the query
+     * @return a builder for the write
+     */
+    public BulkWriteRequestBuilder find( DBObject query ){
+        checkNotExecuted();
+        if ( query == null )
+            throw new IllegalArgumentException( "query can not be null" );
+        return new BulkWriteRequestBuilder( this , query );
+    }
+
+    /**
+     * Executes the writes, with the collection's write concern.
+     *
+     * @return the result of the writes
+     * @throws BulkWriteException if some writes failed
+     * @throws MongoException
+     */
+    public BulkWriteResult execute(){
+        return execute( _collection.getWriteConcern() );
+    }
+
+    /**
+     * Executes the writes.
+     *
+     * @param concern the write concern each write is acknowledged with
+     * @return the result of the writes
+     * @throws BulkWriteException if some writes failed
+     * @throws MongoException
+     */
+    public BulkWriteResult execute( WriteConcern concern ){
+        checkNotExecuted();
+        if ( concern == null )
+            throw new IllegalArgumentException( "Write concern can not be null" );
+        if ( _requests.isEmpty() )
+            throw new IllegalStateException( "no writes to execute" );
+        _executed = true;
+
+        Outcome outcome = new Outcome( _requests.size() );
+        ServerDescription server = concern.callGetLastError() ? getPrimaryDescription() : null;
+        if ( server != null && server.getMaxWireVersion() >= WRITE_COMMANDS_WIRE_VERSION )
+            executeCommands( concern , outcome , server );
+        else if ( _ordered )
+            executeInTurn( concern , outcome );
+        else
+            executeInGroups( concern , outcome );
+
+        return outcome.toResult( _requests , concern );
+    }
+
+    void add( WriteRequest request ){
+        checkNotExecuted();
+        _requests.add( request );
+    }
+
+    private void checkNotExecuted(){
+        if ( _executed )
+            throw new IllegalStateException( "a bulk write operation can only be executed once" );
+    }
+
+    // what the primary said in its handshake, opening a connection to it first if there isn't one yet
+    private ServerDescription getPrimaryDescription(){
+        Mongo mongo = _collection.getDB().getMongo();
+        ServerDescription server = mongo.getConnector().getPrimaryDescription();
+        if ( server == null ){
+            mongo.getMaxBsonObjectSize();
+            server = mongo.getConnector().getPrimaryDescription();
+        }
+        return server;
+    }
+
+    private void executeCommands( WriteConcern concern , Outcome outcome , ServerDescription server ){
+        List<Integer> order = executionOrder();
+        DBEncoder encoder = getEncoder();
+        BasicOutputBuffer sizer = new BasicOutputBuffer();
+        DBObject writeConcern = concern.getCommand();
+        writeConcern.removeField( "getlasterror" );
+
+        int i = 0;
+        while ( i < order.size() ){
+            WriteRequest.Type type = _requests.get( order.get( i ) )._type;
+            List<DBObject> items = new ArrayList<DBObject>();
+            List<Integer> indexes = new ArrayList<Integer>();
+            int size = 0;
+            for ( ; i < order.size() && items.size() < server.getMaxWriteBatchSize(); i++ ){
+                WriteRequest request = _requests.get( order.get( i ) );
+                if ( request._type != type )
+                    break;
+                DBObject item = request.toCommandItem();
+                sizer.setPosition( 0 );
+                int itemSize = encoder.writeObject( sizer , item );
+                // a write on its own always goes, and the server decides whether it is too big
+                if ( !items.isEmpty() && size + itemSize > server.getMaxBsonObjectSize() )
+                    break;
+                items.add( item );
+                indexes.add( order.get( i ) );
+                size += itemSize;
+            }
+
+            DBObject command = new BasicDBObject( type.getCommandName() , _collection.getName() )
+                               .append( type.getItemsName() , items )
+                               .append( "ordered" , _ordered )
+                               .append( "writeConcern" , writeConcern );
+            CommandResult res = _collection.getDB().command( command , 0 , ReadPreference.primary() , encoder );
+            res.throwOnError();
+            outcome.onCommandResult( indexes , type , res );
+            if ( _ordered && outcome.hasErrors() )
+                return;
+        }
+    }
+
+    // an unordered operation is free to send all the writes of one kind together, in as few commands as possible
+    private List<Integer> executionOrder(){
+        List<Integer> order = new ArrayList<Integer>( _requests.size() );
+        if ( _ordered ){
+            for ( int i = 0; i < _requests.size(); i++ )
+                order.add( i );
+            return order;
+        }
+        for ( WriteRequest.Type type : WriteRequest.Type.values() ){
+            for ( int i = 0; i < _requests.size(); i++ ){
+                if ( _requests.get( i )._type == type )
+                    order.add( i );
+            }
+        }
+        return order;
+    }
+
+    private void executeInTurn( WriteConcern concern , Outcome outcome ){
+        DB db = _collection.getDB();
+        DBTCPConnector connector = db.getMongo().getConnector();
+        DBEncoder encoder = getEncoder();
+        for ( int i = 0; i < _requests.size(); i++ ){
+            try {
+                outcome.onResult( i , connector.say( db , _requests.get( i ).encode( _collection , encoder , concern ) , concern ) , null );
+            }
+            catch ( WriteConcernException e ){
+                outcome.onResult( i , null , e );
+            }
+            if ( _ordered && outcome.hasErrors() )
+                return;
+        }
+    }
+
+    private void executeInGroups( WriteConcern concern , Outcome outcome ){
+        DBAsyncConnector connector;
+        try {
+            connector = _collection.getDB().getMongo().getAsyncConnector();
+        }
+        catch ( IllegalArgumentException e ){
+            // asynchronous operations aren't possible with a custom socket factory, so the writes are done in turn instead
+            executeInTurn( concern , outcome );
+            return;
+        }
+
+        List<List<OutMessage>> groups = encodeGroups( concern );
+        CountDownLatch done = new CountDownLatch( _requests.size() );
+        int first = 0;
+        for ( List<OutMessage> group : groups ){
+            List<ItemCallback> callbacks = new ArrayList<ItemCallback>( group.size() );
+            for ( int i = 0; i < group.size(); i++ )
+                callbacks.add( new ItemCallback( first + i , outcome , done ) );
+            connector.sayAsync( _collection.getDB() , group , concern , null , callbacks );
+            first += group.size();
+        }
+
+        // each reply is bound by the socket timeout already, so this only guards against one that is never handled
+        int timeout = _collection.getDB().getMongo().getMongoOptions().getSocketTimeout();
+        try {
+            if ( timeout <= 0 )
+                done.await();
+            else if ( !done.await( timeout , TimeUnit.MILLISECONDS ) )
+                throw new MongoException.Network( "timed out waiting for the replies to a bulk write" ,
+                                                  new SocketTimeoutException( timeout + "ms" ) );
+        }
+        catch ( InterruptedException e ){
+            throw new MongoInterruptedException( e );
+        }
+        outcome.throwIfFailed();
+    }
+
+    // each group is at most a maximum sized BSON object, so that one connection isn't stuck with most of the work
+    private List<List<OutMessage>> encodeGroups( WriteConcern concern ){
+        int maxsize = _collection.getDB().getMongo().getMaxBsonObjectSize();
+        DBEncoder encoder = getEncoder();
+        List<List<OutMessage>> groups = new ArrayList<List<OutMessage>>();
+        List<OutMessage> group = new ArrayList<OutMessage>();
+        int groupSize = 0;
+        try {
+            for ( WriteRequest request : _requests ){
+                OutMessage m = request.encode( _collection , encoder , concern );
+                if ( !group.isEmpty() && ( groupSize + m.size() > maxsize || group.size() == MAX_WRITES_PER_GROUP ) ){
+                    groups.add( group );
+                    group = new ArrayList<OutMessage>();
+                    groupSize = 0;
+                }
+                group.add( m );
+                groupSize += m.size();
+            }
+            groups.add( group );
+        }
+        catch ( RuntimeException e ){
+            groups.add( group );
+            for ( List<OutMessage> encoded : groups ){
+                for ( OutMessage m : encoded )
+                    m.doneWithMessage();
+            }
+            throw e;
+        }
+        return groups;
+    }
+
+    private DBEncoder getEncoder(){
+        DBEncoder encoder = _collection.getDBEncoder();
+        return encoder != null ? encoder : DefaultDBEncoder.FACTORY.create();
+    }
+
+    /**
+     * A single write of a bulk operation.
+     */
+    static class WriteRequest {
+        enum Type {
+            INSERT( "insert" , "documents" ), UPDATE( "update" , "updates" ), REMOVE( "delete" , "deletes" );
+
+            Type( String commandName , String itemsName ){
+                _commandName = commandName;
+                _itemsName = itemsName;
+            }
+
+            String getCommandName(){
+                return _commandName;
+            }
+
+            String getItemsName(){
+                return _itemsName;
+            }
+
+            private final String _commandName;
+            private final String _itemsName;
+        }
+
+        WriteRequest( Type type , DBObject query , DBObject document , boolean upsert , boolean multi ){
+            _type = type;
+            _query = query;
+            _document = document;
+            _upsert = upsert;
+            _multi = multi;
+        }
+
+        OutMessage encode( DBCollection collection , DBEncoder encoder , WriteConcern concern ){
+            switch ( _type ){
+                case INSERT:
+                    OutMessage om = OutMessage.insert( collection , encoder , concern );
+                    try {
+                        om.putObject( _document );
+                    }
+                    catch ( RuntimeException e ){
+                        om.doneWithMessage();
+                        throw e;
+                    }
+                    return om;
+                case UPDATE:
+                    return collection.prepareUpdate( _query , _document , _upsert , _multi , concern , encoder );
+                default:
+                    return OutMessage.remove( collection , encoder , _query , !_multi );
+            }
+        }
+
+        // the element of the items array of a write command that stands for this write
+        DBObject toCommandItem(){
+            switch ( _type ){
+                case INSERT:
+                    return _document;
+                case UPDATE:
+                    return new BasicDBObject( "q" , _query ).append( "u" , _document ).append( "upsert" , _upsert )
+                           .append( "multi" , _multi );
+                default:
+                    return new BasicDBObject( "q" , _query ).append( "limit" , _multi ? 0 : 1 );
+            }
+        }
+
+        // the _id of the document an upsert inserted, when getLastError doesn't say
+        Object getUpsertedId(){
+            Object id = _document.get( "_id" );
+            return id != null ? id : _query.get( "_id" );
+        }
+
+        final Type _type;
+        final DBObject _query;
+        final DBObject _document;
+        final boolean _upsert;
+        final boolean _multi;
+    }
+
+    /**
+     * Collects the results of the writes, which may arrive on several threads at once.
+     */
+    static class Outcome {
+        Outcome( int size ){
+            _results = new WriteResult[ size ];
+        }
+
+        synchronized void onResult( int index , WriteResult result , MongoException e ){
+            if ( e instanceof WriteConcernException ){
+                CommandResult res = ( (WriteConcernException) e ).getCommandResult();
+                _errors.add( new BulkWriteError( index , res.getCode() , res.hasErr() ? res.getString( "err" ) : res.getErrorMessage() , res ) );
+            }
+            else if ( e != null ){
+                if ( _failure == null )
+                    _failure = e;
+            }
+            else {
+                _results[ index ] = result;
+            }
+        }
+
+        /**
+         * Adds up the reply to a write command.  The indexes in the reply are positions in the batch, which are mapped
+         * back to positions in the whole operation.
+         *
+         * @param indexes the index of each write of the batch in the operation
+         */
+        synchronized void onCommandResult( List<Integer> indexes , WriteRequest.Type type , CommandResult res ){
+            int n = res.get( "n" ) instanceof Number ? ( (Number) res.get( "n" ) ).intValue() : 0;
+            List upserted = res.get( "upserted" ) instanceof List ? (List) res.get( "upserted" ) : Collections.emptyList();
+            for ( Object o : upserted ){
+                DBObject upsert = (DBObject) o;
+                _upserts.add( new BulkWriteUpsert( indexes.get( ( (Number) upsert.get( "index" ) ).intValue() ) , upsert.get( "_id" ) ) );
+            }
+            switch ( type ){
+                case INSERT:
+                    _inserted += n;
+                    break;
+                case UPDATE:
+                    _matched += n - upserted.size();
+                    break;
+                default:
+                    _removed += n;
+            }
+
+            if ( res.get( "writeErrors" ) instanceof List ){
+                for ( Object o : (List) res.get( "writeErrors" ) ){
+                    DBObject error = (DBObject) o;
+                    _errors.add( new BulkWriteError( indexes.get( ( (Number) error.get( "index" ) ).intValue() ) ,
+                                                     ( (Number) error.get( "code" ) ).intValue() , (String) error.get( "errmsg" ) , error ) );
+                }
+            }
+            // the write concern applies to the batch as a whole, so its error is reported against the first write
+            if ( res.get( "writeConcernError" ) instanceof DBObject ){
+                DBObject error = (DBObject) res.get( "writeConcernError" );
+                _errors.add( new BulkWriteError( indexes.get( 0 ) , ( (Number) error.get( "code" ) ).intValue() ,
+                                                 (String) error.get( "errmsg" ) , error ) );
+            }
+        }
+
+        synchronized boolean hasErrors(){
+            return !_errors.isEmpty();
+        }
+
+        synchronized void throwIfFailed(){
+            if ( _failure != null )
+                throw _failure;
+        }
+
+        synchronized BulkWriteResult toResult( List<WriteRequest> requests , WriteConcern concern ){
+            if ( !concern.callGetLastError() ){
+                if ( !_errors.isEmpty() )
+                    throw new BulkWriteException( new BulkWriteResult() , _errors );
+                return new BulkWriteResult();
+            }
+
+            int inserted = _inserted;
+            int matched = _matched;
+            int removed = _removed;
+            List<BulkWriteUpsert> upserts = new ArrayList<BulkWriteUpsert>( _upserts );
+            for ( int i = 0; i < _results.length; i++ ){
+                if ( _results[ i ] == null )
+                    continue;
+                WriteRequest request = requests.get( i );
+                CommandResult res = _results[ i ].getCachedLastError();
+                int n = res.get( "n" ) instanceof Number ? ( (Number) res.get( "n" ) ).intValue() : 0;
+                switch ( request._type ){
+                    case INSERT:
+                        inserted++;
+                        break;
+                    case UPDATE:
+                        if ( res.get( "upserted" ) != null )
+                            upserts.add( new BulkWriteUpsert( i , res.get( "upserted" ) ) );
+                        else if ( request._upsert && n == 1 && !Boolean.TRUE.equals( res.get( "updatedExisting" ) ) )
+                            upserts.add( new BulkWriteUpsert( i , request.getUpsertedId() ) );
+                        else
+                            matched += n;
+                        break;
+                    default:
+                        removed += n;
+                }
+            }
+
+            Collections.sort( upserts , BulkWriteUpsert.BY_INDEX );
+            Collections.sort( _errors , BulkWriteError.BY_INDEX );
+            BulkWriteResult result = new BulkWriteResult( inserted , matched , removed , upserts );
+            if ( !_errors.isEmpty() )
+                throw new BulkWriteException( result , _errors );
+            return result;
+        }
+
+        private final WriteResult[] _results;
+        private final List<BulkWriteError> _errors = new ArrayList<BulkWriteError>();
+        private MongoException _failure;
+
+        // what the write commands reported, for the writes that didn't go with a getLastError
+        private final List<BulkWriteUpsert> _upserts = new ArrayList<BulkWriteUpsert>();
+        private int _inserted;
+        private int _matched;
+        private int _removed;
+    }
+
+    private static class ItemCallback implements SingleResultCallback<WriteResult> {
+        ItemCallback( int index , Outcome outcome , CountDownLatch done ){
+            _index = index;
+            _outcome = outcome;
+            _done = done;
+        }
+
+        public void onResult( WriteResult result , MongoException e ){
+            try {
+                _outcome.onResult( _index , result , e );
+            }
+            finally {
+                _done.countDown();
+            }
+        }
+
+        private final int _index;
+        private final Outcome _outcome;
+        private final CountDownLatch _done;
+    }
+
+    private final boolean _ordered;
+    private final DBCollection _collection;
+    private final List<WriteRequest> _requests = new ArrayList<WriteRequest>();
+    private boolean _executed;
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.BulkWriteOperation.WriteRequest;
+
+/**
+ * A builder for a write to the documents that match a query, as part of a {@link BulkWriteOperation}.
+ *
+ * @since 2.12.0
+ */
+public class BulkWriteRequestBuilder {
+
+    BulkWriteRequestBuilder( BulkWriteOperation operation , DBObject query ){
+        _operation = operation;
+        _query = query;
+    }
+
+    /**
+     * Adds a remove of all the documents that match the query.
+     */
+    public void remove(){
+        _operation.add( new WriteRequest( WriteRequest.Type.REMOVE , _query , null , false , true ) );
+    }
+
+    /**
+     * Adds a remove of at most one document that matches the query.
+     */
+    public void removeOne(){
+        _operation.add( new WriteRequest( WriteRequest.Type.REMOVE , _query , null , false , false ) );
+    }
+
+    /**
+     * Adds an update of all the documents that match the query.
+     *
+     * @param update the update, which must only contain update operators
+     */
+    public void update( DBObject update ){
+        addUpdate( update , false , true );
+    }
+
+    /**
+     * Adds an update of at most one document that matches the query.
+     *
+     * @param update the update, which must only contain update operators
+     */
+    public void updateOne( DBObject update ){
+        addUpdate( update , false , false );
+    }
+
+    /**
+     * Adds a replacement of at most one document that matches the query.
+     *
+     * @param document the replacement document, which must not contain update operators
+     */
+    public void replaceOne( DBObject document ){
+        addReplace( document , false );
+    }
+
+    /**
+     * Makes the write an upsert, which inserts a document if none matches the query.
+     *
+     * @return a builder for the upsert
+     */
+    public BulkUpdateRequestBuilder upsert(){
+        return new BulkUpdateRequestBuilder( this );
+    }
+
+    void addUpdate( DBObject update , boolean upsert , boolean multi ){
+        if ( update == null || update.keySet().isEmpty() || !update.keySet().iterator().next().startsWith( "$" ) )
+            throw new IllegalArgumentException( "an update must only contain update operators" );
+        _operation.add( new WriteRequest( WriteRequest.Type.UPDATE , _query , update , upsert , multi ) );
+    }
+
+    void addReplace( DBObject document , boolean upsert ){
+        if ( document == null )
+            throw new IllegalArgumentException( "replacement document can not be null" );
+        for ( String key : document.keySet() ){
+            if ( key.startsWith( "$" ) )
+                throw new IllegalArgumentException( "a replacement document can not contain update operators" );
+        }
+        _operation.add( new WriteRequest( WriteRequest.Type.UPDATE , _query , document , upsert , false ) );
+    }
+
+    private final BulkWriteOperation _operation;
+    private final DBObject _query;
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a {@link BulkWriteOperation}.  The counts are only known if the writes were acknowledged.
+ *
+ * @since 2.12.0
+ */
+public class BulkWriteResult {
+
+    BulkWriteResult(){
+        _acknowledged = false;
+        _insertedCount = 0;
+        _matchedCount = 0;
+        _removedCount = 0;
+        _upserts = Collections.emptyList();
+    }
+
+    BulkWriteResult( int insertedCount , int matchedCount , int removedCount , List<BulkWriteUpsert> upserts ){
+        _acknowledged = true;
+        _insertedCount = insertedCount;
+        _matchedCount = matchedCount;
+        _removedCount = removedCount;
+        _upserts = Collections.unmodifiableList( upserts );
+    }
+
+    /**
+     * @return true if the writes were acknowledged, in which case the counts are known
+     */
+    public boolean isAcknowledged(){
+        return _acknowledged;
+    }
+
+    /**
+     * @return the number of documents inserted, not counting upserts
+     * @throws UnsupportedOperationException if the writes weren't acknowledged
+     */
+    public int getInsertedCount(){
+        checkAcknowledged();
+        return _insertedCount;
+    }
+
+    /**
+     * @return the number of documents that matched an update or a replacement
+     * @throws UnsupportedOperationException if the writes weren't acknowledged
+     */
+    public int getMatchedCount(){
+        checkAcknowledged();
+        return _matchedCount;
+    }
+
+    /**
+     * @return the number of documents removed
+     * @throws UnsupportedOperationException if the writes weren't acknowledged
+     */
+    public int getRemovedCount(){
+        checkAcknowledged();
+        return _removedCount;
+    }
+
+    /**
+     * @return the upserts that inserted a document, in the order of their writes
+     * @throws UnsupportedOperationException if the writes weren't acknowledged
+     */
+    public List<BulkWriteUpsert> getUpserts(){
+        checkAcknowledged();
+        return _upserts;
+    }
+
+    private void checkAcknowledged(){
+        if ( !_acknowledged )
+            throw new UnsupportedOperationException( "the counts of an unacknowledged bulk write are not known" );
+    }
+
+    @Override
+    public String toString(){
+        if ( !_acknowledged )
+            return "BulkWriteResult{acknowledged=false}";
+        return "BulkWriteResult{inserted=" + _insertedCount + ", matched=" + _matchedCount + ", removed=" + _removedCount +
+               ", upserts=" + _upserts + "}";
+    }
+
+    private final boolean _acknowledged;
+    private final int _insertedCount;
+    private final int _matchedCount;
+    private final int _removedCount;
+    private final List<BulkWriteUpsert> _upserts;
+}
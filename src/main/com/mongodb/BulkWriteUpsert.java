@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.Comparator;
+
+/**
+ * A write of a {@link BulkWriteOperation} that upserted a document.
+ *
+ * @since 2.12.0
+ */
+public class BulkWriteUpsert {
+
+    static final Comparator<BulkWriteUpsert> BY_INDEX = new Comparator<BulkWriteUpsert>() {
+        public int compare( BulkWriteUpsert u1 , BulkWriteUpsert u2 ){
+            return u1._index < u2._index ? -1 : ( u1._index == u2._index ? 0 : 1 );
+        }
+    };
+
+    BulkWriteUpsert( int index , Object id ){
+        _index = index;
+        _id = id;
+    }
+
+    /**
+     * @return the index of the write, in the order the writes were added
+     */
+    public int getIndex(){
+        return _index;
+    }
+
+    /**
+     * @return the _id of the inserted document
+     */
+    public Object getId(){
+        return _id;
+    }
+
+    @Override
+    public String toString(){
+        return "BulkWriteUpsert{index=" + _index + ", id=" + _id + "}";
+    }
+
+    private final int _index;
+    private final Object _id;
+}
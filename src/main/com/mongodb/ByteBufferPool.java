@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of heap byte buffers, kept in power of two size classes so that a buffer can be reused for any message that
+ * fits in it.  Buffers larger than the biggest size class are allocated on demand and never pooled.
+ */
+class ByteBufferPool {
+
+    /**
+     * @param maxPooledSize  the capacity of the largest buffer that is kept for reuse
+     * @param bytesPerSize   how many bytes worth of buffers to keep for each size class, at least one buffer is kept
+     */
+    @SuppressWarnings("unchecked")
+    ByteBufferPool(final int maxPooledSize, final int bytesPerSize) {
+        int numSizes = sizeClass(maxPooledSize) + 1;
+        _pools = new Queue[numSizes];
+        _pooled = new AtomicInteger[numSizes];
+        _maxPooled = new int[numSizes];
+        for (int i = 0; i < numSizes; i++) {
+            _pools[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+            _pooled[i] = new AtomicInteger();
+            _maxPooled[i] = Math.max(1, bytesPerSize / capacity(i));
+        }
+    }
+
+    /**
+     * Gets a buffer whose limit is the requested size and whose position is 0.  The capacity may be larger.
+     */
+    ByteBuffer get(final int size) {
+        int sizeClass = sizeClass(size);
+        if (sizeClass >= _pools.length) {
+            return ByteBuffer.allocate(size);
+        }
+
+        ByteBuffer buf = _pools[sizeClass].poll();
+        if (buf == null) {
+            buf = ByteBuffer.allocate(capacity(sizeClass));
+        } else {
+            _pooled[sizeClass].decrementAndGet();
+        }
+        buf.clear();
+        buf.limit(size);
+        return buf;
+    }
+
+    /**
+     * Returns a buffer to the pool.  The caller must not touch the buffer, or its backing array, afterwards.
+     */
+    void release(final ByteBuffer buf) {
+        int sizeClass = sizeClass(buf.capacity());
+        if (sizeClass >= _pools.length || capacity(sizeClass) != buf.capacity()) {
+            return;
+        }
+
+        if (_pooled[sizeClass].incrementAndGet() > _maxPooled[sizeClass]) {
+            _pooled[sizeClass].decrementAndGet();
+            return;
+        }
+        _pools[sizeClass].add(buf);
+    }
+
+    // the smallest size class whose buffers can hold size bytes
+    private static int sizeClass(final int size) {
+        if (size <= MIN_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SIZE_BITS;
+    }
+
+    private static int capacity(final int sizeClass) {
+        return MIN_SIZE << sizeClass;
+    }
+
+    private static final int MIN_SIZE_BITS = 10;
+    private static final int MIN_SIZE = 1 << MIN_SIZE_BITS;
+
+    private final Queue<ByteBuffer>[] _pools;
+    private final AtomicInteger[] _pooled;
+    private final int[] _maxPooled;
+}
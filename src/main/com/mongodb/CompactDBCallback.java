@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.BSONObject;
+
+import java.util.List;
+
+/**
+ * Builds {@link CompactDBObject}s, which {@link org.bson.BasicBSONCallback} fills with unboxed numbers and booleans.
+ * Documents go back to the classes set with {@link DBCollection#setObjectClass(Class)} and
+ * {@link DBCollection#setInternalClass(String, Class)} when there are any, and arrays are still {@link BasicDBList}s.
+ */
+class CompactDBCallback extends DefaultDBCallback {
+
+    CompactDBCallback( DBCollection coll , String[] schema ){
+        super( coll );
+        _schema = schema;
+    }
+
+    @Override
+    public BSONObject create( boolean array , List<String> path ){
+        if ( array || ( _collection != null && _collection._objectClass != null ) )
+            return super.create( array , path );
+        if ( path == null && _schema != null )
+            return new CompactDBObject( _schema );
+        return new CompactDBObject();
+    }
+
+    @Override
+    public BSONObject create(){
+        return create( false , null );
+    }
+
+    private final String[] _schema;
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A decoder that returns {@link CompactDBObject}s rather than {@link BasicDBObject}s.  Each decoder remembers the keys
+ * of the last top level document it decoded, so that a run of documents with the same fields shares one array of keys.
+ * Set {@link #FACTORY} with {@link DBCursor#setDecoderFactory(DBDecoderFactory)},
+ * {@link DBCollection#setDBDecoderFactory(DBDecoderFactory)} or {@link MongoClientOptions.Builder#dbDecoderFactory}.
+ *
+ * @since 2.12.0
+ */
+public class CompactDBDecoder extends DefaultDBDecoder {
+
+    static class CompactFactory implements DBDecoderFactory {
+        @Override
+        public DBDecoder create( ){
+            return new CompactDBDecoder( );
+        }
+
+        @Override
+        public String toString() {
+            return "CompactDBDecoder.CompactFactory";
+        }
+    }
+
+    public static final DBDecoderFactory FACTORY = new CompactFactory();
+
+    public CompactDBDecoder( ){
+    }
+
+    @Override
+    public DBCallback getDBCallback( DBCollection collection ){
+        return new CompactDBCallback( collection , _schema );
+    }
+
+    @Override
+    public DBObject decode( byte[] b , DBCollection collection ){
+        return remember( super.decode( b , collection ) );
+    }
+
+    @Override
+    public DBObject decode( InputStream in , DBCollection collection ) throws IOException {
+        return remember( super.decode( in , collection ) );
+    }
+
+    @Override
+    public DBObject decode( byte[] b , int offset , int length , DBCollection collection ){
+        return remember( super.decode( b , offset , length , collection ) );
+    }
+
+    private DBObject remember( DBObject o ){
+        if ( o instanceof CompactDBObject ){
+            CompactDBObject compact = (CompactDBObject) o;
+            if ( !compact.hasSameKeys( _schema ) )
+                _schema = compact.shareKeys();
+        }
+        return o;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactDBDecoder";
+    }
+
+    private String[] _schema;
+}
@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.JSON;
+import org.bson.BSON;
+import org.bson.BSONObject;
+import org.bson.BasicBSONObject;
+import org.bson.PrimitiveBSONObject;
+
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.bson.BSON.BOOLEAN;
+import static org.bson.BSON.NUMBER;
+import static org.bson.BSON.NUMBER_INT;
+import static org.bson.BSON.NUMBER_LONG;
+
+/**
+ * A {@code DBObject} that keeps its fields in arrays rather than in a hash table, for documents that are mostly read
+ * after being decoded.  Keys and values sit in parallel arrays in insertion order, and are found by a linear scan until
+ * a document grows large enough to be worth an index.  Numbers and booleans are stored unboxed, and are boxed only when
+ * read through {@link #get(String)}: the typed getters such as {@link #getInt(String)} read them as they are.
+ *
+ * <p>Documents decoded one after another with the same fields in the same order share a single array of keys, which is
+ * copied by a document before its keys are changed.  Use {@link CompactDBDecoder#FACTORY} to decode query results into
+ * instances of this class.</p>
+ *
+ * <p>Instances are not thread safe.</p>
+ *
+ * @since 2.12.0
+ */
+public class CompactDBObject implements DBObject, PrimitiveBSONObject {
+
+    /**
+     * Creates an empty document.
+     */
+    public CompactDBObject(){
+        this( 8 );
+    }
+
+    /**
+     * Creates an empty document with room for a number of fields.
+     *
+     * @param capacity the number of fields
+     */
+    public CompactDBObject( int capacity ){
+        _keys = new String[ Math.max( capacity , 1 ) ];
+        _values = new Object[ _keys.length ];
+    }
+
+    /**
+     * Creates an empty document that starts out with the keys of another one, and keeps them if its fields turn out to
+     * have the same names in the same order.
+     */
+    CompactDBObject( String[] schema ){
+        _keys = schema;
+        _sharedKeys = true;
+        _values = new Object[ schema.length ];
+    }
+
+    public Object put( String key , Object v ){
+        int i = indexOf( key );
+        if ( i < 0 ){
+            i = append( key );
+        }
+        Object old = getValue( i );
+        setValue( i , v );
+        return old;
+    }
+
+    /**
+     * Sets an int field without boxing it.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    public void putInt( String key , int v ){
+        putPrimitive( key , NUMBER_INT , v );
+    }
+
+    /**
+     * Sets a long field without boxing it.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    public void putLong( String key , long v ){
+        putPrimitive( key , NUMBER_LONG , v );
+    }
+
+    /**
+     * Sets a double field without boxing it.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    public void putDouble( String key , double v ){
+        putPrimitive( key , NUMBER , Double.doubleToRawLongBits( v ) );
+    }
+
+    /**
+     * Sets a boolean field without boxing it.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    public void putBoolean( String key , boolean v ){
+        putPrimitive( key , BOOLEAN , v ? 1 : 0 );
+    }
+
+    public void putAll( BSONObject o ){
+        for ( String k : o.keySet() ){
+            put( k , o.get( k ) );
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void putAll( Map m ){
+        for ( Map.Entry entry : (Set<Map.Entry>) m.entrySet() ){
+            put( entry.getKey().toString() , entry.getValue() );
+        }
+    }
+
+    public Object get( String key ){
+        int i = indexOf( key );
+        return i < 0 ? null : getValue( i );
+    }
+
+    /**
+     * Returns the value of a field as an {@code int}.
+     *
+     * @param key the field to look for
+     * @return the field value
+     * @throws NullPointerException if the field is not there
+     */
+    public int getInt( String key ){
+        int i = indexOf( key );
+        if ( i < 0 || isNull( i ) )
+            throw new NullPointerException( "no value for: " + key );
+        return toInt( i );
+    }
+
+    /**
+     * Returns the value of a field as an {@code int}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    public int getInt( String key , int def ){
+        int i = indexOf( key );
+        return i < 0 || isNull( i ) ? def : toInt( i );
+    }
+
+    /**
+     * Returns the value of a field as a {@code long}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    public long getLong( String key , long def ){
+        int i = indexOf( key );
+        return i < 0 || isNull( i ) ? def : toLong( i );
+    }
+
+    /**
+     * Returns the value of a field as a {@code long}.
+     *
+     * @param key the field to look for
+     * @return the field value
+     * @throws NullPointerException if the field is not there
+     */
+    public long getLong( String key ){
+        int i = indexOf( key );
+        if ( i < 0 || isNull( i ) )
+            throw new NullPointerException( "no value for: " + key );
+        return toLong( i );
+    }
+
+    /**
+     * Returns the value of a field as a {@code double}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    public double getDouble( String key , double def ){
+        int i = indexOf( key );
+        return i < 0 || isNull( i ) ? def : toDouble( i );
+    }
+
+    /**
+     * Returns the value of a field as a {@code double}.
+     *
+     * @param key the field to look for
+     * @return the field value
+     * @throws NullPointerException if the field is not there
+     */
+    public double getDouble( String key ){
+        int i = indexOf( key );
+        if ( i < 0 || isNull( i ) )
+            throw new NullPointerException( "no value for: " + key );
+        return toDouble( i );
+    }
+
+    /**
+     * Returns the value of a field as a {@code boolean}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    public boolean getBoolean( String key , boolean def ){
+        int i = indexOf( key );
+        if ( i < 0 || isNull( i ) )
+            return def;
+        switch ( type( i ) ){
+            case BOOLEAN:
+            case NUMBER_INT:
+            case NUMBER_LONG:
+                return _primitives[ i ] != 0;
+            case NUMBER:
+                return Double.longBitsToDouble( _primitives[ i ] ) != 0;
+            default:
+                Object o = _values[ i ];
+                if ( o instanceof Number )
+                    return ( (Number) o ).intValue() != 0;
+                if ( o instanceof Boolean )
+                    return (Boolean) o;
+                throw new IllegalArgumentException( "can't coerce to bool:" + o.getClass() );
+        }
+    }
+
+    /**
+     * Returns the value of a field as a {@code boolean}.
+     *
+     * @param key the field to look for
+     * @return the field value
+     */
+    public boolean getBoolean( String key ){
+        return getBoolean( key , false );
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map toMap(){
+        Map m = new LinkedHashMap( Math.max( _size * 4 / 3 + 1 , 16 ) );
+        for ( int i = 0; i < _size; i++ ){
+            m.put( _keys[ i ] , getValue( i ) );
+        }
+        return m;
+    }
+
+    public Object removeField( String key ){
+        int i = indexOf( key );
+        if ( i < 0 )
+            return null;
+        Object old = getValue( i );
+        unshareKeys();
+        int moved = _size - i - 1;
+        System.arraycopy( _keys , i + 1 , _keys , i , moved );
+        System.arraycopy( _values , i + 1 , _values , i , moved );
+        if ( _types != null ){
+            System.arraycopy( _types , i + 1 , _types , i , moved );
+            System.arraycopy( _primitives , i + 1 , _primitives , i , moved );
+        }
+        _size--;
+        _keys[ _size ] = null;
+        _values[ _size ] = null;
+        // the slot is reused by the next append, which must not see the type of the field that used to be there
+        if ( _types != null ){
+            _types[ _size ] = 0;
+            _primitives[ _size ] = 0;
+        }
+        _index = null;
+        return old;
+    }
+
+    /**
+     * @deprecated
+     */
+    @Deprecated
+    public boolean containsKey( String s ){
+        return containsField( s );
+    }
+
+    public boolean containsField( String s ){
+        return indexOf( s ) >= 0;
+    }
+
+    public Set<String> keySet(){
+        return new KeySet();
+    }
+
+    public void markAsPartialObject(){
+        _isPartialObject = true;
+    }
+
+    public boolean isPartialObject(){
+        return _isPartialObject;
+    }
+
+    /**
+     * @return the number of fields
+     */
+    public int size(){
+        return _size;
+    }
+
+    @Override
+    public boolean equals( Object o ){
+        return o instanceof BSONObject && new BasicBSONObject( toMap() ).equals( o );
+    }
+
+    @Override
+    public int hashCode(){
+        // the same as for a map with these entries, and so for a BasicDBObject with them
+        int h = 0;
+        for ( int i = 0; i < _size; i++ ){
+            int valueHash;
+            switch ( type( i ) ){
+                case NUMBER_INT:
+                    valueHash = (int) _primitives[ i ];
+                    break;
+                case NUMBER_LONG:
+                    valueHash = (int) ( _primitives[ i ] ^ ( _primitives[ i ] >>> 32 ) );
+                    break;
+                case NUMBER:
+                    long bits = Double.doubleToLongBits( Double.longBitsToDouble( _primitives[ i ] ) );
+                    valueHash = (int) ( bits ^ ( bits >>> 32 ) );
+                    break;
+                case BOOLEAN:
+                    valueHash = _primitives[ i ] != 0 ? 1231 : 1237;
+                    break;
+                default:
+                    valueHash = _values[ i ] == null ? 0 : _values[ i ].hashCode();
+            }
+            h += _keys[ i ].hashCode() ^ valueHash;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString(){
+        return JSON.serialize( this );
+    }
+
+    /**
+     * Marks the keys of this document as shared, and returns them for documents decoded after it to start out with.
+     */
+    String[] shareKeys(){
+        if ( _keys.length != _size ){
+            String[] keys = new String[ _size ];
+            System.arraycopy( _keys , 0 , keys , 0 , _size );
+            _keys = keys;
+        }
+        _sharedKeys = true;
+        return _keys;
+    }
+
+    boolean hasSameKeys( String[] keys ){
+        return _keys == keys;
+    }
+
+    int indexOf( String key ){
+        if ( _index != null ){
+            Integer i = _index.get( key );
+            return i == null ? -1 : i;
+        }
+        // decoded keys usually come from a FieldNameCache, so the identity check finds most of them
+        for ( int i = 0; i < _size; i++ ){
+            if ( _keys[ i ] == key )
+                return i;
+        }
+        for ( int i = 0; i < _size; i++ ){
+            if ( _keys[ i ].equals( key ) )
+                return i;
+        }
+        if ( _size > INDEX_THRESHOLD ){
+            buildIndex();
+        }
+        return -1;
+    }
+
+    private void buildIndex(){
+        _index = new HashMap<String, Integer>( _size * 2 );
+        for ( int i = 0; i < _size; i++ ){
+            _index.put( _keys[ i ] , i );
+        }
+    }
+
+    private int append( String key ){
+        if ( key == null )
+            throw new IllegalArgumentException( "key can not be null" );
+        if ( _sharedKeys ){
+            if ( _size < _keys.length && _keys[ _size ].equals( key ) ){
+                return added( _size++ );
+            }
+            unshareKeys();
+        }
+        if ( _size == _keys.length ){
+            grow( _size * 2 );
+        }
+        _keys[ _size ] = key;
+        return added( _size++ );
+    }
+
+    private int added( int i ){
+        if ( _index != null ){
+            _index.put( _keys[ i ] , i );
+        }
+        return i;
+    }
+
+    private void putPrimitive( String key , byte type , long bits ){
+        int i = indexOf( key );
+        if ( i < 0 ){
+            i = append( key );
+        }
+        if ( _types == null ){
+            _types = new byte[ _values.length ];
+            _primitives = new long[ _values.length ];
+        }
+        _types[ i ] = type;
+        _primitives[ i ] = bits;
+        _values[ i ] = null;
+    }
+
+    private void setValue( int i , Object v ){
+        if ( _types != null ){
+            _types[ i ] = 0;
+        }
+        _values[ i ] = v;
+    }
+
+    private Object getValue( int i ){
+        switch ( type( i ) ){
+            case NUMBER_INT:
+                return (int) _primitives[ i ];
+            case NUMBER_LONG:
+                return _primitives[ i ];
+            case NUMBER:
+                return Double.longBitsToDouble( _primitives[ i ] );
+            case BOOLEAN:
+                return _primitives[ i ] != 0;
+            default:
+                return _values[ i ];
+        }
+    }
+
+    private byte type( int i ){
+        return _types == null ? 0 : _types[ i ];
+    }
+
+    private boolean isNull( int i ){
+        return type( i ) == 0 && _values[ i ] == null;
+    }
+
+    private int toInt( int i ){
+        switch ( type( i ) ){
+            case NUMBER_INT:
+            case NUMBER_LONG:
+                return (int) _primitives[ i ];
+            case NUMBER:
+                return (int) Double.longBitsToDouble( _primitives[ i ] );
+            case BOOLEAN:
+                return (int) _primitives[ i ];
+            default:
+                return BSON.toInt( _values[ i ] );
+        }
+    }
+
+    private long toLong( int i ){
+        switch ( type( i ) ){
+            case NUMBER_INT:
+            case NUMBER_LONG:
+                return _primitives[ i ];
+            case NUMBER:
+                return (long) Double.longBitsToDouble( _primitives[ i ] );
+            default:
+                return ( (Number) _values[ i ] ).longValue();
+        }
+    }
+
+    private double toDouble( int i ){
+        switch ( type( i ) ){
+            case NUMBER_INT:
+            case NUMBER_LONG:
+                return _primitives[ i ];
+            case NUMBER:
+                return Double.longBitsToDouble( _primitives[ i ] );
+            default:
+                return ( (Number) _values[ i ] ).doubleValue();
+        }
+    }
+
+    private void unshareKeys(){
+        if ( _sharedKeys ){
+            String[] keys = new String[ Math.max( _values.length , 1 ) ];
+            System.arraycopy( _keys , 0 , keys , 0 , _size );
+            _keys = keys;
+            _sharedKeys = false;
+        }
+    }
+
+    private void grow( int capacity ){
+        String[] keys = new String[ capacity ];
+        System.arraycopy( _keys , 0 , keys , 0 , _size );
+        _keys = keys;
+        Object[] values = new Object[ capacity ];
+        System.arraycopy( _values , 0 , values , 0 , _size );
+        _values = values;
+        if ( _types != null ){
+            byte[] types = new byte[ capacity ];
+            System.arraycopy( _types , 0 , types , 0 , _size );
+            _types = types;
+            long[] primitives = new long[ capacity ];
+            System.arraycopy( _primitives , 0 , primitives , 0 , _size );
+            _primitives = primitives;
+        }
+    }
+
+    private class KeySet extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator(){
+            return new Iterator<String>() {
+                public boolean hasNext(){
+                    return _next < _size;
+                }
+
+                public String next(){
+                    if ( _next >= _size )
+                        throw new NoSuchElementException();
+                    return _keys[ _next++ ];
+                }
+
+                public void remove(){
+                    throw new UnsupportedOperationException( "use removeField" );
+                }
+
+                private int _next;
+            };
+        }
+
+        @Override
+        public boolean contains( Object o ){
+            return o instanceof String && indexOf( (String) o ) >= 0;
+        }
+
+        @Override
+        public int size(){
+            return _size;
+        }
+    }
+
+    private static final int INDEX_THRESHOLD = 16;
+
+    private String[] _keys;
+    private boolean _sharedKeys;
+    private Object[] _values;
+    private byte[] _types;
+    private long[] _primitives;
+    private int _size;
+    private Map<String, Integer> _index;
+    private boolean _isPartialObject;
+}
@@ -16,7 +16,9 @@
 package com.mongodb;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,6 +46,7 @@ abstract class ConnectionStatus {
 
     protected static int updaterIntervalMS;
     protected static int updaterIntervalNoMasterMS;
+    protected static int updaterMinWokenIntervalMS;
     @SuppressWarnings("deprecation")
     protected static final MongoOptions mongoOptionsDefaults = new MongoOptions();
     protected static final float latencySmoothFactor;
@@ -68,6 +71,16 @@ abstract class ConnectionStatus {
         }
     }
 
+    /**
+     * Asks the updater to check the servers now rather than waiting for its next pass.  Called when a connection
+     * has seen something, like a "not master" error or a network failure, that suggests the current view is stale.
+     */
+    void requestUpdate() {
+        if (_updater != null) {
+            _updater.wake();
+        }
+    }
+
     /**
      * Gets the list of addresses for this connection.
      */
@@ -95,9 +108,40 @@ abstract class ConnectionStatus {
             throw new IllegalStateException("ReplicaSetStatus closed");
     }
 
+    /**
+     * Chooses one of the acceptable nodes, using the selector if there is a choice to make.
+     *
+     * @param selector chooses among the acceptable nodes, or null to choose one at random
+     * @param load the load on each node, for the selector
+     * @return the chosen node, or null if none is acceptable
+     * @throws MongoException if the selector chooses an address that isn't one of the acceptable nodes
+     */
+    static <T extends Node> T choose(List<T> acceptable, Random random, ServerSelector selector, ServerLoad load) {
+        if (acceptable.isEmpty()) {
+            return null;
+        }
+        // the default selector picks at random too, and this way needs no list of addresses
+        if (selector == null || selector == ServerSelectors.random() || acceptable.size() == 1) {
+            return acceptable.get(random.nextInt(acceptable.size()));
+        }
+
+        List<ServerAddress> candidates = new ArrayList<ServerAddress>(acceptable.size());
+        for (T node : acceptable) {
+            candidates.add(node.getServerAddress());
+        }
+        ServerAddress chosen = selector.select(Collections.unmodifiableList(candidates), load);
+        for (T node : acceptable) {
+            if (node.getServerAddress().equals(chosen)) {
+                return node;
+            }
+        }
+        throw new MongoException("server selector " + selector + " chose " + chosen + ", which is not one of " + candidates);
+    }
+
     static {
         updaterIntervalMS = Integer.parseInt(System.getProperty("com.mongodb.updaterIntervalMS", "5000"));
         updaterIntervalNoMasterMS = Integer.parseInt(System.getProperty("com.mongodb.updaterIntervalNoMasterMS", "10"));
+        updaterMinWokenIntervalMS = Integer.parseInt(System.getProperty("com.mongodb.updaterMinWokenIntervalMS", "500"));
         mongoOptionsDefaults.connectTimeout = Integer.parseInt(System.getProperty("com.mongodb.updaterConnectTimeoutMS", "20000"));
         mongoOptionsDefaults.socketTimeout = Integer.parseInt(System.getProperty("com.mongodb.updaterSocketTimeoutMS", "20000"));
         latencySmoothFactor = Float.parseFloat(System.getProperty("com.mongodb.latencySmoothFactor", "4"));
@@ -171,6 +215,41 @@ abstract class ConnectionStatus {
             super(name);
             setDaemon(true);
         }
+
+        /**
+         * Cuts short the current or next call to {@link #sleepUnlessWoken(long)}.
+         */
+        void wake() {
+            synchronized (_wakeLock) {
+                _woken = true;
+                _wakeLock.notifyAll();
+            }
+        }
+
+        /**
+         * Sleeps for the given time, or until {@link #wake()} is called, whichever comes first.  A wake that arrives
+         * while the updater is busy is remembered, so the following sleep is cut short too.  Even when woken the sleep
+         * lasts at least {@code updaterMinWokenIntervalMS}, so that a burst of errors can't turn the updater into a
+         * busy loop against the servers.
+         */
+        void sleepUnlessWoken(final long millis) throws InterruptedException {
+            synchronized (_wakeLock) {
+                long start = System.currentTimeMillis();
+                long deadline = start + millis;
+                long earliest = start + Math.min(millis, updaterMinWokenIntervalMS);
+                while (true) {
+                    long remaining = (_woken ? earliest : deadline) - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    _wakeLock.wait(remaining);
+                }
+                _woken = false;
+            }
+        }
+
+        private final Object _wakeLock = new Object();
+        private boolean _woken;
     }
 
     static abstract class UpdatableNode {
@@ -231,9 +310,10 @@ abstract class ConnectionStatus {
 
         DBPort _port; // we have our own port so we can set different socket options and don't have to worry about the pool
 
-        float _pingTimeMS = 0;
-        int _maxBsonObjectSize;
-        ConnectionState _connectionState = Connecting;
+        // written by whichever thread last checked the server, read by the updater when it takes a snapshot
+        volatile float _pingTimeMS = 0;
+        volatile int _maxBsonObjectSize;
+        volatile ConnectionState _connectionState = Connecting;
     }
 
 }
@@ -222,6 +222,25 @@ public class DBApiLayer extends DB {
             if (encoder == null)
                 encoder = DefaultDBEncoder.FACTORY.create();
 
+            prepareInsert(list, shouldApply);
+
+            WriteResult last = null;
+
+            int cur = 0;
+            int maxsize = _mongo.getMaxBsonObjectSize();
+            while ( cur < list.size() ) {
+
+               OutMessage om = OutMessage.insert( this , encoder, concern );
+               cur = fillInsert( om , list , cur , _mongo.getConnector().getPrimaryDescription() , maxsize );
+
+               last = _connector.say( _db , om , concern );
+            }
+
+            return last;
+        }
+
+        @Override
+        void prepareInsert(List<DBObject> list, boolean shouldApply){
             if ( willTrace() ) {
                 for (DBObject o : list) {
                     trace( "save:  " + _fullNameSpace + " " + JSON.serialize( o ) );
@@ -238,30 +257,77 @@ public class DBApiLayer extends DB {
                     }
                 }
             }
+        }
 
-            WriteResult last = null;
+        // puts documents from cur on into the message, and returns the index of the first one that didn't fit.
+        // The limits are those the server gave in its handshake, if a connection to it has been opened already.
+        private int fillInsert(OutMessage om, List<DBObject> list, int cur, ServerDescription server, int maxsize){
+            if ( server != null ){
+                for ( ; cur < list.size() && om.getNumDocuments() < server.getMaxWriteBatchSize(); cur++ ){
+                    // a document on its own always goes, and the server decides whether it is too big
+                    if ( om.getNumDocuments() == 0 )
+                        om.putObject( list.get( cur ) );
+                    else if ( !om.putObjectIfFits( list.get( cur ) , server.getMaxMessageSize() ) )
+                        break;
+                }
+                return cur;
+            }
 
-            int cur = 0;
-            int maxsize = _mongo.getMaxBsonObjectSize();
-            while ( cur < list.size() ) {
+            for ( ; cur < list.size(); cur++ ){
+                DBObject o = list.get(cur);
+                om.putObject( o );
 
-               OutMessage om = OutMessage.insert( this , encoder, concern );
+                // limit for batch insert is 4 x maxbson on server, use 2 x to be safe
+                if ( om.size() > 2 * maxsize ){
+                    cur++;
+                    break;
+                }
+            }
+            return cur;
+        }
 
-               for ( ; cur < list.size(); cur++ ){
-                    DBObject o = list.get(cur);
-                    om.putObject( o );
+        @Override
+        public void insertAsync(final List<DBObject> list, final com.mongodb.WriteConcern concern,
+                                final SingleResultCallback<WriteResult> callback ){
 
-                    // limit for batch insert is 4 x maxbson on server, use 2 x to be safe
-                    if ( om.size() > 2 * maxsize ){
-                        cur++;
-                        break;
-                    }
-                }
+            if (concern == null) {
+                throw new IllegalArgumentException("Write concern can not be null");
+            }
 
-                last = _connector.say( _db , om , concern );
+            final DBAsyncConnector connector = _mongo.getAsyncConnector();
+            final DBEncoder encoder = getDBEncoder() != null ? getDBEncoder() : DefaultDBEncoder.FACTORY.create();
+            final ServerAddress primary;
+            final int maxsize;
+            try {
+                prepareInsert(list, true);
+                primary = connector.chooseServer(false, ReadPreference.primary());
+                maxsize = _mongo.getMaxBsonObjectSize();
+            } catch (MongoException e) {
+                callback.onResult(null, e);
+                return;
             }
 
-            return last;
+            // each message is sent when the previous one has succeeded, as the blocking insert does
+            new SingleResultCallback<WriteResult>() {
+                public void onResult(final WriteResult result, final MongoException e) {
+                    if (e != null || cur >= list.size()) {
+                        callback.onResult(result, e);
+                        return;
+                    }
+
+                    OutMessage om = OutMessage.insert( MyCollection.this , encoder, concern );
+                    try {
+                        cur = fillInsert( om , list , cur , _mongo.getConnector().getDBPortPool( primary ).getServerDescription() , maxsize );
+                    } catch (MongoException me) {
+                        om.doneWithMessage();
+                        callback.onResult(null, me);
+                        return;
+                    }
+                    connector.sayAsync( _db , om , concern , primary , this );
+                }
+
+                private int cur = 0;
+            }.onResult(null, null);
         }
 
         public WriteResult remove( DBObject o , com.mongodb.WriteConcern concern, DBEncoder encoder ){
@@ -280,6 +346,22 @@ public class DBApiLayer extends DB {
             return _connector.say( _db , om , concern );
         }
 
+        @Override
+        public void removeAsync( DBObject o , com.mongodb.WriteConcern concern, SingleResultCallback<WriteResult> callback ){
+
+            if (concern == null) {
+                throw new IllegalArgumentException("Write concern can not be null");
+            }
+
+            DBEncoder encoder = getDBEncoder() != null ? getDBEncoder() : DefaultDBEncoder.FACTORY.create();
+
+            if ( willTrace() ) trace( "remove: " + _fullNameSpace + " " + JSON.serialize( o ) );
+
+            OutMessage om = OutMessage.remove(this, encoder, o);
+
+            _mongo.getAsyncConnector().sayAsync( _db , om , concern , null , callback );
+        }
+
         @Override
         Iterator<DBObject> __find( DBObject ref , DBObject fields , int numToSkip , int batchSize, int limit , int options, ReadPreference readPref, DBDecoder decoder ){
 
@@ -305,8 +387,72 @@ public class DBApiLayer extends DB {
             return new Result( this , res , batchSize, limit , options, decoder );
         }
 
+        @Override
+        public void findAsync( DBObject ref , DBObject fields , final SingleResultCallback<List<DBObject>> callback ){
+
+            if ( ref == null )
+                ref = new BasicDBObject();
+
+            if ( willTrace() ) trace( "find: " + _fullNameSpace + " " + JSON.serialize( ref ) );
+
+            final DBAsyncConnector connector = _mongo.getAsyncConnector();
+            final ReadPreference readPref = getReadPreference();
+            final DBDecoder decoder = getDecoder();
+            // a tailable cursor never runs out, so it can't be collected into a list
+            final int options = getOptions() & ~(Bytes.QUERYOPTION_TAILABLE | Bytes.QUERYOPTION_AWAITDATA);
+
+            OutMessage query = OutMessage.query( this , options , 0 , 0 , ref , fields, readPref,
+                    DefaultDBEncoder.FACTORY.create());
+
+            // each reply asks for the next batch, until the cursor is exhausted
+            connector.callAsync( _db , this , query , null , readPref , decoder , new SingleResultCallback<Response>() {
+                public void onResult(final Response res, final MongoException e) {
+                    if (e != null) {
+                        callback.onResult(null, e);
+                        return;
+                    }
+                    try {
+                        throwOnQueryFailure(res, _cursorId);
+                    } catch (MongoException me) {
+                        callback.onResult(null, me);
+                        return;
+                    }
+
+                    for (Iterator<DBObject> it = res.iterator(); it.hasNext(); ) {
+                        _results.add(it.next());
+                    }
+
+                    if (res.hasGetMore(options)) {
+                        _cursorId = res.cursor();
+                        OutMessage getMore = OutMessage.getMore(MyCollection.this, _cursorId, 0);
+                        connector.callAsync( _db , MyCollection.this , getMore , res.serverUsed() , readPref , decoder , this );
+                    } else {
+                        callback.onResult(_results, null);
+                    }
+                }
+
+                private final List<DBObject> _results = new ArrayList<DBObject>();
+                private long _cursorId = 0;
+            });
+        }
+
         @Override
         public WriteResult update( DBObject query , DBObject o , boolean upsert , boolean multi , com.mongodb.WriteConcern concern, DBEncoder encoder ){
+            OutMessage om = prepareUpdate(query, o, upsert, multi, concern, encoder);
+
+            return _connector.say( _db , om , concern );
+        }
+
+        @Override
+        public void updateAsync( DBObject query , DBObject o , boolean upsert , boolean multi , com.mongodb.WriteConcern concern,
+                                 SingleResultCallback<WriteResult> callback ){
+            OutMessage om = prepareUpdate(query, o, upsert, multi, concern, getDBEncoder());
+
+            _mongo.getAsyncConnector().sayAsync( _db , om , concern , null , callback );
+        }
+
+        @Override
+        OutMessage prepareUpdate( DBObject query , DBObject o , boolean upsert , boolean multi , com.mongodb.WriteConcern concern, DBEncoder encoder ){
 
             if (o == null) {
                 throw new IllegalArgumentException("update can not be null");
@@ -330,9 +476,7 @@ public class DBApiLayer extends DB {
                 trace( "update: " + _fullNameSpace + " " + JSON.serialize( query ) + " " + JSON.serialize( o )  );
             }
 
-            OutMessage om = OutMessage.update(this, encoder, upsert, multi, query, o);
-
-            return _connector.say( _db , om , concern );
+            return OutMessage.update(this, encoder, upsert, multi, query, o);
         }
 
         public void createIndex( final DBObject keys, final DBObject options, DBEncoder encoder ){
@@ -369,6 +513,13 @@ public class DBApiLayer extends DB {
         private void init( Response res ){
             throwOnQueryFailure(res, _curResult == null ? 0 : _curResult._cursor);
 
+            synchronized ( _prefetchLock ) {
+                if ( _lastFetched == null || _lastFetched == _curResult ) {
+                    _lastFetched = res;
+                    _numRequested += res.size();
+                }
+            }
+
             _totalBytes += res._len;
             _curResult = res;
             _cur = res.iterator();
@@ -424,6 +575,13 @@ public class DBApiLayer extends DB {
 
         private void _advance(){
 
+            Response prefetched = takePrefetched();
+            if ( prefetched != null ) {
+                init( prefetched );
+                prefetch();
+                return;
+            }
+
             if ( _curResult.cursor() <= 0 )
                 throw new RuntimeException( "can't advance a cursor <= 0" );
 
@@ -433,6 +591,82 @@ public class DBApiLayer extends DB {
             Response res = _connector.call( DBApiLayer.this , _collection , m , _host, _decoder );
             _numGetMores++;
             init( res );
+            prefetch();
+        }
+
+        /**
+         * Sets how many batches may be fetched ahead of the one being iterated.  Each getMore is sent on the
+         * asynchronous connector as soon as the previous batch arrives, until that many batches are waiting.
+         */
+        void setPrefetch( int batches ){
+            if ( batches > 0 && ( _options & Bytes.QUERYOPTION_TAILABLE ) == 0 ) {
+                try {
+                    _asyncConnector = _mongo.getAsyncConnector();
+                } catch ( IllegalArgumentException e ) {
+                    // a custom socket factory rules out the asynchronous connector, and so prefetching
+                    batches = 0;
+                }
+            } else {
+                batches = 0;
+            }
+            synchronized ( _prefetchLock ) {
+                _prefetch = batches;
+            }
+            prefetch();
+        }
+
+        // sends the next getMore if there is room for its batch and none is in flight
+        private void prefetch(){
+            OutMessage m;
+            synchronized ( _prefetchLock ) {
+                if ( _prefetch == 0 || _prefetching || _prefetchError != null || _closed
+                     || _prefetched.size() >= _prefetch || !_lastFetched.hasGetMore( _options )
+                     || ( _limit > 0 && _numRequested >= _limit ) )
+                    return;
+
+                m = OutMessage.getMore( _collection , _lastFetched.cursor() , chooseBatchSize( _batchSize , _limit , _numRequested ) );
+                _prefetching = true;
+                _numGetMores++;
+            }
+
+            _asyncConnector.callAsync( DBApiLayer.this , _collection , m , _host , null , _decoder , new SingleResultCallback<Response>() {
+                public void onResult( final Response res , final MongoException e ){
+                    synchronized ( _prefetchLock ) {
+                        _prefetching = false;
+                        if ( e != null ) {
+                            _prefetchError = e;
+                        } else if ( _closed ) {
+                            // nobody will read this cursor any more, so the cursor cleaner kills it
+                            if ( res.cursor() != 0 )
+                                _deadCursorIds.add( new DeadCursor( res.cursor() , _host ) );
+                        } else {
+                            _prefetched.add( res );
+                            _lastFetched = res;
+                            _numRequested += res.size();
+                        }
+                        _prefetchLock.notifyAll();
+                    }
+                    prefetch();
+                }
+            });
+        }
+
+        // waits for the batch being prefetched, if any
+        private Response takePrefetched(){
+            synchronized ( _prefetchLock ) {
+                while ( _prefetched.isEmpty() && _prefetching ) {
+                    try {
+                        _prefetchLock.wait();
+                    } catch ( InterruptedException e ) {
+                        throw new MongoInterruptedException( e );
+                    }
+                }
+                if ( !_prefetched.isEmpty() )
+                    return _prefetched.removeFirst();
+                if ( _prefetchError != null )
+                    throw _prefetchError;
+                return null;
+            }
         }
 
         public void remove(){
@@ -470,6 +704,10 @@ public class DBApiLayer extends DB {
         }
 
         void close(){
+            synchronized ( _prefetchLock ) {
+                _closed = true;
+                _prefetched.clear();
+            }
             // not perfectly thread safe here, may need to use an atomicBoolean
             if (_curResult != null) {
                 killCursor();
@@ -482,6 +720,11 @@ public class DBApiLayer extends DB {
             if (_curResult == null)
                 return;
             long curId = _curResult.cursor();
+            synchronized ( _prefetchLock ) {
+                // a prefetched batch may have been the last one, in which case the server has closed the cursor
+                if ( _lastFetched != _curResult && _lastFetched.cursor() == 0 )
+                    curId = 0;
+            }
             if (curId == 0)
                 return;
 
@@ -519,6 +762,18 @@ public class DBApiLayer extends DB {
         private List<Integer> _sizes = new ArrayList<Integer>();
         private int _numFetched = 0;
 
+        // prefetching state, guarded by _prefetchLock.  _lastFetched is the last batch received, which is _curResult
+        // unless there are batches waiting in _prefetched.
+        private final Object _prefetchLock = new Object();
+        private final LinkedList<Response> _prefetched = new LinkedList<Response>();
+        private Response _lastFetched;
+        private int _numRequested = 0;
+        private int _prefetch = 0;
+        private boolean _prefetching;
+        private boolean _closed;
+        private MongoException _prefetchError;
+        private volatile DBAsyncConnector _asyncConnector;
+
         // This allows us to easily enable/disable finalizer for cleaning up un-closed cursors
         private final OptionalFinalizer _optionalFinalizer;
 
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import javax.net.SocketFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link DBConnector} built on non-blocking sockets.  A small number of {@link NIOEventLoop} threads perform all
+ * network I/O, so an operation in flight does not tie up a thread: the asynchronous variants of {@code say} and
+ * {@code call} return as soon as the request is queued, and complete a {@link SingleResultCallback} when the reply
+ * arrives.  The blocking {@code DBConnector} methods simply wait for the asynchronous ones.
+ * <p>
+ * Server selection and replica set discovery are delegated to the {@link DBTCPConnector} of the same {@code Mongo}.
+ * Each server gets one connection per event loop, shared by all operations sent to that server.
+ * </p>
+ *
+ * @deprecated This class is NOT part of the public API. It will be dropped in 3.x releases.
+ */
+@Deprecated
+public class DBAsyncConnector implements DBConnector {
+
+    /**
+     * @param mongo the Mongo instance
+     * @param numEventLoops the number of event loop threads, which is also the number of connections per server
+     * @throws MongoException
+     */
+    DBAsyncConnector(final Mongo mongo, final int numEventLoops) {
+        if (mongo._options.socketFactory != null && mongo._options.socketFactory.getClass() != SocketFactory.getDefault().getClass()) {
+            throw new IllegalArgumentException("asynchronous operations are not supported with a custom socket factory");
+        }
+        _mongo = mongo;
+        _loops = new NIOEventLoop[numEventLoops];
+        try {
+            for (int i = 0; i < _loops.length; i++) {
+                _loops[i] = new NIOEventLoop("DBAsyncConnector-loop-" + i);
+            }
+        } catch (IOException e) {
+            close();
+            throw new MongoException("Unable to open selector", e);
+        }
+    }
+
+    /**
+     * Does a write operation asynchronously.  With an acknowledged write concern, the getLastError command is queued
+     * right behind the write, on the same connection, and the callback gets its result.  Otherwise the callback is
+     * called as soon as the write is queued.
+     *
+     * @param db         the database
+     * @param m          the request message, which belongs to the connector from then on
+     * @param concern    the write concern
+     * @param hostNeeded specific server to connect to, or null for the primary
+     * @param callback   the callback for the write result
+     */
+    void sayAsync(final DB db, final OutMessage m, final WriteConcern concern, final ServerAddress hostNeeded,
+                  final SingleResultCallback<WriteResult> callback) {
+        sayAsync(db, Collections.singletonList(m), concern, hostNeeded, Collections.singletonList(callback));
+    }
+
+    /**
+     * Does several write operations asynchronously, on one connection and in as few socket writes as possible.  With an
+     * acknowledged write concern each write is followed by its own getLastError, so each callback gets the result of
+     * its own write.
+     *
+     * @param db         the database
+     * @param messages   the request messages, which belong to the connector from then on
+     * @param concern    the write concern
+     * @param hostNeeded specific server to connect to, or null for the primary
+     * @param callbacks  the callbacks for the write results, one per message
+     */
+    void sayAsync(final DB db, final List<OutMessage> messages, final WriteConcern concern, final ServerAddress hostNeeded,
+                  final List<? extends SingleResultCallback<WriteResult>> callbacks) {
+        if (concern == null) {
+            throw new IllegalArgumentException("Write concern is null");
+        }
+
+        ServerAddress addr = hostNeeded;
+        final AsyncDBPort port;
+        try {
+            _checkClosed();
+            if (addr == null)
+                addr = chooseServer(false, ReadPreference.primary());
+            port = getPort(addr);
+        } catch (IOException ioe) {
+            failAll(messages, callbacks, new MongoException.Network("Write operation to server " + addr + " failed on database " + db, ioe));
+            return;
+        } catch (MongoException me) {
+            failAll(messages, callbacks, me);
+            return;
+        }
+
+        if (!concern.callGetLastError()) {
+            port.send(messages.toArray(new OutMessage[messages.size()]), new int[0], new AsyncDBPort.ReplyHandler[0]);
+            for (SingleResultCallback<WriteResult> callback : callbacks) {
+                callback.onResult(new WriteResult((CommandResult) null, concern), null);
+            }
+            return;
+        }
+
+        final DBCollection cmdCollection = db.getCollection("$cmd");
+        OutMessage[] toSend = new OutMessage[messages.size() * 2];
+        int[] requestIds = new int[messages.size()];
+        AsyncDBPort.ReplyHandler[] handlers = new AsyncDBPort.ReplyHandler[messages.size()];
+        for (int i = 0; i < messages.size(); i++) {
+            OutMessage gle = OutMessage.query(cmdCollection, 0, 0, -1, concern.getCommand(), null);
+            toSend[2 * i] = messages.get(i);
+            toSend[2 * i + 1] = gle;
+            requestIds[i] = gle.getId();
+            handlers[i] = lastErrorHandler(db, port, cmdCollection, concern, callbacks.get(i));
+        }
+        port.send(toSend, requestIds, handlers);
+    }
+
+    private void failAll(final List<OutMessage> messages, final List<? extends SingleResultCallback<WriteResult>> callbacks,
+                         final MongoException e) {
+        for (OutMessage m : messages) {
+            m.doneWithMessage();
+        }
+        for (SingleResultCallback<WriteResult> callback : callbacks) {
+            callback.onResult(null, e);
+        }
+    }
+
+    private AsyncDBPort.ReplyHandler lastErrorHandler(final DB db, final AsyncDBPort port, final DBCollection cmdCollection,
+                                                      final WriteConcern concern, final SingleResultCallback<WriteResult> callback) {
+        return new AsyncDBPort.ReplyHandler() {
+            public void onReply(final ByteBuffer reply) {
+                WriteResult result = null;
+                MongoException error = null;
+                try {
+                    Response res = decode(port, cmdCollection, reply, null);
+                    CommandResult e = DBPort.convertToCommandResult(concern.getCommand(), res);
+                    e.throwOnError();
+                    result = new WriteResult(e, concern);
+                } catch (IOException ioe) {
+                    error = new MongoException.Network("Write operation to server " + port.serverAddress() + " failed on database " + db, ioe);
+                } catch (MongoException me) {
+                    error = me;
+                }
+                callback.onResult(result, error);
+            }
+
+            public void onError(final IOException ioe) {
+                if (concern.raiseNetworkErrors()) {
+                    callback.onResult(null, new MongoException.Network("Write operation to server " + port.serverAddress() + " failed on database " + db, ioe));
+                } else {
+                    CommandResult res = new CommandResult(port.serverAddress());
+                    res.put("ok", false);
+                    res.put("$err", "NETWORK ERROR");
+                    callback.onResult(new WriteResult(res, concern), null);
+                }
+            }
+        };
+    }
+
+    /**
+     * Does a read operation asynchronously.
+     *
+     * @param db         the database
+     * @param coll       the collection
+     * @param m          the request message, which belongs to the connector from then on
+     * @param hostNeeded specific server to connect to, or null to choose one using the read preference
+     * @param readPref   the read preference, or null for primary
+     * @param decoder    the decoder to use, or null for the default one
+     * @param callback   the callback for the response
+     */
+    void callAsync(final DB db, final DBCollection coll, final OutMessage m, final ServerAddress hostNeeded, ReadPreference readPref,
+                   final DBDecoder decoder, final SingleResultCallback<Response> callback) {
+        if (readPref == null)
+            readPref = ReadPreference.primary();
+
+        if (readPref == ReadPreference.primary() && m.hasOption(Bytes.QUERYOPTION_SLAVEOK))
+            readPref = ReadPreference.secondaryPreferred();
+
+        ServerAddress addr = hostNeeded;
+        final AsyncDBPort port;
+        try {
+            _checkClosed();
+            if (addr == null)
+                addr = chooseServer(readPref != ReadPreference.primary(), readPref);
+            port = getPort(addr);
+        } catch (IOException ioe) {
+            m.doneWithMessage();
+            callback.onResult(null, new MongoException.Network("Read operation to server " + addr + " failed on database " + db, ioe));
+            return;
+        } catch (MongoException me) {
+            m.doneWithMessage();
+            callback.onResult(null, me);
+            return;
+        }
+
+        port.send(new OutMessage[]{m}, new int[]{m.getId()}, new AsyncDBPort.ReplyHandler[]{
+                new AsyncDBPort.ReplyHandler() {
+                    public void onReply(final ByteBuffer reply) {
+                        Response result = null;
+                        MongoException error = null;
+                        try {
+                            result = decode(port, coll, reply, decoder);
+                            ServerError err = result.getError();
+                            if (err != null && err.isNotMasterError()) {
+                                _mongo.getConnector().requestUpdate();
+                                result = null;
+                                error = new MongoException("not talking to master");
+                            }
+                        } catch (IOException ioe) {
+                            error = new MongoException.Network("Read operation to server " + port.serverAddress() + " failed on database " + db, ioe);
+                        } catch (MongoException me) {
+                            error = me;
+                        }
+                        callback.onResult(result, error);
+                    }
+
+                    public void onError(final IOException ioe) {
+                        callback.onResult(null, new MongoException.Network("Read operation to server " + port.serverAddress() + " failed on database " + db, ioe));
+                    }
+                }});
+    }
+
+    /**
+     * Chooses the server for an operation, using the replica set state of the blocking connector.
+     */
+    ServerAddress chooseServer(final boolean secondaryOk, final ReadPreference readPref) {
+        DBTCPConnector connector = _mongo.getConnector();
+        // Don't check master on secondary reads unless connected to a replica set
+        if (!secondaryOk || connector.getReplicaSetStatus() == null)
+            connector.checkMaster(false, !secondaryOk);
+        return connector.choosePool(readPref).getServerAddress();
+    }
+
+    private AsyncDBPort getPort(final ServerAddress addr) throws IOException {
+        AtomicReferenceArray<AsyncDBPort> ports = _ports.get(addr);
+        if (ports == null) {
+            _ports.putIfAbsent(addr, new AtomicReferenceArray<AsyncDBPort>(_loops.length));
+            ports = _ports.get(addr);
+        }
+
+        Set<String> databases = _mongo.getAuthority().getCredentialsStore().getDatabases();
+        RequestStatus request = _request.get();
+        int slot = request != null ? request.slot : nextSlot();
+
+        AsyncDBPort port = ports.get(slot);
+        if (isUsable(port, databases))
+            return port;
+
+        // connecting blocks, which an event loop must not do if there is any usable connection at all
+        if (isEventLoopThread()) {
+            for (int i = 0; i < ports.length(); i++) {
+                if (isUsable(ports.get(i), databases))
+                    return ports.get(i);
+            }
+        }
+
+        // connecting and authenticating block, so they happen without holding any lock; if another thread has put a
+        // usable port in the slot meanwhile, that one is used and ours closed
+        _checkClosed();
+        AsyncDBPort newPort = new AsyncDBPort(addr, _loops[slot], _mongo);
+        while (true) {
+            AsyncDBPort current = ports.get(slot);
+            if (current != port && isUsable(current, databases)) {
+                newPort.close();
+                return current;
+            }
+            if (ports.compareAndSet(slot, current, newPort)) {
+                if (current != null && current.isOpen()) {
+                    // authenticated with fewer credentials than there are now
+                    current.close();
+                }
+                return newPort;
+            }
+        }
+    }
+
+    private boolean isUsable(final AsyncDBPort port, final Set<String> databases) {
+        return port != null && port.isOpen() && port.isAuthenticated(databases);
+    }
+
+    private boolean isEventLoopThread() {
+        for (NIOEventLoop loop : _loops) {
+            if (loop != null && loop.inEventLoop())
+                return true;
+        }
+        return false;
+    }
+
+    private int nextSlot() {
+        return (_nextSlot.getAndIncrement() & Integer.MAX_VALUE) % _loops.length;
+    }
+
+    private Response decode(final AsyncDBPort port, final DBCollection coll, final ByteBuffer reply, final DBDecoder decoder)
+            throws IOException {
+        return new Response(port.serverAddress(), coll, reply,
+                            decoder != null ? decoder : _mongo._options.createDecoder());
+    }
+
+    void _checkClosed() {
+        if (_closed.get())
+            throw new IllegalStateException("this Mongo has been closed");
+    }
+
+    private void _checkNotInEventLoop() {
+        if (isEventLoopThread())
+            throw new IllegalStateException("blocking operations can not be called from an asynchronous callback");
+    }
+
+    /**
+     * Start a "request".  All operations of the thread are then sent over the same connection to each server, so they
+     * are executed in order.
+     */
+    @Override
+    public void requestStart() {
+        RequestStatus current = _request.get();
+        if (current == null) {
+            _request.set(new RequestStatus(nextSlot()));
+        } else {
+            current.nestedBindings++;
+        }
+    }
+
+    /**
+     * End the current "request", if this thread is in one.
+     */
+    @Override
+    public void requestDone() {
+        RequestStatus current = _request.get();
+        if (current != null) {
+            if (current.nestedBindings > 0) {
+                current.nestedBindings--;
+            } else {
+                _request.remove();
+            }
+        }
+    }
+
+    /**
+     * Connections are opened on first use, so there is nothing to do here.
+     */
+    @Override
+    public void requestEnsureConnection() {
+    }
+
+    @Override
+    public WriteResult say(final DB db, final OutMessage m, final WriteConcern concern) {
+        return say(db, m, concern, null);
+    }
+
+    @Override
+    public WriteResult say(final DB db, final OutMessage m, final WriteConcern concern, final ServerAddress hostNeeded) {
+        _checkNotInEventLoop();
+        SingleResultFuture<WriteResult> future = new SingleResultFuture<WriteResult>();
+        sayAsync(db, m, concern, hostNeeded, future);
+        return future.getOrThrow();
+    }
+
+    @Override
+    public Response call(final DB db, final DBCollection coll, final OutMessage m, final ServerAddress hostNeeded,
+                         final DBDecoder decoder) {
+        return call(db, coll, m, hostNeeded, 0, null, decoder);
+    }
+
+    @Override
+    public Response call(final DB db, final DBCollection coll, final OutMessage m, final ServerAddress hostNeeded, final int retries) {
+        return call(db, coll, m, hostNeeded, retries, null, null);
+    }
+
+    /**
+     * Does a read operation, waiting for the reply.  Failed reads are not retried.
+     */
+    @Override
+    public Response call(final DB db, final DBCollection coll, final OutMessage m, final ServerAddress hostNeeded, final int retries,
+                         final ReadPreference readPref, final DBDecoder decoder) {
+        _checkNotInEventLoop();
+        SingleResultFuture<Response> future = new SingleResultFuture<Response>();
+        callAsync(db, coll, m, hostNeeded, readPref, decoder, future);
+        return future.getOrThrow();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !_closed.get();
+    }
+
+    /**
+     * Authenticates through the blocking connector.  Connections opened before the credentials were added are
+     * replaced the next time they are used.
+     */
+    @Override
+    public CommandResult authenticate(final MongoCredential credentials) {
+        return _mongo.getConnector().authenticate(credentials);
+    }
+
+    /**
+     * Closes all connections, failing the operations still in flight, and stops the event loops.
+     */
+    public void close() {
+        _closed.set(true);
+        for (AtomicReferenceArray<AsyncDBPort> ports : _ports.values()) {
+            for (int i = 0; i < ports.length(); i++) {
+                AsyncDBPort port = ports.get(i);
+                if (port != null)
+                    port.close();
+            }
+        }
+        for (NIOEventLoop loop : _loops) {
+            if (loop != null)
+                loop.close();
+        }
+    }
+
+    static class RequestStatus {
+        RequestStatus(final int slot) {
+            this.slot = slot;
+        }
+
+        final int slot;
+        int nestedBindings;
+    }
+
+    private final Mongo _mongo;
+    private final NIOEventLoop[] _loops;
+    private final ConcurrentMap<ServerAddress, AtomicReferenceArray<AsyncDBPort>> _ports =
+            new ConcurrentHashMap<ServerAddress, AtomicReferenceArray<AsyncDBPort>>();
+    private final AtomicInteger _nextSlot = new AtomicInteger();
+    private final AtomicBoolean _closed = new AtomicBoolean(false);
+    private final ThreadLocal<RequestStatus> _request = new ThreadLocal<RequestStatus>();
+}
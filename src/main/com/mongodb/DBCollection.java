@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 /** This class provides a skeleton implementation of a database collection.
  * <p>A typical invocation sequence is thus
@@ -272,6 +273,191 @@ public abstract class DBCollection {
     }
 
 
+    /**
+     * Starts a batch of writes to this collection, using the collection's write concern.
+     *
+     * @return a new, empty batch
+     * @see #startWriteBatch(WriteConcern)
+     * @since 2.12.0
+     */
+    public DBWriteBatch startWriteBatch(){
+        return startWriteBatch( getWriteConcern() );
+    }
+
+    /**
+     * Starts a batch of writes to this collection.  The writes are queued until {@link DBWriteBatch#flush()}, which sends
+     * them back-to-back on one connection, each followed by a getLastError if the concern calls for it, reading the
+     * replies as they arrive.
+     *
+     * @param concern the write concern used to acknowledge each write
+     * @return a new, empty batch
+     * @since 2.12.0
+     */
+    public DBWriteBatch startWriteBatch( WriteConcern concern ){
+        if (concern == null) {
+            throw new IllegalArgumentException("Write concern can not be null");
+        }
+        return new DBWriteBatch( this , concern );
+    }
+
+    /**
+     * Creates a bulk write operation whose writes are done in order, stopping at the first one that fails.
+     *
+     * @return a new, empty bulk write operation
+     * @since 2.12.0
+     */
+    public BulkWriteOperation initializeOrderedBulkOperation(){
+        return new BulkWriteOperation( true , this );
+    }
+
+    /**
+     * Creates a bulk write operation whose writes may be done in any order, and in parallel on several connections.
+     * A write that fails doesn't stop the others.
+     *
+     * @return a new, empty bulk write operation
+     * @since 2.12.0
+     */
+    public BulkWriteOperation initializeUnorderedBulkOperation(){
+        return new BulkWriteOperation( false , this );
+    }
+
+    /**
+     * Creates a scan of the documents that match a query, with several cursors at once.
+     *
+     * @param query the query, or null for all the documents
+     * @return a new scan, to be run with {@link ParallelScan#forEach(ParallelScan.Sink)}
+     * @since 2.12.0
+     */
+    public ParallelScan parallelScan( DBObject query ){
+        return new ParallelScan( this , query );
+    }
+
+    // applies the checks and _id generation of insert to documents that are about to be encoded by a write batch
+    void prepareInsert( List<DBObject> list , boolean shouldApply ){
+        throw new UnsupportedOperationException("write batches are not supported by " + getClass().getName());
+    }
+
+    // checks an update the way update does, and encodes it
+    OutMessage prepareUpdate( DBObject q , DBObject o , boolean upsert , boolean multi , WriteConcern concern , DBEncoder encoder ){
+        throw new UnsupportedOperationException("write batches are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Asynchronously saves document(s) to the database.
+     * if doc doesn't have an _id, one will be added
+     * you can get the _id that was added from doc after the insert
+     *
+     * @param list list of documents to save
+     * @param concern the write concern
+     * @param callback called with the result of the last insert message, or with the first error
+     * @since 2.12.0
+     * @dochub insert
+     */
+    public void insertAsync(List<DBObject> list, WriteConcern concern, SingleResultCallback<WriteResult> callback) {
+        throw new UnsupportedOperationException("asynchronous insert is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Asynchronously saves document(s) to the database.
+     *
+     * @param list list of documents to save
+     * @param concern the write concern
+     * @return a future for the result of the last insert message
+     * @since 2.12.0
+     * @dochub insert
+     */
+    public Future<WriteResult> insertAsync(List<DBObject> list, WriteConcern concern) {
+        SingleResultFuture<WriteResult> future = new SingleResultFuture<WriteResult>();
+        insertAsync(list, concern, future);
+        return future;
+    }
+
+    /**
+     * Asynchronously performs an update operation.
+     * @param q search query for old object to update
+     * @param o object with which to update <tt>q</tt>
+     * @param upsert if the database should create the element if it does not exist
+     * @param multi if the update should be applied to all objects matching
+     * @param concern the write concern
+     * @param callback called with the result of the update
+     * @since 2.12.0
+     * @dochub update
+     */
+    public void updateAsync( DBObject q , DBObject o , boolean upsert , boolean multi , WriteConcern concern,
+                             SingleResultCallback<WriteResult> callback ){
+        throw new UnsupportedOperationException("asynchronous update is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Asynchronously performs an update operation.
+     * @param q search query for old object to update
+     * @param o object with which to update <tt>q</tt>
+     * @param upsert if the database should create the element if it does not exist
+     * @param multi if the update should be applied to all objects matching
+     * @param concern the write concern
+     * @return a future for the result of the update
+     * @since 2.12.0
+     * @dochub update
+     */
+    public Future<WriteResult> updateAsync( DBObject q , DBObject o , boolean upsert , boolean multi , WriteConcern concern ){
+        SingleResultFuture<WriteResult> future = new SingleResultFuture<WriteResult>();
+        updateAsync(q, o, upsert, multi, concern, future);
+        return future;
+    }
+
+    /**
+     * Asynchronously removes objects from the database collection.
+     * @param o the object that documents to be removed must match
+     * @param concern WriteConcern for this operation
+     * @param callback called with the result of the remove
+     * @since 2.12.0
+     * @dochub remove
+     */
+    public void removeAsync( DBObject o , WriteConcern concern, SingleResultCallback<WriteResult> callback ){
+        throw new UnsupportedOperationException("asynchronous remove is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Asynchronously removes objects from the database collection.
+     * @param o the object that documents to be removed must match
+     * @param concern WriteConcern for this operation
+     * @return a future for the result of the remove
+     * @since 2.12.0
+     * @dochub remove
+     */
+    public Future<WriteResult> removeAsync( DBObject o , WriteConcern concern ){
+        SingleResultFuture<WriteResult> future = new SingleResultFuture<WriteResult>();
+        removeAsync(o, concern, future);
+        return future;
+    }
+
+    /**
+     * Asynchronously queries for all the objects matching a query, using the collection's read preference and options.
+     * Every batch is fetched before the callback is called, so this is meant for queries with small results.
+     * @param query query used to search
+     * @param fields the fields of matching objects to return, or null for all of them
+     * @param callback called with all the matching objects
+     * @since 2.12.0
+     * @dochub find
+     */
+    public void findAsync( DBObject query , DBObject fields , SingleResultCallback<List<DBObject>> callback ){
+        throw new UnsupportedOperationException("asynchronous find is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Asynchronously queries for all the objects matching a query, using the collection's read preference and options.
+     * @param query query used to search
+     * @param fields the fields of matching objects to return, or null for all of them
+     * @return a future for all the matching objects
+     * @since 2.12.0
+     * @dochub find
+     */
+    public Future<List<DBObject>> findAsync( DBObject query , DBObject fields ){
+        SingleResultFuture<List<DBObject>> future = new SingleResultFuture<List<DBObject>>();
+        findAsync(query, fields, future);
+        return future;
+    }
+
     /**
      * Finds objects
      */
@@ -745,13 +931,13 @@ public abstract class DBCollection {
 
     // Only create a new decoder if there is a decoder factory explicitly set on the collection.  Otherwise return null
     // so that DBPort will use a cached decoder from the default factory.
-    private DBDecoder getDecoder() {
+    DBDecoder getDecoder() {
         return getDBDecoderFactory() != null ? getDBDecoderFactory().create() : null;
     }
 
     // Only create a new encoder if there is an encoder factory explicitly set on the collection.  Otherwise return null
     // to allow DB to create its own or use a cached one.
-    private DBEncoder getDBEncoder() {
+    DBEncoder getDBEncoder() {
         return getDBEncoderFactory() != null ? getDBEncoderFactory().create() : null;
     }
 
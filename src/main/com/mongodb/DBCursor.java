@@ -97,6 +97,7 @@ public class DBCursor implements Iterator<DBObject> , Iterable<DBObject>, Closea
         c._skip = _skip;
         c._options = _options;
         c._batchSize = _batchSize;
+        c._prefetch = _prefetch;
         c._snapshot = _snapshot;
         c._explain = _explain;
         if ( _specialFields != null )
@@ -264,6 +265,27 @@ public class DBCursor implements Iterator<DBObject> , Iterable<DBObject>, Closea
         return this;
     }
 
+    /**
+     * Fetches batches ahead of the one being iterated, so that waiting for the next batch overlaps with processing the
+     * current one.  As soon as a batch arrives, the next one is requested in the background, until the given number of
+     * batches are waiting to be iterated.  Prefetching is not done for tailable cursors, or when a custom socket factory
+     * is used.
+     *
+     * @param batches the most batches to hold ahead of the one being iterated, or 0 to fetch each batch when it is needed
+     * @return this
+     * @since 2.12.0
+     */
+    public DBCursor prefetch( int batches ){
+        if ( batches < 0 )
+            throw new IllegalArgumentException( "batches can not be negative" );
+
+        if ( _it instanceof DBApiLayer.Result )
+            ((DBApiLayer.Result)_it).setPrefetch(batches);
+
+        _prefetch = batches;
+        return this;
+    }
+
     /**
      * Discards a given number of elements at the beginning of the cursor.
      * @param n the number of elements to skip
@@ -370,6 +392,9 @@ public class DBCursor implements Iterator<DBObject> , Iterable<DBObject>, Closea
 
         _it = _collection.__find(builder.get(), _keysWanted, _skip, _batchSize, _limit,
                 _options, _readPref, getDecoder());
+
+        if ( _prefetch > 0 && _it instanceof DBApiLayer.Result )
+            ((DBApiLayer.Result)_it).setPrefetch(_prefetch);
     }
 
     // Only create a new decoder if there is a decoder factory explicitly set on the collection.  Otherwise return null
@@ -714,6 +739,7 @@ public class DBCursor implements Iterator<DBObject> , Iterable<DBObject>, Closea
     private boolean _explain = false;
     private int _limit = 0;
     private int _batchSize = 0;
+    private int _prefetch = 0;
     private int _skip = 0;
     private boolean _snapshot = false;
     private int _options = 0;
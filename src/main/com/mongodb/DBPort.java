@@ -33,17 +33,30 @@ import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.sasl.Sasl;
 import javax.security.sasl.SaslClient;
 import javax.security.sasl.SaslException;
+import org.bson.io.Bits;
+
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -76,13 +89,22 @@ public class DBPort {
     }
     
     DBPort( ServerAddress addr, DBPortPool pool, MongoOptions options ){
+        this( addr , pool , options , false );
+    }
+
+    /**
+     * @param pipelined if true, this port may be shared by many threads at once.  Requests are written without waiting
+     *                  for earlier replies, and a dedicated reader thread routes each reply to its waiter by responseTo.
+     */
+    DBPort( ServerAddress addr, DBPortPool pool, MongoOptions options, boolean pipelined ){
         _options = options;
         _sa = addr;
         _addr = addr;
         _pool = pool;
+        _pipelined = pipelined;
 
         _logger = Logger.getLogger( _rootLogger.getName() + "." + addr.toString() );
-        _decoder = _options.dbDecoderFactory.create();
+        _decoder = _options.createDecoder();
     }
 
     Response call( OutMessage msg , DBCollection coll ) throws IOException{
@@ -98,16 +120,23 @@ public class DBPort {
         go( msg , null );
     }
     
-    private synchronized Response go( OutMessage msg , DBCollection coll )
+    private Response go( OutMessage msg , DBCollection coll )
         throws IOException {
         return go( msg , coll , false, null );
     }
 
-    private synchronized Response go( OutMessage msg , DBCollection coll , DBDecoder decoder ) throws IOException{
+    private Response go( OutMessage msg , DBCollection coll , DBDecoder decoder ) throws IOException{
         return go( msg, coll, false, decoder );
     }
 
-    private synchronized Response go(OutMessage msg, DBCollection coll, boolean forceResponse, DBDecoder decoder)
+    private Response go(OutMessage msg, DBCollection coll, boolean forceResponse, DBDecoder decoder)
+        throws IOException {
+        if ( _pipelined )
+            return pipelinedGo( msg , coll , forceResponse , decoder );
+        return exclusiveGo( msg , coll , forceResponse , decoder );
+    }
+
+    private synchronized Response exclusiveGo(OutMessage msg, DBCollection coll, boolean forceResponse, DBDecoder decoder)
         throws IOException {
 
         if ( _processingResponse ){
@@ -131,7 +160,7 @@ public class DBPort {
         try {
             msg.prepare();
             _activeState = new ActiveState(msg);
-            msg.pipe( _out );
+            send( msg );
 
             if ( _pool != null )
                 _pool._everWorked = true;
@@ -152,6 +181,58 @@ public class DBPort {
         }
     }
 
+    /**
+     * Writes the message while holding the monitor, but waits for the reply outside of it, so that other threads can
+     * write their own messages to the socket in the meantime.
+     */
+    private Response pipelinedGo(OutMessage msg, DBCollection coll, boolean forceResponse, DBDecoder decoder)
+        throws IOException {
+
+        _calls.incrementAndGet();
+
+        PendingResponse pending = null;
+        ResponseReader reader;
+        synchronized ( this ) {
+            if ( _socket == null )
+                _open();
+
+            reader = _reader;
+            if ( reader == null )
+                throw new IllegalStateException( "_reader shouldn't be null" );
+
+            try {
+                msg.prepare();
+                if ( coll != null || forceResponse )
+                    pending = reader.register( msg.getId() );
+                send( msg );
+
+                if ( _pool != null )
+                    _pool._everWorked = true;
+            }
+            catch ( IOException ioe ){
+                close();
+                throw ioe;
+            }
+        }
+
+        if ( pending == null )
+            return null;
+
+        ByteBuffer reply = pending.await( reader , msg.getId() , _options.socketTimeout );
+        // the port's own decoder can't be shared between the threads waiting on this port
+        return new Response( _sa , coll , reply ,
+                             (decoder == null ? _options.createDecoder() : decoder) );
+    }
+
+    // a socket with a channel takes the whole message in one vectored write
+    private void send( OutMessage msg ) throws IOException {
+        SocketChannel channel = _socket.getChannel();
+        if ( channel != null )
+            msg.write( channel );
+        else
+            msg.pipe( _out );
+    }
+
     synchronized CommandResult getLastError( DB db , WriteConcern concern ) throws IOException{
         DBApiLayer dbAL = (DBApiLayer) db;
         return runCommand( dbAL, concern.getCommand() );
@@ -172,7 +253,7 @@ public class DBPort {
         return convertToCommandResult(cmd, res);
     }
 
-    private CommandResult convertToCommandResult(DBObject cmd, Response res) {
+    static CommandResult convertToCommandResult(DBObject cmd, Response res) {
         if ( res.size() == 0 )
             return null;
         if ( res.size() > 1 )
@@ -187,6 +268,131 @@ public class DBPort {
         return cr;
     }
 
+    /**
+     * Sends all the commands before reading any of the replies, so that they cost a single round trip between them.
+     *
+     * @return the result of each command, in the same order
+     */
+    synchronized List<CommandResult> runCommands( List<DB> dbs , List<DBObject> cmds ) throws IOException {
+        List<CommandResult> results = new ArrayList<CommandResult>( cmds.size() );
+
+        // a pipelined port's replies belong to its reader thread
+        if ( _pipelined ){
+            for ( int i = 0; i < cmds.size(); i++ )
+                results.add( runCommand( dbs.get( i ) , cmds.get( i ) ) );
+            return results;
+        }
+
+        if ( _socket == null )
+            _open();
+
+        List<OutMessage> msgs = new ArrayList<OutMessage>( cmds.size() );
+        try {
+            for ( int i = 0; i < cmds.size(); i++ ){
+                OutMessage msg = OutMessage.query( dbs.get( i ).getCollection( "$cmd" ) , 0 , 0 , -1 , cmds.get( i ) , null );
+                msgs.add( msg );
+                msg.prepare();
+                _calls.incrementAndGet();
+                send( msg );
+            }
+
+            for ( int i = 0; i < cmds.size(); i++ ){
+                Response res = new Response( _sa , dbs.get( i ).getCollection( "$cmd" ) , _in , _decoder );
+                if ( res._responseTo != msgs.get( i ).getId() )
+                    throw new MongoInternalException( "ids don't match" );
+                CommandResult cr = convertToCommandResult( cmds.get( i ) , res );
+                if ( cr == null )
+                    throw new MongoInternalException( "no result for command " + cmds.get( i ) );
+                results.add( cr );
+            }
+
+            if ( _pool != null )
+                _pool._everWorked = true;
+            return results;
+        }
+        catch ( IOException ioe ){
+            close();
+            throw ioe;
+        }
+        finally {
+            for ( OutMessage msg : msgs )
+                msg.doneWithMessage();
+        }
+    }
+
+    /**
+     * Sends each write followed by a getLastError, so that every write is acknowledged on its own.  Replies that have
+     * arrived are read between the writes, and no more than {@link BulkWriteOperation#MAX_WRITES_PER_GROUP} are left
+     * unread, so that they can't fill the socket buffers and leave the server unable to write while this port is still
+     * writing to it.
+     *
+     * @return the getLastError of each write, in the same order
+     */
+    synchronized List<CommandResult> sayEach( DB db , List<OutMessage> writes , WriteConcern concern ) throws IOException {
+        List<CommandResult> results = new ArrayList<CommandResult>( writes.size() );
+
+        // a pipelined port's replies belong to its reader thread
+        if ( _pipelined ){
+            for ( OutMessage write : writes ){
+                say( write );
+                results.add( runCommand( db , concern.getCommand() ) );
+            }
+            return results;
+        }
+
+        if ( _socket == null )
+            _open();
+
+        DBObject cmd = concern.getCommand();
+        LinkedList<OutMessage> unread = new LinkedList<OutMessage>();
+        try {
+            for ( OutMessage write : writes ){
+                while ( !unread.isEmpty() && ( unread.size() >= BulkWriteOperation.MAX_WRITES_PER_GROUP || _in.available() > 0 ) )
+                    results.add( readLastError( db , cmd , unread.removeFirst() ) );
+
+                write.prepare();
+                _calls.incrementAndGet();
+                send( write );
+
+                OutMessage msg = OutMessage.query( db.getCollection( "$cmd" ) , 0 , 0 , -1 , cmd , null );
+                unread.add( msg );
+                msg.prepare();
+                _calls.incrementAndGet();
+                send( msg );
+            }
+
+            while ( !unread.isEmpty() )
+                results.add( readLastError( db , cmd , unread.removeFirst() ) );
+
+            if ( _pool != null )
+                _pool._everWorked = true;
+            return results;
+        }
+        catch ( IOException ioe ){
+            close();
+            throw ioe;
+        }
+        finally {
+            for ( OutMessage msg : unread )
+                msg.doneWithMessage();
+        }
+    }
+
+    private CommandResult readLastError( DB db , DBObject cmd , OutMessage msg ) throws IOException {
+        try {
+            Response res = new Response( _sa , db.getCollection( "$cmd" ) , _in , _decoder );
+            if ( res._responseTo != msg.getId() )
+                throw new MongoInternalException( "ids don't match" );
+            CommandResult cr = convertToCommandResult( cmd , res );
+            if ( cr == null )
+                throw new MongoInternalException( "no result for command " + cmd );
+            return cr;
+        }
+        finally {
+            msg.doneWithMessage();
+        }
+    }
+
     synchronized CommandResult tryGetLastError( DB db , long last, WriteConcern concern) throws IOException {
         if ( last != _calls.get() )
             return null;
@@ -228,6 +434,9 @@ public class DBPort {
                 _socket.setSoTimeout( _options.socketTimeout );
                 _in = new BufferedInputStream( _socket.getInputStream() );
                 _out = _socket.getOutputStream();
+                if ( _pipelined )
+                    startReader();
+                _openedAt = System.nanoTime();
                 successfullyConnected = true;
             }
             catch ( IOException e ){
@@ -250,6 +459,54 @@ public class DBPort {
                 sleepTime *= 2;
             }
         } while (!successfullyConnected);
+
+        if ( !_pipelined && _pool != null && _pool._mongo != null )
+            handshake( _pool._mongo );
+    }
+
+    /**
+     * Asks the server about itself on a newly opened connection, and gives the pool the answer, so that it knows the
+     * server's current limits rather than guessing them.
+     */
+    private void handshake( Mongo mongo ) throws IOException {
+        CommandResult res = runCommand( mongo.getDB( "admin" ) , ConnectionStatus.isMasterCmd );
+        if ( res != null && res.ok() )
+            _pool.setServerDescription( ServerDescription.fromIsMaster( _sa , res ) );
+    }
+
+    private void startReader() throws IOException {
+        // the reader blocks between replies, so timeouts are enforced per waiter instead of on the socket
+        _socket.setSoTimeout( 0 );
+        _reader = new ResponseReader( _in );
+        Thread t = new Thread( _reader , "DBPort-reader-" + _addr );
+        t.setDaemon( true );
+        t.start();
+    }
+
+    /**
+     * Lends an already connected socket to this port, so that the port's authentication code can run over it.
+     * The caller keeps ownership of the socket, and must call {@link #releaseSocket()} when done.
+     */
+    synchronized void useSocket( Socket socket ) throws IOException {
+        _socket = socket;
+        _in = new BufferedInputStream( socket.getInputStream() );
+        _out = socket.getOutputStream();
+    }
+
+    /**
+     * Detaches the socket lent with {@link #useSocket(Socket)} without closing it.
+     */
+    synchronized void releaseSocket() {
+        _in = null;
+        _out = null;
+        _socket = null;
+    }
+
+    /**
+     * @return true if this port is shared by many threads with pipelined requests
+     */
+    boolean isPipelined() {
+        return _pipelined;
     }
 
     @Override
@@ -291,12 +548,41 @@ public class DBPort {
         return _socket != null ? _socket.getLocalPort() : -1;
     }
 
+    boolean isOpen() {
+        return _socket != null;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the current connection was opened
+     */
+    long getOpenedAt() {
+        return _openedAt;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which this port was created by its pool or last returned to it, or 0 if
+     * it doesn't belong to a pool
+     */
+    long getLastUsedAt() {
+        return _lastUsedAt;
+    }
+
+    void setLastUsedAt( long nanoTime ) {
+        _lastUsedAt = nanoTime;
+    }
+
     /**
      * closes the underlying connection and streams
      */
     protected void close(){
         authenticatedDatabases.clear();
-                
+        _authGeneration = -1;
+
+        ResponseReader reader = _reader;
+        _reader = null;
+        if ( reader != null )
+            reader.fail( new IOException( "connection to " + _addr + " closed" ) );
+
         if ( _socket != null ){
             try {
                 _socket.close();
@@ -330,12 +616,61 @@ public class DBPort {
     }
 
     void checkAuth(Mongo mongo) throws IOException {
+        // the common case: nothing has been added to the store since this connection last caught up with it
+        if (_authGeneration == mongo.getAuthority().getCredentialsStore().getGeneration())
+            return;
+
+        authenticateAll(mongo);
+    }
+
+    private synchronized void authenticateAll(Mongo mongo) throws IOException {
+        MongoCredentialsStore store = mongo.getAuthority().getCredentialsStore();
+
+        // read before the databases, so that credentials added meanwhile are picked up by the next check
+        int generation = store.getGeneration();
+        if (_authGeneration == generation)
+            return;
+
         // get the difference between the set of credentialed databases and the set of authenticated databases on this connection
-        Set<String> unauthenticatedDatabases = new HashSet<String>(mongo.getAuthority().getCredentialsStore().getDatabases());
-        unauthenticatedDatabases.removeAll(authenticatedDatabases);
+        List<MongoCredential> unauthenticated = new ArrayList<MongoCredential>();
+        for (String databaseName : store.getDatabases()) {
+            if (!authenticatedDatabases.contains(databaseName))
+                unauthenticated.add(store.get(databaseName));
+        }
+
+        authenticate(mongo, unauthenticated);
+        _authGeneration = generation;
+    }
+
+    /**
+     * Authenticates all the given credentials.  MONGODB-X509 needs no back and forth with the server, so all such
+     * credentials share a single round trip.  The others run one after another: in particular the server keeps only
+     * the latest nonce of a connection, so each MONGODB-CR getnonce must be followed by its own authenticate.
+     */
+    void authenticate(Mongo mongo, List<MongoCredential> credentials) throws IOException {
+        List<MongoCredential> x509Credentials = new ArrayList<MongoCredential>();
+        for (MongoCredential cur : credentials) {
+            if (cur.getMechanism().equals(MongoCredential.MONGODB_X509_MECHANISM))
+                x509Credentials.add(cur);
+            else
+                authenticate(mongo, cur);
+        }
+
+        if (x509Credentials.size() == 1) {
+            authenticate(mongo, x509Credentials.get(0));
+        } else if (x509Credentials.size() > 1) {
+            List<DB> authDBs = new ArrayList<DB>();
+            List<DBObject> authCommands = new ArrayList<DBObject>();
+            for (MongoCredential cur : x509Credentials) {
+                authDBs.add(mongo.getDB(cur.getSource()));
+                authCommands.add(new X509Authenticator(mongo, cur).getAuthCommand());
+            }
 
-        for (String databaseName : unauthenticatedDatabases) {
-            authenticate(mongo, mongo.getAuthority().getCredentialsStore().get(databaseName));
+            List<CommandResult> results = runCommands(authDBs, authCommands);
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).throwOnError();
+                authenticatedDatabases.add(x509Credentials.get(i).getSource());
+            }
         }
     }
 
@@ -362,12 +697,19 @@ public class DBPort {
 
     private volatile boolean _processingResponse;
 
+    private final boolean _pipelined;
+    private volatile ResponseReader _reader;
+
     // needs synchronization to ensure that modifications are published.
     final Set<String> authenticatedDatabases = Collections.synchronizedSet(new HashSet<String>());
 
-    volatile int _lastThread;
+    // the generation of the credentials store that authenticatedDatabases is known to cover, or -1 if none yet
+    private volatile int _authGeneration = -1;
+
     final AtomicLong _calls = new AtomicLong();
     private volatile ActiveState _activeState;
+    private volatile long _openedAt;
+    private volatile long _lastUsedAt;
     private volatile Boolean useCRAMAuthenticationProtocol;
 
     class ActiveState {
@@ -381,6 +723,110 @@ public class DBPort {
        final String threadName;
     }
 
+    /**
+     * Reads replies off a pipelined connection and hands each one to the thread waiting for it.
+     * One reader is created for each socket the port opens, so a reader for a closed socket can only fail its own waiters.
+     */
+    class ResponseReader implements Runnable {
+        ResponseReader( InputStream in ){
+            _readerIn = in;
+        }
+
+        PendingResponse register( int requestId ) throws IOException {
+            PendingResponse pending = new PendingResponse();
+            _pending.put( requestId , pending );
+
+            // the reader may have died before the waiter was registered, in which case nobody would wake it up
+            IOException failure = _failure;
+            if ( failure != null ){
+                _pending.remove( requestId );
+                throw failure;
+            }
+            return pending;
+        }
+
+        void unregister( int requestId ){
+            _pending.remove( requestId );
+        }
+
+        public void run(){
+            try {
+                while ( true ){
+                    ByteBuffer reply = Response.readMessage( _readerIn );
+
+                    // a missing waiter has already given up on this reply
+                    PendingResponse pending = _pending.remove( Bits.readInt( reply.array() , 8 ) );
+                    if ( pending != null )
+                        pending.complete( reply );
+                    else
+                        Response.BUFFER_POOL.release( reply );
+                }
+            }
+            catch ( IOException ioe ){
+                if ( _failure == null )
+                    _logger.log( Level.FINE , "pipelined reader for " + _addr + " stopping" , ioe );
+                fail( ioe );
+            }
+            catch ( RuntimeException re ){
+                _logger.log( Level.WARNING , "pipelined reader for " + _addr + " failed" , re );
+                fail( new IOException( "pipelined reader failed: " + re ) );
+            }
+        }
+
+        void fail( IOException ioe ){
+            if ( _failure == null )
+                _failure = ioe;
+
+            for ( Integer requestId : _pending.keySet() ){
+                PendingResponse pending = _pending.remove( requestId );
+                if ( pending != null )
+                    pending.fail( _failure );
+            }
+        }
+
+        private final InputStream _readerIn;
+        private final ConcurrentMap<Integer, PendingResponse> _pending = new ConcurrentHashMap<Integer, PendingResponse>();
+        private volatile IOException _failure;
+    }
+
+    static class PendingResponse {
+        void complete( ByteBuffer reply ){
+            _reply = reply;
+            _latch.countDown();
+        }
+
+        void fail( IOException ioe ){
+            _failure = ioe;
+            _latch.countDown();
+        }
+
+        ByteBuffer await( ResponseReader reader , int requestId , long timeoutMS ) throws IOException {
+            try {
+                if ( timeoutMS > 0 ){
+                    if ( ! _latch.await( timeoutMS , TimeUnit.MILLISECONDS ) ){
+                        reader.unregister( requestId );
+                        throw new SocketTimeoutException( "no response to request " + requestId + " after " + timeoutMS + " ms" );
+                    }
+                }
+                else {
+                    _latch.await();
+                }
+            }
+            catch ( InterruptedException e ){
+                reader.unregister( requestId );
+                throw new InterruptedIOException( "interrupted waiting for response to request " + requestId );
+            }
+
+            if ( _failure != null )
+                throw _failure;
+            return _reply;
+        }
+
+        private final CountDownLatch _latch = new CountDownLatch( 1 );
+        private volatile ByteBuffer _reply;
+        private volatile IOException _failure;
+    }
+
     class PlainAuthenticator extends SaslAuthenticator {
         private static final String MECHANISM = MongoCredential.PLAIN_MECHANISM;
         private static final String DEFAULT_PROTOCOL = "mongodb";
@@ -538,7 +984,7 @@ public class DBPort {
             }
         }
 
-        private DBObject getAuthCommand() {
+        DBObject getAuthCommand() {
             return new BasicDBObject("authenticate", 1)
                    .append("user", credential.getUserName())
                    .append("mechanism", MongoCredential.MONGODB_X509_MECHANISM);
@@ -19,17 +19,22 @@
 package com.mongodb;
 
 import com.mongodb.util.ConnectionPoolStatisticsBean;
-import com.mongodb.util.SimplePool;
+import com.mongodb.util.ConcurrentPool;
 import com.mongodb.util.management.JMException;
 import com.mongodb.util.management.MBeanServerFactory;
 
+import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
@@ -39,7 +44,7 @@ import java.util.logging.Level;
  * @deprecated This class is NOT a part of public API and will be dropped in 3.x versions.
  */
 @Deprecated
-public class DBPortPool extends SimplePool<DBPort> {
+public class DBPortPool extends ConcurrentPool<DBPort> {
 
     public String getHost() {
         return _addr.getHost();
@@ -49,14 +54,14 @@ public class DBPortPool extends SimplePool<DBPort> {
         return _addr.getPort();
     }
 
-    public synchronized ConnectionPoolStatisticsBean getStatistics() {
+    public ConnectionPoolStatisticsBean getStatistics() {
         return new ConnectionPoolStatisticsBean(getTotal(), getInUse(), getInUseConnections());
     }
 
     private InUseConnectionBean[] getInUseConnections() {
         List<InUseConnectionBean> inUseConnectionInfoList = new ArrayList<InUseConnectionBean>();
         long currentNanoTime = System.nanoTime();
-        for (DBPort port : _out) {
+        for (DBPort port : getInUseMembers()) {
             inUseConnectionInfoList.add(new InUseConnectionBean(port, currentNanoTime));
         }
         return inUseConnectionInfoList.toArray(new InUseConnectionBean[inUseConnectionInfoList.size()]);
@@ -66,7 +71,15 @@ public class DBPortPool extends SimplePool<DBPort> {
     static class Holder {
 
         Holder( MongoOptions options ){
+            this( options , null );
+        }
+
+        /**
+         * @param mongo if not null, connections opened by the maintenance thread are authenticated with its credentials
+         */
+        Holder( MongoOptions options , Mongo mongo ){
             _options = options;
+            _mongo = mongo;
         }
 
         DBPortPool get( ServerAddress addr ){
@@ -83,7 +96,9 @@ public class DBPortPool extends SimplePool<DBPort> {
                 }
 
                 p = createPool(addr);
+                p._mongo = _mongo;
                 _pools.put( addr , p);
+                scheduleMaintenance(p);
 
                 try {
                     String on = createObjectName(addr);
@@ -113,8 +128,32 @@ public class DBPortPool extends SimplePool<DBPort> {
             }
         }
 
+        // a single daemon thread per Mongo instance looks after all of its pools, and only if some pool needs it
+        private void scheduleMaintenance(final DBPortPool p) {
+            if (!p.needsMaintenance())
+                return;
+
+            if (_maintenanceExecutor == null) {
+                _maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(final Runnable r) {
+                        Thread t = new Thread(r, "DBPortPool-maintenance-" + _serial);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            }
+            _maintenanceExecutor.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    p.doMaintenance();
+                }
+            }, 0, MAINTENANCE_FREQUENCY_MS, TimeUnit.MILLISECONDS);
+        }
+
         void close(){
             synchronized ( _pools ){
+                if ( _maintenanceExecutor != null )
+                    _maintenanceExecutor.shutdownNow();
+
                 for ( DBPortPool p : _pools.values() ){
                     p.close();
 
@@ -142,8 +181,12 @@ public class DBPortPool extends SimplePool<DBPort> {
         }
 
         final MongoOptions _options;
+        final Mongo _mongo;
         final Map<ServerAddress,DBPortPool> _pools = Collections.synchronizedMap( new HashMap<ServerAddress,DBPortPool>() );
         final int _serial = nextSerial.incrementAndGet();
+        private ScheduledExecutorService _maintenanceExecutor;
+
+        static final long MAINTENANCE_FREQUENCY_MS = 1000;
 
         // we use this to give each Holder a different mbean name
         static AtomicInteger nextSerial = new AtomicInteger(0);
@@ -211,23 +254,17 @@ public class DBPortPool extends SimplePool<DBPort> {
         _options = options;
         _addr = addr;
         _waitingSem = new Semaphore( _options.connectionsPerHost * _options.threadsAllowedToBlockForConnectionMultiplier );
+
+        // pipelined ports open their sockets lazily, on first use
+        _pipelinedPorts = new DBPort[ Math.max( 0 , _options.pipelinedConnectionsPerHost ) ];
+        for ( int i = 0; i < _pipelinedPorts.length; i++ )
+            _pipelinedPorts[i] = new DBPort( _addr , this , _options , true );
     }
 
     protected long memSize( DBPort p ){
         return 0;
     }
 
-    @Override
-    protected int pick( int recommended, boolean couldCreate ){
-        int id = System.identityHashCode(Thread.currentThread());
-        for (int i = _avail.size() - 1; i >= 0; i--){
-            if ( _avail.get(i)._lastThread == id )
-                return i;
-        }
-
-        return couldCreate ? -1 : recommended;
-    }
-
     /**
      * @return
      * @throws MongoException
@@ -249,10 +286,27 @@ public class DBPortPool extends SimplePool<DBPort> {
         if ( port == null )
             throw new ConnectionWaitTimeOut( _options.maxWaitTime );
 
-        port._lastThread = System.identityHashCode(Thread.currentThread());
         return port;
     }
 
+    /**
+     * Gets one of the shared, pipelined ports of this pool, in round-robin order.  Pipelined ports are never checked
+     * out, so callers must not hand them back with {@link #done(DBPort)}.
+     *
+     * @return a pipelined port, or null if pipelining is disabled
+     */
+    DBPort getPipelined() {
+        if ( _pipelinedPorts.length == 0 )
+            return null;
+        int i = ( _nextPipelinedPort.getAndIncrement() & Integer.MAX_VALUE ) % _pipelinedPorts.length;
+        return _pipelinedPorts[i];
+    }
+
+    private void closePipelined() {
+        for ( DBPort p : _pipelinedPorts )
+            p.close();
+    }
+
     // return true if the exception is recoverable
     boolean gotError( Exception e ){
         if (e instanceof java.nio.channels.ClosedByInterruptException){
@@ -285,10 +339,64 @@ public class DBPortPool extends SimplePool<DBPort> {
             p.close();
             done(p);
         }
+        closePipelined();
 
         return false;
     }
 
+    @Override
+    protected void close(){
+        super.close();
+        closePipelined();
+    }
+
+    boolean needsMaintenance() {
+        return _options.minConnectionsPerHost > 0 || _options.maxConnectionIdleTime > 0 || _options.maxConnectionLifeTime > 0;
+    }
+
+    /**
+     * Closes the available connections that have been idle or open for too long, and then opens new ones until there
+     * are at least {@link MongoOptions#minConnectionsPerHost}, so that requests don't pay for the connect.
+     */
+    void doMaintenance() {
+        try {
+            prune();
+            ensureMinSize( Math.min( _options.minConnectionsPerHost , _options.connectionsPerHost ) );
+        } catch ( MongoException e ) {
+            // the server may be down, in which case the next round will try again
+            Bytes.LOGGER.log( Level.FINE , "maintenance of DBPortPool to " + getServerAddress() + " failed" , e );
+        }
+    }
+
+    @Override
+    public void done( DBPort p ){
+        p.setLastUsedAt( System.nanoTime() );
+        super.done( p );
+    }
+
+    @Override
+    protected boolean shouldPrune( DBPort p ){
+        long now = System.nanoTime();
+        // idle connections are only closed down to the minimum, while ones past their life time are always replaced
+        if ( _options.maxConnectionIdleTime > 0 && getTotal() > _options.minConnectionsPerHost
+             && now - p.getLastUsedAt() > TimeUnit.MILLISECONDS.toNanos( _options.maxConnectionIdleTime ) )
+            return true;
+        return _options.maxConnectionLifeTime > 0 && p.isOpen()
+               && now - p.getOpenedAt() > TimeUnit.MILLISECONDS.toNanos( _options.maxConnectionLifeTime );
+    }
+
+    // the maintenance thread opens these ahead of need, so it may as well authenticate them too
+    @Override
+    protected void prepare( DBPort p ){
+        try {
+            p.ensureOpen();
+            if ( _mongo != null )
+                p.checkAuth( _mongo );
+        } catch ( IOException e ) {
+            throw new MongoException.Network( "can't open connection to " + getServerAddress() , e );
+        }
+    }
+
     @Override
     public void cleanup( DBPort p ){
         p.close();
@@ -296,15 +404,73 @@ public class DBPortPool extends SimplePool<DBPort> {
 
     @Override
     protected DBPort createNew(){
-        return new DBPort( _addr , this , _options );
+        DBPort p = new DBPort( _addr , this , _options );
+        // a connection opened ahead of need is idle from the start
+        p.setLastUsedAt( System.nanoTime() );
+        return p;
+    }
+
+    /**
+     * @return what the server said about itself when the latest connection to it was opened, or null if no connection
+     * has been opened with a handshake yet
+     */
+    ServerDescription getServerDescription() {
+        return _serverDescription;
+    }
+
+    void setServerDescription( ServerDescription description ) {
+        _serverDescription = description;
+    }
+
+    /**
+     * Counts an operation sent to this server, for {@link ServerLoad}.
+     */
+    void operationStarted() {
+        _inFlight.incrementAndGet();
+    }
+
+    /**
+     * Counts the end of an operation sent to this server, and folds the time it took into the moving average.  Updates
+     * racing with each other may lose one sample, which an average doesn't miss.
+     *
+     * @param nanos the time the operation took
+     */
+    void operationDone( long nanos ) {
+        _inFlight.decrementAndGet();
+        double millis = nanos / 1000000.0;
+        double average = _responseTimeMillis;
+        _responseTimeMillis = average == 0 ? millis : average + RESPONSE_TIME_WEIGHT * ( millis - average );
+    }
+
+    /**
+     * @return the number of operations sent to this server that have not had their reply yet
+     */
+    int getInFlight() {
+        return _inFlight.get();
+    }
+
+    /**
+     * @return the moving average of the time operations on this server take, in milliseconds
+     */
+    double getResponseTimeMillis() {
+        return _responseTimeMillis;
     }
 
     public ServerAddress getServerAddress() {
         return _addr;
     }
 
+    // the weight of the latest sample in the moving average of response times
+    private static final double RESPONSE_TIME_WEIGHT = 0.2;
+
     final MongoOptions _options;
     final private Semaphore _waitingSem;
+    final private DBPort[] _pipelinedPorts;
+    final private AtomicInteger _nextPipelinedPort = new AtomicInteger();
+    final private AtomicInteger _inFlight = new AtomicInteger();
+    private volatile double _responseTimeMillis;
     final ServerAddress _addr;
     boolean _everWorked = false;
+    volatile Mongo _mongo;
+    private volatile ServerDescription _serverDescription;
 }
@@ -19,8 +19,10 @@
 package com.mongodb;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -40,7 +42,7 @@ public class DBTCPConnector implements DBConnector {
      */
     public DBTCPConnector( Mongo mongo  ) {
         _mongo = mongo;
-        _portHolder = new DBPortPool.Holder( mongo._options );
+        _portHolder = new DBPortPool.Holder( mongo._options , mongo );
         MongoAuthority.Type type = mongo.getAuthority().getType();
         if (type == MongoAuthority.Type.Direct) {
             setMasterAddress(mongo.getAuthority().getServerAddresses().get(0));
@@ -129,19 +131,38 @@ public class DBTCPConnector implements DBConnector {
      */
     @Override
     public WriteResult say( DB db , OutMessage m , WriteConcern concern , ServerAddress hostNeeded ){
+        return say( db , Collections.singletonList( m ) , concern , hostNeeded );
+    }
+
+    /**
+     * Sends the messages back-to-back on one connection to the primary, followed by a single getLastError if the
+     * concern calls for one.  All the messages are released, whether they were sent or not.
+     *
+     * @param db the database
+     * @param messages the write messages to send, in order
+     * @param concern the write concern
+     * @param hostNeeded the server to send them to, or null for the primary
+     * @return the result of the trailing getLastError, which reflects the last write
+     * @throws MongoException
+     */
+    WriteResult say( DB db , List<OutMessage> messages , WriteConcern concern , ServerAddress hostNeeded ){
 
         if (concern == null) {
+            for ( OutMessage m : messages )
+                m.doneWithMessage();
             throw new IllegalArgumentException("Write concern is null");
         }
 
-        _checkClosed();
-        checkMaster( false , true );
+        DBPort port = null;
+        try {
+            _checkClosed();
+            checkMaster( false , true );
 
-        DBPort port = _myPort.get(true, ReadPreference.primary(), hostNeeded);
+            port = _myPort.get(true, ReadPreference.primary(), hostNeeded);
 
-        try {
             port.checkAuth( db.getMongo() );
-            port.say( m );
+            for ( OutMessage m : messages )
+                port.say( m );
             if ( concern.callGetLastError() ){
                 return _checkWriteError( db , port , concern );
             }
@@ -165,12 +186,58 @@ public class DBTCPConnector implements DBConnector {
             throw me;
         }
         catch ( RuntimeException re ){
-            _myPort.error(port, re);
+            if ( port != null )
+                _myPort.error(port, re);
             throw re;
         }
         finally {
-            _myPort.done(port);
-            m.doneWithMessage();
+            if ( port != null )
+                _myPort.done(port);
+            for ( OutMessage m : messages )
+                m.doneWithMessage();
+        }
+    }
+
+    /**
+     * Sends write messages back-to-back on a single connection, each followed by its own getLastError, and reads
+     * every reply, as it arrives.  Unlike {@link #say(DB, List, WriteConcern, ServerAddress)}, a write that fails
+     * doesn't go unreported because a later one succeeded.
+     *
+     * @param db the database
+     * @param messages the write messages to send, in order
+     * @param concern an acknowledging write concern
+     * @return the getLastError of each message, in order, whether or not it reports an error
+     * @throws MongoException
+     */
+    List<CommandResult> sayEach( DB db , List<OutMessage> messages , WriteConcern concern ){
+        DBPort port = null;
+        try {
+            _checkClosed();
+            checkMaster( false , true );
+
+            port = _myPort.get(true, ReadPreference.primary(), null);
+
+            port.checkAuth( db.getMongo() );
+            return port.sayEach( db , messages , concern );
+        }
+        catch ( IOException ioe ){
+            _myPort.error(port, ioe);
+            _error( ioe, false );
+            throw new MongoException.Network("Write operation to server " + port.host() + " failed on database " + db , ioe );
+        }
+        catch ( MongoException me ){
+            throw me;
+        }
+        catch ( RuntimeException re ){
+            if ( port != null )
+                _myPort.error(port, re);
+            throw re;
+        }
+        finally {
+            if ( port != null )
+                _myPort.done(port);
+            for ( OutMessage m : messages )
+                m.doneWithMessage();
         }
     }
 
@@ -243,6 +310,9 @@ public class DBTCPConnector implements DBConnector {
 
         Response res = null;
         boolean retry = false;
+        final DBPortPool pool = port.getPool();
+        pool.operationStarted();
+        final long start = System.nanoTime();
         try {
             port.checkAuth( db.getMongo() );
             res = port.call( m , coll, decoder );
@@ -261,6 +331,7 @@ public class DBTCPConnector implements DBConnector {
             _myPort.error(port, re);
             throw re;
         } finally {
+            pool.operationDone(System.nanoTime() - start);
             _myPort.done(port);
         }
 
@@ -270,6 +341,7 @@ public class DBTCPConnector implements DBConnector {
         ServerError err = res.getError();
 
         if ( err != null && err.isNotMasterError() ){
+            requestUpdate();
             checkMaster( true , true );
             if ( retries <= 0 ){
                 throw new MongoException( "not talking to master and retries used up" );
@@ -324,6 +396,23 @@ public class DBTCPConnector implements DBConnector {
         }
     }
 
+    // Never blocks, so it's fit for choosing a server on every operation: until the type of server is known, or if
+    // it isn't a mongos, returns null.  Once known the status is remembered, as it doesn't change.
+    private MongosStatus getKnownMongosStatus() {
+        MongosStatus mongosStatus = _mongosStatus;
+        if (mongosStatus == null) {
+            ConnectionStatus connectionStatus = _connectionStatus;
+            if (connectionStatus instanceof DynamicConnectionStatus) {
+                connectionStatus = ((DynamicConnectionStatus) connectionStatus).getKnownConnectionStatus();
+            }
+            if (connectionStatus instanceof MongosStatus) {
+                mongosStatus = (MongosStatus) connectionStatus;
+                _mongosStatus = mongosStatus;
+            }
+        }
+        return mongosStatus;
+    }
+
     // This call can block if it's not yet known.
     // Be careful when modifying this method, as this method is using the fact that _isMongosDirectConnection
     // is of type Boolean and is null when uninitialized.
@@ -360,6 +449,8 @@ public class DBTCPConnector implements DBConnector {
             return false;
         }
 
+        requestUpdate();
+
         // the replset has at least 1 server up, try to see if should switch master
         // if no server is up, we wont retry until the updater thread finds one
         // this is to cut down the volume of requests/errors when all servers are down
@@ -369,6 +460,65 @@ public class DBTCPConnector implements DBConnector {
         return _connectionStatus.hasServerUp();
     }
 
+    /**
+     * Chooses the pool of the server that an operation with the given read preference should be sent to.
+     * @param readPref the read preference
+     * @return the pool
+     * @throws MongoException if no suitable server is available
+     */
+    DBPortPool choosePool( ReadPreference readPref ){
+        // any mongos can route any operation, so spread them across all the good ones
+        MongosStatus mongosStatus = getKnownMongosStatus();
+        if (mongosStatus != null) {
+            ConnectionStatus.Node node = mongosStatus.choose(_mongo.getMongoOptions().getServerSelector(), _serverLoad);
+            if (node != null)
+                return _portHolder.get(node.getServerAddress());
+        }
+
+        if (getReplicaSetStatus() == null){
+            if (_masterPortPool == null) {
+                // this should only happen in rare case that no master was ever found
+                // may get here at startup if it's a read, slaveOk=true, and ALL servers are down
+                throw new MongoException("Rare case where master=null, probably all servers are down");
+            }
+            return _masterPortPool;
+        }
+
+        ReplicaSetStatus.ReplicaSet replicaSet = getReplicaSetStatus()._replicaSetHolder.get();
+        ConnectionStatus.Node node = readPref.getNode(replicaSet);
+
+        if (node == null)
+            throw new MongoException("No replica set members available in " +  replicaSet + " for " + readPref.toDBObject().toString());
+
+        return _portHolder.get(node.getServerAddress());
+    }
+
+    /**
+     * @return the description of the server that writes currently go to, from the handshake of the latest connection
+     * opened to it, or null if there is none yet
+     */
+    ServerDescription getPrimaryDescription() {
+        DBPortPool pool = _masterPortPool;
+        return pool != null ? pool.getServerDescription() : null;
+    }
+
+    /**
+     * @return the load this client puts on each server, as counted by the pools of the servers
+     */
+    ServerLoad getServerLoad() {
+        return _serverLoad;
+    }
+
+    private final ServerLoad _serverLoad = new ServerLoad() {
+        public int getInFlight(final ServerAddress server) {
+            return _portHolder.get(server).getInFlight();
+        }
+
+        public double getResponseTimeMillis(final ServerAddress server) {
+            return _portHolder.get(server).getResponseTimeMillis();
+        }
+    };
+
     class MyPort {
 
         DBPort get( boolean keep , ReadPreference readPref, ServerAddress hostNeeded ){
@@ -381,12 +531,21 @@ public class DBTCPConnector implements DBConnector {
                 }
 
                 // asked for a specific host
-                return _portHolder.get( hostNeeded ).get();
+                DBPortPool pool = _portHolder.get( hostNeeded );
+                if ( !keep && pinnedRequestPort == null ) {
+                    DBPort pipelinedPort = pool.getPipelined();
+                    if ( pipelinedPort != null )
+                        return pipelinedPort;
+                }
+                return pool.get();
             }
 
             if ( pinnedRequestPort != null ){
                 // we are within a request, and have a port, should stick to it
-                if ( pinnedRequestPort.getPool() == _masterPortPool || !keep ) {
+                // any healthy mongos can take writes, not just the one that's currently preferred
+                MongosStatus mongosStatus = getKnownMongosStatus();
+                if ( pinnedRequestPort.getPool() == _masterPortPool || !keep
+                     || ( mongosStatus != null && mongosStatus.isAcceptable( pinnedRequestPort.serverAddress() ) ) ) {
                     // if keep is false, it's a read, so we use port even if master changed
                     return pinnedRequestPort;
                 }
@@ -398,25 +557,17 @@ public class DBTCPConnector implements DBConnector {
                 setPinnedRequestPortForThread(null);
             }
 
-            DBPort port;
-            if (getReplicaSetStatus() == null){
-                if (_masterPortPool == null) {
-                    // this should only happen in rare case that no master was ever found
-                    // may get here at startup if it's a read, slaveOk=true, and ALL servers are down
-                    throw new MongoException("Rare case where master=null, probably all servers are down");
-                }
-                port = _masterPortPool.get();
-            }
-            else {
-                ReplicaSetStatus.ReplicaSet replicaSet = getReplicaSetStatus()._replicaSetHolder.get();
-                ConnectionStatus.Node node = readPref.getNode(replicaSet);
+            DBPortPool pool = choosePool(readPref);
 
-                if (node == null)
-                    throw new MongoException("No replica set members available in " +  replicaSet + " for " + readPref.toDBObject().toString());
-
-                port = _portHolder.get(node.getServerAddress()).get();
+            // reads outside of a request can share a pipelined port, since each reply is matched to its request
+            if (!keep && !threadHasPinnedRequest()) {
+                DBPort pipelinedPort = pool.getPipelined();
+                if (pipelinedPort != null)
+                    return pipelinedPort;
             }
 
+            DBPort port = pool.get();
+
             // if within request, remember port to stick to same server
             if (threadHasPinnedRequest()) {
                 setPinnedRequestPortForThread(port);
@@ -426,6 +577,10 @@ public class DBTCPConnector implements DBConnector {
         }
 
         void done( DBPort port ) {
+            // pipelined ports are shared, never checked out
+            if (port.isPipelined())
+                return;
+
             DBPort requestPort = getPinnedRequestPortForThread();
 
             // keep request port
@@ -440,11 +595,20 @@ public class DBTCPConnector implements DBConnector {
          * @param e
          */
         void error( DBPort port , Exception e ){
-            port.close();
+            // a pipelined port is shared, so one caller timing out must not fail everyone else's requests on it
+            if (!(port.isPipelined() && e instanceof InterruptedIOException))
+                port.close();
             pinnedRequestStatusThreadLocal.remove();
 
             // depending on type of error, may need to close other connections in pool
             boolean recoverable = port.getPool().gotError(e);
+            if (!recoverable) {
+                MongosStatus mongosStatus = getKnownMongosStatus();
+                if (mongosStatus != null)
+                    mongosStatus.eject(port.serverAddress());
+                else
+                    requestUpdate();
+            }
             if (!recoverable && _connectionStatus != null && _masterPortPool._addr.equals(port.serverAddress())) {
                 ConnectionStatus.Node newMaster = _connectionStatus.ensureMaster();
                 if (newMaster != null) {
@@ -511,6 +675,15 @@ public class DBTCPConnector implements DBConnector {
         public int nestedBindings;
     }
 
+    /**
+     * Asks the replica set or mongos monitor, if there is one, to check the servers now instead of at its next pass.
+     */
+    void requestUpdate() {
+        ConnectionStatus connectionStatus = _connectionStatus;
+        if ( connectionStatus != null )
+            connectionStatus.requestUpdate();
+    }
+
     void checkMaster( boolean force , boolean failIfNoMaster ){
 
         if ( _connectionStatus != null ){
@@ -661,6 +834,7 @@ public class DBTCPConnector implements DBConnector {
     private final Mongo _mongo;
     private DBPortPool.Holder _portHolder;
     private ConnectionStatus _connectionStatus;
+    private volatile MongosStatus _mongosStatus; // see getKnownMongosStatus
 
     private final AtomicBoolean _closed = new AtomicBoolean(false);
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A batch of writes to one collection that are sent together.  Each write is encoded as it is added.  {@link #flush()}
+ * sends all the queued writes back-to-back on a single connection and, if the write concern calls for it, follows each
+ * one with its own getLastError.  Replies are read as they arrive while the writes are still being sent, so a flush
+ * costs about one round trip however many writes it carries.
+ *
+ * <p>A write that fails, such as an insert with a duplicate key, doesn't stop the rest of the batch, which has already
+ * been sent.  Once every reply is in, the flush throws a {@link BulkWriteException} that gives the index of each failed
+ * write within the batch.  With an unacknowledged write concern, consecutive inserts share a message and nothing is
+ * reported.</p>
+ *
+ * <p>Instances are not thread safe.  Create one with {@link DBCollection#startWriteBatch(WriteConcern)}.</p>
+ *
+ * @since 2.12.0
+ */
+public class DBWriteBatch {
+
+    DBWriteBatch( DBCollection collection , WriteConcern concern ){
+        _collection = collection;
+        _concern = concern;
+        DBEncoder encoder = collection.getDBEncoder();
+        _encoder = encoder != null ? encoder : DefaultDBEncoder.FACTORY.create();
+    }
+
+    /**
+     * Queues the insert of documents.  As with {@link DBCollection#insert(DBObject...)}, an _id is added to documents that
+     * don't have one.
+     *
+     * @param documents the documents to insert
+     * @return this
+     * @throws MongoException if a document can't be encoded, in which case every queued write is discarded
+     */
+    public DBWriteBatch insert( DBObject... documents ){
+        return insert( Arrays.asList( documents ) );
+    }
+
+    /**
+     * Queues the insert of documents.
+     *
+     * @param documents the documents to insert
+     * @return this
+     * @throws MongoException if a document can't be encoded, in which case every queued write is discarded
+     */
+    public DBWriteBatch insert( List<DBObject> documents ){
+        _collection.prepareInsert( documents , true );
+
+        // each acknowledged insert has a message of its own, so that its getLastError reports on it alone
+        if ( _concern.callGetLastError() ){
+            for ( DBObject o : documents )
+                add( new BulkWriteOperation.WriteRequest( BulkWriteOperation.WriteRequest.Type.INSERT , null , o , false , false ) );
+            return this;
+        }
+
+        int maxsize = _collection.getDB().getMongo().getMaxBsonObjectSize();
+        try {
+            for ( DBObject o : documents ){
+                if ( _openInsert == null ){
+                    _openInsert = OutMessage.insert( _collection , _encoder , _concern );
+                    _messages.add( _openInsert );
+                }
+                _openInsert.putObject( o );
+                _writes++;
+
+                // limit for batch insert is 4 x maxbson on server, use 2 x to be safe
+                if ( _openInsert.size() > 2 * maxsize )
+                    _openInsert = null;
+            }
+        }
+        catch ( RuntimeException e ){
+            clear();
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * Queues an update.
+     *
+     * @param q search query for the documents to update
+     * @param o the update to apply
+     * @param upsert if the database should create the document if it does not exist
+     * @param multi if the update should be applied to all the documents that match
+     * @return this
+     * @throws MongoException if the update can't be encoded, in which case every queued write is discarded
+     */
+    public DBWriteBatch update( DBObject q , DBObject o , boolean upsert , boolean multi ){
+        return add( new BulkWriteOperation.WriteRequest( BulkWriteOperation.WriteRequest.Type.UPDATE , q , o , upsert , multi ) );
+    }
+
+    /**
+     * Queues a remove.
+     *
+     * @param q search query for the documents to remove
+     * @return this
+     * @throws MongoException if the query can't be encoded, in which case every queued write is discarded
+     */
+    public DBWriteBatch remove( DBObject q ){
+        return add( new BulkWriteOperation.WriteRequest( BulkWriteOperation.WriteRequest.Type.REMOVE , q , null , false , true ) );
+    }
+
+    private DBWriteBatch add( BulkWriteOperation.WriteRequest request ){
+        try {
+            _messages.add( request.encode( _collection , _encoder , _concern ) );
+        }
+        catch ( RuntimeException e ){
+            clear();
+            throw e;
+        }
+        _requests.add( request );
+        _openInsert = null;
+        _writes++;
+        return this;
+    }
+
+    /**
+     * @return the number of writes queued since the last flush
+     */
+    public int size(){
+        return _writes;
+    }
+
+    /**
+     * Sends the queued writes and empties the batch, even if sending fails.
+     *
+     * @return the combined result of the writes, which is unacknowledged if the write concern is, or null if the batch
+     *         is empty
+     * @throws BulkWriteException if any of the writes failed, giving the index of each within the batch
+     * @throws MongoException
+     */
+    public BulkWriteResult flush(){
+        if ( _messages.isEmpty() )
+            return null;
+
+        List<OutMessage> messages = new ArrayList<OutMessage>( _messages );
+        List<BulkWriteOperation.WriteRequest> requests = new ArrayList<BulkWriteOperation.WriteRequest>( _requests );
+        _messages.clear();
+        _requests.clear();
+        _openInsert = null;
+        _writes = 0;
+
+        DB db = _collection.getDB();
+        if ( !_concern.callGetLastError() ){
+            db.getMongo().getConnector().say( db , messages , _concern , null );
+            return new BulkWriteResult();
+        }
+
+        List<CommandResult> results = db.getMongo().getConnector().sayEach( db , messages , _concern );
+        BulkWriteOperation.Outcome outcome = new BulkWriteOperation.Outcome( requests.size() );
+        for ( int i = 0; i < results.size(); i++ ){
+            MongoException e = results.get( i ).getException();
+            outcome.onResult( i , e == null ? new WriteResult( results.get( i ) , _concern ) : null , e );
+        }
+        outcome.throwIfFailed();
+        return outcome.toResult( requests , _concern );
+    }
+
+    /**
+     * Discards the queued writes without sending them.
+     */
+    public void clear(){
+        for ( OutMessage m : _messages )
+            m.doneWithMessage();
+        _messages.clear();
+        _requests.clear();
+        _openInsert = null;
+        _writes = 0;
+    }
+
+    /**
+     * @return the write concern each flush is acknowledged with
+     */
+    public WriteConcern getWriteConcern(){
+        return _concern;
+    }
+
+    private final DBCollection _collection;
+    private final WriteConcern _concern;
+    private final DBEncoder _encoder;
+    private final List<OutMessage> _messages = new ArrayList<OutMessage>();
+    private final List<BulkWriteOperation.WriteRequest> _requests = new ArrayList<BulkWriteOperation.WriteRequest>();
+    private OutMessage _openInsert;
+    private int _writes;
+}
@@ -23,8 +23,11 @@ import org.bson.BSONObject;
 import org.bson.BasicBSONCallback;
 import org.bson.types.ObjectId;
 
+import java.lang.reflect.Constructor;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -123,21 +126,33 @@ public class DefaultDBCallback extends BasicBSONCallback implements DBCallback {
 
         if ( c != null ){
             try {
-                return (DBObject)c.newInstance();
+                return (DBObject)getConstructor( c ).newInstance();
             }
-            catch ( InstantiationException ie ){
-                LOGGER.log( Level.FINE , "can't create a: " + c , ie );
-                throw new MongoInternalException( "can't instantiate a : " + c , ie );
-            }
-            catch ( IllegalAccessException iae ){
-                LOGGER.log( Level.FINE , "can't create a: " + c , iae );
-                throw new MongoInternalException( "can't instantiate a : " + c , iae );
+            catch ( Exception e ){
+                LOGGER.log( Level.FINE , "can't create a: " + c , e );
+                throw new MongoInternalException( "can't instantiate a : " + c , e );
             }
         }
 
         return new BasicDBObject();
     }
 
+    // Class.newInstance checks access on every call, so the accessible constructor is kept instead
+    private static Constructor<?> getConstructor( Class<?> c ) throws NoSuchMethodException {
+        Constructor<?> constructor = _constructors.get( c );
+        if ( constructor == null ){
+            constructor = c.getDeclaredConstructor();
+            try {
+                constructor.setAccessible( true );
+            }
+            catch ( SecurityException se ){
+                // leaves the access checks on every call
+            }
+            _constructors.put( c , constructor );
+        }
+        return constructor;
+    }
+
     DBObject dbget(){
         return (DBObject)get();
     }
@@ -151,5 +166,6 @@ public class DefaultDBCallback extends BasicBSONCallback implements DBCallback {
     private LinkedList<String> _nameStack;
     final DBCollection _collection;
     final DB _db;
+    private static final ConcurrentMap<Class<?>,Constructor<?>> _constructors = new ConcurrentHashMap<Class<?>,Constructor<?>>();
     static final Logger LOGGER = Logger.getLogger( "com.mongo.DECODING" );
 }
@@ -52,14 +52,39 @@ public class DefaultDBDecoder extends BasicBSONDecoder implements DBDecoder {
         DBCallback cbk = getDBCallback(collection);
         cbk.reset();
         decode(b, cbk);
-        return (DBObject) cbk.get();
+        return markIfFiltered((DBObject) cbk.get());
     }
 
     public DBObject decode(InputStream in,  DBCollection collection) throws IOException {
         DBCallback cbk = getDBCallback(collection);
         cbk.reset();
         decode(in, cbk);
-        return (DBObject) cbk.get();
+        return markIfFiltered((DBObject) cbk.get());
+    }
+
+    /**
+     * Decodes the document that starts at {@code offset} in {@code b} without copying it first.  This is how the
+     * documents in a reply from the server are decoded.
+     *
+     * @param b the array holding the document
+     * @param offset where the document starts in {@code b}
+     * @param length the number of bytes of {@code b} that may be read, starting at {@code offset}
+     * @param collection the collection the document came from
+     * @return the decoded document
+     * @since 2.12.0
+     */
+    public DBObject decode(byte[] b, int offset, int length, DBCollection collection) {
+        DBCallback cbk = getDBCallback(collection);
+        cbk.reset();
+        decode(b, offset, length, cbk);
+        return markIfFiltered((DBObject) cbk.get());
+    }
+
+    // a document decoded with a field filter is missing fields, so it must not be saved back over the whole one
+    private DBObject markIfFiltered(DBObject o) {
+        if (o != null && getFieldFilter() != null)
+            o.markAsPartialObject();
+        return o;
     }
 
     @Override
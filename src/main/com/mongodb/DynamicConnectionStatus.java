@@ -101,6 +101,15 @@ class DynamicConnectionStatus extends ConnectionStatus {
         }
     }
 
+    @Override
+    void requestUpdate() {
+        // don't block: until the type of server is known there's nothing to wake
+        ConnectionStatus connectionStatus = this.connectionStatus;
+        if (connectionStatus != null) {
+            connectionStatus.requestUpdate();
+        }
+    }
+
     void initExecutorService() {
         try {
             for (final ServerAddress cur : _mongosAddresses) {
@@ -178,6 +187,13 @@ class DynamicConnectionStatus extends ConnectionStatus {
         private boolean isMongos;
     }
 
+    /**
+     * @return the status the calls are forwarded to, or null if no server has been reached yet; never waits
+     */
+    ConnectionStatus getKnownConnectionStatus() {
+        return connectionStatus;
+    }
+
     private synchronized ConnectionStatus getConnectionStatus() {
         if (connectionStatus == null) {
             try {
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.BSONFieldFilter;
+
+/**
+ * A decoder factory whose decoders keep only some of the fields of each document, stepping over the rest without
+ * creating their values.  The documents are marked as partial, so they can't be saved.  Unlike the fields passed to {@link DBCollection#find(DBObject, DBObject)}, the filter is
+ * applied by the driver, so one query can serve several readers who want different fields of its results.
+ *
+ * <pre>
+ * cursor.setDecoderFactory( new FieldFilterDBDecoderFactory( "_id", "name", "address.city" ) );
+ * </pre>
+ *
+ * @see BSONFieldFilter
+ * @since 2.12.0
+ */
+public class FieldFilterDBDecoderFactory implements DBDecoderFactory {
+
+    /**
+     * Creates a factory of {@link DefaultDBDecoder}s that keep the given paths.
+     *
+     * @param paths the dotted paths to keep
+     */
+    public FieldFilterDBDecoderFactory( String... paths ){
+        this( DefaultDBDecoder.FACTORY , new BSONFieldFilter( paths ) );
+    }
+
+    /**
+     * Creates a factory that sets a filter on the decoders of another factory.
+     *
+     * @param factory the factory to create decoders with, whose decoders must extend {@link DefaultDBDecoder}
+     * @param filter the fields to keep
+     */
+    public FieldFilterDBDecoderFactory( DBDecoderFactory factory , BSONFieldFilter filter ){
+        if ( factory == null )
+            throw new IllegalArgumentException( "factory can not be null" );
+        if ( filter == null )
+            throw new IllegalArgumentException( "filter can not be null" );
+        // lazy decoders never go through the element loop that does the filtering
+        DBDecoder decoder = factory.create();
+        if ( !( decoder instanceof DefaultDBDecoder ) )
+            throw new IllegalArgumentException( "can't filter the fields decoded by " + decoder );
+        _factory = factory;
+        _filter = filter;
+    }
+
+    @Override
+    public DBDecoder create(){
+        DefaultDBDecoder decoder = (DefaultDBDecoder) _factory.create();
+        decoder.setFieldFilter( _filter );
+        return decoder;
+    }
+
+    /**
+     * @return the fields the decoders keep
+     */
+    public BSONFieldFilter getFilter(){
+        return _filter;
+    }
+
+    @Override
+    public String toString(){
+        return "FieldFilterDBDecoderFactory{factory=" + _factory + ", filter=" + _filter + "}";
+    }
+
+    private final DBDecoderFactory _factory;
+    private final BSONFieldFilter _filter;
+}
@@ -19,6 +19,8 @@ import org.bson.LazyBSONCallback;
 import org.bson.LazyBSONObject;
 import org.bson.io.BSONByteBuffer;
 
+import java.nio.ByteBuffer;
+
 public class LazyDBObject extends LazyBSONObject implements DBObject {
 
 	public void markAsPartialObject() {
@@ -46,5 +48,12 @@ public class LazyDBObject extends LazyBSONObject implements DBObject {
         super(data, offset, cbk);
     }
 
+    /**
+     * @return the bytes of this object, without copying them
+     */
+    ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(getBytes(), getOffset(), getBSONSize());
+    }
+
     private boolean _partial = false;
 }
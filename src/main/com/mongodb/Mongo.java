@@ -18,6 +18,7 @@
 
 package com.mongodb;
 
+import org.bson.FieldNameCache;
 import org.bson.io.PoolOutputBuffer;
 
 import java.net.UnknownHostException;
@@ -97,6 +98,9 @@ public class Mongo {
 
     private static final String ADMIN_DATABASE_NAME = "admin";
 
+    // the I/O of asynchronous operations is cheap, so a few threads can keep many connections busy
+    private static final int ASYNC_EVENT_LOOPS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     static {
         cleanerIntervalMS = Integer.parseInt(System.getProperty("com.mongodb.cleanerIntervalMS", "1000"));
     }
@@ -339,6 +343,7 @@ public class Mongo {
         logger.info("Creating Mongo instance (driver version " + getVersion() + ") with authority " + authority + " and options " + options);
         _authority = authority;
         _options = options;
+        _fieldNameCache = options.getFieldNameCache();
         _applyMongoOptions();
 
         _connector = new DBTCPConnector( this  );
@@ -451,6 +456,28 @@ public class Mongo {
         return _connector;
     }
 
+    /**
+     * Gets the connector for asynchronous operations, starting its event loop threads on first use.
+     * @return the asynchronous connector
+     * @throws MongoException
+     * @deprecated {@link DBAsyncConnector} is NOT part of the public API. It will be dropped in 3.x releases.
+     */
+    @Deprecated
+    public DBAsyncConnector getAsyncConnector() {
+        DBAsyncConnector connector = _asyncConnector;
+        if (connector == null) {
+            synchronized (this) {
+                connector = _asyncConnector;
+                if (connector == null) {
+                    _connector._checkClosed();
+                    connector = new DBAsyncConnector(this, ASYNC_EVENT_LOOPS);
+                    _asyncConnector = connector;
+                }
+            }
+        }
+        return connector;
+    }
+
     /**
      * Gets the replica set status object
      * @return
@@ -499,6 +526,12 @@ public class Mongo {
             _connector.close();
         } catch (final Throwable t) { /* nada */ }
 
+        synchronized (this) {
+            if (_asyncConnector != null) {
+                _asyncConnector.close();
+            }
+        }
+
         if (_cleaner != null) {
             _cleaner.interrupt();
 
@@ -616,6 +649,18 @@ public class Mongo {
         return _options;
     }
 
+    /**
+     * Gets the cache through which the decoders of this instance share the names of the fields they decode, so that its
+     * hit rate can be checked.
+     *
+     * @return the cache, or null if it has been turned off
+     * @see MongoClientOptions#getFieldNameCacheSize()
+     * @since 2.12.0
+     */
+    public FieldNameCache getFieldNameCache() {
+        return _fieldNameCache;
+    }
+
     /**
      * Gets the maximum size for a BSON object supported by the current master server.
      * Note that this value may change over time depending on which server is master.
@@ -629,6 +674,12 @@ public class Mongo {
             _connector.initDirectConnection();
         }
         maxsize = _connector.getMaxBsonObjectSize();
+        if (maxsize == 0) {
+            ServerDescription primary = _connector.getPrimaryDescription();
+            if (primary != null) {
+                maxsize = primary.getMaxBsonObjectSize();
+            }
+        }
         return maxsize > 0 ? maxsize : Bytes.MAX_OBJECT_SIZE;
     }
 
@@ -649,7 +700,9 @@ public class Mongo {
     }
 
     final MongoOptions _options;
+    private final FieldNameCache _fieldNameCache;
     final DBTCPConnector _connector;
+    private volatile DBAsyncConnector _asyncConnector;
     final ConcurrentMap<String,DB> _dbs = new ConcurrentHashMap<String,DB>();
     private WriteConcern _concern = WriteConcern.NORMAL;
     private ReadPreference _readPref = ReadPreference.primary();
@@ -56,6 +56,12 @@ public class MongoClientOptions {
         private SocketFactory socketFactory = SocketFactory.getDefault();
         private boolean cursorFinalizerEnabled = true;
         private boolean alwaysUseMBeans = false;
+        private int pipelinedConnectionsPerHost = 0;
+        private int minConnectionsPerHost = 0;
+        private int maxConnectionIdleTime = 0;
+        private int maxConnectionLifeTime = 0;
+        private int fieldNameCacheSize = 1024;
+        private ServerSelector serverSelector = ServerSelectors.random();
 
         /**
          * Sets the description.
@@ -288,6 +294,92 @@ public class MongoClientOptions {
             return this;
         }
 
+        /**
+         * Sets the number of pipelined connections per host.
+         * @param pipelinedConnectionsPerHost the number of pipelined connections per host
+         * @return {@code this}
+         * @see MongoClientOptions#getPipelinedConnectionsPerHost()
+         */
+        public Builder pipelinedConnectionsPerHost(final int pipelinedConnectionsPerHost) {
+            if (pipelinedConnectionsPerHost < 0) {
+                throw new IllegalArgumentException("Minimum value is 0");
+            }
+            this.pipelinedConnectionsPerHost = pipelinedConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of connections per server.
+         * @param minConnectionsPerHost the minimum number of connections per server
+         * @return {@code this}
+         * @see MongoClientOptions#getMinConnectionsPerHost()
+         */
+        public Builder minConnectionsPerHost(final int minConnectionsPerHost) {
+            if (minConnectionsPerHost < 0) {
+                throw new IllegalArgumentException("Minimum value is 0");
+            }
+            this.minConnectionsPerHost = minConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the maximum idle time for a pooled connection.
+         * @param maxConnectionIdleTime the maximum idle time, in milliseconds, which must be &gt;= 0.  A zero value indicates no limit.
+         * @return {@code this}
+         * @see MongoClientOptions#getMaxConnectionIdleTime()
+         */
+        public Builder maxConnectionIdleTime(final int maxConnectionIdleTime) {
+            if (maxConnectionIdleTime < 0) {
+                throw new IllegalArgumentException("Minimum value is 0");
+            }
+            this.maxConnectionIdleTime = maxConnectionIdleTime;
+            return this;
+        }
+
+        /**
+         * Sets the maximum life time for a pooled connection.
+         * @param maxConnectionLifeTime the maximum life time, in milliseconds, which must be &gt;= 0.  A zero value indicates no limit.
+         * @return {@code this}
+         * @see MongoClientOptions#getMaxConnectionLifeTime()
+         */
+        public Builder maxConnectionLifeTime(final int maxConnectionLifeTime) {
+            if (maxConnectionLifeTime < 0) {
+                throw new IllegalArgumentException("Minimum value is 0");
+            }
+            this.maxConnectionLifeTime = maxConnectionLifeTime;
+            return this;
+        }
+
+        /**
+         * Sets the number of decoded field names the client keeps, so that documents with the same fields share their key
+         * strings.
+         * @param fieldNameCacheSize the number of names, which must be &gt;= 0.  A zero value turns the cache off.
+         * @return {@code this}
+         * @see MongoClientOptions#getFieldNameCacheSize()
+         */
+        public Builder fieldNameCacheSize(final int fieldNameCacheSize) {
+            if (fieldNameCacheSize < 0) {
+                throw new IllegalArgumentException("Minimum value is 0");
+            }
+            this.fieldNameCacheSize = fieldNameCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the selector that chooses among the replica set members a read may go to.
+         *
+         * @param serverSelector the server selector
+         * @return {@code this}
+         * @see MongoClientOptions#getServerSelector()
+         */
+        public Builder serverSelector(final ServerSelector serverSelector) {
+            if (serverSelector == null) {
+                throw new IllegalArgumentException("null is not a legal value");
+            }
+            this.serverSelector = serverSelector;
+            return this;
+        }
+
         /**
          * Sets defaults to be what they are in {@code MongoOptions}.
          *
@@ -511,6 +603,91 @@ public class MongoClientOptions {
         return alwaysUseMBeans;
     }
 
+    /**
+     * The number of pipelined connections per host.  A pipelined connection is shared by many threads at once:
+     * each query is written to the socket without waiting for the replies to earlier ones, and a dedicated reader
+     * thread hands each reply to the thread waiting for it.  When greater than zero, queries and commands that are
+     * not part of a request (see {@link DB#requestStart()}) are sent over these connections, while writes continue
+     * to use the regular connection pool so that getLastError is sent on the same socket as the write it checks.
+     * <p/>
+     * Default is 0, which disables pipelining.
+     *
+     * @return the number of pipelined connections per host
+     * @since 2.12.0
+     */
+    public int getPipelinedConnectionsPerHost() {
+        return pipelinedConnectionsPerHost;
+    }
+
+    /**
+     * The minimum number of connections per server.  The connection pool of each server is filled up to this size in
+     * the background, and idle connections are not closed if that would leave fewer than this many.
+     * <p/>
+     * Default is 0.
+     *
+     * @return the minimum number of connections per server
+     * @since 2.12.0
+     */
+    public int getMinConnectionsPerHost() {
+        return minConnectionsPerHost;
+    }
+
+    /**
+     * The maximum idle time of a pooled connection, in milliseconds.  A connection that has been idle for longer is
+     * closed, in the background or when it is next checked out.
+     * <p/>
+     * Default is 0, which means there is no limit.
+     *
+     * @return the maximum idle time, in milliseconds
+     * @since 2.12.0
+     */
+    public int getMaxConnectionIdleTime() {
+        return maxConnectionIdleTime;
+    }
+
+    /**
+     * The maximum life time of a pooled connection, in milliseconds.  A connection that has been open for longer is
+     * closed, in the background or when it is next checked out, instead of being reused.
+     * <p/>
+     * Default is 0, which means there is no limit.
+     *
+     * @return the maximum life time, in milliseconds
+     * @since 2.12.0
+     */
+    public int getMaxConnectionLifeTime() {
+        return maxConnectionLifeTime;
+    }
+
+    /**
+     * The number of decoded field names the client keeps.  The decoders of the client look up the names of the fields
+     * they read in this cache before decoding them, so that documents with the same fields share their key strings.
+     * Applies to the decoders created by {@link DefaultDBDecoder#FACTORY} and other decoders derived from
+     * {@link org.bson.BasicBSONDecoder}.
+     * <p/>
+     * Default is 1024.  Zero turns the cache off.
+     *
+     * @return the number of field names
+     * @see Mongo#getFieldNameCache()
+     * @since 2.12.0
+     */
+    public int getFieldNameCacheSize() {
+        return fieldNameCacheSize;
+    }
+
+    /**
+     * The selector that chooses which of the replica set members allowed by a read preference, and within the acceptable
+     * latency of the fastest of them, a read goes to.  {@link ServerSelectors} has selectors that weigh the load this
+     * client puts on each member.
+     * <p/>
+     * Default is {@link ServerSelectors#random()}.
+     *
+     * @return the server selector
+     * @since 2.12.0
+     */
+    public ServerSelector getServerSelector() {
+        return serverSelector;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -519,6 +696,12 @@ public class MongoClientOptions {
         final MongoClientOptions that = (MongoClientOptions) o;
 
         if (alwaysUseMBeans != that.alwaysUseMBeans) return false;
+        if (pipelinedConnectionsPerHost != that.pipelinedConnectionsPerHost) return false;
+        if (minConnectionsPerHost != that.minConnectionsPerHost) return false;
+        if (maxConnectionIdleTime != that.maxConnectionIdleTime) return false;
+        if (maxConnectionLifeTime != that.maxConnectionLifeTime) return false;
+        if (fieldNameCacheSize != that.fieldNameCacheSize) return false;
+        if (!serverSelector.equals(that.serverSelector)) return false;
         if (autoConnectRetry != that.autoConnectRetry) return false;
         if (connectTimeout != that.connectTimeout) return false;
         if (connectionsPerHost != that.connectionsPerHost) return false;
@@ -558,6 +741,12 @@ public class MongoClientOptions {
         result = 31 * result + socketFactory.hashCode();
         result = 31 * result + (cursorFinalizerEnabled ? 1 : 0);
         result = 31 * result + (alwaysUseMBeans ? 1 : 0);
+        result = 31 * result + pipelinedConnectionsPerHost;
+        result = 31 * result + minConnectionsPerHost;
+        result = 31 * result + maxConnectionIdleTime;
+        result = 31 * result + maxConnectionLifeTime;
+        result = 31 * result + fieldNameCacheSize;
+        result = 31 * result + serverSelector.hashCode();
         return result;
     }
 
@@ -578,6 +767,12 @@ public class MongoClientOptions {
         socketFactory = builder.socketFactory;
         cursorFinalizerEnabled = builder.cursorFinalizerEnabled;
         alwaysUseMBeans = builder.alwaysUseMBeans;
+        pipelinedConnectionsPerHost = builder.pipelinedConnectionsPerHost;
+        minConnectionsPerHost = builder.minConnectionsPerHost;
+        maxConnectionIdleTime = builder.maxConnectionIdleTime;
+        maxConnectionLifeTime = builder.maxConnectionLifeTime;
+        fieldNameCacheSize = builder.fieldNameCacheSize;
+        serverSelector = builder.serverSelector;
     }
 
 
@@ -597,4 +792,10 @@ public class MongoClientOptions {
     private final SocketFactory socketFactory;
     private final boolean cursorFinalizerEnabled;
     private final boolean alwaysUseMBeans;
+    private final int pipelinedConnectionsPerHost;
+    private final int minConnectionsPerHost;
+    private final int maxConnectionIdleTime;
+    private final int maxConnectionLifeTime;
+    private final int fieldNameCacheSize;
+    private final ServerSelector serverSelector;
 }
@@ -71,6 +71,9 @@ import java.util.logging.Logger;
  * <p>Connection pool configuration:</p>
  * <ul>
  * <li>{@code maxPoolSize=n}: The maximum number of connections in the connection pool.</li>
+ * <li>{@code minPoolSize=n}: The minimum number of connections in the connection pool, which are opened ahead of use.</li>
+ * <li>{@code maxIdleTimeMS=ms}: The maximum time in milliseconds that a pooled connection can stay idle before it is closed.</li>
+ * <li>{@code maxLifeTimeMS=ms}: The maximum time in milliseconds that a pooled connection can live before it is closed.</li>
  * <li>{@code waitQueueMultiple=n} : this multiplier, multiplied with the maxPoolSize setting, gives the maximum number of
  * threads that may be waiting for a connection to become available from the pool.  All further threads will get an
  * exception right away.</li>
@@ -264,6 +267,9 @@ public class MongoClientURI {
 
     static {
         generalOptionsKeys.add("maxpoolsize");
+        generalOptionsKeys.add("minpoolsize");
+        generalOptionsKeys.add("maxidletimems");
+        generalOptionsKeys.add("maxlifetimems");
         generalOptionsKeys.add("waitqueuemultiple");
         generalOptionsKeys.add("waitqueuetimeoutms");
         generalOptionsKeys.add("connecttimeoutms");
@@ -309,6 +315,12 @@ public class MongoClientURI {
 
             if (key.equals("maxpoolsize")) {
                 builder.connectionsPerHost(Integer.parseInt(value));
+            } else if (key.equals("minpoolsize")) {
+                builder.minConnectionsPerHost(Integer.parseInt(value));
+            } else if (key.equals("maxidletimems")) {
+                builder.maxConnectionIdleTime(Integer.parseInt(value));
+            } else if (key.equals("maxlifetimems")) {
+                builder.maxConnectionLifeTime(Integer.parseInt(value));
             } else if (key.equals("waitqueuemultiple")) {
                 builder.threadsAllowedToBlockForConnectionMultiplier(Integer.parseInt(value));
             } else if (key.equals("waitqueuetimeoutms")) {
@@ -40,6 +40,7 @@ import java.util.Set;
 class MongoCredentialsStore {
     private final Map<String, MongoCredential> credentialsMap = new HashMap<String, MongoCredential>();
     private volatile Set<String> allDatabasesWithCredentials = new HashSet<String>();
+    private volatile int generation;
 
     /**
      * Creates an empty store
@@ -92,6 +93,17 @@ class MongoCredentialsStore {
         credentialsMap.put(credentials.getSource(), credentials);
         allDatabasesWithCredentials = new HashSet<String>(allDatabasesWithCredentials);
         allDatabasesWithCredentials.add(credentials.getSource());
+        generation++;
+    }
+
+    /**
+     * Gets the number of times credentials have been added to this store.  A connection that has authenticated all
+     * the credentials of a given generation need not look at the store again until the generation changes.
+     *
+     * @return the generation, which starts at 0 for an empty store
+     */
+    int getGeneration() {
+        return generation;
     }
 
     /**
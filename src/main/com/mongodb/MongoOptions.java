@@ -18,6 +18,10 @@
 
 package com.mongodb;
 
+import org.bson.BasicBSONDecoder;
+import org.bson.FieldNameCache;
+import org.bson.LazyBSONDecoder;
+
 import javax.net.SocketFactory;
 
 /**
@@ -59,6 +63,12 @@ public class MongoOptions {
         writeConcern = options.getWriteConcern();
         slaveOk = false; // default to false, as readPreference field will be responsible
         alwaysUseMBeans = options.isAlwaysUseMBeans();
+        pipelinedConnectionsPerHost = options.getPipelinedConnectionsPerHost();
+        minConnectionsPerHost = options.getMinConnectionsPerHost();
+        maxConnectionIdleTime = options.getMaxConnectionIdleTime();
+        maxConnectionLifeTime = options.getMaxConnectionLifeTime();
+        fieldNameCacheSize = options.getFieldNameCacheSize();
+        serverSelector = options.getServerSelector();
     }
 
     public void reset(){
@@ -84,6 +94,12 @@ public class MongoOptions {
         description = null;
         cursorFinalizerEnabled = true;
         alwaysUseMBeans = false;
+        pipelinedConnectionsPerHost = 0;
+        minConnectionsPerHost = 0;
+        maxConnectionIdleTime = 0;
+        maxConnectionLifeTime = 0;
+        fieldNameCacheSize = 1024;
+        serverSelector = ServerSelectors.random();
     }
 
     public MongoOptions copy() {
@@ -110,6 +126,12 @@ public class MongoOptions {
         m.description = description;
         m.cursorFinalizerEnabled = cursorFinalizerEnabled;
         m.alwaysUseMBeans = alwaysUseMBeans;
+        m.pipelinedConnectionsPerHost = pipelinedConnectionsPerHost;
+        m.minConnectionsPerHost = minConnectionsPerHost;
+        m.maxConnectionIdleTime = maxConnectionIdleTime;
+        m.maxConnectionLifeTime = maxConnectionLifeTime;
+        m.fieldNameCacheSize = fieldNameCacheSize;
+        m.serverSelector = serverSelector;
         return m;
     }
 
@@ -162,6 +184,13 @@ public class MongoOptions {
             return false;
         if (writeConcern != null ? !writeConcern.equals(options.writeConcern) : options.writeConcern != null)
             return false;
+        if (pipelinedConnectionsPerHost != options.pipelinedConnectionsPerHost) return false;
+        if (minConnectionsPerHost != options.minConnectionsPerHost) return false;
+        if (maxConnectionIdleTime != options.maxConnectionIdleTime) return false;
+        if (maxConnectionLifeTime != options.maxConnectionLifeTime) return false;
+        if (fieldNameCacheSize != options.fieldNameCacheSize) return false;
+        if (serverSelector != null ? !serverSelector.equals(options.serverSelector) : options.serverSelector != null)
+            return false;
 
         return true;
     }
@@ -189,6 +218,12 @@ public class MongoOptions {
         result = 31 * result + (socketFactory != null ? socketFactory.hashCode() : 0);
         result = 31 * result + (cursorFinalizerEnabled ? 1 : 0);
         result = 31 * result + (writeConcern != null ? writeConcern.hashCode() : 0);
+        result = 31 * result + pipelinedConnectionsPerHost;
+        result = 31 * result + minConnectionsPerHost;
+        result = 31 * result + maxConnectionIdleTime;
+        result = 31 * result + maxConnectionLifeTime;
+        result = 31 * result + fieldNameCacheSize;
+        result = 31 * result + (serverSelector != null ? serverSelector.hashCode() : 0);
         return result;
     }
 
@@ -359,6 +394,43 @@ public class MongoOptions {
      */
     public boolean alwaysUseMBeans;
 
+    /**
+     * The number of pipelined connections per host.  When greater than zero, queries and commands that are not part
+     * of a request are sent over this many shared, pipelined connections instead of checking a connection out of the pool.
+     * Default is 0, which disables pipelining.
+     */
+    public int pipelinedConnectionsPerHost;
+
+    /**
+     * The minimum number of connections per server, which the pool opens in the background and keeps open.  Default is 0.
+     */
+    public int minConnectionsPerHost;
+
+    /**
+     * The maximum time in milliseconds that a pooled connection can be idle before it is closed.  Default is 0, which
+     * means there is no limit.
+     */
+    public int maxConnectionIdleTime;
+
+    /**
+     * The maximum time in milliseconds that a pooled connection can be open before it is closed.  Default is 0, which
+     * means there is no limit.
+     */
+    public int maxConnectionLifeTime;
+
+    /**
+     * The number of decoded field names kept by the client, so that documents with the same fields share their key
+     * strings.  Default is 1024; zero turns the cache off.  The cache is created the first time a decoder needs it, and
+     * later changes have no effect on it.
+     */
+    public int fieldNameCacheSize;
+
+    /**
+     * Chooses which of the replica set members allowed by a read preference a read goes to.  Default is
+     * {@link ServerSelectors#random()}.
+     */
+    public ServerSelector serverSelector;
+
     /**
      * @return The description for <code>MongoClient</code> instances created with these options
      */
@@ -690,6 +762,133 @@ public class MongoOptions {
         this.alwaysUseMBeans = alwaysUseMBeans;
     }
 
+    /**
+     *
+     * @return the number of pipelined connections per host
+     */
+    public int getPipelinedConnectionsPerHost() {
+        return pipelinedConnectionsPerHost;
+    }
+
+    /**
+     *
+     * @param pipelinedConnectionsPerHost the number of pipelined connections per host
+     */
+    public void setPipelinedConnectionsPerHost(final int pipelinedConnectionsPerHost) {
+        this.pipelinedConnectionsPerHost = pipelinedConnectionsPerHost;
+    }
+
+    /**
+     *
+     * @return the minimum number of connections per server
+     */
+    public int getMinConnectionsPerHost() {
+        return minConnectionsPerHost;
+    }
+
+    /**
+     *
+     * @param minConnectionsPerHost the minimum number of connections per server
+     */
+    public void setMinConnectionsPerHost(final int minConnectionsPerHost) {
+        this.minConnectionsPerHost = minConnectionsPerHost;
+    }
+
+    /**
+     *
+     * @return the maximum idle time, in milliseconds
+     */
+    public int getMaxConnectionIdleTime() {
+        return maxConnectionIdleTime;
+    }
+
+    /**
+     *
+     * @param maxConnectionIdleTime the maximum idle time, in milliseconds
+     */
+    public void setMaxConnectionIdleTime(final int maxConnectionIdleTime) {
+        this.maxConnectionIdleTime = maxConnectionIdleTime;
+    }
+
+    /**
+     *
+     * @return the maximum life time, in milliseconds
+     */
+    public int getMaxConnectionLifeTime() {
+        return maxConnectionLifeTime;
+    }
+
+    /**
+     *
+     * @param maxConnectionLifeTime the maximum life time, in milliseconds
+     */
+    public void setMaxConnectionLifeTime(final int maxConnectionLifeTime) {
+        this.maxConnectionLifeTime = maxConnectionLifeTime;
+    }
+
+    /**
+     *
+     * @return the number of field names
+     */
+    public synchronized int getFieldNameCacheSize() {
+        return fieldNameCacheSize;
+    }
+
+    /**
+     *
+     * @param fieldNameCacheSize the number of field names
+     */
+    public synchronized void setFieldNameCacheSize(final int fieldNameCacheSize) {
+        this.fieldNameCacheSize = fieldNameCacheSize;
+    }
+
+    /**
+     *
+     * @return the server selector
+     */
+    public synchronized ServerSelector getServerSelector() {
+        return serverSelector;
+    }
+
+    /**
+     *
+     * @param serverSelector the server selector
+     */
+    public synchronized void setServerSelector(final ServerSelector serverSelector) {
+        this.serverSelector = serverSelector;
+    }
+
+    /**
+     * Creates a decoder with {@link #dbDecoderFactory}, sharing the field name cache of these options if it's the kind of
+     * decoder that can use one.
+     */
+    DBDecoder createDecoder() {
+        DBDecoder decoder = dbDecoderFactory.create();
+        if (decoder instanceof BasicBSONDecoder) {
+            ((BasicBSONDecoder) decoder).setFieldNameCache(getFieldNameCache());
+        } else if (decoder instanceof LazyBSONDecoder) {
+            ((LazyBSONDecoder) decoder).setFieldNameCache(getFieldNameCache());
+        }
+        return decoder;
+    }
+
+    /**
+     * Every decoder asks for the cache, so once it has been created it is read without taking the lock.
+     *
+     * @return the field name cache of these options, created when first needed, or null if there is none
+     */
+    FieldNameCache getFieldNameCache() {
+        if (!fieldNameCacheCreated) {
+            synchronized (this) {
+                if (!fieldNameCacheCreated) {
+                    fieldNameCache = fieldNameCacheSize > 0 ? new FieldNameCache(fieldNameCacheSize) : null;
+                    fieldNameCacheCreated = true;
+                }
+            }
+        }
+        return fieldNameCache;
+    }
+
     @Override
     public String toString() {
         return "MongoOptions{" +
@@ -715,6 +914,16 @@ public class MongoOptions {
                 ", cursorFinalizerEnabled=" + cursorFinalizerEnabled +
                 ", writeConcern=" + writeConcern +
                 ", alwaysUseMBeans=" + alwaysUseMBeans +
+                ", pipelinedConnectionsPerHost=" + pipelinedConnectionsPerHost +
+                ", minConnectionsPerHost=" + minConnectionsPerHost +
+                ", maxConnectionIdleTime=" + maxConnectionIdleTime +
+                ", maxConnectionLifeTime=" + maxConnectionLifeTime +
+                ", fieldNameCacheSize=" + fieldNameCacheSize +
+                ", serverSelector=" + serverSelector +
                 '}';
     }
+
+    // written before fieldNameCacheCreated, whose volatile write publishes it
+    private FieldNameCache fieldNameCache;
+    private volatile boolean fieldNameCacheCreated;
 }
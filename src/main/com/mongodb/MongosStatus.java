@@ -17,12 +17,15 @@
 package com.mongodb;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A connection to a set of mongos servers.
+ * A connection to a set of mongos servers.  Operations are spread across every healthy mongos whose latency is within
+ * {@code com.mongodb.mongosAcceptableLatencyMS} (15ms by default) of the fastest one.
  */
 class MongosStatus extends ConnectionStatus {
 
@@ -45,6 +48,56 @@ class MongosStatus extends ConnectionStatus {
     }
 
 
+    /**
+     * Chooses the mongos for an operation from those currently acceptable, falling back to the preferred one if
+     * every acceptable mongos has been ejected since the last pass.
+     *
+     * @param selector chooses among the acceptable mongos, or null to choose one at random
+     * @param load the load on each mongos, for the selector
+     * @return the chosen mongos, or null if none is known to be up
+     */
+    Node choose(ServerSelector selector, ServerLoad load) {
+        checkClosed();
+        Node node = choose(acceptable, random, selector, load);
+        return node != null ? node : preferred;
+    }
+
+    /**
+     * @return true if operations are currently being spread to the given mongos
+     */
+    boolean isAcceptable(ServerAddress addr) {
+        for (Node cur : acceptable) {
+            if (cur.getServerAddress().equals(addr)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops sending operations to the given mongos until the updater next sees it up, and asks the updater to
+     * check the servers now.  Called when a connection to the mongos fails.
+     */
+    void eject(ServerAddress addr) {
+        boolean ejected = false;
+        synchronized (this) {
+            List<Node> remaining = new ArrayList<Node>(acceptable.size());
+            for (Node cur : acceptable) {
+                if (!cur.getServerAddress().equals(addr)) {
+                    remaining.add(cur);
+                }
+            }
+            if (remaining.size() != acceptable.size()) {
+                acceptable = Collections.unmodifiableList(remaining);
+                ejected = true;
+            }
+        }
+        if (ejected) {
+            logger.log(Level.WARNING, "Ejecting mongos " + addr + " until it is seen up again");
+        }
+        requestUpdate();
+    }
+
     @Override
     List<ServerAddress> getServerAddressList() {
         return new ArrayList<ServerAddress>(_mongosAddresses);
@@ -70,13 +123,13 @@ class MongosStatus extends ConnectionStatus {
                                 }
                             }
                         }
-                        setPreferred(bestThisPass);
+                        setPreferred(bestThisPass, mongosNodes);
                     } catch (Exception e) {
                         logger.log(Level.WARNING, "couldn't do update pass", e);
                     }
 
                     int sleepTime = preferred == null ? updaterIntervalNoMasterMS : updaterIntervalMS;
-                    Thread.sleep(sleepTime);
+                    sleepUnlessWoken(sleepTime);
                 }
             } catch (InterruptedException e) {
                 logger.log(Level.INFO, "Exiting background thread");
@@ -104,16 +157,29 @@ class MongosStatus extends ConnectionStatus {
         }
     }
 
-    // Sends a notification every time preferred is set.
-    private synchronized void setPreferred(final MongosNode bestThisPass) {
+    // Sends a notification every time preferred is set.  Every ok node within the latency window of the best one
+    // becomes acceptable, which also brings back any that were ejected since the last pass.
+    synchronized void setPreferred(final MongosNode bestThisPass, final List<MongosNode> mongosNodes) {
         if (bestThisPass == null) {
             preferred = null;
+            acceptable = Collections.emptyList();
         } else {
-            preferred = new Node(bestThisPass._pingTimeMS, bestThisPass._addr, bestThisPass._maxBsonObjectSize, bestThisPass.isOk());
+            preferred = toNode(bestThisPass);
+            List<Node> nodes = new ArrayList<Node>(mongosNodes.size());
+            for (MongosNode cur : mongosNodes) {
+                if (cur.isOk() && cur._pingTimeMS - bestThisPass._pingTimeMS <= acceptableLatencyMS) {
+                    nodes.add(cur == bestThisPass ? preferred : toNode(cur));
+                }
+            }
+            acceptable = Collections.unmodifiableList(nodes);
         }
         notifyAll();
     }
 
+    private static Node toNode(final MongosNode node) {
+        return new Node(node._pingTimeMS, node._addr, node._maxBsonObjectSize, node.isOk());
+    }
+
     // Gets the current preferred node.  If there is no preferred node, wait to get a notification before returning null.
     private synchronized Node getPreferred() {
         if (preferred == null) {
@@ -131,4 +197,15 @@ class MongosStatus extends ConnectionStatus {
     // The current preferred mongos Node to use as the master.  This is not necessarily the node that is currently in use.
     // Rather, it's the node that is preferred if there is a problem with the currently in use node.
     private volatile Node preferred;
+
+    // The mongos Nodes that operations are currently spread across
+    private volatile List<Node> acceptable = Collections.emptyList();
+
+    private final Random random = new Random();
+
+    static final int acceptableLatencyMS;
+
+    static {
+        acceptableLatencyMS = Integer.parseInt(System.getProperty("com.mongodb.mongosAcceptableLatencyMS", "15"));
+    }
 }
\ No newline at end of file
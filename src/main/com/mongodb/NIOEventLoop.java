@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A thread running a {@code Selector}, which performs all reads and writes for the {@link AsyncDBPort}s registered with it.
+ * Other threads only ever hand work to the loop through its queues, and wake it up.
+ */
+class NIOEventLoop implements Runnable {
+
+    NIOEventLoop(final String name) throws IOException {
+        _selector = Selector.open();
+        _thread = new Thread(this, name);
+        _thread.setDaemon(true);
+        _thread.start();
+    }
+
+    /**
+     * Registers a connected port with this loop.  Channels can only be registered safely from the loop's own thread,
+     * so the registration itself happens on the next turn of the loop.
+     */
+    void register(final AsyncDBPort port) {
+        _toRegister.add(port);
+        _selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to start writing the queued messages of a port.
+     */
+    void scheduleWrite(final AsyncDBPort port) {
+        _toWrite.add(port);
+        _selector.wakeup();
+    }
+
+    public void run() {
+        long nextExpiry = System.nanoTime() + EXPIRY_INTERVAL_NANOS;
+        while (!_closed) {
+            try {
+                _selector.select(EXPIRY_INTERVAL_MS);
+                processRegistrations();
+                processWrites();
+
+                long now = System.nanoTime();
+                if (now - nextExpiry >= 0) {
+                    expireRequests(now);
+                    nextExpiry = now + EXPIRY_INTERVAL_NANOS;
+                }
+
+                Iterator<SelectionKey> keys = _selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    AsyncDBPort port = (AsyncDBPort) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            port.handleRead();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            port.handleWrite();
+                        }
+                    } catch (IOException e) {
+                        port.fail(e);
+                    } catch (CancelledKeyException e) {
+                        port.fail(new IOException("connection closed"));
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (Throwable t) {
+                // don't let one bad connection kill the loop that serves all the others
+                _logger.log(Level.WARNING, "Exception in event loop " + _thread.getName(), t);
+            }
+        }
+    }
+
+    private void processRegistrations() {
+        AsyncDBPort port;
+        while ((port = _toRegister.poll()) != null) {
+            try {
+                port.registered(port.getChannel().register(_selector, SelectionKey.OP_READ, port));
+            } catch (IOException e) {
+                port.fail(e);
+            }
+        }
+    }
+
+    // only what was queued when the drain started: a port that schedules itself again waits for the next turn, so
+    // that a port still waiting for its registration can't keep the loop in here forever
+    private void processWrites() {
+        AsyncDBPort port;
+        for (int n = _toWrite.size(); n > 0 && (port = _toWrite.poll()) != null; n--) {
+            try {
+                port.handleWrite();
+            } catch (IOException e) {
+                port.fail(e);
+            } catch (CancelledKeyException e) {
+                port.fail(new IOException("connection closed"));
+            }
+        }
+    }
+
+    private void expireRequests(final long now) {
+        for (SelectionKey key : _selector.keys()) {
+            ((AsyncDBPort) key.attachment()).expireRequests(now);
+        }
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == _thread;
+    }
+
+    void close() {
+        _closed = true;
+        try {
+            _selector.close();
+        } catch (IOException e) {
+            // don't care
+        }
+    }
+
+    // how often requests are checked against the socket timeout, which is therefore only enforced to within this much
+    private static final long EXPIRY_INTERVAL_MS = 100;
+    private static final long EXPIRY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(EXPIRY_INTERVAL_MS);
+
+    private static final Logger _logger = Logger.getLogger(Bytes.LOGGER.getName() + ".nio");
+
+    private final Selector _selector;
+    private final Thread _thread;
+    private final Queue<AsyncDBPort> _toRegister = new ConcurrentLinkedQueue<AsyncDBPort>();
+    private final Queue<AsyncDBPort> _toWrite = new ConcurrentLinkedQueue<AsyncDBPort>();
+    private volatile boolean _closed;
+}
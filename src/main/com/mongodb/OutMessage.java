@@ -23,7 +23,12 @@ import org.bson.types.ObjectId;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class OutMessage extends BasicBSONEncoder {
@@ -65,8 +70,12 @@ class OutMessage extends BasicBSONEncoder {
     }
 
     public static OutMessage remove(final DBCollection collection, final DBEncoder encoder, final DBObject query) {
+        return remove(collection, encoder, query, false);
+    }
+
+    static OutMessage remove(final DBCollection collection, final DBEncoder encoder, final DBObject query, final boolean justOne) {
         OutMessage om = new OutMessage(collection, OpCode.OP_DELETE, encoder, query);
-        om.writeRemove();
+        om.writeRemove(justOne);
 
         return om;
     }
@@ -175,13 +184,15 @@ class OutMessage extends BasicBSONEncoder {
         putObject(o);
     }
 
-    private void writeRemove() {
+    private void writeRemove(final boolean justOne) {
         writeInt(0); // reserved
         writeCString(_collection.getFullName());
 
         Collection<String> keys = _query.keySet();
 
-        if ( keys.size() == 1 && keys.iterator().next().equals( "_id" ) && _query.get( keys.iterator().next() ) instanceof ObjectId)
+        if ( justOne )
+            writeInt( 1 );
+        else if ( keys.size() == 1 && keys.iterator().next().equals( "_id" ) && _query.get( keys.iterator().next() ) instanceof ObjectId)
             writeInt( 1 );
         else
             writeInt( 0 );
@@ -225,7 +236,7 @@ class OutMessage extends BasicBSONEncoder {
             throw new IllegalStateException("Already closed");
         }
 
-        _buffer.writeInt( 0 , _buffer.size() );
+        _buffer.writeInt( 0 , size() );
     }
 
     void pipe( OutputStream out ) throws IOException {
@@ -233,7 +244,80 @@ class OutMessage extends BasicBSONEncoder {
             throw new IllegalStateException("Already closed");
         }
 
-        _buffer.pipe( out );
+        if (_splices == null) {
+            _buffer.pipe( out );
+            return;
+        }
+
+        for (ByteBuffer buf : toByteBuffers()) {
+            out.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        }
+    }
+
+    /**
+     * Writes the whole message to the channel, handing all of its buffers to the channel at once.
+     *
+     * @return the number of bytes written
+     */
+    long write( GatheringByteChannel channel ) throws IOException {
+        prepare();
+
+        ByteBuffer[] buffers = toByteBuffers();
+        long total = 0;
+        while (total < size()) {
+            total += channel.write(buffers);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the message as a sequence of non-empty buffers that share their contents with this message, including the
+     * documents spliced in by reference.  The buffers are only valid until {@link #doneWithMessage()} is called.
+     */
+    ByteBuffer[] toByteBuffers() {
+        prepare();
+
+        List<ByteBuffer> segments = _buffer.asByteBuffers();
+        List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(segments.size() + (_splices == null ? 0 : 2 * _splices.size()));
+        Iterator<Splice> splices = _splices == null ? null : _splices.iterator();
+        Splice next = splices == null ? null : splices.next();
+        int pos = 0;
+        for (ByteBuffer segment : segments) {
+            int segmentEnd = pos + segment.remaining();
+            // a splice at the very end of a segment belongs before the start of the next one, unless this is the last
+            while (next != null && (next._position < segmentEnd || (next._position == segmentEnd && segmentEnd == _buffer.size()))) {
+                ByteBuffer before = segment.slice();
+                before.limit(next._position - pos);
+                addIfNotEmpty(buffers, before);
+                segment.position(segment.position() + before.limit());
+                pos = next._position;
+
+                buffers.add(next._data.duplicate());
+                next = splices.hasNext() ? splices.next() : null;
+            }
+            addIfNotEmpty(buffers, segment);
+            pos = segmentEnd;
+        }
+        return buffers.toArray(new ByteBuffer[buffers.size()]);
+    }
+
+    private static void addIfNotEmpty(final List<ByteBuffer> buffers, final ByteBuffer buf) {
+        if (buf.hasRemaining()) {
+            buffers.add(buf);
+        }
+    }
+
+    byte[] toByteArray() {
+        prepare();
+        if (_splices == null) {
+            return _buffer.toByteArray();
+        }
+
+        ByteBuffer all = ByteBuffer.allocate(size());
+        for (ByteBuffer buf : toByteBuffers()) {
+            all.put(buf);
+        }
+        return all.array();
     }
 
     int size() {
@@ -241,7 +325,7 @@ class OutMessage extends BasicBSONEncoder {
             throw new IllegalStateException("Already closed");
         }
 
-        return _buffer.size();
+        return _buffer.size() + _splicedSize;
     }
 
     void doneWithMessage() {
@@ -252,6 +336,7 @@ class OutMessage extends BasicBSONEncoder {
         _buffer.reset();
         _mongo._bufferPool.done(_buffer);
         _buffer = null;
+        _splices = null;
         done();
     }
 
@@ -285,8 +370,14 @@ class OutMessage extends BasicBSONEncoder {
             throw new IllegalStateException("Already closed");
         }
 
+        int objectSize;
+        if (canSplice(o)) {
+            objectSize = splice(((LazyDBObject) o).asByteBuffer());
+        } else {
+            objectSize = _encoder.writeObject(_buf, o);
+        }
+
         // check max size
-        int objectSize = _encoder.writeObject(_buf, o);
         if (objectSize > Math.max(_mongo.getConnector().getMaxBsonObjectSize(), Bytes.MAX_OBJECT_SIZE)) {
             throw new MongoInternalException("DBObject of size " + objectSize + " is over Max BSON size " + _mongo.getMaxBsonObjectSize());
         }
@@ -294,9 +385,70 @@ class OutMessage extends BasicBSONEncoder {
         return objectSize;
     }
 
+    /**
+     * Adds the object unless that would take the message over the given size, in which case the message is left as it
+     * was.
+     *
+     * @return true if the object was added
+     */
+    @SuppressWarnings("deprecation")
+    boolean putObjectIfFits(BSONObject o, int maxMessageSize) {
+        if (_buffer == null) {
+            throw new IllegalStateException("Already closed");
+        }
+
+        if (canSplice(o)) {
+            if (size() + ((LazyDBObject) o).getBSONSize() > maxMessageSize) {
+                return false;
+            }
+            putObject(o);
+            return true;
+        }
+
+        int position = _buffer.size();
+        putObject(o);
+        if (size() <= maxMessageSize) {
+            return true;
+        }
+        _buffer.truncateToPosition(position);
+        _numDocuments--;
+        return false;
+    }
+
+    // the lazy encoder copies the object's bytes as they are, so a big enough one can be sent from where it is
+    private boolean canSplice(final BSONObject o) {
+        return _encoder != null && _encoder.getClass() == LazyDBEncoder.class && o instanceof LazyDBObject
+               && ((LazyDBObject) o).getBSONSize() >= MIN_SPLICE_SIZE;
+    }
+
+    private int splice(final ByteBuffer data) {
+        if (_splices == null) {
+            _splices = new ArrayList<Splice>();
+        }
+        _splices.add(new Splice(_buffer.size(), data));
+        _splicedSize += data.remaining();
+        return data.remaining();
+    }
+
+    // an already encoded document that is sent by reference, rather than being copied into the buffer
+    private static class Splice {
+        Splice(final int position, final ByteBuffer data) {
+            _position = position;
+            _data = data;
+        }
+
+        final int _position; // where in the buffer the data goes, before anything written after it
+        final ByteBuffer _data;
+    }
+
+    // smaller documents are cheaper to copy than to send as a separate buffer
+    static final int MIN_SPLICE_SIZE = 4 * 1024;
+
     private final Mongo _mongo;
     private final DBCollection _collection;
     private PoolOutputBuffer _buffer;
+    private List<Splice> _splices;
+    private int _splicedSize;
     private final int _id;
     private final OpCode _opCode;
     private final int _queryOptions;
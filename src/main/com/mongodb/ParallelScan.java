@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scans the documents that match a query with several cursors at once.  The query is split into ranges of a key, each
+ * range is read by its own cursor, on its own connection and thread, and every document is handed to a {@link Sink}.
+ *
+ * <p>By default the ranges split the span of _id creation times evenly, which only suits collections whose _ids are
+ * all ObjectIds: documents with any other type of _id are not seen.  With {@link #partitionBy(String, List)} the ranges
+ * are given by split points of another key instead, and documents that lack the key are not seen.</p>
+ *
+ * <p>Create one with {@link DBCollection#parallelScan(DBObject)}.  Instances are not thread safe, but the sink is called
+ * from several threads at once, with no ordering between documents of different ranges.</p>
+ *
+ * @since 2.12.0
+ */
+public class ParallelScan {
+
+    /**
+     * Receives the documents of a scan.
+     */
+    public interface Sink {
+        /**
+         * Called once for each document, possibly by several threads at once.
+         *
+         * @param document the document
+         */
+        void accept( DBObject document );
+    }
+
+    ParallelScan( DBCollection collection , DBObject query ){
+        _collection = collection;
+        _query = query != null ? query : new BasicDBObject();
+        _readPref = collection.getReadPreference();
+    }
+
+    /**
+     * @param fields the fields to return, or null for all of them
+     * @return this
+     */
+    public ParallelScan fields( DBObject fields ){
+        _fields = fields;
+        return this;
+    }
+
+    /**
+     * Sets the number of ranges when splitting by _id, which is also the number of cursors.  It defaults to the number of
+     * processors.
+     *
+     * @param partitions the number of ranges
+     * @return this
+     */
+    public ParallelScan partitions( int partitions ){
+        if ( partitions < 1 )
+            throw new IllegalArgumentException( "partitions must be at least 1" );
+        _partitions = partitions;
+        return this;
+    }
+
+    /**
+     * Splits the scan on a key instead of on _id.  With n split points there are n + 1 ranges: below the first point,
+     * between each pair of points, and from the last point on.
+     *
+     * @param key the key, typically a shard key
+     * @param splitPoints the ascending split points
+     * @return this
+     */
+    public ParallelScan partitionBy( String key , List<?> splitPoints ){
+        if ( key == null || splitPoints == null )
+            throw new IllegalArgumentException( "key and split points can not be null" );
+        _key = key;
+        _splitPoints = new ArrayList<Object>( splitPoints );
+        return this;
+    }
+
+    /**
+     * @param batchSize the batch size of each cursor
+     * @return this
+     */
+    public ParallelScan batchSize( int batchSize ){
+        _batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param readPref the read preference of the cursors, which defaults to the collection's
+     * @return this
+     */
+    public ParallelScan readPreference( ReadPreference readPref ){
+        _readPref = readPref;
+        return this;
+    }
+
+    /**
+     * Runs the cursors on the given executor instead of on threads of their own.
+     *
+     * @param executor the executor, which must be able to run all the ranges at once
+     * @return this
+     */
+    public ParallelScan executor( ExecutorService executor ){
+        _executor = executor;
+        return this;
+    }
+
+    /**
+     * Scans the documents, and returns once every range has been read.  If reading a range or the sink fails, the other
+     * ranges are stopped as soon as possible and the first failure is thrown.
+     *
+     * @param sink the sink for the documents
+     * @return the number of documents scanned
+     * @throws MongoException
+     */
+    public long forEach( final Sink sink ){
+        List<DBObject> ranges = getRanges();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        final AtomicLong count = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch( ranges.size() );
+
+        ExecutorService executor = _executor != null ? _executor : Executors.newFixedThreadPool( ranges.size() , THREAD_FACTORY );
+        try {
+            for ( final DBObject range : ranges ){
+                executor.execute( new Runnable() {
+                    public void run(){
+                        DBCursor cursor = null;
+                        try {
+                            cursor = _collection.find( range , _fields ).batchSize( _batchSize ).setReadPreference( _readPref );
+                            while ( failure.get() == null && cursor.hasNext() ){
+                                sink.accept( cursor.next() );
+                                count.incrementAndGet();
+                            }
+                        }
+                        catch ( RuntimeException e ){
+                            failure.compareAndSet( null , e );
+                        }
+                        finally {
+                            if ( cursor != null )
+                                cursor.close();
+                            done.countDown();
+                        }
+                    }
+                });
+            }
+            done.await();
+        }
+        catch ( InterruptedException e ){
+            failure.compareAndSet( null , new MongoInterruptedException( e ) );
+        }
+        finally {
+            if ( executor != _executor )
+                executor.shutdown();
+        }
+
+        if ( failure.get() != null )
+            throw failure.get();
+        return count.get();
+    }
+
+    List<DBObject> getRanges(){
+        if ( _key != null )
+            return getRanges( _key , _splitPoints );
+
+        DBObject first = findEdge( 1 );
+        DBObject last = findEdge( -1 );
+        if ( first == null || !( first.get( "_id" ) instanceof ObjectId ) || !( last.get( "_id" ) instanceof ObjectId ) )
+            return Arrays.asList( _query );
+
+        long start = ( (ObjectId) first.get( "_id" ) ).getTimestamp();
+        long end = ( (ObjectId) last.get( "_id" ) ).getTimestamp() + 1;
+        List<Object> splitPoints = new ArrayList<Object>();
+        for ( int i = 1; i < _partitions; i++ ){
+            int time = (int) ( start + ( end - start ) * i / _partitions );
+            ObjectId point = ObjectId.createFromLegacyFormat( time , 0 , 0 );
+            if ( splitPoints.isEmpty() || !point.equals( splitPoints.get( splitPoints.size() - 1 ) ) )
+                splitPoints.add( point );
+        }
+        return getRanges( "_id" , splitPoints );
+    }
+
+    // the document with the lowest or highest _id, by index
+    private DBObject findEdge( int direction ){
+        DBCursor cursor = _collection.find( _query , new BasicDBObject( "_id" , 1 ) ).sort( new BasicDBObject( "_id" , direction ) )
+                                     .limit( -1 ).setReadPreference( _readPref );
+        try {
+            return cursor.hasNext() ? cursor.next() : null;
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    private List<DBObject> getRanges( String key , List<Object> splitPoints ){
+        List<DBObject> ranges = new ArrayList<DBObject>();
+        for ( int i = 0; i <= splitPoints.size(); i++ ){
+            BasicDBObject range = new BasicDBObject();
+            if ( i > 0 )
+                range.put( "$gte" , splitPoints.get( i - 1 ) );
+            if ( i < splitPoints.size() )
+                range.put( "$lt" , splitPoints.get( i ) );
+            ranges.add( restrict( key , range ) );
+        }
+        return ranges;
+    }
+
+    // the range is merged into the query, or and-ed with it if the query already has a condition on the key
+    private DBObject restrict( String key , DBObject range ){
+        if ( range.keySet().isEmpty() )
+            return _query;
+
+        if ( _query.containsField( key ) ){
+            List<DBObject> conditions = new ArrayList<DBObject>();
+            conditions.add( _query );
+            conditions.add( new BasicDBObject( key , range ) );
+            return new BasicDBObject( "$and" , conditions );
+        }
+
+        BasicDBObject query = new BasicDBObject();
+        query.putAll( _query );
+        query.put( key , range );
+        return query;
+    }
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        public Thread newThread( Runnable r ){
+            Thread t = new Thread( r , "ParallelScan-" + _nextThread.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+
+        private final AtomicInteger _nextThread = new AtomicInteger();
+    };
+
+    private final DBCollection _collection;
+    private final DBObject _query;
+    private DBObject _fields;
+    private int _partitions = Runtime.getRuntime().availableProcessors();
+    private String _key;
+    private List<Object> _splitPoints;
+    private int _batchSize;
+    private ReadPreference _readPref;
+    private ExecutorService _executor;
+}
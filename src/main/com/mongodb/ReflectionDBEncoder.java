@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.BSONObject;
+
+import java.util.List;
+
+import static org.bson.BSON.EOO;
+import static org.bson.BSON.OBJECT;
+
+/**
+ * An encoder that writes {@link ReflectionDBObject}s straight from their getters.  The getters of each class are looked
+ * up once and kept in key order, so encoding doesn't go through {@link ReflectionDBObject#keySet()} and a lookup by name
+ * for every field.  The documents written are the same as those written by {@link DefaultDBEncoder}.
+ *
+ * <p>To use it for a collection whose object class is a {@code ReflectionDBObject}:</p>
+ * <pre>
+ *    collection.setObjectClass( Person.class );
+ *    collection.setDBEncoderFactory( ReflectionDBEncoder.FACTORY );
+ * </pre>
+ *
+ * @since 2.12.0
+ */
+public class ReflectionDBEncoder extends DefaultDBEncoder {
+
+    static class ReflectionFactory implements DBEncoderFactory {
+        @Override
+        public DBEncoder create( ){
+            return new ReflectionDBEncoder( );
+        }
+
+        @Override
+        public String toString() {
+            return "ReflectionDBEncoder.ReflectionFactory";
+        }
+    }
+
+    public static final DBEncoderFactory FACTORY = new ReflectionFactory();
+
+    public ReflectionDBEncoder( ){
+    }
+
+    @Override
+    protected boolean handleSpecialObjects( String name , BSONObject o ){
+        if ( ! ( o instanceof ReflectionDBObject ) )
+            return false;
+
+        ReflectionDBObject obj = (ReflectionDBObject)o;
+        ReflectionDBObject.JavaWrapper wrapper = obj.getWrapper();
+
+        if ( name != null )
+            _put( OBJECT , name );
+
+        final int sizePos = _buf.getPosition();
+        _buf.writeInt( 0 );
+
+        boolean rewriteID = name == null;
+        if ( rewriteID && wrapper.keySet().contains( "_id" ) )
+            putField( "_id" , obj.get_id() );
+
+        Object transientFields = wrapper.keySet().contains( "_transientFields" ) ? obj.get( "_transientFields" ) : null;
+
+        for ( ReflectionDBObject.FieldInfo fi : wrapper.fields() ){
+            if ( rewriteID && fi._name.equals( "_id" ) )
+                continue;
+
+            if ( transientFields instanceof List && ( (List)transientFields ).contains( fi._name ) )
+                continue;
+
+            putField( fi._name , wrapper.get( obj , fi ) );
+        }
+
+        _buf.write( EOO );
+        _buf.writeInt( sizePos , _buf.getPosition() - sizePos );
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ReflectionDBEncoder";
+    }
+}
@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bson.BSONObject;
 
@@ -166,6 +167,9 @@ public abstract class ReflectionDBObject implements DBObject {
                     _fields.remove( name );
             
             _keys = Collections.unmodifiableSet( _fields.keySet() );
+            _fieldArray = _fields.values().toArray( new FieldInfo[ _fields.size() ] );
+            for ( FieldInfo fi : _fieldArray )
+                fi.makeAccessible();
         }
 
         public Set<String> keySet(){
@@ -184,14 +188,25 @@ public abstract class ReflectionDBObject implements DBObject {
             FieldInfo i = _fields.get( name );
             if ( i == null )
                 return null;
+            return get( t , i );
+        }
+
+        Object get( ReflectionDBObject t , FieldInfo i ){
             try {
                 return i._getter.invoke( t );
             }
             catch ( Exception e ){
-                throw new RuntimeException( "could not invoke getter for [" + name + "] on [" + _name + "]" , e );
+                throw new RuntimeException( "could not invoke getter for [" + i._name + "] on [" + _name + "]" , e );
             }
         }
 
+        /**
+         * @return the fields, in key order
+         */
+        FieldInfo[] fields(){
+            return _fieldArray;
+        }
+
         public Object set( ReflectionDBObject t , String name , Object val ){
             FieldInfo i = _fields.get( name );
             if ( i == null )
@@ -230,6 +245,7 @@ public abstract class ReflectionDBObject implements DBObject {
         final String _name;
         final Map<String,FieldInfo> _fields;
         final Set<String> _keys;
+        final FieldInfo[] _fieldArray;
     }
     
     static class FieldInfo {
@@ -243,6 +259,16 @@ public abstract class ReflectionDBObject implements DBObject {
                 _getter != null &&
                 _setter != null;
         }
+
+        void makeAccessible(){
+            try {
+                _getter.setAccessible( true );
+                _setter.setAccessible( true );
+            }
+            catch ( SecurityException se ){
+                // leaves the access checks on every call
+            }
+        }
         
         final String _name;
         final Class _class;
@@ -275,7 +301,7 @@ public abstract class ReflectionDBObject implements DBObject {
         return w;
     }
     
-    private static final Map<Class,JavaWrapper> _wrappers = Collections.synchronizedMap( new HashMap<Class,JavaWrapper>() );
+    private static final Map<Class,JavaWrapper> _wrappers = new ConcurrentHashMap<Class,JavaWrapper>();
     private static final Set<String> IGNORE_FIELDS = new HashSet<String>();
     static {
         IGNORE_FIELDS.add( "Int" );
@@ -31,6 +31,16 @@ import java.util.LinkedHashMap;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -64,6 +74,7 @@ public class ReplicaSetStatus extends ConnectionStatus {
         sb.append(", members: ").append(_replicaSetHolder);
         sb.append(", updaterIntervalMS: ").append(updaterIntervalMS);
         sb.append(", updaterIntervalNoMasterMS: ").append(updaterIntervalNoMasterMS);
+        sb.append(", updaterMinWokenIntervalMS: ").append(updaterMinWokenIntervalMS);
         sb.append(", slaveAcceptableLatencyMS: ").append(slaveAcceptableLatencyMS);
         sb.append(", latencySmoothFactor: ").append(latencySmoothFactor);
         sb.append("}");
@@ -183,11 +194,25 @@ public class ReplicaSetStatus extends ConnectionStatus {
         final String setName;
         final ReplicaSetErrorStatus errorStatus;
 
+        final ServerSelector selector;
+        final ServerLoad load;
+
         private int acceptableLatencyMS;
         
         public ReplicaSet(List<ReplicaSetNode> nodeList, Random random, int acceptableLatencyMS) {
+            this(nodeList, random, acceptableLatencyMS, null, null);
+        }
+
+        /**
+         * @param selector chooses among the acceptable members for a read, or null to choose one at random
+         * @param load the load on each member, for the selector
+         */
+        public ReplicaSet(List<ReplicaSetNode> nodeList, Random random, int acceptableLatencyMS, ServerSelector selector,
+                          ServerLoad load) {
             
             this.random = random;
+            this.selector = selector;
+            this.load = load;
             this.all = Collections.unmodifiableList(new ArrayList<ReplicaSetNode>(nodeList));
             this.acceptableLatencyMS = acceptableLatencyMS;
 
@@ -229,10 +254,7 @@ public class ReplicaSetStatus extends ConnectionStatus {
         public ReplicaSetNode getASecondary() {
             checkStatus();
             
-            if (acceptableSecondaries.isEmpty()) {
-                return null;
-            }
-            return acceptableSecondaries.get(random.nextInt(acceptableSecondaries.size()));
+            return choose(acceptableSecondaries);
         }
 
         public ReplicaSetNode getASecondary(List<Tag> tags) {
@@ -243,21 +265,13 @@ public class ReplicaSetStatus extends ConnectionStatus {
                 return getASecondary();
             }
 
-            List<ReplicaSetNode> acceptableTaggedSecondaries = getGoodSecondariesByTags(tags);
-
-            if (acceptableTaggedSecondaries.isEmpty()) {
-                return null;
-            }
-            return acceptableTaggedSecondaries.get(random.nextInt(acceptableTaggedSecondaries.size()));
+            return choose(getGoodSecondariesByTags(tags));
         }
         
         public ReplicaSetNode getAMember() {
             checkStatus();
             
-            if (acceptableMembers.isEmpty()) {
-                return null;
-            }
-            return acceptableMembers.get(random.nextInt(acceptableMembers.size()));
+            return choose(acceptableMembers);
         }
 
         public ReplicaSetNode getAMember(List<Tag> tags) {
@@ -266,12 +280,11 @@ public class ReplicaSetStatus extends ConnectionStatus {
             if (tags.isEmpty())
                 return getAMember();
 
-            List<ReplicaSetNode> acceptableTaggedMembers = getGoodMembersByTags(tags);
+            return choose(getGoodMembersByTags(tags));
+        }
 
-            if (acceptableTaggedMembers.isEmpty())
-                return null;
-                
-            return acceptableTaggedMembers.get(random.nextInt(acceptableTaggedMembers.size()));
+        private ReplicaSetNode choose(List<ReplicaSetNode> acceptable) {
+            return ConnectionStatus.choose(acceptable, random, selector, load);
         }
 
         List<ReplicaSetNode> getGoodSecondaries(List<ReplicaSetNode> all) {
@@ -585,12 +598,33 @@ public class ReplicaSetStatus extends ConnectionStatus {
             _lastPrimarySignal = lastPrimarySignal;
         }
 
-        void update(Set<UpdatableReplicaSetNode> seenNodes) {
+        /**
+         * Runs isMaster against this member and records what it reports.  Safe to call for different members at the
+         * same time.
+         *
+         * @return true if the member's role or reachability changed, so a new snapshot of the set is worth publishing
+         */
+        boolean update(Set<UpdatableReplicaSetNode> seenNodes) {
+            boolean wasOk = isOk();
             CommandResult res = update();
             if (res == null || !isOk()) {
-                return;
+                return wasOk;
             }
 
+            synchronized (this) {
+                boolean wasMaster = _isMaster;
+                boolean wasSecondary = _isSecondary;
+                String oldSetName = _setName;
+                int oldMembers = _all.size();
+
+                updateFrom(res, seenNodes);
+
+                return !wasOk || wasMaster != _isMaster || wasSecondary != _isSecondary
+                       || (oldSetName == null ? _setName != null : !oldSetName.equals(_setName)) || oldMembers != _all.size();
+            }
+        }
+
+        private void updateFrom(CommandResult res, Set<UpdatableReplicaSetNode> seenNodes) {
             _isMaster = res.getBoolean("ismaster", false);
             _isSecondary = res.getBoolean("secondary", false);
             _lastPrimarySignal.set(res.getString("primary"));
@@ -635,17 +669,24 @@ public class ReplicaSetStatus extends ConnectionStatus {
             return _logger.get();
         }
 
+        // synchronized on the shared member list, as other members may be reporting the same host concurrently
         UpdatableReplicaSetNode _addIfNotHere(String host) {
-            UpdatableReplicaSetNode n = findNode(host, _all, _logger);
-            if (n == null) {
-                try {
-                    n = new UpdatableReplicaSetNode(new ServerAddress(host), _all, _logger, _mongo, _mongoOptions, _lastPrimarySignal);
-                    _all.add(n);
-                } catch (UnknownHostException un) {
-                    _logger.get().log(Level.WARNING, "couldn't resolve host [" + host + "]");
+            synchronized (_all) {
+                UpdatableReplicaSetNode n = findNode(host, _all, _logger);
+                if (n == null) {
+                    try {
+                        n = new UpdatableReplicaSetNode(new ServerAddress(host), _all, _logger, _mongo, _mongoOptions, _lastPrimarySignal);
+                        _all.add(n);
+                    } catch (UnknownHostException un) {
+                        _logger.get().log(Level.WARNING, "couldn't resolve host [" + host + "]");
+                    }
                 }
+                return n;
             }
-            return n;
+        }
+
+        synchronized ReplicaSetNode toReplicaSetNode() {
+            return new ReplicaSetNode(_addr, _names, _setName, _pingTimeMS, isOk(), _isMaster, _isSecondary, _tags, _maxBsonObjectSize);
         }
 
         private UpdatableReplicaSetNode findNode(String host, List<UpdatableReplicaSetNode> members, AtomicReference<Logger> logger) {
@@ -679,17 +720,20 @@ public class ReplicaSetStatus extends ConnectionStatus {
         private final Set<String> _names = Collections.synchronizedSet(new HashSet<String>());
         final LinkedHashMap<String, String> _tags = new LinkedHashMap<String, String>();
 
-        boolean _isMaster = false;
-        boolean _isSecondary = false;
-        String _setName;
+        volatile boolean _isMaster = false;
+        volatile boolean _isSecondary = false;
+        volatile String _setName;
 
         private final AtomicReference<Logger> _logger;
         private final AtomicReference<String> _lastPrimarySignal;
         private final List<UpdatableReplicaSetNode> _all;
     }
 
-    // Thread that monitors the state of the replica set.  This thread is responsible for setting a new ReplicaSet
-    // instance on ReplicaSetStatus.members every pass through the members of the set.
+    // Thread that monitors the state of the replica set.  Each pass checks every member at once on a pool of daemon
+    // threads, each check bounded by the timeouts of the member's own port, and sets a new ReplicaSet instance on
+    // ReplicaSetStatus.members as soon as any member's state changes, as well as at the end of the pass.  A member
+    // whose check is still outstanding when the next pass starts is left alone, so a slow or unreachable member
+    // never holds up the others.  The sleep between passes is cut short by requestUpdate().
     class Updater extends BackgroundUpdater {
 
         Updater(List<ServerAddress> initial){
@@ -703,62 +747,132 @@ public class ReplicaSetStatus extends ConnectionStatus {
         @Override
         public void run() {
             try {
+                int curUpdateIntervalMS = updaterIntervalNoMasterMS;
                 while (!Thread.interrupted()) {
-                    int curUpdateIntervalMS = updaterIntervalNoMasterMS;
-
                     try {
-                        updateAll();
-
-                        ReplicaSet replicaSet = new ReplicaSet(createNodeList(), _random, slaveAcceptableLatencyMS);
-                        _replicaSetHolder.set(replicaSet);
+                        updateAll(curUpdateIntervalMS);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        _logger.get().log(Level.WARNING, "couldn't do update pass", e);
+                    }
 
-                        if (replicaSet.getErrorStatus().isOk() && replicaSet.hasMaster()) {
-                            _mongo.getConnector().setMaster(replicaSet.getMaster());
+                    curUpdateIntervalMS = updaterIntervalNoMasterMS;
+                    try {
+                        if (publish()) {
                             curUpdateIntervalMS = updaterIntervalMS;
                         }
                     } catch (Exception e) {
-                        _logger.get().log(Level.WARNING, "couldn't do update pass", e);
+                        _logger.get().log(Level.WARNING, "couldn't publish replica set status", e);
                     }
 
-                    Thread.sleep(curUpdateIntervalMS);
+                    sleepUnlessWoken(curUpdateIntervalMS);
                 }
             }
             catch (InterruptedException e) {
                // Allow thread to exit
             }
 
+            _checkers.shutdownNow();
             _replicaSetHolder.close();
             closeAllNodes();
         }
 
-        public synchronized void updateAll(){
-            HashSet<UpdatableReplicaSetNode> seenNodes = new HashSet<UpdatableReplicaSetNode>();
+        /**
+         * Checks every member that isn't still busy with an earlier check, waiting at most {@code maxWaitMS} for them.
+         */
+        void updateAll(long maxWaitMS) throws InterruptedException {
+            final Set<UpdatableReplicaSetNode> seenNodes = Collections.synchronizedSet(new HashSet<UpdatableReplicaSetNode>());
+            final CompletionService<Boolean> completionService = new ExecutorCompletionService<Boolean>(_checkers);
 
-            for (int i = 0; i < _all.size(); i++) {
-                _all.get(i).update(seenNodes);
+            int pending = 0;
+            boolean skipped = false;
+            for (final UpdatableReplicaSetNode node : getNodes()) {
+                if (!_inFlight.add(node)) {
+                    skipped = true;
+                    continue;
+                }
+                completionService.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        try {
+                            if (node.update(seenNodes)) {
+                                publish();
+                            }
+                        } finally {
+                            _inFlight.remove(node);
+                        }
+                        return Boolean.TRUE;
+                    }
+                });
+                pending++;
             }
 
-            if (seenNodes.size() > 0) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMS);
+            for (; pending > 0; pending--) {
+                Future<Boolean> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    // the stragglers publish on their own if they turn out to have changed
+                    break;
+                }
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    _logger.get().log(Level.WARNING, "couldn't check replica set member", e.getCause());
+                }
+            }
+
+            // a member whose check hasn't finished may be the only one still reporting some hosts, itself included, so
+            // hosts are only removed after a pass in which every check finished
+            if (!skipped && pending == 0 && seenNodes.size() > 0) {
                 // not empty, means that at least 1 server gave node list
                 // remove unused hosts
-                Iterator<UpdatableReplicaSetNode> it = _all.iterator();
-                while (it.hasNext()) {
-                    if (!seenNodes.contains(it.next()))
-                        it.remove();
+                synchronized (_all) {
+                    Iterator<UpdatableReplicaSetNode> it = _all.iterator();
+                    while (it.hasNext()) {
+                        if (!seenNodes.contains(it.next()))
+                            it.remove();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Sets a new snapshot of the members on ReplicaSetStatus.members, and tells the connector about the master.
+         *
+         * @return true if the snapshot has a master
+         */
+        private boolean publish() {
+            synchronized (_publishLock) {
+                ReplicaSet replicaSet = new ReplicaSet(createNodeList(), _random, slaveAcceptableLatencyMS,
+                                                       _mongo.getMongoOptions().getServerSelector(),
+                                                       _mongo.getConnector().getServerLoad());
+                _replicaSetHolder.set(replicaSet);
+
+                if (replicaSet.getErrorStatus().isOk() && replicaSet.hasMaster()) {
+                    _mongo.getConnector().setMaster(replicaSet.getMaster());
+                    return true;
                 }
+                return false;
+            }
+        }
+
+        List<UpdatableReplicaSetNode> getNodes() {
+            synchronized (_all) {
+                return new ArrayList<UpdatableReplicaSetNode>(_all);
             }
         }
 
         private List<ReplicaSetNode> createNodeList() {
-            List<ReplicaSetNode> nodeList = new ArrayList<ReplicaSetNode>(_all.size());
-            for (UpdatableReplicaSetNode cur : _all) {
-                nodeList.add(new ReplicaSetNode(cur._addr, cur._names, cur._setName, cur._pingTimeMS, cur.isOk(), cur._isMaster, cur._isSecondary, cur._tags, cur._maxBsonObjectSize));
+            List<UpdatableReplicaSetNode> nodes = getNodes();
+            List<ReplicaSetNode> nodeList = new ArrayList<ReplicaSetNode>(nodes.size());
+            for (UpdatableReplicaSetNode cur : nodes) {
+                nodeList.add(cur.toReplicaSetNode());
             }
             return nodeList;
         }
 
         private void closeAllNodes() {
-            for (UpdatableReplicaSetNode node : _all) {
+            for (UpdatableReplicaSetNode node : getNodes()) {
                 try {
                     node.close();
                 } catch (final Throwable t) { /* nada */ }
@@ -766,7 +880,18 @@ public class ReplicaSetStatus extends ConnectionStatus {
         }
 
         private final List<UpdatableReplicaSetNode> _all;
+        private final Set<UpdatableReplicaSetNode> _inFlight = Collections.synchronizedSet(new HashSet<UpdatableReplicaSetNode>());
+        private final Object _publishLock = new Object();
         private final Random _random = new Random();
+        private final ExecutorService _checkers = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "ReplicaSetStatus:Checker-" + _nextChecker.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+
+            private final AtomicInteger _nextChecker = new AtomicInteger();
+        });
     }
 
     @Override
@@ -776,6 +901,7 @@ public class ReplicaSetStatus extends ConnectionStatus {
             return masterNode;
         }
 
+        requestUpdate();
         _replicaSetHolder.waitForNextUpdate();
 
         masterNode = getMasterNode();
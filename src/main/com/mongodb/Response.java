@@ -19,11 +19,14 @@
 package com.mongodb;
 
 // Bson
+import org.bson.LazyBSONCallback;
 import org.bson.io.Bits;
 
 // Java
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -33,11 +36,22 @@ class Response {
 
     Response( ServerAddress addr , DBCollection collection ,  InputStream in, DBDecoder decoder)
         throws IOException {
+        this( addr , collection , readMessage( in ) , decoder );
+    }
+
+    /**
+     * Decodes a reply that has already been read in full.  The response takes ownership of the buffer: it is handed
+     * back to {@link #BUFFER_POOL} once the documents have been decoded, unless they were wrapped lazily, in which
+     * case they keep referring to it.
+     *
+     * @param message a buffer, backed by an array, holding the whole message from position 0 to its limit
+     */
+    Response( ServerAddress addr , DBCollection collection , ByteBuffer message , DBDecoder decoder )
+        throws IOException {
 
         _host = addr;
 
-        final byte [] b = new byte[36];
-        Bits.readFully(in, b);
+        final byte [] b = message.array();
         int pos = 0;
 
         _len = Bits.readInt(b, pos);
@@ -47,6 +61,10 @@ class Response {
             throw new IllegalArgumentException( "response too long: " + _len );
         }
 
+        if (_len > message.limit()) {
+            throw new IOException( "response length " + _len + " is more than the " + message.limit() + " bytes read" );
+        }
+
         _id = Bits.readInt(b, pos);
         pos += 4;
 
@@ -68,28 +86,87 @@ class Response {
         _num = Bits.readInt(b, pos);
         pos += 4;
 
-        final MyInputStream user = new MyInputStream( in , _len - b.length );
-
         if ( _num < 2 )
             _objects = new LinkedList<DBObject>();
         else
             _objects = new ArrayList<DBObject>( _num );
 
-        for ( int i=0; i < _num; i++ ){
-            if ( user._toGo < 5 )
-                throw new IOException( "should have more objects, but only " + user._toGo + " bytes left" );
-            // TODO: By moving to generics, you can remove these casts (and requirement to impl DBOBject).
-
-            _objects.add( decoder.decode( user, collection ) );
+        // lazy objects are wrapped around the message in place, so they own the buffer from then on
+        final LazyBSONCallback lazyCallback = lazyCallback( decoder , collection );
+        // and the default decoders read each document straight out of the message instead of through a stream
+        final DefaultDBDecoder inPlace = decoder instanceof DefaultDBDecoder ? (DefaultDBDecoder) decoder : null;
+        try {
+            for ( int i=0; i < _num; i++ ){
+                final int toGo = _len - pos;
+                if ( toGo < 5 )
+                    throw new IOException( "should have more objects, but only " + toGo + " bytes left" );
+
+                final int size = Bits.readInt( b , pos );
+                if ( size < 5 || size > toGo )
+                    throw new IOException( "bad object size: " + size + " with " + toGo + " bytes left" );
+
+                // TODO: By moving to generics, you can remove these casts (and requirement to impl DBOBject).
+                if ( lazyCallback != null )
+                    _objects.add( (DBObject) lazyCallback.createObject( b , pos ) );
+                else if ( inPlace != null )
+                    _objects.add( inPlace.decode( b , pos , size , collection ) );
+                else
+                    _objects.add( decoder.decode( new ByteArrayInputStream( b , pos , size ) , collection ) );
+                pos += size;
+            }
+        }
+        finally {
+            if ( lazyCallback == null )
+                BUFFER_POOL.release( message );
         }
 
-        if ( user._toGo != 0 )
-            throw new IOException( "finished reading objects but still have: " + user._toGo + " bytes to read!' " );
+        if ( pos != _len )
+            throw new IOException( "finished reading objects but still have: " + ( _len - pos ) + " bytes to read!' " );
 
         if ( _num != _objects.size() )
             throw new RuntimeException( "something is really broken" );
     }
 
+    /**
+     * Reads a whole message from the stream into a buffer from {@link #BUFFER_POOL}, with one bulk read for the part
+     * after the header.
+     */
+    static ByteBuffer readMessage( InputStream in )
+        throws IOException {
+
+        final byte [] header = new byte[HEADER_LENGTH];
+        Bits.readFully(in, header);
+
+        final int len = Bits.readInt(header, 0);
+        if (len < HEADER_LENGTH || len > MAX_LENGTH) {
+            throw new IllegalArgumentException( "bad response length: " + len );
+        }
+
+        final ByteBuffer message = BUFFER_POOL.get( len );
+        try {
+            System.arraycopy( header , 0 , message.array() , 0 , HEADER_LENGTH );
+            Bits.readFully( in , message.array() , HEADER_LENGTH , len - HEADER_LENGTH );
+        }
+        catch ( IOException e ){
+            BUFFER_POOL.release( message );
+            throw e;
+        }
+        return message;
+    }
+
+    // a decoder that only hands the raw bytes of each document to a lazy callback can skip the copy it would make
+    private static LazyBSONCallback lazyCallback( DBDecoder decoder , DBCollection collection ){
+        if ( ! ( decoder instanceof LazyDBDecoder ) )
+            return null;
+
+        DBCallback callback = decoder.getDBCallback( collection );
+        if ( ! ( callback instanceof LazyBSONCallback ) )
+            return null;
+
+        callback.reset();
+        return (LazyBSONCallback) callback;
+    }
+
     public int size(){
         return _num;
     }
@@ -136,48 +213,6 @@ class Response {
         return new ServerError( obj );
     }
 
-    static class MyInputStream extends InputStream {
-        MyInputStream( InputStream in , int max ){
-            _in = in;
-            _toGo = max;
-        }
-
-        public int available()
-            throws IOException {
-            return _in.available();
-        }
-
-        public int read()
-            throws IOException {
-
-            if ( _toGo <= 0 )
-                return -1;
-
-            int val = _in.read();
-            _toGo--;
-
-            return val;
-        }
-
-        public int read(byte[] b, int off, int len)
-            throws IOException {
-
-            if ( _toGo <= 0 )
-                return -1;
-
-            int n = _in.read(b, off, Math.min(_toGo, len));
-            _toGo -= n;
-            return n;
-        }
-
-        public void close(){
-            throw new RuntimeException( "can't close thos" );
-        }
-
-        final InputStream _in;
-        private int _toGo;
-    }
-
     public String toString(){
         return "flags:" + _flags + " _cursor:" + _cursor + " _startingFrom:" + _startingFrom + " _num:" + _num ;
     }
@@ -196,5 +231,9 @@ class Response {
 
     final List<DBObject> _objects;
 
-    private static final int MAX_LENGTH = ( 32 * 1024 * 1024 );
+    static final int HEADER_LENGTH = 36;
+
+    // replies up to the size of a full getMore batch are read into reused buffers
+    static final ByteBufferPool BUFFER_POOL = new ByteBufferPool( 4 * 1024 * 1024 , 2 * 1024 * 1024 );
+    static final int MAX_LENGTH = ( 32 * 1024 * 1024 );
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.bson.util.annotations.Immutable;
+
+/**
+ * What a server said about itself in reply to the isMaster command sent when a connection to it was opened.  Servers
+ * too old to report a limit get the limit that the driver assumed before servers reported it.
+ */
+@Immutable
+final class ServerDescription {
+
+    /**
+     * The batch size for servers that don't report one.  A legacy insert message has no limit on the number of
+     * documents in it, only on its size.
+     */
+    static final int DEFAULT_MAX_WRITE_BATCH_SIZE = Integer.MAX_VALUE;
+
+    ServerDescription(final ServerAddress address, final int maxBsonObjectSize, final int maxMessageSize,
+                      final int maxWriteBatchSize, final int minWireVersion, final int maxWireVersion, final boolean mongos) {
+        _address = address;
+        _maxBsonObjectSize = maxBsonObjectSize;
+        _maxMessageSize = maxMessageSize;
+        _maxWriteBatchSize = maxWriteBatchSize;
+        _minWireVersion = minWireVersion;
+        _maxWireVersion = maxWireVersion;
+        _mongos = mongos;
+    }
+
+    /**
+     * Creates a description from the reply to isMaster.
+     */
+    static ServerDescription fromIsMaster(final ServerAddress address, final BasicDBObject res) {
+        int maxBsonObjectSize = res.getInt("maxBsonObjectSize", Bytes.MAX_OBJECT_SIZE);
+        // a batch insert used to be limited to 4 x maxBsonObjectSize, and the driver kept to 2 x to be safe
+        int maxMessageSize = res.getInt("maxMessageSizeBytes", 2 * maxBsonObjectSize);
+        return new ServerDescription(address, maxBsonObjectSize, maxMessageSize,
+                                     res.getInt("maxWriteBatchSize", DEFAULT_MAX_WRITE_BATCH_SIZE),
+                                     res.getInt("minWireVersion", 0), res.getInt("maxWireVersion", 0),
+                                     "isdbgrid".equals(res.getString("msg")));
+    }
+
+    public ServerAddress getAddress() {
+        return _address;
+    }
+
+    public int getMaxBsonObjectSize() {
+        return _maxBsonObjectSize;
+    }
+
+    /**
+     * @return the largest message, header included, that the server accepts
+     */
+    public int getMaxMessageSize() {
+        return _maxMessageSize;
+    }
+
+    /**
+     * @return the most documents the server accepts in a single write
+     */
+    public int getMaxWriteBatchSize() {
+        return _maxWriteBatchSize;
+    }
+
+    public int getMinWireVersion() {
+        return _minWireVersion;
+    }
+
+    public int getMaxWireVersion() {
+        return _maxWireVersion;
+    }
+
+    public boolean isMongos() {
+        return _mongos;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final ServerDescription that = (ServerDescription) o;
+
+        if (_maxBsonObjectSize != that._maxBsonObjectSize) return false;
+        if (_maxMessageSize != that._maxMessageSize) return false;
+        if (_maxWriteBatchSize != that._maxWriteBatchSize) return false;
+        if (_minWireVersion != that._minWireVersion) return false;
+        if (_maxWireVersion != that._maxWireVersion) return false;
+        if (_mongos != that._mongos) return false;
+        if (!_address.equals(that._address)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = _address.hashCode();
+        result = 31 * result + _maxBsonObjectSize;
+        result = 31 * result + _maxMessageSize;
+        result = 31 * result + _maxWriteBatchSize;
+        result = 31 * result + _minWireVersion;
+        result = 31 * result + _maxWireVersion;
+        result = 31 * result + (_mongos ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "{address:'" + _address + "', maxBsonObjectSize:" + _maxBsonObjectSize + ", maxMessageSize:" + _maxMessageSize
+               + ", maxWriteBatchSize:" + _maxWriteBatchSize + ", minWireVersion:" + _minWireVersion
+               + ", maxWireVersion:" + _maxWireVersion + ", mongos:" + _mongos + "}";
+    }
+
+    private final ServerAddress _address;
+    private final int _maxBsonObjectSize;
+    private final int _maxMessageSize;
+    private final int _maxWriteBatchSize;
+    private final int _minWireVersion;
+    private final int _maxWireVersion;
+    private final boolean _mongos;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+/**
+ * The load that this client puts on each server, for a {@link ServerSelector} to balance.
+ *
+ * @since 2.12.0
+ */
+public interface ServerLoad {
+
+    /**
+     * Returns the number of operations that this client has sent to a server and not yet had a reply to.
+     *
+     * @param server the server
+     * @return the number of outstanding operations
+     */
+    int getInFlight( ServerAddress server );
+
+    /**
+     * Returns a moving average of the time that operations on a server have taken, from sending them to reading their
+     * replies, weighted towards the most recent ones.
+     *
+     * @param server the server
+     * @return the average in milliseconds, or 0 if no operation has been timed yet
+     */
+    double getResponseTimeMillis( ServerAddress server );
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.List;
+
+/**
+ * Chooses the server that a read should go to, among the replica set members that its read preference allows.  The
+ * candidates have already been narrowed down by member state, tags and {@link ReadPreference}, and to those whose ping
+ * time is within the acceptable latency of the fastest (15ms unless the {@code com.mongodb.slaveAcceptableLatencyMS}
+ * system property says otherwise), so a selector only has to spread the reads over them.  {@link ServerSelectors}
+ * holds the built-in strategies.
+ *
+ * <p>Implementations are called for every read that is not pinned to a server, by many threads at once, so they must
+ * be thread safe and should be quick.</p>
+ *
+ * @see MongoClientOptions.Builder#serverSelector(ServerSelector)
+ * @since 2.12.0
+ */
+public interface ServerSelector {
+
+    /**
+     * Chooses a server.
+     *
+     * @param candidates the servers to choose from, of which there are at least two
+     * @param load the current load on each server, as seen by this client
+     * @return one of the candidates
+     */
+    ServerAddress select( List<ServerAddress> candidates , ServerLoad load );
+}
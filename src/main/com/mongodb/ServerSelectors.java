@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The built-in {@link ServerSelector}s.
+ *
+ * @since 2.12.0
+ */
+public final class ServerSelectors {
+
+    /**
+     * Chooses a server at random.  This is the default, and spreads reads evenly whatever the load on each server.
+     *
+     * @return the selector
+     */
+    public static ServerSelector random() {
+        return RANDOM;
+    }
+
+    /**
+     * Picks two servers at random and chooses the one with fewer outstanding operations.  Avoids a busy server almost as
+     * well as looking at every server would, while a burst of reads still doesn't all go to the one that looked
+     * idlest.
+     *
+     * @return the selector
+     */
+    public static ServerSelector powerOfTwoChoices() {
+        return POWER_OF_TWO_CHOICES;
+    }
+
+    /**
+     * Chooses the server with the fewest outstanding operations, picking among equals at random.
+     *
+     * @return the selector
+     */
+    public static ServerSelector leastOutstandingRequests() {
+        return LEAST_OUTSTANDING_REQUESTS;
+    }
+
+    /**
+     * Chooses the server with the lowest moving average of response times, scaled by one plus the number of
+     * outstanding operations on it so that a server which has just been fast is not sent every read.  Servers that
+     * have not been timed yet are chosen first.
+     *
+     * @return the selector
+     */
+    public static ServerSelector lowestResponseTime() {
+        return LOWEST_RESPONSE_TIME;
+    }
+
+    private static final Random _random = new Random();
+
+    private abstract static class NamedSelector implements ServerSelector {
+        NamedSelector( String name ){
+            _name = name;
+        }
+
+        @Override
+        public String toString() {
+            return "ServerSelectors." + _name + "()";
+        }
+
+        private final String _name;
+    }
+
+    private static final ServerSelector RANDOM = new NamedSelector( "random" ) {
+        public ServerAddress select( List<ServerAddress> candidates , ServerLoad load ){
+            return candidates.get( _random.nextInt( candidates.size() ) );
+        }
+    };
+
+    private static final ServerSelector POWER_OF_TWO_CHOICES = new NamedSelector( "powerOfTwoChoices" ) {
+        public ServerAddress select( List<ServerAddress> candidates , ServerLoad load ){
+            int size = candidates.size();
+            int i = _random.nextInt( size );
+            int j = _random.nextInt( size - 1 );
+            if ( j >= i )
+                j++;
+            ServerAddress a = candidates.get( i );
+            ServerAddress b = candidates.get( j );
+            int inFlightA = load.getInFlight( a );
+            int inFlightB = load.getInFlight( b );
+            if ( inFlightA != inFlightB )
+                return inFlightA < inFlightB ? a : b;
+            return load.getResponseTimeMillis( a ) <= load.getResponseTimeMillis( b ) ? a : b;
+        }
+    };
+
+    private static final ServerSelector LEAST_OUTSTANDING_REQUESTS = new NamedSelector( "leastOutstandingRequests" ) {
+        public ServerAddress select( List<ServerAddress> candidates , ServerLoad load ){
+            int size = candidates.size();
+            // starting at a random place breaks ties at random
+            int start = _random.nextInt( size );
+            ServerAddress best = null;
+            int bestInFlight = Integer.MAX_VALUE;
+            for ( int n = 0; n < size; n++ ){
+                ServerAddress cur = candidates.get( ( start + n ) % size );
+                int inFlight = load.getInFlight( cur );
+                if ( inFlight < bestInFlight ){
+                    best = cur;
+                    bestInFlight = inFlight;
+                }
+            }
+            return best;
+        }
+    };
+
+    private static final ServerSelector LOWEST_RESPONSE_TIME = new NamedSelector( "lowestResponseTime" ) {
+        public ServerAddress select( List<ServerAddress> candidates , ServerLoad load ){
+            int size = candidates.size();
+            int start = _random.nextInt( size );
+            ServerAddress best = null;
+            double bestScore = Double.MAX_VALUE;
+            for ( int n = 0; n < size; n++ ){
+                ServerAddress cur = candidates.get( ( start + n ) % size );
+                double score = load.getResponseTimeMillis( cur ) * ( load.getInFlight( cur ) + 1 );
+                if ( score < bestScore ){
+                    best = cur;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+    };
+
+    private ServerSelectors() {
+    }
+}
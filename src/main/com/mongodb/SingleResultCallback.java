@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+/**
+ * A callback for the completion of an asynchronous operation.
+ * <p>
+ * Callbacks are invoked on one of the driver's event loop threads, so they must not block, and in particular must not
+ * wait for the result of another asynchronous operation.
+ * </p>
+ *
+ * @param <T> the type of the result
+ * @since 2.12.0
+ */
+public interface SingleResultCallback<T> {
+
+    /**
+     * Called once, when the operation completes.
+     *
+     * @param result the result of the operation, or null if it failed
+     * @param e      the exception that the operation failed with, or null if it succeeded
+     */
+    void onResult(T result, MongoException e);
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@code Future} that is completed by being used as the callback of an asynchronous operation.
+ *
+ * @param <T> the type of the result
+ */
+class SingleResultFuture<T> implements Future<T>, SingleResultCallback<T> {
+
+    public void onResult(final T result, final MongoException e) {
+        synchronized (this) {
+            if (_done.getCount() == 0) {
+                throw new IllegalStateException("result already set");
+            }
+            _result = result;
+            _exception = e;
+        }
+        _done.countDown();
+    }
+
+    /**
+     * Asynchronous operations can not be cancelled once they have been written to the server.
+     *
+     * @return false
+     */
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    public boolean isCancelled() {
+        return false;
+    }
+
+    public boolean isDone() {
+        return _done.getCount() == 0;
+    }
+
+    public T get() throws InterruptedException, ExecutionException {
+        _done.await();
+        return getResult();
+    }
+
+    public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!_done.await(timeout, unit)) {
+            throw new TimeoutException("Timed out waiting for result after " + timeout + " " + unit);
+        }
+        return getResult();
+    }
+
+    /**
+     * Waits for the result, rethrowing the operation's own exception rather than wrapping it.
+     *
+     * @return the result
+     * @throws MongoException
+     */
+    T getOrThrow() {
+        try {
+            _done.await();
+        } catch (InterruptedException e) {
+            throw new MongoInterruptedException(e);
+        }
+        synchronized (this) {
+            if (_exception != null) {
+                throw _exception;
+            }
+            return _result;
+        }
+    }
+
+    private synchronized T getResult() throws ExecutionException {
+        if (_exception != null) {
+            throw new ExecutionException(_exception);
+        }
+        return _result;
+    }
+
+    private final CountDownLatch _done = new CountDownLatch(1);
+    private T _result;
+    private MongoException _exception;
+}
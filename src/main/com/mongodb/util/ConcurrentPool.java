@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A pool like {@link SimplePool}, but without any lock shared by all the callers.  Available members are kept on a
+ * lock-free stack, so the most recently used one is handed out first, and the statistics are kept in atomic counters.
+ * Callers that have to wait for a member are queued on a fair semaphore, in the order they arrived.
+ *
+ * @deprecated This class is NOT part of the public API.  It may change or be removed at any time.
+ */
+@Deprecated
+public abstract class ConcurrentPool<T> {
+
+    /** Initializes a new pool of objects.
+     * @param name name for the pool
+     * @param size max number of objects, in use or available, at any given time
+     */
+    public ConcurrentPool(String name, int size){
+        _name = name;
+        _size = size;
+        _sem = new Semaphore(size, true);
+    }
+
+    /** Creates a new object of this pool's type.  Implementations should throw a runtime exception if unable to create.
+     * @return the new object.
+     */
+    protected abstract T createNew();
+
+    /**
+     * override this if you need to do any cleanup
+     */
+    public void cleanup( T t ) {
+    }
+
+    /**
+     * Override this to retire members.  A member for which this returns true is cleaned up instead of being handed out
+     * or put back in the pool.  The member is still counted by {@link #getTotal()} while this is called, so that an
+     * implementation can keep a minimum number of members.
+     * @param t a member that isn't in use
+     * @return true if the member should be discarded
+     */
+    protected boolean shouldPrune( T t ) {
+        return false;
+    }
+
+    /**
+     * Override this to prepare members created by {@link #ensureMinSize(int)} before they become available.
+     * @param t the new member
+     */
+    protected void prepare( T t ) {
+    }
+
+    /**
+     * call done when you are done with an object form the pool
+     * @param t Object to add
+     */
+    public void done( T t ){
+        if (_closed) {
+            cleanup(t);
+            return;
+        }
+
+        if (_out.remove(new IdentityKey<T>(t)) == null) {
+            throw new RuntimeException("trying to put something back in the pool wasn't checked out");
+        }
+
+        if (shouldPrune(t)) {
+            _inUse.decrementAndGet();
+            cleanup(t);
+            _sem.release();
+            return;
+        }
+
+        _avail.push(t);
+        _available.incrementAndGet();
+        _inUse.decrementAndGet();
+
+        // the pool may have been closed while it was being pushed, after the available ones were cleaned up
+        if (_closed) {
+            cleanupAvailable();
+        }
+        _sem.release();
+    }
+
+    public void remove( T t ) {
+        done(t);
+    }
+
+    /** Gets an object from the pool - will block if none are available
+     * @return An object from the pool
+     */
+    public T get() throws InterruptedException {
+        return get(-1);
+    }
+
+    /** Gets an object from the pool - will block if none are available
+     * @param waitTime
+     *        negative - forever
+     *        0        - return immediately no matter what
+     *        positive ms to wait
+     * @return An object from the pool, or null if can't get one in the given waitTime
+     */
+    public T get(long waitTime) throws InterruptedException {
+        if (!permitAcquired(waitTime)) {
+            return null;
+        }
+
+        T t;
+        while ((t = _avail.pop()) != null) {
+            boolean prune = shouldPrune(t);
+            _available.decrementAndGet();
+            if (!prune) {
+                break;
+            }
+            cleanup(t);
+        }
+        if (t == null) {
+            t = createNewAndReleasePermitIfFailure();
+        }
+
+        _out.put(new IdentityKey<T>(t), t);
+        _inUse.incrementAndGet();
+        return t;
+    }
+
+    private T createNewAndReleasePermitIfFailure() {
+        try {
+            T newMember = createNew();
+            if (newMember == null) {
+                throw new IllegalStateException("null pool members are not allowed");
+            }
+            return newMember;
+        } catch (RuntimeException e) {
+            _sem.release();
+            throw e;
+        } catch (Error e) {
+            _sem.release();
+            throw e;
+        }
+    }
+
+    // a free permit is taken straight away, and only callers that have to wait are queued in order
+    private boolean permitAcquired(final long waitTime) throws InterruptedException {
+        if (_sem.tryAcquire()) {
+            return true;
+        } else if (waitTime > 0) {
+            return _sem.tryAcquire(waitTime, TimeUnit.MILLISECONDS);
+        } else if (waitTime < 0) {
+            _sem.acquire();
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Cleans up every available member for which {@link #shouldPrune(Object)} returns true.  The rest are put back in
+     * the same order, so the most recently used one is still handed out first.
+     */
+    protected void prune() {
+        List<T> kept = new ArrayList<T>();
+        List<T> pruned = new ArrayList<T>();
+        int permits = 0;
+        try {
+            // each member taken off the stack holds a permit, so that callers can't create replacements meanwhile, and
+            // stays counted as available unless it's pruned
+            while (_sem.tryAcquire()) {
+                permits++;
+                T t = _avail.pop();
+                if (t == null) {
+                    break;
+                }
+                if (shouldPrune(t)) {
+                    _available.decrementAndGet();
+                    pruned.add(t);
+                } else {
+                    kept.add(t);
+                }
+            }
+            for (int i = kept.size() - 1; i >= 0; i--) {
+                _avail.push(kept.get(i));
+            }
+        } finally {
+            _sem.release(permits);
+        }
+        for (T t : pruned) {
+            cleanup(t);
+        }
+        if (_closed) {
+            cleanupAvailable();
+        }
+    }
+
+    /**
+     * Creates and prepares new members until the pool holds at least the given number, or no more permits are free.
+     * @param minSize the number of members to keep
+     */
+    protected void ensureMinSize(int minSize) {
+        while (!_closed && getTotal() < minSize) {
+            if (!_sem.tryAcquire()) {
+                return;
+            }
+            try {
+                T t = createNew();
+                if (t == null) {
+                    throw new IllegalStateException("null pool members are not allowed");
+                }
+                try {
+                    prepare(t);
+                } catch (RuntimeException e) {
+                    cleanup(t);
+                    throw e;
+                }
+                _avail.push(t);
+                _available.incrementAndGet();
+            } finally {
+                _sem.release();
+            }
+            if (_closed) {
+                cleanupAvailable();
+            }
+        }
+    }
+
+    /** Clears the pool of all objects. */
+    protected void close(){
+        _closed = true;
+        cleanupAvailable();
+        _out.clear();
+        _inUse.set(0);
+    }
+
+    private void cleanupAvailable() {
+        T t;
+        while ((t = _avail.pop()) != null) {
+            _available.decrementAndGet();
+            cleanup(t);
+        }
+    }
+
+    /**
+     * @return a live view of the objects that are checked out
+     */
+    protected Collection<T> getInUseMembers() {
+        return _out.values();
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public int getTotal(){
+        return _available.get() + _inUse.get();
+    }
+
+    public int getInUse(){
+        return _inUse.get();
+    }
+
+    public int getAvailable(){
+        return _available.get();
+    }
+
+    public int getMaxSize(){
+        return _size;
+    }
+
+    public String toString(){
+        StringBuilder buf = new StringBuilder();
+        buf.append("pool: ").append(_name)
+            .append(" maxToKeep: ").append(_size)
+            .append(" avail ").append(getAvailable())
+            .append(" out ").append(getInUse())
+            ;
+        return buf.toString();
+    }
+
+    /**
+     * A Treiber stack.  Every push allocates a new node, so a node is never reused while another thread may still see it.
+     */
+    static class LifoStack<T> {
+        void push(T item) {
+            Node<T> node = new Node<T>(item);
+            do {
+                node._next = _head.get();
+            } while (!_head.compareAndSet(node._next, node));
+        }
+
+        T pop() {
+            Node<T> head;
+            do {
+                head = _head.get();
+                if (head == null) {
+                    return null;
+                }
+            } while (!_head.compareAndSet(head, head._next));
+            return head._item;
+        }
+
+        private static class Node<T> {
+            Node(T item) {
+                _item = item;
+            }
+
+            final T _item;
+            Node<T> _next;
+        }
+
+        private final AtomicReference<Node<T>> _head = new AtomicReference<Node<T>>();
+    }
+
+    // members may have an equals or hashCode that doesn't tell them apart, so they are tracked by identity
+    private static class IdentityKey<T> {
+        IdentityKey(T member) {
+            _member = member;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o)._member == _member;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(_member);
+        }
+
+        private final T _member;
+    }
+
+    protected final String _name;
+    protected final int _size;
+
+    private final LifoStack<T> _avail = new LifoStack<T>();
+    private final ConcurrentMap<IdentityKey<T>, T> _out = new ConcurrentHashMap<IdentityKey<T>, T>();
+    private final AtomicInteger _available = new AtomicInteger();
+    private final AtomicInteger _inUse = new AtomicInteger();
+    private final Semaphore _sem;
+    private volatile boolean _closed;
+}
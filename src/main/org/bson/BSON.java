@@ -173,6 +173,16 @@ public class BSON {
 
     public static boolean hasDecodeHooks() { return _decodeHooks; }
 
+    /**
+     * Returns true if decoding hooks would apply to values of the given class.
+     */
+    static boolean hasDecodeHooks( Class c ){
+        if ( !_decodeHooks )
+            return false;
+        List<Transformer> l = _decodingHooks.get( c );
+        return l != null && !l.isEmpty();
+    }
+
     public static void addEncodingHook( Class c , Transformer t ){
         _encodeHooks = true;
         List<Transformer> l = _encodingHooks.get( c );
@@ -191,6 +201,7 @@ public class BSON {
             _decodingHooks.put( c , l );
         }
         l.add( t );
+        _decodeHookCount++;
     }
 
     public static Object applyEncodingHooks( Object o ){
@@ -259,6 +270,7 @@ public class BSON {
      */
     public static void clearDecodingHooks(){
         _decodeHooks = false;
+        _decodeHookCount = 0;
         _decodingHooks.clear();
     }
 
@@ -266,14 +278,23 @@ public class BSON {
      * Remove all decoding hooks for a specific class.
      */
     public static void removeDecodingHooks( Class c ){
-        _decodingHooks.remove( c );
+        List<Transformer> l = _decodingHooks.remove( c );
+        if ( l != null )
+            decodingHooksRemoved( l.size() );
     }
 
     /**
      * Remove a specific encoding hook for a specific class.
      */
     public static void removeDecodingHook( Class c , Transformer t ){
-        getDecodingHooks( c ).remove( t );
+        if ( getDecodingHooks( c ).remove( t ) )
+            decodingHooksRemoved( 1 );
+    }
+
+    // keeps the flag off once the last decoding hook is gone, so that decoders can take their fast paths again
+    private static void decodingHooksRemoved( int n ){
+        _decodeHookCount -= n;
+        _decodeHooks = _decodeHookCount > 0;
     }
 
 
@@ -291,6 +312,7 @@ public class BSON {
 
     private static boolean _encodeHooks = false;
     private static boolean _decodeHooks = false;
+    private static int _decodeHookCount;
     static ClassMap<List<Transformer>> _encodingHooks =
 	new ClassMap<List<Transformer>>();
 
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import com.mongodb.DBRefBase;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.Binary;
+import org.bson.types.Code;
+import org.bson.types.CodeWScope;
+import org.bson.types.MaxKey;
+import org.bson.types.MinKey;
+import org.bson.types.ObjectId;
+import org.bson.types.Symbol;
+import org.bson.util.ClassMap;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the {@link BSONValueWriter} for the class of a value.  The writer for a class is resolved the first time a value
+ * of that class is encoded and cached from then on, so encoding a field costs one map lookup rather than a chain of
+ * instanceof checks.
+ *
+ * <p>Writers registered with {@link #register(Class, BSONValueWriter)} apply to the class and its subclasses, and take
+ * precedence over the built-in writers.  Classes that no writer handles are left to
+ * {@link BasicBSONEncoder#putSpecial(String, Object)}.</p>
+ *
+ * @since 2.12.0
+ */
+public class BSONCodecRegistry {
+
+    /**
+     * The registry used by encoders that haven't been given another one.
+     */
+    public static final BSONCodecRegistry DEFAULT = new BSONCodecRegistry();
+
+    /**
+     * Registers a writer for a class and its subclasses.
+     *
+     * @param c the class
+     * @param writer the writer
+     * @param <T> the type of the values
+     */
+    public <T> void register(final Class<T> c, final BSONValueWriter<? super T> writer) {
+        if (c == null || writer == null) {
+            throw new IllegalArgumentException("class and writer can not be null");
+        }
+        _registered.put(c, writer);
+        _resolved = new ConcurrentHashMap<Class<?>, BSONValueWriter<?>>();
+    }
+
+    /**
+     * Removes the writer registered for exactly this class.
+     *
+     * @param c the class
+     */
+    public void unregister(final Class<?> c) {
+        _registered.remove(c);
+        _resolved = new ConcurrentHashMap<Class<?>, BSONValueWriter<?>>();
+    }
+
+    /**
+     * Gets the writer for values of a class.
+     *
+     * @param c the class of the value
+     * @return the writer, or null if no writer handles the class
+     */
+    @SuppressWarnings("unchecked")
+    public BSONValueWriter<Object> get(final Class<?> c) {
+        // a registration replaces the map rather than clearing it, so a writer resolved before the registration is
+        // cached in the map it was resolved for and can't outlive it
+        ConcurrentMap<Class<?>, BSONValueWriter<?>> resolved = _resolved;
+        BSONValueWriter<?> writer = resolved.get(c);
+        if (writer == null) {
+            writer = resolve(c);
+            resolved.put(c, writer);
+        }
+        return writer == NONE ? null : (BSONValueWriter<Object>) writer;
+    }
+
+    private BSONValueWriter<?> resolve(final Class<?> c) {
+        BSONValueWriter<?> writer = _registered.get(c);
+        if (writer != null) {
+            return writer;
+        }
+        // the first built-in type that matches wins, as it did when these were instanceof checks
+        for (BuiltIn builtIn : BUILT_INS) {
+            if (builtIn._type.isAssignableFrom(c)) {
+                return builtIn._writer;
+            }
+            if (builtIn._type == UUID.class && c.isArray()) {
+                return ARRAY;
+            }
+        }
+        return NONE;
+    }
+
+    private static class BuiltIn {
+        BuiltIn(final Class<?> type, final BSONValueWriter<?> writer) {
+            _type = type;
+            _writer = writer;
+        }
+
+        private final Class<?> _type;
+        private final BSONValueWriter<?> _writer;
+    }
+
+    private static final BSONValueWriter<Object> NONE = new BSONValueWriter<Object>() {
+        public void write(final BasicBSONEncoder encoder, final String name, final Object value) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static final BSONValueWriter<Object> ARRAY = new BSONValueWriter<Object>() {
+        public void write(final BasicBSONEncoder encoder, final String name, final Object value) {
+            encoder.putArray(name, value);
+        }
+    };
+
+    private static final List<BuiltIn> BUILT_INS = new ArrayList<BuiltIn>();
+
+    private static <T> void builtIn(final Class<T> type, final BSONValueWriter<T> writer) {
+        BUILT_INS.add(new BuiltIn(type, writer));
+    }
+
+    static {
+        builtIn(Date.class, new BSONValueWriter<Date>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Date value) {
+                encoder.putDate(name, value);
+            }
+        });
+        builtIn(Number.class, new BSONValueWriter<Number>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Number value) {
+                encoder.putNumber(name, value);
+            }
+        });
+        builtIn(Character.class, new BSONValueWriter<Character>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Character value) {
+                encoder.putString(name, value.toString());
+            }
+        });
+        builtIn(String.class, new BSONValueWriter<String>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final String value) {
+                encoder.putString(name, value);
+            }
+        });
+        builtIn(ObjectId.class, new BSONValueWriter<ObjectId>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final ObjectId value) {
+                encoder.putObjectId(name, value);
+            }
+        });
+        builtIn(BSONObject.class, new BSONValueWriter<BSONObject>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final BSONObject value) {
+                encoder.putObject(name, value);
+            }
+        });
+        builtIn(Boolean.class, new BSONValueWriter<Boolean>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Boolean value) {
+                encoder.putBoolean(name, value);
+            }
+        });
+        builtIn(Pattern.class, new BSONValueWriter<Pattern>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Pattern value) {
+                encoder.putPattern(name, value);
+            }
+        });
+        builtIn(Map.class, new BSONValueWriter<Map>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Map value) {
+                encoder.putMap(name, value);
+            }
+        });
+        builtIn(Iterable.class, new BSONValueWriter<Iterable>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Iterable value) {
+                encoder.putIterable(name, value);
+            }
+        });
+        builtIn(byte[].class, new BSONValueWriter<byte[]>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final byte[] value) {
+                encoder.putBinary(name, value);
+            }
+        });
+        builtIn(Binary.class, new BSONValueWriter<Binary>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Binary value) {
+                encoder.putBinary(name, value);
+            }
+        });
+        // other arrays come right after UUID, see resolve
+        builtIn(UUID.class, new BSONValueWriter<UUID>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final UUID value) {
+                encoder.putUUID(name, value);
+            }
+        });
+        builtIn(Symbol.class, new BSONValueWriter<Symbol>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Symbol value) {
+                encoder.putSymbol(name, value);
+            }
+        });
+        builtIn(BSONTimestamp.class, new BSONValueWriter<BSONTimestamp>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final BSONTimestamp value) {
+                encoder.putTimestamp(name, value);
+            }
+        });
+        builtIn(CodeWScope.class, new BSONValueWriter<CodeWScope>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final CodeWScope value) {
+                encoder.putCodeWScope(name, value);
+            }
+        });
+        builtIn(Code.class, new BSONValueWriter<Code>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Code value) {
+                encoder.putCode(name, value);
+            }
+        });
+        builtIn(DBRefBase.class, new BSONValueWriter<DBRefBase>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final DBRefBase value) {
+                BSONObject temp = new BasicBSONObject();
+                temp.put("$ref", value.getRef());
+                temp.put("$id", value.getId());
+                encoder.putObject(name, temp);
+            }
+        });
+        builtIn(MinKey.class, new BSONValueWriter<MinKey>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final MinKey value) {
+                encoder.putMinKey(name);
+            }
+        });
+        builtIn(MaxKey.class, new BSONValueWriter<MaxKey>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final MaxKey value) {
+                encoder.putMaxKey(name);
+            }
+        });
+    }
+
+    private final ClassMap<BSONValueWriter<?>> _registered = new ClassMap<BSONValueWriter<?>>();
+    private volatile ConcurrentMap<Class<?>, BSONValueWriter<?>> _resolved = new ConcurrentHashMap<Class<?>, BSONValueWriter<?>>();
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The fields a {@link BasicBSONDecoder} should keep, given as dotted paths such as {@code "name"} or
+ * {@code "address.city"}.  The decoder steps over every other element using its encoded length, so it never creates
+ * the values of fields that are filtered out.  A path into an array applies to each document in it, as it does in a
+ * projection on the server, and other array elements are dropped.  Instances are immutable and may be shared.
+ *
+ * @since 2.12.0
+ */
+public class BSONFieldFilter {
+
+    /**
+     * Creates a filter that keeps the given paths.
+     *
+     * @param paths the dotted paths to keep
+     */
+    public BSONFieldFilter( String... paths ){
+        this( Arrays.asList( paths ) );
+    }
+
+    /**
+     * Creates a filter that keeps the given paths.
+     *
+     * @param paths the dotted paths to keep
+     */
+    public BSONFieldFilter( Collection<String> paths ){
+        if ( paths.isEmpty() )
+            throw new IllegalArgumentException( "a field filter needs at least one path" );
+        _paths = Collections.unmodifiableSet( new TreeSet<String>( paths ) );
+        _children = new HashMap<String, BSONFieldFilter>();
+        for ( String path : _paths ){
+            if ( path.length() == 0 || path.startsWith( "." ) || path.endsWith( "." ) || path.contains( ".." ) )
+                throw new IllegalArgumentException( "invalid path: '" + path + "'" );
+            add( path );
+        }
+    }
+
+    private BSONFieldFilter(){
+        _paths = null;
+        _children = new HashMap<String, BSONFieldFilter>();
+    }
+
+    private void add( String path ){
+        BSONFieldFilter node = this;
+        int start = 0;
+        while ( true ){
+            int dot = path.indexOf( '.' , start );
+            String name = dot < 0 ? path.substring( start ) : path.substring( start , dot );
+            BSONFieldFilter child = node._children.get( name );
+            if ( child == ALL )
+                return;
+            if ( dot < 0 ){
+                // a whole field covers any paths below it
+                node._children.put( name , ALL );
+                return;
+            }
+            if ( child == null ){
+                child = new BSONFieldFilter();
+                node._children.put( name , child );
+            }
+            node = child;
+            start = dot + 1;
+        }
+    }
+
+    /**
+     * @return the paths this filter keeps
+     */
+    public Set<String> getPaths(){
+        return _paths;
+    }
+
+    /**
+     * Returns the filter for the value of a field.
+     *
+     * @param name the field name
+     * @return null if the field is not wanted, {@link #ALL} if all of it is, or the filter to apply to it otherwise
+     */
+    BSONFieldFilter get( String name ){
+        return _children.get( name );
+    }
+
+    @Override
+    public boolean equals( Object o ){
+        return this == o || o instanceof BSONFieldFilter && _paths != null && _paths.equals( ( (BSONFieldFilter) o )._paths );
+    }
+
+    @Override
+    public int hashCode(){
+        return _paths == null ? 0 : _paths.hashCode();
+    }
+
+    @Override
+    public String toString(){
+        return "BSONFieldFilter" + _paths;
+    }
+
+    /**
+     * Marks a field whose value is kept whole.
+     */
+    static final BSONFieldFilter ALL = new BSONFieldFilter();
+
+    private final Set<String> _paths;
+    private final Map<String, BSONFieldFilter> _children;
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import org.bson.io.BSONByteBuffer;
+import org.bson.io.Bits;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+
+import static org.bson.BSON.*;
+
+/**
+ * A pull parser for BSON documents.  Unlike a {@link BSONDecoder}, which pushes every element of a document to a
+ * {@link BSONCallback}, the reader moves through the document one element at a time at the caller's request.  Elements
+ * that aren't needed can be skipped without decoding their names or values, and numbers are returned as primitives.
+ *
+ * <pre>
+ *    BSONReader reader = new BSONReader( bytes );
+ *    reader.startDocument();
+ *    while ( reader.readType() != BSON.EOO ){
+ *        if ( reader.nameEquals( "count" ) )
+ *            count = reader.readInt32();
+ *        else
+ *            reader.skipValue();
+ *    }
+ *    reader.endDocument();
+ * </pre>
+ *
+ * <p>Embedded documents and arrays are read the same way, by calling {@link #startDocument()} once their element has been
+ * read with {@link #readType()}, and {@link #endDocument()} when done with them.  Instances are not thread safe.</p>
+ *
+ * @since 2.12.0
+ */
+public class BSONReader {
+
+    /**
+     * Creates a reader of the document at the start of an array.
+     *
+     * @param data the document
+     */
+    public BSONReader( byte[] data ){
+        this( data , 0 );
+    }
+
+    /**
+     * Creates a reader of the document at an offset into an array.
+     *
+     * @param data the array
+     * @param offset the offset of the document
+     */
+    public BSONReader( byte[] data , int offset ){
+        _data = data;
+        _pos = offset;
+    }
+
+    /**
+     * Creates a reader of the document at an offset into a buffer.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the document
+     */
+    public BSONReader( BSONByteBuffer buffer , int offset ){
+        this( buffer.array() , offset );
+    }
+
+    /**
+     * Creates a reader of the next document in a stream.  The document is read from the stream in full before this
+     * returns.
+     *
+     * @param in the stream
+     * @throws IOException if the document can't be read from the stream
+     */
+    public BSONReader( InputStream in ) throws IOException {
+        this( readDocument( in ) , 0 );
+    }
+
+    private static byte[] readDocument( InputStream in ) throws IOException {
+        byte[] sizeBytes = new byte[4];
+        int size = Bits.readInt( in , sizeBytes );
+        if ( size < 5 )
+            throw new BSONException( "bad document size: " + size );
+        byte[] data = new byte[ size ];
+        System.arraycopy( sizeBytes , 0 , data , 0 , 4 );
+        Bits.readFully( in , data , 4 , size - 4 );
+        return data;
+    }
+
+    /**
+     * Starts reading a document: the top level document, or the embedded document or array whose element was just read
+     * with {@link #readType()}.
+     *
+     * @throws BSONException if the current element is not a document or an array
+     */
+    public void startDocument(){
+        if ( _state != VALUE || ( _type != OBJECT && _type != ARRAY ) )
+            throw new BSONException( "not at the start of a document" );
+        int size = Bits.readInt( _data , _pos );
+        if ( _depth == _ends.length ){
+            int[] ends = new int[ _ends.length * 2 ];
+            System.arraycopy( _ends , 0 , ends , 0 , _ends.length );
+            _ends = ends;
+        }
+        _ends[ _depth++ ] = _pos + size;
+        _pos += 4;
+        _state = TYPE;
+    }
+
+    /**
+     * Finishes reading the current document, skipping the elements of it that haven't been read.
+     *
+     * @throws BSONException if no document has been started
+     */
+    public void endDocument(){
+        if ( _depth == 0 )
+            throw new BSONException( "no document to end" );
+        _pos = _ends[ --_depth ];
+        _state = _depth == 0 ? DONE : TYPE;
+    }
+
+    /**
+     * Reads the type and the name of the next element of the current document, skipping the value of the current element
+     * if it hasn't been read.
+     *
+     * @return the type, one of the constants in {@link BSON}, or {@link BSON#EOO} at the end of the document
+     */
+    public byte readType(){
+        if ( _state == VALUE )
+            skipValue();
+        if ( _state != TYPE )
+            throw new BSONException( _state == END ? "at the end of the document" : "not in a document" );
+
+        _type = _data[ _pos++ ];
+        if ( _type == EOO ){
+            _state = END;
+            return EOO;
+        }
+
+        _nameStart = _pos;
+        while ( _data[ _pos ] != 0 )
+            _pos++;
+        _pos++;
+        _state = VALUE;
+        return _type;
+    }
+
+    /**
+     * @return the type of the element last read with {@link #readType()}
+     */
+    public byte getCurrentType(){
+        return _type;
+    }
+
+    /**
+     * Decodes the name of the current element.
+     *
+     * @return the name
+     */
+    public String readName(){
+        checkValue();
+        return utf8( _nameStart , _pos - _nameStart - 1 );
+    }
+
+    /**
+     * Checks the name of the current element without decoding it.
+     *
+     * @param name the name to compare with
+     * @return true if the current element has this name
+     */
+    public boolean nameEquals( String name ){
+        checkValue();
+        int pos = _nameStart;
+        for ( int i = 0; i < name.length(); i++ ){
+            char c = name.charAt( i );
+            if ( c >= 0x80 )
+                return readName().equals( name );
+            if ( _data[ pos++ ] != c )
+                return false;
+        }
+        return _data[ pos ] == 0;
+    }
+
+    /**
+     * Skips the value of the current element.
+     */
+    public void skipValue(){
+        checkValue();
+        switch ( _type ){
+            case NULL:
+            case UNDEFINED:
+            case MINKEY:
+            case MAXKEY:
+                break;
+            case BOOLEAN:
+                _pos += 1;
+                break;
+            case NUMBER_INT:
+                _pos += 4;
+                break;
+            case NUMBER:
+            case NUMBER_LONG:
+            case DATE:
+            case TIMESTAMP:
+                _pos += 8;
+                break;
+            case OID:
+                _pos += 12;
+                break;
+            case STRING:
+            case SYMBOL:
+            case CODE:
+                _pos += 4 + Bits.readInt( _data , _pos );
+                break;
+            case OBJECT:
+            case ARRAY:
+            case CODE_W_SCOPE:
+                _pos += Bits.readInt( _data , _pos );
+                break;
+            case BINARY:
+                _pos += 5 + Bits.readInt( _data , _pos );
+                break;
+            case REGEX:
+                skipCString();
+                skipCString();
+                break;
+            case REF:
+                _pos += 4 + Bits.readInt( _data , _pos ) + 12;
+                break;
+            default:
+                throw new BSONException( "can't skip unknown type: " + _type );
+        }
+        _state = TYPE;
+    }
+
+    /**
+     * @return the value of the current element, which must be an {@link BSON#NUMBER_INT}
+     */
+    public int readInt32(){
+        checkType( NUMBER_INT );
+        int x = Bits.readInt( _data , _pos );
+        _pos += 4;
+        _state = TYPE;
+        return x;
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#NUMBER_LONG}
+     */
+    public long readInt64(){
+        checkType( NUMBER_LONG );
+        return readLong();
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#NUMBER}
+     */
+    public double readDouble(){
+        checkType( NUMBER );
+        return Double.longBitsToDouble( readLong() );
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#BOOLEAN}
+     */
+    public boolean readBoolean(){
+        checkType( BOOLEAN );
+        _state = TYPE;
+        return _data[ _pos++ ] != 0;
+    }
+
+    /**
+     * @return the value of the current element in milliseconds since the epoch, which must be a {@link BSON#DATE}
+     */
+    public long readDateTime(){
+        checkType( DATE );
+        return readLong();
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#STRING}, {@link BSON#SYMBOL} or
+     *         {@link BSON#CODE}
+     */
+    public String readString(){
+        checkValue();
+        if ( _type != STRING && _type != SYMBOL && _type != CODE )
+            throw wrongType( STRING );
+        int size = Bits.readInt( _data , _pos );
+        if ( size <= 0 )
+            throw new BSONException( "bad string size: " + size );
+        String s = utf8( _pos + 4 , size - 1 );
+        _pos += 4 + size;
+        _state = TYPE;
+        return s;
+    }
+
+    /**
+     * @return the value of the current element, which must be an {@link BSON#OID}
+     */
+    public ObjectId readObjectId(){
+        checkType( OID );
+        ObjectId id = new ObjectId( Bits.readIntBE( _data , _pos ) , Bits.readIntBE( _data , _pos + 4 ) ,
+                                    Bits.readIntBE( _data , _pos + 8 ) );
+        _pos += 12;
+        _state = TYPE;
+        return id;
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#TIMESTAMP}
+     */
+    public BSONTimestamp readTimestamp(){
+        checkType( TIMESTAMP );
+        int inc = Bits.readInt( _data , _pos );
+        int time = Bits.readInt( _data , _pos + 4 );
+        _pos += 8;
+        _state = TYPE;
+        return new BSONTimestamp( time , inc );
+    }
+
+    /**
+     * @return the value of the current element, which must be a {@link BSON#BINARY}
+     */
+    public Binary readBinary(){
+        checkType( BINARY );
+        int size = Bits.readInt( _data , _pos );
+        byte subType = _data[ _pos + 4 ];
+        int start = _pos + 5;
+        if ( subType == B_BINARY ){
+            start += 4;
+            size -= 4;
+        }
+        byte[] data = new byte[ size ];
+        System.arraycopy( _data , start , data , 0 , size );
+        _pos = start + size;
+        _state = TYPE;
+        return new Binary( subType , data );
+    }
+
+    /**
+     * @return the position in the underlying data of the next byte to read
+     */
+    public int getPosition(){
+        return _pos;
+    }
+
+    private long readLong(){
+        long x = Bits.readLong( _data , _pos );
+        _pos += 8;
+        _state = TYPE;
+        return x;
+    }
+
+    private void skipCString(){
+        while ( _data[ _pos ] != 0 )
+            _pos++;
+        _pos++;
+    }
+
+    private String utf8( int offset , int length ){
+        try {
+            return new String( _data , offset , length , "UTF-8" );
+        }
+        catch ( UnsupportedEncodingException uee ){
+            throw new BSONException( "Cannot decode string as UTF-8." , uee );
+        }
+    }
+
+    private void checkValue(){
+        if ( _state != VALUE )
+            throw new BSONException( "no current element, call readType first" );
+    }
+
+    private void checkType( byte type ){
+        checkValue();
+        if ( _type != type )
+            throw wrongType( type );
+    }
+
+    private BSONException wrongType( byte expected ){
+        return new BSONException( "expected type " + expected + " but found " + _type );
+    }
+
+    private static final int TYPE = 0;
+    private static final int VALUE = 1;
+    private static final int END = 2;
+    private static final int DONE = 3;
+
+    private final byte[] _data;
+    private int _pos;
+    private int _nameStart;
+    private byte _type = OBJECT;
+    private int _state = VALUE;
+    private int[] _ends = new int[ 8 ];
+    private int _depth;
+}
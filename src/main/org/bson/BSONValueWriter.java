@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+/**
+ * Writes values of one type as BSON fields.  Writers are looked up by the class of each value through a
+ * {@link BSONCodecRegistry}.
+ *
+ * @param <T> the type of value written
+ * @see BSONCodecRegistry#register(Class, BSONValueWriter)
+ * @since 2.12.0
+ */
+public interface BSONValueWriter<T> {
+
+    /**
+     * Writes a field.  Writers outside of this package typically turn the value into one the encoder already knows how
+     * to write, and pass it to {@link BasicBSONEncoder#putField(String, Object)}.
+     *
+     * @param encoder the encoder to write with
+     * @param name the field name
+     * @param value the value, never null
+     */
+    void write(BasicBSONEncoder encoder, String name, T value);
+}
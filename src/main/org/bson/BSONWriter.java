@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import org.bson.io.OutputBuffer;
+import org.bson.types.ObjectId;
+
+import static org.bson.BSON.*;
+
+/**
+ * Writes BSON documents element by element to an {@link OutputBuffer}, without first building a {@link BSONObject}.
+ * The sizes of documents and arrays are filled in when they are ended.
+ *
+ * <pre>
+ *    BSONWriter writer = new BSONWriter( buffer );
+ *    writer.writeStartDocument();
+ *    writer.writeString( "name" , "eliot" );
+ *    writer.writeStartArray( "scores" );
+ *    writer.writeInt32( "0" , 17 );
+ *    writer.writeEndArray();
+ *    writer.writeEndDocument();
+ * </pre>
+ *
+ * <p>Instances are not thread safe.</p>
+ *
+ * @see BSONReader
+ * @since 2.12.0
+ */
+public class BSONWriter {
+
+    /**
+     * Creates a writer that appends to a buffer.
+     *
+     * @param buf the buffer
+     */
+    public BSONWriter( OutputBuffer buf ){
+        _buf = buf;
+    }
+
+    /**
+     * Starts the top level document.
+     */
+    public void writeStartDocument(){
+        if ( _depth != 0 )
+            throw new BSONException( "a top level document can't be started inside another document" );
+        start();
+    }
+
+    /**
+     * Starts an embedded document.
+     *
+     * @param name the field name
+     */
+    public void writeStartDocument( String name ){
+        writeName( OBJECT , name );
+        start();
+    }
+
+    /**
+     * Ends the current document.
+     */
+    public void writeEndDocument(){
+        end();
+    }
+
+    /**
+     * Starts an array.  The field names of its elements should be "0", "1" and so on.
+     *
+     * @param name the field name
+     */
+    public void writeStartArray( String name ){
+        writeName( ARRAY , name );
+        start();
+    }
+
+    /**
+     * Ends the current array.
+     */
+    public void writeEndArray(){
+        end();
+    }
+
+    public void writeInt32( String name , int value ){
+        writeName( NUMBER_INT , name );
+        _buf.writeInt( value );
+    }
+
+    public void writeInt64( String name , long value ){
+        writeName( NUMBER_LONG , name );
+        _buf.writeLong( value );
+    }
+
+    public void writeDouble( String name , double value ){
+        writeName( NUMBER , name );
+        _buf.writeDouble( value );
+    }
+
+    public void writeBoolean( String name , boolean value ){
+        writeName( BOOLEAN , name );
+        _buf.write( value ? (byte)0x1 : (byte)0x0 );
+    }
+
+    /**
+     * @param name the field name
+     * @param value the value in milliseconds since the epoch
+     */
+    public void writeDateTime( String name , long value ){
+        writeName( DATE , name );
+        _buf.writeLong( value );
+    }
+
+    public void writeString( String name , String value ){
+        writeName( STRING , name );
+        int lenPos = _buf.getPosition();
+        _buf.writeInt( 0 ); // making space for size
+        _buf.writeInt( lenPos , _buf.writeCString( value ) );
+    }
+
+    public void writeObjectId( String name , ObjectId value ){
+        writeName( OID , name );
+        _buf.write( value.toByteArray() );
+    }
+
+    public void writeBinary( String name , byte[] value ){
+        writeName( BINARY , name );
+        _buf.writeInt( value.length );
+        _buf.write( B_GENERAL );
+        _buf.write( value );
+    }
+
+    public void writeNull( String name ){
+        writeName( NULL , name );
+    }
+
+    /**
+     * @return the number of documents and arrays started and not yet ended
+     */
+    public int getDepth(){
+        return _depth;
+    }
+
+    private void writeName( byte type , String name ){
+        if ( _depth == 0 )
+            throw new BSONException( "no document has been started" );
+        _buf.write( type );
+        _buf.writeCString( name );
+    }
+
+    private void start(){
+        if ( _depth == _starts.length ){
+            int[] starts = new int[ _starts.length * 2 ];
+            System.arraycopy( _starts , 0 , starts , 0 , _starts.length );
+            _starts = starts;
+        }
+        _starts[ _depth++ ] = _buf.getPosition();
+        _buf.writeInt( 0 ); // leaving space for this.  set it at the end
+    }
+
+    private void end(){
+        if ( _depth == 0 )
+            throw new BSONException( "no document to end" );
+        int start = _starts[ --_depth ];
+        _buf.write( EOO );
+        _buf.writeInt( start , _buf.getPosition() - start );
+    }
+
+    private final OutputBuffer _buf;
+    private int[] _starts = new int[ 8 ];
+    private int _depth;
+}
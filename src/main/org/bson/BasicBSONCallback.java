@@ -107,19 +107,35 @@ public class BasicBSONCallback implements BSONCallback {
     }
 
     public void gotBoolean( String name , boolean v ){
-        _put( name , v );
+        PrimitiveBSONObject o = primitiveCur( Boolean.class );
+        if ( o != null )
+            o.putBoolean( name , v );
+        else
+            _put( name , v );
     }
 
     public void gotDouble( final String name , final double v ){
-        _put( name , v );
+        PrimitiveBSONObject o = primitiveCur( Double.class );
+        if ( o != null )
+            o.putDouble( name , v );
+        else
+            _put( name , v );
     }
 
     public void gotInt( final String name , final int v ){
-        _put( name , v );
+        PrimitiveBSONObject o = primitiveCur( Integer.class );
+        if ( o != null )
+            o.putInt( name , v );
+        else
+            _put( name , v );
     }
 
     public void gotLong( final String name , final long v ){
-        _put( name , v );
+        PrimitiveBSONObject o = primitiveCur( Long.class );
+        if ( o != null )
+            o.putLong( name , v );
+        else
+            _put( name , v );
     }
 
     public void gotDate( String name , long millis ){
@@ -178,6 +194,16 @@ public class BasicBSONCallback implements BSONCallback {
         return _stack.getLast();
     }
 
+    /**
+     * Returns the object being built if it can take primitive values, and no decoding hook needs the value boxed.
+     *
+     * @param boxed the class the value would be boxed as
+     */
+    private PrimitiveBSONObject primitiveCur( Class boxed ){
+        BSONObject o = cur();
+        return o instanceof PrimitiveBSONObject && !BSON.hasDecodeHooks( boxed ) ? (PrimitiveBSONObject) o : null;
+    }
+
     protected String curName(){
         return (!_nameStack.isEmpty()) ? _nameStack.getLast() : null;
     }
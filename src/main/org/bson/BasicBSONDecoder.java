@@ -93,11 +93,27 @@ public class BasicBSONDecoder implements BSONDecoder {
     }
 
     public int decode( byte[] b , BSONCallback callback ){
+        return decode( b , 0 , b.length , callback );
+    }
+
+    /**
+     * Decodes the document that starts at {@code offset} in {@code b}, reading the bytes in place rather than copying
+     * them into the decoder's own buffer first.
+     *
+     * @param b the array holding the document
+     * @param offset where the document starts in {@code b}
+     * @param length the number of bytes of {@code b} that may be read, starting at {@code offset}
+     * @param callback the callback to build the decoded document with
+     * @return the number of bytes the document took up
+     * @throws BSONException if the document runs past the bytes it was given
+     * @since 2.12.0
+     */
+    public int decode( byte[] b , int offset , int length , BSONCallback callback ){
         try {
-            return _decode( new BSONInput( new ByteArrayInputStream(b) ) , callback );
+            return _decode( new BSONInput( b , offset , length ) , callback );
         }
         catch ( IOException ioe ){
-            throw new BSONException( "should be impossible" , ioe );
+            throw new BSONException( "bad data" , ioe );
         }
     }
 
@@ -114,6 +130,8 @@ public class BasicBSONDecoder implements BSONDecoder {
 
         _in = in;
         _callback = callback;
+        _filter = _rootFilter;
+        _inFilteredArray = false;
 
         if ( in.numRead() != 0 )
             throw new IllegalArgumentException( "i'm confused" );
@@ -136,9 +154,51 @@ public class BasicBSONDecoder implements BSONDecoder {
         finally {
             _in = null;
             _callback = null;
+            _filter = null;
+            if ( _fieldNameCache != null ){
+                _fieldNameCache.record( _nameHits , _nameMisses );
+                _nameHits = 0;
+                _nameMisses = 0;
+            }
         }
     }
 
+    /**
+     * Sets the cache that decoded field names are shared through.  Defaults to {@link FieldNameCache#DEFAULT}.
+     *
+     * @param fieldNameCache the cache, or null to decode every field name afresh
+     * @since 2.12.0
+     */
+    public void setFieldNameCache( FieldNameCache fieldNameCache ){
+        _fieldNameCache = fieldNameCache;
+    }
+
+    /**
+     * @return the cache that decoded field names are shared through, or null if there is none
+     * @since 2.12.0
+     */
+    public FieldNameCache getFieldNameCache(){
+        return _fieldNameCache;
+    }
+
+    /**
+     * Sets the fields to decode.  Any other field is stepped over without being handed to the callback.
+     *
+     * @param filter the fields to keep, or null to decode every field
+     * @since 2.12.0
+     */
+    public void setFieldFilter( BSONFieldFilter filter ){
+        _rootFilter = filter;
+    }
+
+    /**
+     * @return the fields to decode, or null if every field is decoded
+     * @since 2.12.0
+     */
+    public BSONFieldFilter getFieldFilter(){
+        return _rootFilter;
+    }
+
     int decode( boolean first )
         throws IOException {
 
@@ -171,6 +231,38 @@ public class BasicBSONDecoder implements BSONDecoder {
 
         String name = _in.readCStr();
 
+        if ( _filter != null ){
+            final BSONFieldFilter filter = _inFilteredArray ? ( type == OBJECT || type == ARRAY ? _filter : null ) : _filter.get( name );
+            if ( filter == null || ( filter != BSONFieldFilter.ALL && type != OBJECT && type != ARRAY ) ){
+                _skipValue( type , name );
+                return true;
+            }
+            // the documents kept from an array are numbered again, so that the dropped elements leave no gaps
+            final String keptName = _inFilteredArray ? String.valueOf( _keptInArray++ ) : name;
+            final BSONFieldFilter saved = _filter;
+            final boolean savedInArray = _inFilteredArray;
+            final int savedKept = _keptInArray;
+            _filter = filter == BSONFieldFilter.ALL ? null : filter;
+            _inFilteredArray = type == ARRAY;
+            _keptInArray = 0;
+            try {
+                _decodeValue( type , keptName );
+            }
+            finally {
+                _filter = saved;
+                _inFilteredArray = savedInArray;
+                _keptInArray = savedKept;
+            }
+            return true;
+        }
+
+        _decodeValue( type , name );
+        return true;
+    }
+
+    private void _decodeValue( final byte type , final String name )
+        throws IOException {
+
         switch ( type ){
         case NULL:
             _callback.gotNull( name );
@@ -274,8 +366,56 @@ public class BasicBSONDecoder implements BSONDecoder {
         default:
             throw new UnsupportedOperationException( "BSONDecoder doesn't understand type : " + type + " name: " + name  );
         }
+    }
 
-        return true;
+    // steps over a value using its encoded length, without creating it
+    private void _skipValue( final byte type , final String name )
+        throws IOException {
+
+        switch ( type ){
+        case NULL:
+        case UNDEFINED:
+        case MINKEY:
+        case MAXKEY:
+            break;
+        case BOOLEAN:
+            _in.skip( 1 );
+            break;
+        case NUMBER_INT:
+            _in.skip( 4 );
+            break;
+        case NUMBER:
+        case NUMBER_LONG:
+        case DATE:
+        case TIMESTAMP:
+            _in.skip( 8 );
+            break;
+        case OID:
+            _in.skip( 12 );
+            break;
+        case STRING:
+        case SYMBOL:
+        case CODE:
+            _in.skip( _in.readInt() );
+            break;
+        case REF:
+            _in.skip( _in.readInt() + 12 );
+            break;
+        case BINARY:
+            _in.skip( _in.readInt() + 1 );
+            break;
+        case REGEX:
+            _in.skipCStr();
+            _in.skipCStr();
+            break;
+        case CODE_W_SCOPE:
+        case OBJECT:
+        case ARRAY:
+            _in.skip( _in.readInt() - 4 );
+            break;
+        default:
+            throw new UnsupportedOperationException( "BSONDecoder doesn't understand type : " + type + " name: " + name  );
+        }
     }
 
     /**
@@ -348,12 +488,23 @@ public class BasicBSONDecoder implements BSONDecoder {
 
         public BSONInput(final InputStream in){
             _raw = in;
+            _buf = _inputBuffer;
             _read = 0;
 
             _pos = 0;
             _len = 0;
         }
 
+        // reads straight out of the given bytes, which hold everything there is to read
+        BSONInput( final byte[] b , final int offset , final int length ){
+            _raw = null;
+            _buf = b;
+            _read = 0;
+
+            _pos = offset;
+            _len = offset + length;
+        }
+
         /**
          * ensure that there are num bytes to read
          * _pos is where to start reading from
@@ -371,21 +522,24 @@ public class BasicBSONDecoder implements BSONDecoder {
                 return ret;
             }
 
+            if ( _raw == null )
+                throw new IOException( "unexpected EOF" );
+
             if ( num >= _inputBuffer.length )
                 throw new IllegalArgumentException( "you can't need that much" );
 
             final int remaining = _len - _pos;
             if ( _pos > 0 ){
-                System.arraycopy( _inputBuffer , _pos , _inputBuffer , 0  , remaining );
+                System.arraycopy( _buf , _pos , _buf , 0  , remaining );
 
                 _pos = 0;
                 _len = remaining;
             }
 
             // read as much as possible into buffer
-            int maxToRead = Math.min( _max - _read - remaining , _inputBuffer.length - _len );
+            int maxToRead = Math.min( _max - _read - remaining , _buf.length - _len );
             while ( maxToRead > 0 ){
-                int x = _raw.read( _inputBuffer , _len ,  maxToRead);
+                int x = _raw.read( _buf , _len ,  maxToRead);
                 if ( x <= 0 )
                     throw new IOException( "unexpected EOF" );
                 maxToRead -= x;
@@ -400,17 +554,17 @@ public class BasicBSONDecoder implements BSONDecoder {
 
         public int readInt()
                 throws IOException {
-            return org.bson.io.Bits.readInt( _inputBuffer , _need(4) );
+            return org.bson.io.Bits.readInt( _buf , _need(4) );
         }
 
         public int readIntBE()
                 throws IOException {
-            return org.bson.io.Bits.readIntBE( _inputBuffer , _need(4) );
+            return org.bson.io.Bits.readIntBE( _buf , _need(4) );
         }
 
         public long readLong()
                 throws IOException {
-            return org.bson.io.Bits.readLong( _inputBuffer , _need(8) );
+            return org.bson.io.Bits.readLong( _buf , _need(8) );
         }
 
         public double readDouble()
@@ -422,9 +576,9 @@ public class BasicBSONDecoder implements BSONDecoder {
                 throws IOException {
             if ( _pos < _len ){
                 ++_read;
-                return _inputBuffer[_pos++];
+                return _buf[_pos++];
             }
-            return _inputBuffer[_need(1)];
+            return _buf[_need(1)];
         }
 
         public void fill( byte b[] )
@@ -437,12 +591,14 @@ public class BasicBSONDecoder implements BSONDecoder {
             // first use what we have
             final int have = _len - _pos;
             final int tocopy = Math.min( len , have );
-            System.arraycopy( _inputBuffer , _pos , b , 0 , tocopy );
+            System.arraycopy( _buf , _pos , b , 0 , tocopy );
 
             _pos += tocopy;
             _read += tocopy;
 
             len -= tocopy;
+            if ( len > 0 && _raw == null )
+                throw new IOException( "unexpected EOF" );
 
             int off = tocopy;
             while ( len > 0 ){
@@ -459,7 +615,89 @@ public class BasicBSONDecoder implements BSONDecoder {
             return b >=0 && b <= 127;
         }
 
+        void skip( int num )
+                throws IOException {
+            if ( num < 0 )
+                throw new BSONException( "bad value size: " + num );
+            final int have = _len - _pos;
+            if ( num <= have ){
+                _pos += num;
+                _read += num;
+                return;
+            }
+            _pos = _len;
+            _read += have;
+            num -= have;
+            if ( _raw == null )
+                throw new IOException( "unexpected EOF" );
+            while ( num > 0 ){
+                long x = _raw.skip( num );
+                if ( x <= 0 ){
+                    if ( _raw.read() < 0 )
+                        throw new IOException( "unexpected EOF" );
+                    x = 1;
+                }
+                _read += x;
+                num -= x;
+            }
+        }
+
+        void skipCStr()
+                throws IOException {
+            while ( read() != 0 );
+        }
+
         public String readCStr() throws IOException {
+            // the string is usually in the buffer already, in which case its end is found, its bytes are checked for
+            // ASCII and they are hashed in a single pass over them
+            final byte[] buf = _buf;
+            final int start = _pos;
+            int end = start;
+            int hash = 0;
+            boolean isAscii = true;
+            while ( end < _len ){
+                final byte b = buf[end];
+                if ( b == 0 )
+                    break;
+                isAscii = isAscii && b >= 0;
+                hash = 31 * hash + b;
+                end++;
+            }
+            if ( end == _len )
+                return _readCStr();
+
+            final int length = end - start;
+            _pos = end + 1;
+            _read += length + 1;
+
+            if ( length < 2 && isAscii )
+                return length == 0 ? "" : _oneByteString( buf[start] );
+
+            if ( _fieldNameCache == null ){
+                try {
+                    return new String( buf , start , length , DEFAULT_ENCODING );
+                }
+                catch ( java.io.UnsupportedEncodingException uee ){
+                    throw new BSONException( "impossible" , uee );
+                }
+            }
+
+            // field names repeat from one document to the next, so they come from the cache whenever they can
+            final String cached = _fieldNameCache.find( buf , start , length , hash );
+            if ( cached != null ){
+                _nameHits++;
+                return cached;
+            }
+            _nameMisses++;
+            return _fieldNameCache.add( buf , start , length , hash , isAscii );
+        }
+
+        private String _oneByteString( final byte b ){
+            final String out = ONE_BYTE_STRINGS[b];
+            return out != null ? out : String.valueOf( (char)b );
+        }
+
+        private String _readCStr() throws IOException {
 
             boolean isAscii = true;
 
@@ -509,13 +747,13 @@ public class BasicBSONDecoder implements BSONDecoder {
             if ( size <= 0 || size > MAX_STRING )
                 throw new BSONException( "bad string size: " + size );
 
-            if ( size < _inputBuffer.length / 2 ){
+            if ( _raw == null || size < _inputBuffer.length / 2 ){
                 if ( size == 1 ){
                     read();
                     return "";
                 }
 
-                return new String( _inputBuffer , _need(size) , size - 1 , DEFAULT_ENCODING );
+                return new String( _buf , _need(size) , size - 1 , DEFAULT_ENCODING );
             }
 
             final byte [] b = size < _random.length ? _random : new byte[size];
@@ -547,7 +785,8 @@ public class BasicBSONDecoder implements BSONDecoder {
         }
 
         int _read;
-        final InputStream _raw;
+        final InputStream _raw; // null when everything to read is already in _buf
+        final byte[] _buf;
 
         int _max = 4; // max number of total bytes allowed to ready
 
@@ -571,20 +810,27 @@ public class BasicBSONDecoder implements BSONDecoder {
     private byte [] _inputBuffer = new byte[1024];
 
     private PoolOutputBuffer _stringBuffer = new PoolOutputBuffer();
+    private FieldNameCache _fieldNameCache = FieldNameCache.DEFAULT;
+    private BSONFieldFilter _rootFilter;
+    private BSONFieldFilter _filter; // the filter for the document or array being decoded
+    private boolean _inFilteredArray;
+    private int _keptInArray;
+    private int _nameHits;
+    private int _nameMisses;
 
     /**
      * @deprecated This field should not be a part of API.
      *             Please see the class-level documentation for a migration instructions.
      */
     @Deprecated
-    protected int _pos; // current offset into _inputBuffer
+    protected int _pos; // current offset into the buffer being read
 
     /**
      * @deprecated This field should not be a part of API.
      *             Please see the class-level documentation for a migration instructions.
      */
     @Deprecated
-    protected int _len; // length of valid data in _inputBuffer
+    protected int _len; // end of the valid data in the buffer being read
 
     private static final int MAX_STRING = ( 32 * 1024 * 1024 );
 
@@ -61,13 +61,9 @@ import org.bson.types.BSONTimestamp;
 import org.bson.types.Binary;
 import org.bson.types.Code;
 import org.bson.types.CodeWScope;
-import org.bson.types.MaxKey;
-import org.bson.types.MinKey;
 import org.bson.types.ObjectId;
 import org.bson.types.Symbol;
 
-import com.mongodb.DBRefBase;
-
 /**
  * this is meant to be pooled or cached
  * there is some per instance memory for string conversion, etc...
@@ -225,59 +221,14 @@ public class BasicBSONEncoder implements BSONEncoder {
         
         val = BSON.applyEncodingHooks( val );
 
-        if ( val == null )
+        if ( val == null ) {
             putNull(name);
-        else if ( val instanceof Date )
-            putDate( name , (Date)val );
-        else if ( val instanceof Number )
-            putNumber(name, (Number)val );
-        else if ( val instanceof Character )
-            putString(name, val.toString() );
-        else if ( val instanceof String )
-            putString(name, val.toString() );
-        else if ( val instanceof ObjectId )
-            putObjectId(name, (ObjectId)val );
-        else if ( val instanceof BSONObject )
-            putObject(name, (BSONObject)val );
-        else if ( val instanceof Boolean )
-            putBoolean(name, (Boolean)val );
-        else if ( val instanceof Pattern )
-            putPattern(name, (Pattern)val );
-        else if ( val instanceof Map )
-            putMap( name , (Map)val );
-        else if ( val instanceof Iterable)
-            putIterable( name , (Iterable)val );
-        else if ( val instanceof byte[] )
-            putBinary( name , (byte[])val );
-        else if ( val instanceof Binary )
-            putBinary( name , (Binary)val );
-        else if ( val instanceof UUID )
-            putUUID( name , (UUID)val );
-        else if ( val.getClass().isArray() )
-        	putArray( name , val );
-
-        else if (val instanceof Symbol) {
-            putSymbol(name, (Symbol) val);
-        }
-        else if (val instanceof BSONTimestamp) {
-            putTimestamp( name , (BSONTimestamp)val );
-        }
-        else if (val instanceof CodeWScope) {
-            putCodeWScope( name , (CodeWScope)val );
-        }
-        else if (val instanceof Code) {
-            putCode( name , (Code)val );
-        }
-        else if (val instanceof DBRefBase) {
-            BSONObject temp = new BasicBSONObject();
-            temp.put("$ref", ((DBRefBase)val).getRef());
-            temp.put("$id", ((DBRefBase)val).getId());
-            putObject( name, temp );
+            return;
         }
-        else if ( val instanceof MinKey )
-            putMinKey( name );
-        else if ( val instanceof MaxKey )
-            putMaxKey( name );
+
+        BSONValueWriter<Object> writer = _codecRegistry.get( val.getClass() );
+        if ( writer != null )
+            writer.write( this , name , val );
         else if ( putSpecial( name , val ) ){
             // no-op
         }
@@ -286,8 +237,40 @@ public class BasicBSONEncoder implements BSONEncoder {
         }
         
     }
+
+    /**
+     * Writes a field of any type this encoder can serialize.  Meant for {@link BSONValueWriter}s that write a value by
+     * converting it to another one.
+     *
+     * @param name the field name
+     * @param val the value
+     * @since 2.12.0
+     */
+    public void putField( String name , Object val ){
+        _putObjectField( name , val );
+    }
+
+    /**
+     * Sets the registry used to find the writer for each value.  Defaults to {@link BSONCodecRegistry#DEFAULT}.
+     *
+     * @param codecRegistry the registry
+     * @since 2.12.0
+     */
+    public void setCodecRegistry( BSONCodecRegistry codecRegistry ){
+        if ( codecRegistry == null )
+            throw new IllegalArgumentException( "codecRegistry can not be null" );
+        _codecRegistry = codecRegistry;
+    }
+
+    /**
+     * @return the registry used to find the writer for each value
+     * @since 2.12.0
+     */
+    public BSONCodecRegistry getCodecRegistry(){
+        return _codecRegistry;
+    }
 	
-    private void putArray( String name , Object array ) {
+    void putArray( String name , Object array ) {
         _put( ARRAY , name );
         final int sizePos = _buf.getPosition();
         _buf.writeInt( 0 );
@@ -300,7 +283,7 @@ public class BasicBSONEncoder implements BSONEncoder {
         _buf.writeInt( sizePos , _buf.getPosition() - sizePos ); 
     }
 	
-    private void putIterable( String name , Iterable l ){
+    void putIterable( String name , Iterable l ){
         _put( ARRAY , name );
         final int sizePos = _buf.getPosition();
         _buf.writeInt( 0 );
@@ -316,7 +299,7 @@ public class BasicBSONEncoder implements BSONEncoder {
         _buf.writeInt( sizePos , _buf.getPosition() - sizePos );        
     }
     
-    private void putMap( String name , Map m ){
+    void putMap( String name , Map m ){
         _put( OBJECT , name );
         final int sizePos = _buf.getPosition();
         _buf.writeInt( 0 );
@@ -443,17 +426,17 @@ public class BasicBSONEncoder implements BSONEncoder {
         _buf.writeIntBE( oid._inc() );
     }
     
-    private void putPattern( String name, Pattern p ) {
+    void putPattern( String name, Pattern p ) {
         _put( REGEX , name );
         _put( p.pattern() );
         _put( regexFlags( p.flags() ) );
     }
 
-    private void putMinKey( String name ) {
+    void putMinKey( String name ) {
         _put( MINKEY , name );
     }
 
-    private void putMaxKey( String name ) {
+    void putMaxKey( String name ) {
         _put( MAXKEY , name );
     }
 
@@ -539,4 +522,6 @@ public class BasicBSONEncoder implements BSONEncoder {
     @Deprecated
     protected OutputBuffer _buf;
 
+    private BSONCodecRegistry _codecRegistry = BSONCodecRegistry.DEFAULT;
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of decoded field names, shared by decoders so that documents with the same fields share the same key
+ * {@code String}s.  Names are looked up by their UTF-8 bytes, so a name that is in the cache is never decoded again.
+ *
+ * <p>The cache is a fixed size table indexed by a hash of the bytes: a name that hashes to the same slot as another
+ * replaces it, so the cache never grows and needs no locking.  Long names are not cached.</p>
+ *
+ * @since 2.12.0
+ */
+public class FieldNameCache {
+
+    /**
+     * The cache used by decoders that haven't been given another one.
+     */
+    public static final FieldNameCache DEFAULT = new FieldNameCache( 1024 );
+
+    /**
+     * Creates a cache.
+     *
+     * @param size the number of names to hold, rounded up to a power of two
+     */
+    public FieldNameCache( int size ){
+        if ( size <= 0 )
+            throw new IllegalArgumentException( "size must be greater than 0" );
+        int capacity = Integer.highestOneBit( size );
+        if ( capacity < size )
+            capacity <<= 1;
+        _entries = new Entry[ capacity ];
+    }
+
+    /**
+     * Gets the name whose UTF-8 encoding is a range of bytes, from the cache if it's there.
+     *
+     * @param bytes the array holding the name
+     * @param offset the offset of the name
+     * @param length the length of the name in bytes, without any terminating null
+     * @return the name
+     */
+    public String get( byte[] bytes , int offset , int length ){
+        int hash = 0;
+        boolean ascii = true;
+        for ( int i = offset; i < offset + length; i++ ){
+            ascii = ascii && bytes[i] >= 0;
+            hash = 31 * hash + bytes[i];
+        }
+        String name = find( bytes , offset , length , hash );
+        if ( name != null ){
+            _hits.incrementAndGet();
+            return name;
+        }
+        _misses.incrementAndGet();
+        return add( bytes , offset , length , hash , ascii );
+    }
+
+    /**
+     * @return the number of names the cache holds
+     */
+    public int getSize(){
+        return _entries.length;
+    }
+
+    /**
+     * @return the number of lookups that found their name in the cache
+     */
+    public long getHitCount(){
+        return _hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to decode their name
+     */
+    public long getMissCount(){
+        return _misses.get();
+    }
+
+    /**
+     * @return the fraction of lookups that found their name in the cache, or 0 if there have been none
+     */
+    public double getHitRate(){
+        long hits = _hits.get();
+        long total = hits + _misses.get();
+        return total == 0 ? 0 : (double)hits / total;
+    }
+
+    @Override
+    public String toString(){
+        return "FieldNameCache{size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "}";
+    }
+
+    // decoders hash the bytes as they look for the end of a name, and count hits and misses themselves so that
+    // concurrent decoders don't contend on the counters for every field
+
+    String find( byte[] bytes , int offset , int length , int hash ){
+        Entry e = _entries[ hash & ( _entries.length - 1 ) ];
+        if ( e == null || e._hash != hash || e._bytes.length != length )
+            return null;
+        byte[] b = e._bytes;
+        for ( int i = 0; i < length; i++ )
+            if ( b[i] != bytes[offset + i] )
+                return null;
+        return e._name;
+    }
+
+    String add( byte[] bytes , int offset , int length , int hash , boolean ascii ){
+        String name;
+        if ( ascii ){
+            char[] c = new char[ length ];
+            for ( int i = 0; i < length; i++ )
+                c[i] = (char)bytes[offset + i];
+            name = new String( c );
+        }
+        else {
+            try {
+                name = new String( bytes , offset , length , "UTF-8" );
+            }
+            catch ( UnsupportedEncodingException uee ){
+                throw new BSONException( "impossible" , uee );
+            }
+        }
+        if ( length <= MAX_NAME_LENGTH ){
+            byte[] b = new byte[ length ];
+            System.arraycopy( bytes , offset , b , 0 , length );
+            _entries[ hash & ( _entries.length - 1 ) ] = new Entry( hash , b , name );
+        }
+        return name;
+    }
+
+    void record( long hits , long misses ){
+        if ( hits > 0 )
+            _hits.addAndGet( hits );
+        if ( misses > 0 )
+            _misses.addAndGet( misses );
+    }
+
+    // immutable, so that entries can be read without locking
+    private static class Entry {
+        Entry( int hash , byte[] bytes , String name ){
+            _hash = hash;
+            _bytes = bytes;
+            _name = name;
+        }
+
+        final int _hash;
+        final byte[] _bytes;
+        final String _name;
+    }
+
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private final Entry[] _entries;
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+}
@@ -15,11 +15,12 @@
  */
 package org.bson;
 
-import java.util.HashMap;
-
 import org.bson.io.BSONByteBuffer;
 
 /**
+ * Every {@link LazyBSONObject} now indexes its fields once they are looked up more than once, so this class adds
+ * nothing to it.
+ *
  * @author brendan
  * @author scotthernandez
  *
@@ -32,42 +33,4 @@ public class KeyCachingLazyBSONObject extends LazyBSONObject {
     public KeyCachingLazyBSONObject(byte[] data , int offset , LazyBSONCallback cbk) { super( data , offset , cbk ); }
     public KeyCachingLazyBSONObject( BSONByteBuffer buffer, LazyBSONCallback callback ){ super( buffer, callback ); }
     public KeyCachingLazyBSONObject( BSONByteBuffer buffer, int offset, LazyBSONCallback callback ){ super( buffer, offset, callback ); }
-
-    @Override
-    public Object get( String key ) {
-        ensureFieldList();
-        return super.get( key );
-    }
-
-    @Override
-    public boolean containsField( String s ) {
-        ensureFieldList();
-        if (! fieldIndex.containsKey( s ) )
-            return false;
-        else 
-            return super.containsField( s );
-    }
-    
-    synchronized private void ensureFieldList() {
-        //only run once
-        if (fieldIndex == null) return;
-        try {
-            int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
-            
-            while ( !isElementEmpty( offset ) ){
-                int fieldSize = sizeCString( offset );
-                int elementSize = getElementBSONSize( offset++ );
-                String name = _input.getCString( offset );
-                ElementRecord _t_record = new ElementRecord( name, offset );
-                fieldIndex.put( name, _t_record );
-                offset += ( fieldSize + elementSize );
-            }
-        } catch (Exception e) {
-            fieldIndex = new HashMap<String, ElementRecord>();
-        }
-    }
-    
-    
-    private HashMap<String, ElementRecord> fieldIndex = new HashMap<String, ElementRecord>();
-
 }
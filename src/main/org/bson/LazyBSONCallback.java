@@ -75,6 +75,25 @@ public class LazyBSONCallback extends EmptyBSONCallback {
         return new BasicBSONObject( "$ns", ns ).append( "$id", id );
     }
 
+    /**
+     * Sets the cache that the field names of the objects this callback creates are shared through.  Defaults to
+     * {@link FieldNameCache#DEFAULT}.
+     *
+     * @param fieldNameCache the cache, or null to decode every field name afresh
+     * @since 2.12.0
+     */
+    public void setFieldNameCache( FieldNameCache fieldNameCache ){
+        _fieldNameCache = fieldNameCache;
+    }
+
+    /**
+     * @return the cache that field names are shared through, or null if there is none
+     * @since 2.12.0
+     */
+    public FieldNameCache getFieldNameCache(){
+        return _fieldNameCache;
+    }
+
 
     /*    public Object createObject(InputStream input, int offset) {
         try {
@@ -86,5 +105,6 @@ public class LazyBSONCallback extends EmptyBSONCallback {
         }
     }*/
     private Object _root;
+    private FieldNameCache _fieldNameCache = FieldNameCache.DEFAULT;
     private static final Logger log = Logger.getLogger( "org.bson.LazyBSONCallback" );
 }
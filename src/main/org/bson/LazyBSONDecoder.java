@@ -62,9 +62,32 @@ public class LazyBSONDecoder implements BSONDecoder {
         Bits.readFully(in, data, BYTES_IN_INTEGER, objSize - BYTES_IN_INTEGER);
 
         // note that we are handing off ownership of the data byte array to the callback
+        if (callback instanceof LazyBSONCallback) {
+            ((LazyBSONCallback) callback).setFieldNameCache(_fieldNameCache);
+        }
         callback.gotBinary(null, (byte) 0, data);
         return objSize;
     }
 
+    /**
+     * Sets the cache that the field names of decoded objects are shared through.  Defaults to
+     * {@link FieldNameCache#DEFAULT}.
+     *
+     * @param fieldNameCache the cache, or null to decode every field name afresh
+     * @since 2.12.0
+     */
+    public void setFieldNameCache(FieldNameCache fieldNameCache) {
+        _fieldNameCache = fieldNameCache;
+    }
+
+    /**
+     * @return the cache that field names are shared through, or null if there is none
+     * @since 2.12.0
+     */
+    public FieldNameCache getFieldNameCache() {
+        return _fieldNameCache;
+    }
+
     private static int BYTES_IN_INTEGER = 4;
+    private FieldNameCache _fieldNameCache = FieldNameCache.DEFAULT;
 }
@@ -70,7 +70,7 @@ public class LazyBSONList extends LazyBSONObject implements List {
     @Override
     public int size(){
         //TODO check the last one and get the key/field name to see the ordinal position in case the array is stored with missing elements.
-        return getElements().size();
+        return getIndex().size();
     }
 
     public class LazyBSONListIterator implements Iterator {
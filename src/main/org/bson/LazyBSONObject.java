@@ -79,8 +79,10 @@ public class LazyBSONObject implements BSONObject {
         public String next(){
             int fieldSize = sizeCString( offset + 1);
             int elementSize = getElementBSONSize( offset );
-            String key = _input.getCString( offset + 1);
+            String key = names.read( offset + 1 , fieldSize );
             offset += fieldSize + elementSize + 1;
+            if ( isElementEmpty( offset ) )
+                names.done();
             return key;
         }
 
@@ -89,6 +91,7 @@ public class LazyBSONObject implements BSONObject {
         }
 
         int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
+        final NameReader names = new NameReader();
     }
 
     /**
@@ -98,19 +101,11 @@ public class LazyBSONObject implements BSONObject {
     public class LazyBSONKeySet extends ReadOnlySet<String> {
 
         /**
-         * This method runs in time linear to the total size of all keys in the document.
-         *
          * @return the number of keys in the document
          */
         @Override
         public int size(){
-            int size = 0;
-            Iterator<String> iter = iterator();
-            while(iter.hasNext()) {
-                iter.next();
-                ++size;
-            }
-            return size;
+            return getIndex().size();
         }
 
         @Override
@@ -120,12 +115,7 @@ public class LazyBSONObject implements BSONObject {
 
         @Override
         public boolean contains( Object o ){
-            for ( String key : this ){
-                if ( key.equals( o ) ){
-                    return true;
-                }
-            }
-            return false;
+            return o instanceof String && getElement( (String) o ) != null;
         }
 
         @Override
@@ -188,9 +178,11 @@ public class LazyBSONObject implements BSONObject {
         public Map.Entry<String, Object> next(){
             int fieldSize = sizeCString(offset + 1);
             int elementSize = getElementBSONSize(offset);
-            String key = _input.getCString(offset + 1);
+            String key = names.read( offset + 1 , fieldSize );
             final ElementRecord nextElementRecord = new ElementRecord(key, ++offset);
             offset += fieldSize + elementSize;
+            if ( isElementEmpty( offset ) )
+                names.done();
             return new Map.Entry<String, Object>() {
                 @Override
                 public String getKey() {
@@ -232,6 +224,7 @@ public class LazyBSONObject implements BSONObject {
         }
 
         int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
+        final NameReader names = new NameReader();
     }
 
     class LazyBSONEntrySet extends ReadOnlySet<Map.Entry<String, Object>>  {
@@ -365,22 +358,149 @@ public class LazyBSONObject implements BSONObject {
      * @return ElementRecord for key, or null
      */
     ElementRecord getElement(String key){
+        if ( _index == null && !_lookedUp ){
+            // a document read for a single field is not worth indexing
+            _lookedUp = true;
+            return scanForElement( key );
+        }
+        int offset = getIndex().find( key );
+        return offset < 0 ? null : new ElementRecord( key, offset + 1 );
+    }
+
+    private ElementRecord scanForElement( String key ){
         int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
- 
-        while ( !isElementEmpty( offset ) ){
-            int fieldSize = sizeCString( offset + 1 );
-            int elementSize = getElementBSONSize( offset );
-            String name = _input.getCString( ++offset);
+        NameReader names = new NameReader();
+
+        try {
+            while ( !isElementEmpty( offset ) ){
+                int fieldSize = sizeCString( offset + 1 );
+                int elementSize = getElementBSONSize( offset );
+                String name = names.read( ++offset , fieldSize );
 
-            if (name.equals(key)) {
-                return new ElementRecord( name, offset );
+                if (name.equals(key)) {
+                    return new ElementRecord( name, offset );
+                }
+                offset += ( fieldSize + elementSize);
             }
-            offset += ( fieldSize + elementSize);
+
+            return null;
+        }
+        finally {
+            names.done();
         }
+    }
 
-        return null;
+    /**
+     * Returns the index of the fields of this document, building it if this is the first time it is needed.  The
+     * buffer is never written to, so threads racing to build the index each get a correct one, and the last one
+     * written is kept without any locking.
+     */
+    FieldIndex getIndex(){
+        FieldIndex index = _index;
+        if ( index == null ){
+            index = new FieldIndex();
+            _index = index;
+        }
+        return index;
     }
 
+    /**
+     * The offsets of the elements of a document, sorted by the hash codes of their names so that a field is found with
+     * a binary search and a comparison of the name bytes.  Immutable once built.
+     */
+    final class FieldIndex {
+
+        FieldIndex(){
+            int[] offsets = new int[ 8 ];
+            int[] hashes = new int[ 8 ];
+            int count = 0;
+            int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
+            byte[] bytes = _input.array();
+            NameReader names = new NameReader();
+
+            while ( !isElementEmpty( offset ) ){
+                int nameOffset = offset + 1;
+                int end = nameOffset;
+                int h = 0;
+                boolean ascii = true;
+                byte b;
+                while ( ( b = bytes[ end ] ) != 0 ){
+                    h = 31 * h + b;
+                    ascii &= b > 0;
+                    end++;
+                }
+                if ( !ascii ){
+                    h = names.read( nameOffset, end - nameOffset + 1 ).hashCode();
+                }
+                if ( count == offsets.length ){
+                    offsets = grow( offsets );
+                    hashes = grow( hashes );
+                }
+                offsets[ count ] = offset;
+                hashes[ count ] = h;
+                count++;
+                offset = end + 1 + getElementBSONSize( offset );
+            }
+            names.done();
+
+            // sorting (hash, position) pairs keeps the first of any duplicate names first, as a scan would find it
+            long[] sorted = new long[ count ];
+            for ( int i = 0; i < count; i++ ){
+                sorted[ i ] = ( (long) hashes[ i ] << 32 ) | i;
+            }
+            Arrays.sort( sorted );
+            _hashes = new int[ count ];
+            _offsets = new int[ count ];
+            for ( int i = 0; i < count; i++ ){
+                _hashes[ i ] = (int) ( sorted[ i ] >> 32 );
+                _offsets[ i ] = offsets[ (int) sorted[ i ] ];
+            }
+        }
+
+        /**
+         * @return the offset of the type byte of the element with the given name, or -1 if there is none
+         */
+        int find( String key ){
+            int h = key.hashCode();
+            int i = Arrays.binarySearch( _hashes, h );
+            if ( i < 0 )
+                return -1;
+            while ( i > 0 && _hashes[ i - 1 ] == h ){
+                i--;
+            }
+            for ( ; i < _hashes.length && _hashes[ i ] == h; i++ ){
+                if ( nameEquals( _offsets[ i ] + 1, key ) )
+                    return _offsets[ i ];
+            }
+            return -1;
+        }
+
+        int size(){
+            return _offsets.length;
+        }
+
+        private int[] grow( int[] a ){
+            int[] grown = new int[ a.length * 2 ];
+            System.arraycopy( a, 0, grown, 0, a.length );
+            return grown;
+        }
+
+        private boolean nameEquals( int offset, String key ){
+            byte[] bytes = _input.array();
+            int len = key.length();
+            for ( int i = 0; i < len; i++ ){
+                char c = key.charAt( i );
+                if ( c >= 0x80 )
+                    return getElementFieldName( offset ).equals( key );
+                if ( bytes[ offset + i ] != c )
+                    return false;
+            }
+            return bytes[ offset + len ] == 0;
+        }
+
+        private final int[] _hashes;
+        private final int[] _offsets;
+    }
 
     /**
      * returns all the ElementRecords in this document
@@ -389,16 +509,18 @@ public class LazyBSONObject implements BSONObject {
     List<ElementRecord> getElements(){
         int offset = _doc_start_offset + FIRST_ELMT_OFFSET;
         ArrayList<ElementRecord> elements = new ArrayList<LazyBSONObject.ElementRecord>();
+        NameReader names = new NameReader();
 
         while ( !isElementEmpty( offset ) ){
             int fieldSize = sizeCString( offset + 1 );
             int elementSize = getElementBSONSize( offset );
-            String name = _input.getCString( ++offset );
+            String name = names.read( ++offset , fieldSize );
             ElementRecord rec = new ElementRecord( name, offset );
             elements.add( rec );
             offset += ( fieldSize + elementSize );
         }
 
+        names.done();
         return elements;
     }
 
@@ -416,7 +538,7 @@ public class LazyBSONObject implements BSONObject {
     }
 
     public boolean containsField( String s ){
-        return keySet().contains( s );
+        return getElement( s ) != null;
     }
 
     /**
@@ -461,7 +583,72 @@ public class LazyBSONObject implements BSONObject {
     }
 
     private String getElementFieldName( final int offset ){
-        return _input.getCString( offset );
+        return getFieldName( offset , sizeCString( offset ) );
+    }
+
+    /**
+     * Field names are shared through the cache of the callback, so the keys of documents with the same fields are
+     * decoded only once.
+     *
+     * @param offset the offset of the name
+     * @param size the size of the name, including its terminating null
+     */
+    String getFieldName( final int offset , final int size ){
+        NameReader names = new NameReader();
+        String name = names.read( offset , size );
+        names.done();
+        return name;
+    }
+
+    /**
+     * Reads field names through the cache of the callback.  Like a decoder, it counts hits and misses itself and adds
+     * them to the cache when done, so that readers don't contend on the cache's counters for every field.  The
+     * iterators are done when they return the last field, so one that is abandoned before then adds no counts.
+     */
+    final class NameReader {
+
+        /**
+         * @param offset the offset of the name
+         * @param size the size of the name, including its terminating null
+         */
+        String read( final int offset , final int size ){
+            byte[] bytes = _input.array();
+            int length = size - 1;
+            if ( _cache == null ){
+                try {
+                    return new String( bytes , offset , length , "UTF-8" );
+                }
+                catch ( java.io.UnsupportedEncodingException uee ){
+                    throw new BSONException( "impossible" , uee );
+                }
+            }
+
+            int hash = 0;
+            boolean ascii = true;
+            for ( int i = offset; i < offset + length; i++ ){
+                ascii = ascii && bytes[ i ] >= 0;
+                hash = 31 * hash + bytes[ i ];
+            }
+            String name = _cache.find( bytes , offset , length , hash );
+            if ( name != null ){
+                _hits++;
+                return name;
+            }
+            _misses++;
+            return _cache.add( bytes , offset , length , hash , ascii );
+        }
+
+        void done(){
+            if ( _cache != null ){
+                _cache.record( _hits , _misses );
+                _hits = 0;
+                _misses = 0;
+            }
+        }
+
+        private final FieldNameCache _cache = _callback != null ? _callback.getFieldNameCache() : FieldNameCache.DEFAULT;
+        private int _hits;
+        private int _misses;
     }
 
     /**
@@ -718,7 +905,7 @@ public class LazyBSONObject implements BSONObject {
      *  @deprecated Please use {@link #getBytes()} to access underlying bytes.
      */
     @Deprecated
-    protected final BSONByteBuffer _input; // TODO - Guard this with synchronicity?
+    protected final BSONByteBuffer _input; // only ever read at absolute offsets, so it is safe to share between threads
     // callback is kept to create sub-objects on the fly
 
     /**
@@ -726,5 +913,8 @@ public class LazyBSONObject implements BSONObject {
      */
     @Deprecated
     protected final LazyBSONCallback _callback;
+
+    private volatile FieldIndex _index;
+    private volatile boolean _lookedUp;
     private static final Logger log = Logger.getLogger( "org.bson.LazyBSONObject" );
 }
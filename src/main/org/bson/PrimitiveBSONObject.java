@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+/**
+ * A {@code BSONObject} that can hold numbers and booleans without boxing them.  {@link BasicBSONCallback} hands the
+ * values of int, long, double and boolean fields to these methods, rather than to {@link #put(String, Object)}, when
+ * no decoding hooks are registered.  Values put this way still come back boxed from {@link #get(String)}.
+ *
+ * @since 2.12.0
+ */
+public interface PrimitiveBSONObject extends BSONObject {
+
+    /**
+     * Sets an int field.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    void putInt( String key , int v );
+
+    /**
+     * Sets a long field.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    void putLong( String key , long v );
+
+    /**
+     * Sets a double field.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    void putDouble( String key , double v );
+
+    /**
+     * Sets a boolean field.
+     *
+     * @param key the key
+     * @param v the value
+     */
+    void putBoolean( String key , boolean v );
+
+    /**
+     * Returns the value of a field as an {@code int}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    int getInt( String key , int def );
+
+    /**
+     * Returns the value of a field as a {@code long}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    long getLong( String key , long def );
+
+    /**
+     * Returns the value of a field as a {@code double}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    double getDouble( String key , double def );
+
+    /**
+     * Returns the value of a field as a {@code boolean}.
+     *
+     * @param key the field to look for
+     * @param def the default to return
+     * @return the field value, or the default if the field is not there
+     */
+    boolean getBoolean( String key , boolean def );
+}
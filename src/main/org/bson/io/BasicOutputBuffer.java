@@ -41,6 +41,18 @@ public class BasicOutputBuffer extends OutputBuffer {
         _size = Math.max( _cur , _size );
     }
 
+    @Override
+    protected void writeAscii( String str , int start , int end ){
+        final int len = end - start;
+        _ensure( len );
+        final byte[] buffer = _buffer;
+        final int cur = _cur;
+        for ( int i = 0; i < len; i++ )
+            buffer[cur + i] = (byte)str.charAt( start + i );
+        _cur += len;
+        _size = Math.max( _cur , _size );
+    }
+
     @Override
     public int getPosition(){
         return _cur;
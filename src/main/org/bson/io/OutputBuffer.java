@@ -202,9 +202,23 @@ public abstract class OutputBuffer extends OutputStream {
     public int writeCString(final String str) {
 
         final int len = str.length();
-        int total = 0;
 
-        for (int i = 0; i < len;/*i gets incremented*/) {
+        // most strings, and nearly all field names, are ASCII: the leading run of it is written in one go
+        int ascii = 0;
+        while (ascii < len) {
+            final char c = str.charAt(ascii);
+            if (c == 0x0 || c >= 0x80) {
+                break;
+            }
+            ascii++;
+        }
+        if (ascii > 0) {
+            writeAscii(str, 0, ascii);
+        }
+
+        int total = ascii;
+
+        for (int i = ascii; i < len;/*i gets incremented*/) {
             final int c = Character.codePointAt(str, i);
 
             if (c == 0x0) {
@@ -239,6 +253,20 @@ public abstract class OutputBuffer extends OutputStream {
         return total;
     }
 
+    /**
+     * Writes characters of a string that are known to be ASCII, one byte each.  Subclasses can override this to copy
+     * them straight into their storage.
+     *
+     * @param str the string
+     * @param start the index of the first character to write
+     * @param end the index after the last character to write
+     */
+    protected void writeAscii(final String str, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            write((byte) str.charAt(i));
+        }
+    }
+
     public String toString(){
         return getClass().getName() + " size: " + size() + " pos: " + getPosition() ;
     }
@@ -23,6 +23,7 @@ import org.bson.io.*;
 import org.bson.util.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -79,6 +80,22 @@ public class PoolOutputBuffer extends OutputBuffer {
         return _end.pos();
     }
 
+    /**
+     * Discards everything written at or after the given position, returning the buffers that held it to the pool.
+     *
+     * @deprecated This method is NOT a part of public API and will be dropped in 3.x versions.
+     */
+    @Deprecated
+    public void truncateToPosition( int position ){
+        if ( position < 0 || position > size() )
+            throw new IllegalArgumentException( "position " + position + " is outside of [0, " + size() + "]" );
+
+        _cur.reset( position );
+        _end.reset( position );
+        while ( _fromPool.size() > _end.x + 1 )
+            _extra.done( _fromPool.remove( _fromPool.size() - 1 ) );
+    }
+
     public void write(byte[] b){
         write( b , 0 , b.length );
     }
@@ -101,6 +118,20 @@ public class PoolOutputBuffer extends OutputBuffer {
         _afterWrite();
     }
 
+    @Override
+    protected void writeAscii( String str , int start , int end ){
+        while ( start < end ){
+            byte[] bs = _cur();
+            int y = _cur.y;
+            int space = Math.min( bs.length - y , end - start );
+            for ( int i = 0; i < space; i++ )
+                bs[y + i] = (byte)str.charAt( start + i );
+            _cur.inc( space );
+            start += space;
+            _afterWrite();
+        }
+    }
+
     void _afterWrite(){
 
         if ( _cur.pos() < _end.pos() ){
@@ -149,6 +180,21 @@ public class PoolOutputBuffer extends OutputBuffer {
         return total;
     }
 
+    /**
+     * Wraps each of the buffers holding the data in a {@code ByteBuffer}, in order, without copying anything.  The
+     * wrappers see later writes, and are only valid until this buffer is reset.
+     *
+     * @deprecated This method is NOT a part of public API and will be dropped in 3.x versions.
+     */
+    @Deprecated
+    public List<ByteBuffer> asByteBuffers(){
+        List<ByteBuffer> buffers = new ArrayList<ByteBuffer>( _fromPool.size() + 1 );
+        for ( int i=-1; i<_fromPool.size(); i++ ){
+            buffers.add( ByteBuffer.wrap( _get( i ) , 0 , _end.len( i ) ) );
+        }
+        return buffers;
+    }
+
     static class Position {
         Position(){
             reset();
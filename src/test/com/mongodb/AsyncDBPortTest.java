@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.TestCase;
+import org.bson.io.Bits;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AsyncDBPortTest extends TestCase {
+
+    @Test
+    public void testRepliesAreMatchedByResponseTo() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final int numRequests = 2;
+
+        // a fake server that waits for both requests before answering them in reverse order
+        Thread server = new Thread() {
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    List<Integer> requestIds = new ArrayList<Integer>();
+                    for (int i = 0; i < numRequests; i++) {
+                        byte[] header = new byte[16];
+                        Bits.readFully(in, header);
+                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                        Bits.readFully(in, body);
+                        requestIds.add(Bits.readInt(header, 4));
+                    }
+                    for (int i = requestIds.size() - 1; i >= 0; i--) {
+                        out.write(DBPortTest.reply(requestIds.get(i)));
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    // test will fail
+                }
+            }
+        };
+        server.setDaemon(true);
+        server.start();
+
+        Mongo m = new MongoClient();
+        NIOEventLoop loop = new NIOEventLoop("AsyncDBPortTest-loop");
+        try {
+            ServerAddress addr = new ServerAddress("localhost", serverSocket.getLocalPort());
+            AsyncDBPort port = new AsyncDBPort(addr, loop, m);
+            DBCollection coll = m.getDB("AsyncDBPortTest").getCollection("replies");
+
+            OutMessage[] messages = new OutMessage[numRequests];
+            int[] requestIds = new int[numRequests];
+            List<SingleResultFuture<ByteBuffer>> futures = new ArrayList<SingleResultFuture<ByteBuffer>>();
+            AsyncDBPort.ReplyHandler[] handlers = new AsyncDBPort.ReplyHandler[numRequests];
+            for (int i = 0; i < numRequests; i++) {
+                messages[i] = OutMessage.query(coll, 0, 0, -1, new BasicDBObject(), null);
+                requestIds[i] = messages[i].getId();
+
+                final SingleResultFuture<ByteBuffer> future = new SingleResultFuture<ByteBuffer>();
+                futures.add(future);
+                handlers[i] = new AsyncDBPort.ReplyHandler() {
+                    public void onReply(final ByteBuffer reply) {
+                        future.onResult(reply, null);
+                    }
+
+                    public void onError(final IOException e) {
+                        future.onResult(null, new MongoException.Network("read failed", e));
+                    }
+                };
+            }
+            port.send(messages, requestIds, handlers);
+
+            for (int i = 0; i < numRequests; i++) {
+                ByteBuffer reply = futures.get(i).getOrThrow();
+                assertEquals(requestIds[i], Bits.readInt(reply.array(), 8));
+            }
+            port.close();
+        } finally {
+            loop.close();
+            m.close();
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void testRequestTimesOutWithoutFailingThePort() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+
+        // a fake server that only ever answers the second of two requests
+        Thread server = new Thread() {
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    InputStream in = socket.getInputStream();
+                    int requestId = 0;
+                    for (int i = 0; i < 2; i++) {
+                        byte[] header = new byte[16];
+                        Bits.readFully(in, header);
+                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                        Bits.readFully(in, body);
+                        requestId = Bits.readInt(header, 4);
+                    }
+                    socket.getOutputStream().write(DBPortTest.reply(requestId));
+                    socket.getOutputStream().flush();
+                    Thread.sleep(5000);
+                } catch (Exception e) {
+                    // test will fail
+                }
+            }
+        };
+        server.setDaemon(true);
+        server.start();
+
+        Mongo m = new MongoClient("localhost", MongoClientOptions.builder().socketTimeout(200).build());
+        NIOEventLoop loop = new NIOEventLoop("AsyncDBPortTest-loop");
+        try {
+            ServerAddress addr = new ServerAddress("localhost", serverSocket.getLocalPort());
+            AsyncDBPort port = new AsyncDBPort(addr, loop, m);
+            DBCollection coll = m.getDB("AsyncDBPortTest").getCollection("timeouts");
+
+            List<SingleResultFuture<ByteBuffer>> futures = new ArrayList<SingleResultFuture<ByteBuffer>>();
+            for (int i = 0; i < 2; i++) {
+                OutMessage message = OutMessage.query(coll, 0, 0, -1, new BasicDBObject(), null);
+                final SingleResultFuture<ByteBuffer> future = new SingleResultFuture<ByteBuffer>();
+                futures.add(future);
+                port.send(new OutMessage[]{message}, new int[]{message.getId()}, new AsyncDBPort.ReplyHandler[]{
+                    new AsyncDBPort.ReplyHandler() {
+                        public void onReply(final ByteBuffer reply) {
+                            future.onResult(reply, null);
+                        }
+
+                        public void onError(final IOException e) {
+                            future.onResult(null, new MongoException.Network("read failed", e));
+                        }
+                    }});
+            }
+
+            assertNotNull(futures.get(1).getOrThrow());
+            try {
+                futures.get(0).getOrThrow();
+                fail("should have timed out");
+            } catch (MongoException.Network e) {
+                assertTrue(e.getCause() instanceof SocketTimeoutException);
+            }
+            assertTrue(port.isOpen());
+            port.close();
+        } finally {
+            loop.close();
+            m.close();
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.TestCase;
+import org.bson.BSONObject;
+import org.bson.io.Bits;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BulkWriteOperationTest extends TestCase {
+
+    public BulkWriteOperationTest() {
+        cleanupDB = "com_mongodb_unittest_BulkWriteOperationTest";
+    }
+
+    @org.testng.annotations.Test
+    public void testUpdateMustUseOperators() {
+        BulkWriteOperation bulk = getCollection().initializeOrderedBulkOperation();
+        try {
+            bulk.find(new BasicDBObject("x", 1)).updateOne(new BasicDBObject("x", 2));
+            fail("should have thrown");
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            bulk.find(new BasicDBObject("x", 1)).upsert().replaceOne(new BasicDBObject("$set", new BasicDBObject("x", 2)));
+            fail("should have thrown");
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testInsertAddsId() {
+        BulkWriteOperation bulk = getCollection().initializeUnorderedBulkOperation();
+        DBObject doc = new BasicDBObject("x", 1);
+        bulk.insert(doc);
+        assertNotNull(doc.get("_id"));
+        assertFalse(bulk.isOrdered());
+    }
+
+    @org.testng.annotations.Test(expectedExceptions = IllegalStateException.class)
+    public void testEmptyOperationCanNotBeExecuted() {
+        getCollection().initializeOrderedBulkOperation().execute();
+    }
+
+    @org.testng.annotations.Test
+    public void testOrderedStopsAtFirstError() {
+        DBCollection c = getDatabase().getCollection("ordered");
+        c.drop();
+
+        BulkWriteOperation bulk = c.initializeOrderedBulkOperation();
+        bulk.insert(new BasicDBObject("_id", 1));
+        bulk.insert(new BasicDBObject("_id", 1));
+        bulk.insert(new BasicDBObject("_id", 2));
+        try {
+            bulk.execute(WriteConcern.ACKNOWLEDGED);
+            fail("should have thrown");
+        } catch (BulkWriteException e) {
+            List<BulkWriteError> errors = e.getWriteErrors();
+            assertEquals(1, errors.size());
+            assertEquals(1, errors.get(0).getIndex());
+            assertEquals(1, e.getWriteResult().getInsertedCount());
+        }
+        assertEquals(1, c.count());
+    }
+
+    @org.testng.annotations.Test
+    public void testUnorderedContinuesAfterError() {
+        DBCollection c = getDatabase().getCollection("unordered");
+        c.drop();
+
+        BulkWriteOperation bulk = c.initializeUnorderedBulkOperation();
+        for (int i = 0; i < 2500; i++) {
+            bulk.insert(new BasicDBObject("_id", i));
+        }
+        // writes in different groups may run in any order, so these all fall in the last group
+        bulk.insert(new BasicDBObject("_id", 2100));
+        bulk.find(new BasicDBObject("_id", 3000)).upsert().updateOne(new BasicDBObject("$set", new BasicDBObject("x", 1)));
+        bulk.find(new BasicDBObject("_id", 2200)).removeOne();
+        try {
+            bulk.execute(WriteConcern.ACKNOWLEDGED);
+            fail("should have thrown");
+        } catch (BulkWriteException e) {
+            assertEquals(1, e.getWriteErrors().size());
+            assertEquals(2500, e.getWriteErrors().get(0).getIndex());
+            assertEquals(2500, e.getWriteResult().getInsertedCount());
+            assertEquals(1, e.getWriteResult().getUpserts().size());
+            assertEquals(2501, e.getWriteResult().getUpserts().get(0).getIndex());
+            assertEquals(1, e.getWriteResult().getRemovedCount());
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testWriteCommandsCarryRunsOfOneKind() throws Exception {
+        List<BSONObject> commands = Collections.synchronizedList(new ArrayList<BSONObject>());
+        ServerSocket server = startWriteCommandServer(commands);
+        Mongo mongo = new MongoClient(new ServerAddress("127.0.0.1", server.getLocalPort()));
+        try {
+            DBCollection c = mongo.getDB("test").getCollection("bulk");
+
+            BulkWriteOperation bulk = c.initializeOrderedBulkOperation();
+            addMixedWrites(bulk);
+            BulkWriteResult result = bulk.execute(WriteConcern.ACKNOWLEDGED);
+            assertEquals(Arrays.asList("insert:2", "update:2", "insert:1", "delete:1"), writeCommands(commands));
+            assertEquals(3, result.getInsertedCount());
+            assertEquals(1, result.getMatchedCount());
+            assertEquals(1, result.getRemovedCount());
+            assertEquals(1, result.getUpserts().size());
+            assertEquals(3, result.getUpserts().get(0).getIndex());
+
+            // unordered, all the writes of one kind go together
+            commands.clear();
+            bulk = c.initializeUnorderedBulkOperation();
+            addMixedWrites(bulk);
+            result = bulk.execute(WriteConcern.ACKNOWLEDGED);
+            assertEquals(Arrays.asList("insert:3", "update:2", "delete:1"), writeCommands(commands));
+            assertEquals(3, result.getInsertedCount());
+            assertEquals(3, result.getUpserts().get(0).getIndex());
+        } finally {
+            mongo.close();
+            server.close();
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testWriteCommandErrorsAreMappedToTheirWrites() throws Exception {
+        List<BSONObject> commands = Collections.synchronizedList(new ArrayList<BSONObject>());
+        ServerSocket server = startWriteCommandServer(commands);
+        Mongo mongo = new MongoClient(new ServerAddress("127.0.0.1", server.getLocalPort()));
+        try {
+            BulkWriteOperation bulk = mongo.getDB("test").getCollection("bulk").initializeOrderedBulkOperation();
+            bulk.insert(new BasicDBObject("_id", 1));
+            bulk.find(new BasicDBObject("_id", 1)).updateOne(new BasicDBObject("$set", new BasicDBObject("x", 1)));
+            bulk.insert(new BasicDBObject("_id", 2));
+            bulk.insert(new BasicDBObject("_id", "dup"));
+            bulk.insert(new BasicDBObject("_id", 3));
+            bulk.find(new BasicDBObject("_id", 3)).removeOne();
+            try {
+                bulk.execute(WriteConcern.ACKNOWLEDGED);
+                fail("should have thrown");
+            } catch (BulkWriteException e) {
+                assertEquals(1, e.getWriteErrors().size());
+                assertEquals(3, e.getWriteErrors().get(0).getIndex());
+                assertEquals(11000, e.getWriteErrors().get(0).getCode());
+                assertEquals(2, e.getWriteResult().getInsertedCount());
+            }
+            // ordered, so nothing after the failed batch is sent
+            assertEquals(Arrays.asList("insert:1", "update:1", "insert:3"), writeCommands(commands));
+        } finally {
+            mongo.close();
+            server.close();
+        }
+    }
+
+    private void addMixedWrites(BulkWriteOperation bulk) {
+        bulk.insert(new BasicDBObject("_id", 1));
+        bulk.insert(new BasicDBObject("_id", 2));
+        bulk.find(new BasicDBObject("_id", 1)).updateOne(new BasicDBObject("$set", new BasicDBObject("x", 1)));
+        bulk.find(new BasicDBObject("_id", 4)).upsert().updateOne(new BasicDBObject("$set", new BasicDBObject("x", 1)));
+        bulk.insert(new BasicDBObject("_id", 3));
+        bulk.find(new BasicDBObject("_id", 2)).removeOne();
+    }
+
+    // the write commands received, as the command name and the number of writes it carried
+    private List<String> writeCommands(List<BSONObject> commands) {
+        List<String> found = new ArrayList<String>();
+        synchronized (commands) {
+            for (BSONObject cmd : commands) {
+                for (String name : Arrays.asList("insert:documents", "update:updates", "delete:deletes")) {
+                    String[] parts = name.split(":");
+                    if (cmd.containsField(parts[0]))
+                        found.add(parts[0] + ":" + ((List) cmd.get(parts[1])).size());
+                }
+            }
+        }
+        return found;
+    }
+
+    // a server with write commands, which fails an insert of the document with _id "dup" as a duplicate key
+    private ServerSocket startWriteCommandServer(final List<BSONObject> commands) throws IOException {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread() {
+            public void run() {
+                try {
+                    while (true) {
+                        final Socket socket = serverSocket.accept();
+                        Thread connection = new Thread() {
+                            public void run() {
+                                try {
+                                    InputStream in = socket.getInputStream();
+                                    OutputStream out = socket.getOutputStream();
+                                    while (true) {
+                                        byte[] header = new byte[16];
+                                        Bits.readFully(in, header);
+                                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                                        Bits.readFully(in, body);
+                                        BSONObject cmd = DBPortTest.readQuery(body);
+                                        commands.add(cmd);
+                                        out.write(DBPortTest.reply(Bits.readInt(header, 4), answer(cmd)));
+                                        out.flush();
+                                    }
+                                } catch (IOException e) {
+                                    // connection closed
+                                }
+                            }
+                        };
+                        connection.setDaemon(true);
+                        connection.start();
+                    }
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket;
+    }
+
+    private DBObject answer(BSONObject cmd) {
+        BasicDBObject res = new BasicDBObject("ok", 1);
+        if (cmd.containsField("insert")) {
+            List documents = (List) cmd.get("documents");
+            for (int i = 0; i < documents.size(); i++) {
+                if ("dup".equals(((BSONObject) documents.get(i)).get("_id"))) {
+                    return res.append("n", i).append("writeErrors", Arrays.asList(
+                        new BasicDBObject("index", i).append("code", 11000).append("errmsg", "duplicate key")));
+                }
+            }
+            return res.append("n", documents.size());
+        } else if (cmd.containsField("update")) {
+            List updates = (List) cmd.get("updates");
+            List<DBObject> upserted = new ArrayList<DBObject>();
+            for (int i = 0; i < updates.size(); i++) {
+                if (Boolean.TRUE.equals(((BSONObject) updates.get(i)).get("upsert")))
+                    upserted.add(new BasicDBObject("index", i).append("_id", 4));
+            }
+            return res.append("n", updates.size()).append("nModified", updates.size() - upserted.size()).append("upserted", upserted);
+        } else if (cmd.containsField("delete")) {
+            return res.append("n", ((List) cmd.get("deletes")).size());
+        }
+        return res.append("ismaster", true).append("maxBsonObjectSize", 16 * 1024 * 1024).append("maxWriteBatchSize", 1000)
+                  .append("minWireVersion", 0).append("maxWireVersion", 2);
+    }
+
+    private DBCollection getCollection() {
+        return getDatabase().getCollection("bulk");
+    }
+
+    private DB getDatabase() {
+        return cleanupMongo.getDB(cleanupDB);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.JSON;
+import org.bson.BSONObject;
+import org.bson.BasicBSONCallback;
+import org.bson.BasicBSONDecoder;
+import org.bson.BasicBSONEncoder;
+import org.bson.LazyBSONCallback;
+import org.bson.LazyBSONObject;
+import org.bson.NewBSONDecoder;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.io.Bits;
+import org.bson.io.PoolOutputBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the BSON and wire protocol code paths without a server: encoding and decoding the small, medium and large
+ * documents of {@link PerformanceTest}, lazy documents, JSON, building messages, and reading replies, both from memory
+ * and from a fake server on a loopback socket.  Each benchmark is warmed up and then timed for a number of seconds.
+ * Run with
+ * <pre>
+ * java -classpath "..." com.mongodb.CodecBenchmark [seconds] [name filter]
+ * </pre>
+ */
+@SuppressWarnings("deprecation")
+public class CodecBenchmark {
+
+    public static void main(String... args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        String filter = args.length > 1 ? args[1] : "";
+
+        PerformanceTest.setup();
+        mongo = new MongoClient();
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        addDocumentBenchmarks(benchmarks, "small", PerformanceTest.small);
+        addDocumentBenchmarks(benchmarks, "medium", PerformanceTest.medium);
+        addDocumentBenchmarks(benchmarks, "large", PerformanceTest.large);
+        addMessageBenchmarks(benchmarks);
+
+        for (Benchmark benchmark : benchmarks) {
+            if (benchmark.name.contains(filter)) {
+                run(benchmark, 1);
+                report(benchmark.name, run(benchmark, seconds), seconds);
+            }
+        }
+        FakeServer.stopAll();
+        mongo.close();
+        System.out.println("(" + sink + ")");
+    }
+
+    abstract static class Benchmark {
+        Benchmark(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return something computed from the result, so that the work can't be optimized away
+         */
+        abstract int op() throws Exception;
+
+        final String name;
+    }
+
+    private static void addDocumentBenchmarks(List<Benchmark> benchmarks, final String size, final DBObject doc) {
+        final byte[] bytes = new BasicBSONEncoder().encode(doc);
+        final String json = JSON.serialize(doc);
+
+        benchmarks.add(new Benchmark("BasicBSONEncoder " + size) {
+            final BasicBSONEncoder encoder = new BasicBSONEncoder();
+            final PoolOutputBuffer buf = new PoolOutputBuffer();
+
+            int op() {
+                buf.reset();
+                encoder.set(buf);
+                int n = encoder.putObject(doc);
+                encoder.done();
+                return n;
+            }
+        });
+        benchmarks.add(new Benchmark("BasicBSONDecoder " + size) {
+            final BasicBSONDecoder decoder = new BasicBSONDecoder();
+            final BasicBSONCallback callback = new BasicBSONCallback();
+
+            int op() {
+                callback.reset();
+                decoder.decode(bytes, callback);
+                return ((BSONObject) callback.get()).keySet().size();
+            }
+        });
+        benchmarks.add(new Benchmark("NewBSONDecoder " + size) {
+            final NewBSONDecoder decoder = new NewBSONDecoder();
+            final BasicBSONCallback callback = new BasicBSONCallback();
+
+            int op() {
+                callback.reset();
+                decoder.decode(bytes, callback);
+                return ((BSONObject) callback.get()).keySet().size();
+            }
+        });
+        benchmarks.add(new Benchmark("LazyBSONObject " + size) {
+            final LazyBSONCallback callback = new LazyBSONCallback();
+
+            int op() {
+                LazyBSONObject o = new LazyBSONObject(bytes, callback);
+                int n = 0;
+                for (Map.Entry<String, Object> entry : o.entrySet()) {
+                    if (entry.getValue() != null) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+        });
+        benchmarks.add(new Benchmark("JSON.serialize " + size) {
+            int op() {
+                return JSON.serialize(doc).length();
+            }
+        });
+        benchmarks.add(new Benchmark("JSON.parse " + size) {
+            int op() {
+                return ((BSONObject) JSON.parse(json)).keySet().size();
+            }
+        });
+    }
+
+    private static void addMessageBenchmarks(List<Benchmark> benchmarks) throws IOException {
+        // messages are only built here, so the client never needs to reach a server
+        final DBCollection collection = mongo.getDB("benchmark").getCollection("benchmark");
+        final DBObject query = new BasicDBObject("_id", 1);
+
+        benchmarks.add(new Benchmark("OutMessage insert 100 medium") {
+            int op() {
+                OutMessage om = OutMessage.insert(collection, DefaultDBEncoder.FACTORY.create(), WriteConcern.NORMAL);
+                for (int i = 0; i < 100; i++) {
+                    om.putObject(PerformanceTest.medium);
+                }
+                om.prepare();
+                int n = om.size();
+                om.doneWithMessage();
+                return n;
+            }
+        });
+        benchmarks.add(new Benchmark("OutMessage query") {
+            int op() {
+                OutMessage om = OutMessage.query(collection, 0, 0, 100, query, null);
+                om.prepare();
+                int n = om.size();
+                om.doneWithMessage();
+                return n;
+            }
+        });
+
+        final byte[] reply = reply(PerformanceTest.large, 100);
+        benchmarks.add(new Benchmark("Response stream 100 large") {
+            int op() throws IOException {
+                return new Response(new ServerAddress(), null, new ByteArrayInputStream(reply),
+                                    DefaultDBDecoder.FACTORY.create()).size();
+            }
+        });
+        benchmarks.add(new Benchmark("Response buffer 100 large") {
+            int op() throws IOException {
+                return new Response(new ServerAddress(), null, ByteBuffer.wrap(reply),
+                                    DefaultDBDecoder.FACTORY.create()).size();
+            }
+        });
+
+        final FakeServer server = new FakeServer(reply);
+        final Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), server.getPort());
+        socket.setTcpNoDelay(true);
+        benchmarks.add(new Benchmark("query round trip 100 large") {
+            int op() throws IOException {
+                OutMessage om = OutMessage.query(collection, 0, 0, 100, query, null);
+                try {
+                    om.prepare();
+                    om.pipe(socket.getOutputStream());
+                } finally {
+                    om.doneWithMessage();
+                }
+                return new Response(new ServerAddress(), null, socket.getInputStream(),
+                                    DefaultDBDecoder.FACTORY.create()).size();
+            }
+        });
+    }
+
+    // an OP_REPLY holding num copies of a document
+    static byte[] reply(DBObject doc, int num) {
+        BasicOutputBuffer docs = new BasicOutputBuffer();
+        for (int i = 0; i < num; i++) {
+            new DefaultDBEncoder().writeObject(docs, doc);
+        }
+
+        BasicOutputBuffer buf = new BasicOutputBuffer();
+        buf.writeInt(Response.HEADER_LENGTH + docs.size());
+        buf.writeInt(0);                // requestId
+        buf.writeInt(0);                // responseTo
+        buf.writeInt(1);                // OP_REPLY
+        buf.writeInt(0);                // flags
+        buf.writeLong(0);               // cursor
+        buf.writeInt(0);                // startingFrom
+        buf.writeInt(num);
+        buf.write(docs.toByteArray());
+        return buf.toByteArray();
+    }
+
+    /**
+     * Answers every message it reads with the same reply.
+     */
+    static class FakeServer extends Thread {
+        FakeServer(byte[] reply) throws IOException {
+            super("FakeServer");
+            setDaemon(true);
+            _reply = reply;
+            _serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+            _servers.add(this);
+            start();
+        }
+
+        int getPort() {
+            return _serverSocket.getLocalPort();
+        }
+
+        public void run() {
+            try {
+                Socket socket = _serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                byte[] header = new byte[4];
+                byte[] message = new byte[16 * 1024];
+                while (true) {
+                    Bits.readFully(in, header);
+                    int len = Bits.readInt(header) - 4;
+                    if (len > message.length) {
+                        message = new byte[len];
+                    }
+                    Bits.readFully(in, message, 0, len);
+                    out.write(_reply);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // stopped
+            }
+        }
+
+        static void stopAll() throws IOException {
+            for (FakeServer server : _servers) {
+                server._serverSocket.close();
+            }
+        }
+
+        private final byte[] _reply;
+        private final ServerSocket _serverSocket;
+        private static final List<FakeServer> _servers = new ArrayList<FakeServer>();
+    }
+
+    private static long run(Benchmark benchmark, int seconds) throws Exception {
+        long stopAt = System.nanoTime() + seconds * 1000000000L;
+        long ops = 0;
+        int acc = 0;
+        while (System.nanoTime() < stopAt) {
+            for (int i = 0; i < 100; i++) {
+                acc += benchmark.op();
+            }
+            ops += 100;
+        }
+        sink += acc;
+        return ops;
+    }
+
+    private static void report(String name, long ops, int seconds) {
+        System.out.println(String.format("%-32s %12d ops/s %10.1f us/op", name, ops / seconds, seconds * 1000000.0 / ops));
+    }
+
+    static Mongo mongo;
+    static volatile int sink;
+}
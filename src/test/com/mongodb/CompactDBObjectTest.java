@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.TestCase;
+import org.bson.BSON;
+import org.bson.BSONObject;
+import org.bson.BasicBSONCallback;
+import org.bson.BasicBSONDecoder;
+import org.bson.BasicBSONEncoder;
+import org.bson.PrimitiveBSONObject;
+import org.bson.Transformer;
+import org.bson.types.ObjectId;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+
+public class CompactDBObjectTest extends TestCase {
+
+    // other tests leave hooks behind, and those would keep values boxed
+    @BeforeMethod
+    public void clearHooks(){
+        BSON.clearDecodingHooks();
+    }
+
+    @Test
+    public void testPutGetRemove(){
+        CompactDBObject o = new CompactDBObject( 1 );
+        assertNull( o.put( "a" , "x" ) );
+        o.putInt( "b" , 2 );
+        o.putDouble( "c" , 3.5 );
+        o.putBoolean( "d" , true );
+        o.putLong( "e" , 5L );
+
+        assertEquals( 5 , o.size() );
+        assertEquals( "x" , o.get( "a" ) );
+        assertEquals( 2 , o.get( "b" ) );
+        assertEquals( 3.5 , o.get( "c" ) );
+        assertEquals( Boolean.TRUE , o.get( "d" ) );
+        assertEquals( 5L , o.get( "e" ) );
+        assertEquals( 3 , o.getInt( "c" ) );
+        assertEquals( 2L , o.getLong( "b" ) );
+        assertEquals( 5.0 , o.getDouble( "e" ) );
+        assertTrue( o.getBoolean( "d" ) );
+        assertEquals( 7 , o.getInt( "missing" , 7 ) );
+
+        assertEquals( 2 , o.put( "b" , "y" ) );
+        assertEquals( "y" , o.get( "b" ) );
+
+        assertEquals( 3.5 , o.removeField( "c" ) );
+        assertFalse( o.containsField( "c" ) );
+        assertEquals( Arrays.asList( "a" , "b" , "d" , "e" ) , Arrays.asList( o.keySet().toArray() ) );
+        assertEquals( 5L , o.get( "e" ) );
+    }
+
+    @Test
+    public void testRemoveFieldClearsFreedSlot(){
+        CompactDBObject o = new CompactDBObject( 2 );
+        o.putInt( "a" , 1 );
+        o.putInt( "b" , 2 );
+        assertEquals( 1 , o.removeField( "a" ) );
+
+        assertNull( o.put( "c" , "x" ) );
+        assertEquals( "x" , o.get( "c" ) );
+        assertEquals( 2 , o.get( "b" ) );
+    }
+
+    @Test
+    public void testMissingPrimitiveThrows(){
+        CompactDBObject o = new CompactDBObject( 1 );
+        try {
+            o.getLong( "missing" );
+            fail( "expected a NullPointerException" );
+        }
+        catch ( NullPointerException e ){
+            // expected, as for BasicBSONObject
+        }
+        try {
+            o.getDouble( "missing" );
+            fail( "expected a NullPointerException" );
+        }
+        catch ( NullPointerException e ){
+            // expected
+        }
+        assertEquals( 3L , o.getLong( "missing" , 3L ) );
+        assertEquals( 1.5 , o.getDouble( "missing" , 1.5 ) );
+    }
+
+    @Test
+    public void testManyFields(){
+        CompactDBObject o = new CompactDBObject();
+        for ( int i = 0; i < 100; i++ ){
+            o.putInt( "f" + i , i );
+        }
+        assertNull( o.get( "nothere" ) );
+        for ( int i = 0; i < 100; i++ ){
+            assertEquals( i , o.getInt( "f" + i ) );
+        }
+        o.removeField( "f0" );
+        assertEquals( 99 , o.size() );
+        assertEquals( 50 , o.getInt( "f50" ) );
+        o.put( "g" , "x" );
+        assertEquals( "x" , o.get( "g" ) );
+    }
+
+    @Test
+    public void testEqualsBasicDBObject(){
+        CompactDBObject o = new CompactDBObject();
+        o.putInt( "a" , 1 );
+        o.putLong( "b" , 2 );
+        o.putDouble( "c" , 3.0 );
+        o.putBoolean( "d" , false );
+        o.put( "e" , "s" );
+        BasicDBObject b = new BasicDBObject( "a" , 1 ).append( "b" , 2L ).append( "c" , 3.0 ).append( "d" , false ).append( "e" , "s" );
+
+        assertTrue( o.equals( b ) );
+        assertTrue( b.equals( o ) );
+        assertEquals( b.hashCode() , o.hashCode() );
+        assertEquals( b.toString() , o.toString() );
+
+        Iterator<String> it = o.keySet().iterator();
+        assertEquals( "a" , it.next() );
+        try {
+            it.remove();
+            fail( "should not be able to remove through the key set" );
+        }
+        catch ( UnsupportedOperationException e ){
+            // expected
+        }
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        ObjectId id = new ObjectId();
+        DBObject source = new BasicDBObject( "_id" , id ).append( "i" , 1 ).append( "l" , 2L ).append( "d" , 1.5 )
+                          .append( "b" , true ).append( "n" , null )
+                          .append( "sub" , new BasicDBObject( "x" , 1 ) ).append( "arr" , Arrays.asList( 1 , 2 ) );
+        byte[] bytes = new BasicBSONEncoder().encode( source );
+
+        DBDecoder decoder = CompactDBDecoder.FACTORY.create();
+        DBObject first = decoder.decode( new ByteArrayInputStream( bytes ) , (DBCollection) null );
+        assertTrue( first instanceof CompactDBObject );
+        assertTrue( first.get( "sub" ) instanceof CompactDBObject );
+        assertTrue( first.get( "arr" ) instanceof BasicDBList );
+        assertEquals( source , first );
+        assertEquals( 1 , ( (CompactDBObject) first ).getInt( "i" ) );
+
+        DBObject second = decoder.decode( bytes , (DBCollection) null );
+        assertEquals( source , second );
+        assertTrue( ( (CompactDBObject) second ).hasSameKeys( ( (CompactDBObject) first ).shareKeys() ) );
+
+        // changing one document's keys leaves the other alone
+        second.put( "extra" , 1 );
+        second.removeField( "i" );
+        assertEquals( source , first );
+        assertFalse( second.containsField( "i" ) );
+        assertEquals( 1 , second.get( "extra" ) );
+
+        DBObject other = decoder.decode( new BasicBSONEncoder().encode( new BasicDBObject( "z" , 1 ) ) , (DBCollection) null );
+        assertEquals( new BasicDBObject( "z" , 1 ) , other );
+        assertEquals( source , decoder.decode( bytes , (DBCollection) null ) );
+    }
+
+    @Test
+    public void testCallbackPutsPrimitives(){
+        assertEquals( 1 , decodeCountingBoxedPuts() );
+    }
+
+    @Test
+    public void testOnlyHooksForTheBoxedTypeKeepPrimitivesBoxed(){
+        Transformer identity = new Transformer() {
+            public Object transform( Object o ){
+                return o;
+            }
+        };
+        BSON.addDecodingHook( Date.class , identity );
+        assertEquals( 1 , decodeCountingBoxedPuts() );
+
+        BSON.addDecodingHook( Integer.class , identity );
+        assertEquals( 2 , decodeCountingBoxedPuts() );
+
+        BSON.removeDecodingHook( Integer.class , identity );
+        BSON.removeDecodingHooks( Date.class );
+        assertFalse( BSON.hasDecodeHooks() );
+        assertEquals( 1 , decodeCountingBoxedPuts() );
+    }
+
+    // decodes one field of each primitive type and a string, and returns how many values were put boxed
+    private int decodeCountingBoxedPuts(){
+        final int[] boxedPuts = new int[ 1 ];
+        BasicBSONCallback callback = new BasicBSONCallback() {
+            @Override
+            public BSONObject create(){
+                return new CompactDBObject() {
+                    @Override
+                    public Object put( String key , Object v ){
+                        boxedPuts[ 0 ]++;
+                        return super.put( key , v );
+                    }
+                };
+            }
+        };
+        byte[] bytes = new BasicBSONEncoder().encode( new BasicDBObject( "i" , 1 ).append( "l" , 2L ).append( "d" , 1.5 )
+                                                      .append( "b" , true ).append( "s" , "x" ) );
+        new BasicBSONDecoder().decode( bytes , callback );
+
+        PrimitiveBSONObject o = (PrimitiveBSONObject) callback.get();
+        assertEquals( 1 , o.getInt( "i" , 0 ) );
+        assertEquals( 2L , o.getLong( "l" , 0 ) );
+        assertEquals( 1.5 , o.getDouble( "d" , 0 ) );
+        assertTrue( o.getBoolean( "b" , false ) );
+        assertEquals( 1 , o.get( "i" ) );
+        return boxedPuts[ 0 ];
+    }
+
+    @Test
+    public void testDecodeHooks(){
+        BSON.addDecodingHook( Integer.class , new Transformer() {
+            public Object transform( Object o ){
+                return ( (Integer) o ) * 10;
+            }
+        } );
+        try {
+            byte[] bytes = new BasicBSONEncoder().encode( new BasicDBObject( "i" , 1 ) );
+            DBObject o = CompactDBDecoder.FACTORY.create().decode( bytes , (DBCollection) null );
+            assertEquals( 10 , o.get( "i" ) );
+        }
+        finally {
+            BSON.clearDecodingHooks();
+        }
+    }
+}
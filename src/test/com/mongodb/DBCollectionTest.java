@@ -18,12 +18,23 @@ package com.mongodb;
 
 import com.mongodb.util.TestCase;
 
+import org.bson.BSONObject;
+import org.bson.io.Bits;
 import org.bson.types.ObjectId;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import javax.net.SocketFactory;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DBCollectionTest extends TestCase {
 
@@ -392,6 +403,184 @@ public class DBCollectionTest extends TestCase {
 
     final DB _db;
 
+    @Test(groups = {"basic"})
+    public void testWriteBatch() {
+        DBCollection c = _db.getCollection("testWriteBatch");
+        c.drop();
+
+        DBWriteBatch batch = c.startWriteBatch(WriteConcern.SAFE);
+        assertNull(batch.flush());
+
+        batch.insert(new BasicDBObject("x", 1), new BasicDBObject("x", 2))
+             .insert(new BasicDBObject("x", 3))
+             .update(new BasicDBObject("x", 1), new BasicDBObject("$set", new BasicDBObject("y", 1)), false, false)
+             .remove(new BasicDBObject("x", 2));
+        assertEquals(4, batch.size());
+        assertEquals(0, c.count());
+
+        BulkWriteResult res = batch.flush();
+        assertEquals(0, batch.size());
+        assertEquals(3, res.getInsertedCount());
+        assertEquals(1, res.getMatchedCount());
+        assertEquals(1, res.getRemovedCount());
+        assertEquals(2, c.count());
+        assertEquals(1, c.findOne(new BasicDBObject("x", 1)).get("y"));
+    }
+
+    @Test(groups = {"basic"})
+    public void testWriteBatchClear() {
+        DBCollection c = _db.getCollection("testWriteBatchClear");
+        c.drop();
+
+        DBWriteBatch batch = c.startWriteBatch(WriteConcern.SAFE);
+        batch.insert(new BasicDBObject("x", 1));
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertNull(batch.flush());
+        assertEquals(0, c.count());
+    }
+
+    @Test(groups = {"basic"})
+    public void testWriteBatchReportsEachFailedWrite() throws Exception {
+        AtomicInteger lastErrors = new AtomicInteger();
+        ServerSocket server = startLastErrorServer(lastErrors);
+        Mongo mongo = new MongoClient(new ServerAddress("127.0.0.1", server.getLocalPort()));
+        try {
+            DBWriteBatch batch = mongo.getDB("test").getCollection("batch").startWriteBatch(WriteConcern.ACKNOWLEDGED);
+            batch.insert(new BasicDBObject("_id", 1), new BasicDBObject("_id", "dup"))
+                 .update(new BasicDBObject("_id", 1), new BasicDBObject("$set", new BasicDBObject("x", 1)), false, false)
+                 .insert(new BasicDBObject("_id", "dup"))
+                 .remove(new BasicDBObject("_id", 1));
+            try {
+                batch.flush();
+                fail("should have thrown");
+            } catch (BulkWriteException e) {
+                assertEquals(2, e.getWriteErrors().size());
+                assertEquals(1, e.getWriteErrors().get(0).getIndex());
+                assertEquals(3, e.getWriteErrors().get(1).getIndex());
+                assertEquals(11000, e.getWriteErrors().get(0).getCode());
+                assertEquals(1, e.getWriteResult().getInsertedCount());
+                assertEquals(1, e.getWriteResult().getMatchedCount());
+                assertEquals(1, e.getWriteResult().getRemovedCount());
+            }
+            assertEquals(5, lastErrors.get());
+            assertEquals(0, batch.size());
+        } finally {
+            mongo.close();
+            server.close();
+        }
+    }
+
+    @Test(groups = {"basic"}, timeOut = 60000)
+    public void testLargeWriteBatchReadsRepliesWhileWriting() throws Exception {
+        AtomicInteger lastErrors = new AtomicInteger();
+        ServerSocket server = startLastErrorServer(lastErrors);
+        // small buffers on both ends, so that unread replies would soon stop the server reading
+        SocketFactory smallBuffers = new SocketFactory() {
+            public Socket createSocket() throws IOException {
+                Socket socket = new Socket();
+                socket.setReceiveBufferSize(4096);
+                socket.setSendBufferSize(4096);
+                return socket;
+            }
+
+            public Socket createSocket(String host, int port) {
+                throw new UnsupportedOperationException();
+            }
+
+            public Socket createSocket(String host, int port, InetAddress localHost, int localPort) {
+                throw new UnsupportedOperationException();
+            }
+
+            public Socket createSocket(InetAddress host, int port) {
+                throw new UnsupportedOperationException();
+            }
+
+            public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        Mongo mongo = new MongoClient(new ServerAddress("127.0.0.1", server.getLocalPort()),
+                                      MongoClientOptions.builder().socketFactory(smallBuffers).build());
+        try {
+            int writes = 5 * BulkWriteOperation.MAX_WRITES_PER_GROUP;
+            DBWriteBatch batch = mongo.getDB("test").getCollection("batch").startWriteBatch(WriteConcern.ACKNOWLEDGED);
+            for (int i = 0; i < writes; i++)
+                batch.insert(new BasicDBObject("_id", i == writes - 2 ? "dup" : i));
+            try {
+                batch.flush();
+                fail("should have thrown");
+            } catch (BulkWriteException e) {
+                assertEquals(1, e.getWriteErrors().size());
+                assertEquals(writes - 2, e.getWriteErrors().get(0).getIndex());
+                assertEquals(writes - 1, e.getWriteResult().getInsertedCount());
+            }
+            assertEquals(writes, lastErrors.get());
+        } finally {
+            mongo.close();
+            server.close();
+        }
+    }
+
+    // a server without write commands, whose getLastError reports a duplicate key after a write mentioning "dup"
+    private ServerSocket startLastErrorServer(final AtomicInteger lastErrors) throws IOException {
+        final ServerSocket serverSocket = new ServerSocket();
+        serverSocket.setReceiveBufferSize(4096);
+        serverSocket.bind(new InetSocketAddress(0));
+        Thread acceptor = new Thread() {
+            public void run() {
+                try {
+                    while (true) {
+                        final Socket socket = serverSocket.accept();
+                        // like a real server, stops reading while its replies aren't being read
+                        socket.setSendBufferSize(4096);
+                        Thread connection = new Thread() {
+                            public void run() {
+                                try {
+                                    InputStream in = socket.getInputStream();
+                                    OutputStream out = socket.getOutputStream();
+                                    boolean failed = false;
+                                    while (true) {
+                                        byte[] header = new byte[16];
+                                        Bits.readFully(in, header);
+                                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                                        Bits.readFully(in, body);
+                                        if (Bits.readInt(header, 12) != 2004) {
+                                            failed = new String(body, "ISO-8859-1").contains("dup");
+                                            continue;
+                                        }
+                                        BSONObject cmd = DBPortTest.readQuery(body);
+                                        BasicDBObject res = new BasicDBObject("ok", 1);
+                                        if (cmd.containsField("getlasterror")) {
+                                            lastErrors.incrementAndGet();
+                                            if (failed)
+                                                res.append("err", "E11000 duplicate key").append("code", 11000).append("n", 0);
+                                            else
+                                                res.append("err", null).append("n", 1);
+                                        } else {
+                                            res.append("ismaster", true).append("maxBsonObjectSize", 16 * 1024 * 1024);
+                                        }
+                                        out.write(DBPortTest.reply(Bits.readInt(header, 4), res));
+                                        out.flush();
+                                    }
+                                } catch (IOException e) {
+                                    // connection closed
+                                }
+                            }
+                        };
+                        connection.setDaemon(true);
+                        connection.start();
+                    }
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket;
+    }
+
     public static void main( String args[] )
         throws Exception {
         (new DBCollectionTest()).runConsole();
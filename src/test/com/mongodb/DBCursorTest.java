@@ -298,6 +298,39 @@ public class DBCursorTest extends TestCase {
 
     }
 
+    @Test
+    public void testPrefetch() {
+        DBCollection c = _db.getCollection("testPrefetch");
+        c.drop();
+
+        for (int i = 0; i < 100; i++)
+            c.save(new BasicDBObject("x", i));
+
+        DBCursor cursor = c.find().sort(new BasicDBObject("x", 1)).batchSize(10).prefetch(2);
+        int i = 0;
+        while (cursor.hasNext()) {
+            assertEquals(i++, cursor.next().get("x"));
+        }
+        assertEquals(100, i);
+        assertEquals(9, cursor.numGetMores());
+    }
+
+    @Test
+    public void testPrefetchWithLimit() {
+        DBCollection c = _db.getCollection("testPrefetchWithLimit");
+        c.drop();
+
+        for (int i = 0; i < 100; i++)
+            c.save(new BasicDBObject("x", i));
+
+        assertEquals(25, c.find().batchSize(10).limit(25).prefetch(3).toArray().size());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testPrefetchMustNotBeNegative() {
+        _db.getCollection("testPrefetch").find().prefetch(-1);
+    }
+
     @Test
     public void testBatchWithActiveCursor(){
         DBCollection c = _db.getCollection( "testBatchWithActiveCursor" );
@@ -20,6 +20,7 @@ package com.mongodb;
 
 import org.testng.annotations.Test;
 
+import java.net.ServerSocket;
 import java.net.UnknownHostException;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
@@ -43,8 +44,9 @@ public class DBPortPoolTest extends com.mongodb.util.TestCase {
         DBPort[] ports = new DBPort[10];
         for (int x = 0; x < options.connectionsPerHost; x++) {
             ports[x] = pool.get();
+        }
+        for (int x = 0; x < options.connectionsPerHost; x++) {
             pool.done( ports[x] );
-            ports[x]._lastThread = 0;
         }
 
         int numTasks = 40;
@@ -125,6 +127,85 @@ public class DBPortPoolTest extends com.mongodb.util.TestCase {
         }
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testPipelinedPortsAreSharedRoundRobin() throws UnknownHostException {
+        MongoOptions options = new MongoOptions();
+        assertNull( new DBPortPool( new ServerAddress( "localhost" ), options ).getPipelined() );
+
+        options.pipelinedConnectionsPerHost = 2;
+        DBPortPool pool = new DBPortPool( new ServerAddress( "localhost" ), options );
+        DBPort first = pool.getPipelined();
+        DBPort second = pool.getPipelined();
+
+        assertTrue( first.isPipelined() );
+        assertTrue( first != second );
+        assertTrue( first == pool.getPipelined() );
+        assertEquals( 0 , pool.getInUse() );
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testIdlePortsAreNotReused() throws Exception {
+        MongoOptions options = new MongoOptions();
+        options.maxConnectionIdleTime = 1;
+        DBPortPool pool = new DBPortPool( new ServerAddress( "localhost" ), options );
+
+        DBPort port = pool.get();
+        pool.done( port );
+        Thread.sleep( 10 );
+
+        assertTrue( port != pool.get() );
+        assertEquals( 1 , pool.getTotal() );
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testIdlePortsArePrunedDownToMinimum() throws Exception {
+        MongoOptions options = new MongoOptions();
+        options.minConnectionsPerHost = 2;
+        options.maxConnectionIdleTime = 1;
+        DBPortPool pool = new DBPortPool( new ServerAddress( "localhost" ), options );
+
+        DBPort a = pool.get();
+        DBPort b = pool.get();
+        DBPort c = pool.get();
+        assertTrue( c.getLastUsedAt() != 0 );
+        pool.done( a );
+        pool.done( b );
+        pool.done( c );
+        Thread.sleep( 10 );
+
+        pool.doMaintenance();
+        assertEquals( 2 , pool.getTotal() );
+        assertEquals( 2 , pool.getAvailable() );
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testMaintenancePrewarmsAndPrunes() throws Exception {
+        ServerSocket server = new ServerSocket( 0 );
+        try {
+            MongoOptions options = new MongoOptions();
+            options.minConnectionsPerHost = 2;
+            options.maxConnectionLifeTime = 1;
+            DBPortPool pool = new DBPortPool( new ServerAddress( "localhost" , server.getLocalPort() ), options );
+
+            pool.doMaintenance();
+            assertEquals( 2 , pool.getAvailable() );
+            DBPort port = pool.get();
+            assertTrue( port.isOpen() );
+            pool.done( port );
+
+            Thread.sleep( 10 );
+            pool.doMaintenance();
+            assertFalse( port.isOpen() );
+            assertEquals( 2 , pool.getAvailable() );
+        } finally {
+            server.close();
+        }
+    }
+
     public static void main( String args[] ){
         (new DBPortPoolTest()).runConsole();
     }
@@ -20,10 +20,28 @@ package com.mongodb;
 import com.mongodb.util.TestCase;
 import org.testng.annotations.Test;
 
+import org.bson.BSONObject;
+import org.bson.BasicBSONDecoder;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.io.Bits;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DBPortTest extends TestCase {
     @Test
@@ -89,4 +107,168 @@ public class DBPortTest extends TestCase {
 
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testPipelinedRepliesAreMatchedByResponseTo() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final int numRequests = 2;
+
+        // a fake server that waits for both requests before answering them in reverse order
+        Thread server = new Thread() {
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    List<Integer> requestIds = new ArrayList<Integer>();
+                    for (int i = 0; i < numRequests; i++) {
+                        byte[] header = new byte[16];
+                        Bits.readFully(in, header);
+                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                        Bits.readFully(in, body);
+                        requestIds.add(Bits.readInt(header, 4));
+                    }
+                    for (int i = requestIds.size() - 1; i >= 0; i--) {
+                        out.write(reply(requestIds.get(i)));
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    // test will fail
+                }
+            }
+        };
+        server.setDaemon(true);
+        server.start();
+
+        final Mongo m = new MongoClient();
+        ExecutorService executor = Executors.newFixedThreadPool(numRequests);
+        try {
+            ServerAddress addr = new ServerAddress("localhost", serverSocket.getLocalPort());
+            MongoOptions options = new MongoOptions();
+            options.socketTimeout = 10000;
+            final DBPort port = new DBPort(addr, new DBPortPool(addr, options), options, true);
+            final DBCollection coll = m.getDB("DBPortTest").getCollection("pipelined");
+
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < numRequests; i++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() throws IOException {
+                        OutMessage msg = OutMessage.query(coll, 0, 0, -1, new BasicDBObject(), null);
+                        try {
+                            Response res = port.call(msg, coll);
+                            return res._responseTo == msg.getId() && res.get(0).get("requestId").equals(msg.getId());
+                        } finally {
+                            msg.doneWithMessage();
+                        }
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+            port.close();
+        } finally {
+            executor.shutdownNow();
+            m.close();
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testAuthenticationUsesFreshNoncesAndIsCached() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final List<String> commands = Collections.synchronizedList(new ArrayList<String>());
+
+        // a fake server that, like mongod, remembers only the latest nonce of the connection, and forgets it once used
+        Thread server = new Thread() {
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    String nonce = null;
+                    for (int n = 0; ; n++) {
+                        byte[] header = new byte[16];
+                        Bits.readFully(in, header);
+                        byte[] body = new byte[Bits.readInt(header, 0) - 16];
+                        Bits.readFully(in, body);
+                        BSONObject cmd = readQuery(body);
+
+                        BasicDBObject res = new BasicDBObject("ok", 1);
+                        if (cmd.containsField("getnonce")) {
+                            commands.add("getnonce");
+                            nonce = "nonce" + n;
+                            res.append("nonce", nonce);
+                        } else {
+                            commands.add("authenticate");
+                            if (nonce == null || !nonce.equals(cmd.get("nonce")))
+                                res = new BasicDBObject("ok", 0).append("errmsg", "auth fails").append("code", 18);
+                            nonce = null;
+                        }
+                        out.write(reply(Bits.readInt(header, 4), res));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // the port has closed the connection
+                }
+            }
+        };
+        server.setDaemon(true);
+        server.start();
+
+        Mongo m = new MongoClient();
+        try {
+            m.getAuthority().getCredentialsStore().add(MongoCredential.createMongoCRCredential("u1", "DBPortTest1", "e".toCharArray()));
+            m.getAuthority().getCredentialsStore().add(MongoCredential.createMongoCRCredential("u2", "DBPortTest2", "e".toCharArray()));
+
+            ServerAddress addr = new ServerAddress("localhost", serverSocket.getLocalPort());
+            MongoOptions options = new MongoOptions();
+            options.socketTimeout = 10000;
+            DBPort port = new DBPort(addr, new DBPortPool(addr, options), options);
+
+            port.checkAuth(m);
+            assertEquals(new HashSet<String>(Arrays.asList("DBPortTest1", "DBPortTest2")), port.authenticatedDatabases);
+            assertEquals(Arrays.asList("getnonce", "authenticate", "getnonce", "authenticate"), commands);
+
+            // nothing new in the store, so nothing to send
+            port.checkAuth(m);
+            port.close();
+            server.join(10000);
+            assertEquals(4, commands.size());
+        } finally {
+            m.close();
+            serverSocket.close();
+        }
+    }
+
+    // the query document of an OP_QUERY body: flags, namespace, skip and limit come before it
+    static BSONObject readQuery(byte[] body) throws IOException {
+        int pos = 4;
+        while (body[pos] != 0)
+            pos++;
+        pos += 1 + 8;
+        return new BasicBSONDecoder().readObject(new ByteArrayInputStream(body, pos, body.length - pos));
+    }
+
+    static byte[] reply(int responseTo) {
+        return reply(responseTo, new BasicDBObject("requestId", responseTo));
+    }
+
+    static byte[] reply(int responseTo, DBObject res) {
+        BasicOutputBuffer doc = new BasicOutputBuffer();
+        new DefaultDBEncoder().writeObject(doc, res);
+
+        BasicOutputBuffer buf = new BasicOutputBuffer();
+        buf.writeInt(36 + doc.size());
+        buf.writeInt(0);                // requestId
+        buf.writeInt(responseTo);
+        buf.writeInt(1);                // OP_REPLY
+        buf.writeInt(0);                // flags
+        buf.writeLong(0);               // cursor
+        buf.writeInt(0);                // startingFrom
+        buf.writeInt(1);                // number returned
+        buf.write(doc.toByteArray());
+        return buf.toByteArray();
+    }
 }
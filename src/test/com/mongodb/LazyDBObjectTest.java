@@ -40,6 +40,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 @SuppressWarnings( { "unchecked" , "deprecation" } )
@@ -356,6 +357,62 @@ public class LazyDBObjectTest extends TestCase {
         assertEquals( ( (Pattern) origDoc.get( "regex" ) ).flags(), ((Pattern) doc.get( "regex" ) ).flags() );
     }
     
+    @Test
+    public void testIndexedLookup() throws IOException {
+        DBObject origDoc = new BasicDBObject();
+        for ( int i = 0; i < 200; i++ ) {
+            origDoc.put( "field" + i, i );
+        }
+        // "Aa" and "BB" have the same hash code
+        origDoc.put( "Aa", "Aa" );
+        origDoc.put( "BB", "BB" );
+        origDoc.put( "caf\u00e9", "accent" );
+        e.putObject( origDoc );
+        buf.pipe( bios );
+
+        DBObject doc = lazyDBDecoder.decode( new ByteArrayInputStream( bios.toByteArray() ), (DBCollection) null );
+        for ( int i = 199; i >= 0; i-- ) {
+            assertEquals( i, doc.get( "field" + i ) );
+        }
+        assertEquals( "Aa", doc.get( "Aa" ) );
+        assertEquals( "BB", doc.get( "BB" ) );
+        assertEquals( "accent", doc.get( "caf\u00e9" ) );
+        assertNull( doc.get( "caf" ) );
+        assertNull( doc.get( "field2000" ) );
+        assertTrue( doc.containsField( "field0" ) );
+        assertFalse( doc.containsField( "missingKey" ) );
+        assertEquals( 203, doc.keySet().size() );
+    }
+
+    @Test
+    public void testConcurrentLookup() throws Exception {
+        DBObject origDoc = new BasicDBObject();
+        for ( int i = 0; i < 100; i++ ) {
+            origDoc.put( "field" + i, new BasicDBObject( "x", i ) );
+        }
+        e.putObject( origDoc );
+        buf.pipe( bios );
+
+        final DBObject doc = lazyDBDecoder.decode( new ByteArrayInputStream( bios.toByteArray() ), (DBCollection) null );
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[ 4 ];
+        for ( int t = 0; t < threads.length; t++ ) {
+            threads[ t ] = new Thread() {
+                public void run() {
+                    for ( int i = 0; i < 100; i++ ) {
+                        if ( !Integer.valueOf( i ).equals( ( (DBObject) doc.get( "field" + i ) ).get( "x" ) ) )
+                            failures.incrementAndGet();
+                    }
+                }
+            };
+            threads[ t ].start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        assertEquals( 0, failures.get() );
+    }
+
     private static class TestMapEntry implements Map.Entry<String, Object> {
         private String key;
         private Object value;
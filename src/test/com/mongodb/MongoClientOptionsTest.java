@@ -42,6 +42,12 @@ public class MongoClientOptionsTest {
         Assert.assertEquals(true, options.isCursorFinalizerEnabled());
         Assert.assertEquals(false, options.isAutoConnectRetry());
         Assert.assertEquals(false, options.isAlwaysUseMBeans());
+        Assert.assertEquals(0, options.getPipelinedConnectionsPerHost());
+        Assert.assertEquals(0, options.getMinConnectionsPerHost());
+        Assert.assertEquals(0, options.getMaxConnectionIdleTime());
+        Assert.assertEquals(0, options.getMaxConnectionLifeTime());
+        Assert.assertEquals(1024, options.getFieldNameCacheSize());
+        Assert.assertEquals(ServerSelectors.random(), options.getServerSelector());
     }
 
     @Test
@@ -101,6 +107,42 @@ public class MongoClientOptionsTest {
         } catch (IllegalArgumentException e) {
             // all good
         }
+        try {
+            builder.pipelinedConnectionsPerHost(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            builder.minConnectionsPerHost(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            builder.maxConnectionIdleTime(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            builder.maxConnectionLifeTime(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            builder.fieldNameCacheSize(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
+        try {
+            builder.serverSelector(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // all good
+        }
 
     }
 
@@ -119,6 +161,12 @@ public class MongoClientOptionsTest {
         builder.socketKeepAlive(true);
         builder.cursorFinalizerEnabled(true);
         builder.alwaysUseMBeans(true);
+        builder.pipelinedConnectionsPerHost(2);
+        builder.minConnectionsPerHost(30);
+        builder.maxConnectionIdleTime(500);
+        builder.maxConnectionLifeTime(9000);
+        builder.fieldNameCacheSize(256);
+        builder.serverSelector(ServerSelectors.powerOfTwoChoices());
 
         SocketFactory socketFactory = SSLSocketFactory.getDefault();
         builder.socketFactory(socketFactory);
@@ -150,6 +198,12 @@ public class MongoClientOptionsTest {
         Assert.assertEquals(true, options.isSocketKeepAlive());
         Assert.assertEquals(true, options.isCursorFinalizerEnabled());
         Assert.assertEquals(true, options.isAlwaysUseMBeans());
+        Assert.assertEquals(2, options.getPipelinedConnectionsPerHost());
+        Assert.assertEquals(30, options.getMinConnectionsPerHost());
+        Assert.assertEquals(500, options.getMaxConnectionIdleTime());
+        Assert.assertEquals(9000, options.getMaxConnectionLifeTime());
+        Assert.assertEquals(256, options.getFieldNameCacheSize());
+        Assert.assertEquals(ServerSelectors.powerOfTwoChoices(), options.getServerSelector());
 
         Assert.assertEquals(socketFactory, options.getSocketFactory());
         Assert.assertEquals(encoderFactory, options.getDbEncoderFactory());
@@ -220,6 +220,14 @@ public class MongoClientURITest extends TestCase {
         assertEquals(150, uri.getOptions().getConnectionsPerHost());
     }
 
+    @Test
+    public void testPoolMaintenanceOptions() {
+        MongoClientURI uri = new MongoClientURI("mongodb://localhost/?minPoolSize=5&maxIdleTimeMS=1000&maxLifeTimeMS=60000");
+        assertEquals(5, uri.getOptions().getMinConnectionsPerHost());
+        assertEquals(1000, uri.getOptions().getMaxConnectionIdleTime());
+        assertEquals(60000, uri.getOptions().getMaxConnectionLifeTime());
+    }
+
     @Test()
     public void testURIDefaults() throws UnknownHostException {
         MongoClientURI uri = new MongoClientURI("mongodb://localhost");
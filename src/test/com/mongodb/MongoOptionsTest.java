@@ -52,6 +52,12 @@ public class MongoOptionsTest extends TestCase {
         options.readPreference = ReadPreference.secondary();
         options.cursorFinalizerEnabled = true;
         options.alwaysUseMBeans = true;
+        options.pipelinedConnectionsPerHost = 2;
+        options.minConnectionsPerHost = 3;
+        options.maxConnectionIdleTime = 4;
+        options.maxConnectionLifeTime = 5;
+        options.fieldNameCacheSize = 6;
+        options.serverSelector = ServerSelectors.leastOutstandingRequests();
 
         final MongoOptions copy = options.copy();
         assertEquals(options.connectionsPerHost, copy.connectionsPerHost);
@@ -74,6 +80,12 @@ public class MongoOptionsTest extends TestCase {
         assertEquals(options.description, copy.description);
         assertEquals(options.readPreference, copy.readPreference);
         assertEquals(options.alwaysUseMBeans, copy.alwaysUseMBeans);
+        assertEquals(options.pipelinedConnectionsPerHost, copy.pipelinedConnectionsPerHost);
+        assertEquals(options.minConnectionsPerHost, copy.minConnectionsPerHost);
+        assertEquals(options.maxConnectionIdleTime, copy.maxConnectionIdleTime);
+        assertEquals(options.maxConnectionLifeTime, copy.maxConnectionLifeTime);
+        assertEquals(options.fieldNameCacheSize, copy.fieldNameCacheSize);
+        assertEquals(options.serverSelector, copy.serverSelector);
     }
 
     @Test
@@ -102,6 +114,12 @@ public class MongoOptionsTest extends TestCase {
         options.setReadPreference(ReadPreference.secondary());
         options.setCursorFinalizerEnabled(true);
         options.setAlwaysUseMBeans(true);
+        options.setPipelinedConnectionsPerHost(2);
+        options.setMinConnectionsPerHost(3);
+        options.setMaxConnectionIdleTime(4);
+        options.setMaxConnectionLifeTime(5);
+        options.setFieldNameCacheSize(6);
+        options.setServerSelector(ServerSelectors.lowestResponseTime());
 
         assertEquals(options.getConnectionsPerHost(), 100);
         assertEquals(options.getThreadsAllowedToBlockForConnectionMultiplier(), 101);
@@ -123,6 +141,37 @@ public class MongoOptionsTest extends TestCase {
         assertEquals(options.getReadPreference(), ReadPreference.secondary());
         assertEquals(options.isCursorFinalizerEnabled(), true);
         assertEquals(options.isAlwaysUseMBeans(), true);
+        assertEquals(options.getPipelinedConnectionsPerHost(), 2);
+        assertEquals(options.getMinConnectionsPerHost(), 3);
+        assertEquals(options.getMaxConnectionIdleTime(), 4);
+        assertEquals(options.getMaxConnectionLifeTime(), 5);
+        assertEquals(options.getFieldNameCacheSize(), 6);
+        assertEquals(options.getServerSelector(), ServerSelectors.lowestResponseTime());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testCreateDecoderSharesFieldNameCache() {
+        MongoOptions options = new MongoOptions();
+        DefaultDBDecoder first = (DefaultDBDecoder) options.createDecoder();
+        DefaultDBDecoder second = (DefaultDBDecoder) options.createDecoder();
+        assertNotNull(first.getFieldNameCache());
+        assertSame(first.getFieldNameCache(), second.getFieldNameCache());
+        assertEquals(1024, first.getFieldNameCache().getSize());
+
+        // the cache is fixed once created
+        options.fieldNameCacheSize = 0;
+        assertSame(first.getFieldNameCache(), ((DefaultDBDecoder) options.createDecoder()).getFieldNameCache());
+
+        options = new MongoOptions();
+        options.fieldNameCacheSize = 0;
+        assertNull(((DefaultDBDecoder) options.createDecoder()).getFieldNameCache());
+
+        options.dbDecoderFactory = LazyDBDecoder.FACTORY;
+        assertNull(((LazyDBDecoder) options.createDecoder()).getFieldNameCache());
+        options = new MongoOptions();
+        options.dbDecoderFactory = LazyDBDecoder.FACTORY;
+        assertSame(options.getFieldNameCache(), ((LazyDBDecoder) options.createDecoder()).getFieldNameCache());
     }
 
     @Test
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.mongodb.ConnectionStatus.UpdatableNode.ConnectionState.Connected;
+
+public class MongosStatusTest extends Assert {
+
+    private Mongo mongo;
+    private MongosStatus status;
+    private MongosStatus.MongosNode fast;
+    private MongosStatus.MongosNode close;
+    private MongosStatus.MongosNode slow;
+    private List<MongosStatus.MongosNode> nodes;
+
+    @BeforeMethod
+    public void setUp() throws UnknownHostException {
+        mongo = new MongoClient("127.0.0.1");
+        fast = createNode("127.0.0.1:27017", 10);
+        close = createNode("127.0.0.1:27018", 10 + MongosStatus.acceptableLatencyMS);
+        slow = createNode("127.0.0.1:27019", 11 + MongosStatus.acceptableLatencyMS);
+        nodes = Arrays.asList(fast, close, slow);
+        status = new MongosStatus(mongo, Arrays.asList(fast._addr, close._addr, slow._addr));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        status.close();
+        mongo.close();
+    }
+
+    @Test
+    public void testSpreadsAcrossMongosWithinLatencyWindow() {
+        status.setPreferred(fast, nodes);
+
+        assertEquals(new HashSet<ServerAddress>(Arrays.asList(fast._addr, close._addr)), chooseMany());
+        assertTrue(status.hasServerUp());
+        assertEquals(fast._addr, status.ensureMaster().getServerAddress());
+    }
+
+    @Test
+    public void testEjectedMongosComesBackOnNextPass() {
+        status.setPreferred(fast, nodes);
+
+        status.eject(close._addr);
+        assertEquals(new HashSet<ServerAddress>(Arrays.asList(fast._addr)), chooseMany());
+
+        // ejecting the last one falls back to the preferred mongos rather than to nothing
+        status.eject(fast._addr);
+        assertEquals(fast._addr, status.choose(null, null).getServerAddress());
+
+        status.setPreferred(fast, nodes);
+        assertEquals(new HashSet<ServerAddress>(Arrays.asList(fast._addr, close._addr)), chooseMany());
+    }
+
+    @Test
+    public void testIsAcceptable() {
+        status.setPreferred(fast, nodes);
+        assertTrue(status.isAcceptable(fast._addr));
+        assertTrue(status.isAcceptable(close._addr));
+        assertFalse(status.isAcceptable(slow._addr));
+
+        status.eject(close._addr);
+        assertFalse(status.isAcceptable(close._addr));
+    }
+
+    @Test
+    public void testUsesSelector() {
+        status.setPreferred(fast, nodes);
+
+        ServerSelector last = new ServerSelector() {
+            public ServerAddress select(final List<ServerAddress> candidates, final ServerLoad load) {
+                return candidates.get(candidates.size() - 1);
+            }
+        };
+        assertEquals(close._addr, status.choose(last, null).getServerAddress());
+    }
+
+    @Test
+    public void testNoneUp() {
+        status.setPreferred(null, new ArrayList<MongosStatus.MongosNode>());
+        assertFalse(status.hasServerUp());
+        assertNull(status.choose(null, null));
+    }
+
+    private Set<ServerAddress> chooseMany() {
+        Set<ServerAddress> chosen = new HashSet<ServerAddress>();
+        for (int i = 0; i < 200; i++) {
+            chosen.add(status.choose(ServerSelectors.random(), null).getServerAddress());
+        }
+        return chosen;
+    }
+
+    @SuppressWarnings("deprecation")
+    private MongosStatus.MongosNode createNode(final String host, final float pingTime) throws UnknownHostException {
+        MongosStatus.MongosNode node = new MongosStatus.MongosNode(new ServerAddress(host), mongo, new MongoOptions());
+        node._connectionState = Connected;
+        node._pingTimeMS = pingTime;
+        node._maxBsonObjectSize = Bytes.MAX_OBJECT_SIZE;
+        return node;
+    }
+}
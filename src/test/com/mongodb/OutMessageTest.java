@@ -24,7 +24,13 @@ import org.testng.annotations.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class OutMessageTest {
 
@@ -82,4 +88,104 @@ public class OutMessageTest {
         }
 
     }
+
+    @Test
+    public void testPutObjectIfFits() throws IOException {
+        DBCollection collection = m.getDB("OutMessageTest").getCollection("fits");
+
+        OutMessage om = OutMessage.insert(collection, DefaultDBEncoder.FACTORY.create(), WriteConcern.NORMAL);
+        Assert.assertTrue(om.putObjectIfFits(new BasicDBObject("_id", 1), Integer.MAX_VALUE));
+        int size = om.size();
+
+        BasicDBObject big = new BasicDBObject("_id", 2).append("s", new String(new char[1000]).replace('\0', 'x'));
+        Assert.assertFalse(om.putObjectIfFits(big, size + 500));
+        Assert.assertEquals(om.size(), size);
+        Assert.assertEquals(om.getNumDocuments(), 1);
+
+        Assert.assertTrue(om.putObjectIfFits(big, size + 2000));
+        Assert.assertEquals(om.getNumDocuments(), 2);
+
+        OutMessage expected = OutMessage.insert(collection, DefaultDBEncoder.FACTORY.create(), WriteConcern.NORMAL);
+        expected.putObject(new BasicDBObject("_id", 1));
+        expected.putObject(big);
+        Assert.assertEquals(withoutRequestId(om.toByteArray()), withoutRequestId(expected.toByteArray()));
+        om.doneWithMessage();
+        expected.doneWithMessage();
+    }
+
+    @Test
+    public void testBigLazyObjectsAreSplicedByReference() throws IOException {
+        DBCollection collection = m.getDB("OutMessageTest").getCollection("splice");
+
+        List<DBObject> docs = new ArrayList<DBObject>();
+        for (int i = 0; i < 3; i++) {
+            BasicDBObject doc = new BasicDBObject("_id", i).append("s", new String(new char[OutMessage.MIN_SPLICE_SIZE]).replace('\0', 'x'));
+            docs.add(new LazyDBObject(new DefaultDBEncoder().encode(doc), new LazyDBCallback(collection)));
+        }
+
+        OutMessage spliced = OutMessage.insert(collection, new LazyDBEncoder(), WriteConcern.NORMAL);
+        OutMessage copied = OutMessage.insert(collection, DefaultDBEncoder.FACTORY.create(), WriteConcern.NORMAL);
+        for (DBObject doc : docs) {
+            spliced.putObject(doc);
+            copied.putObject(doc);
+        }
+        byte[] expected = withoutRequestId(copied.toByteArray());
+
+        Assert.assertEquals(spliced.size(), copied.size());
+        Assert.assertEquals(withoutRequestId(spliced.toByteArray()), expected);
+
+        ByteBuffer[] buffers = spliced.toByteBuffers();
+        Assert.assertSame(buffers[1].array(), ((LazyDBObject) docs.get(0)).asByteBuffer().array());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        spliced.write(new OutputStreamChannel(out));
+        Assert.assertEquals(withoutRequestId(out.toByteArray()), expected);
+
+        out.reset();
+        spliced.pipe(out);
+        Assert.assertEquals(withoutRequestId(out.toByteArray()), expected);
+
+        spliced.doneWithMessage();
+        copied.doneWithMessage();
+    }
+
+    private static byte[] withoutRequestId(byte[] message) {
+        Arrays.fill(message, 4, 8, (byte) 0);
+        return message;
+    }
+
+    // a gathering channel over a stream, which writes one buffer at a time
+    static class OutputStreamChannel implements GatheringByteChannel {
+        OutputStreamChannel(OutputStream out) {
+            this.out = out;
+        }
+
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                total += write(srcs[i]);
+            }
+            return total;
+        }
+
+        public long write(ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        public int write(ByteBuffer src) throws IOException {
+            int n = src.remaining();
+            out.write(src.array(), src.arrayOffset() + src.position(), n);
+            src.position(src.limit());
+            return n;
+        }
+
+        public boolean isOpen() {
+            return true;
+        }
+
+        public void close() {
+        }
+
+        private final OutputStream out;
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ParallelScanTest extends TestCase {
+
+    public ParallelScanTest() {
+        cleanupDB = "com_mongodb_unittest_ParallelScanTest";
+    }
+
+    @org.testng.annotations.Test
+    public void testRangesBySplitPoints() {
+        DBCollection c = getDatabase().getCollection("ranges");
+        List<DBObject> ranges = c.parallelScan(new BasicDBObject("x", 1)).partitionBy("k", Arrays.asList(10, 20)).getRanges();
+
+        assertEquals(3, ranges.size());
+        assertEquals(new BasicDBObject("x", 1).append("k", new BasicDBObject("$lt", 10)), ranges.get(0));
+        assertEquals(new BasicDBObject("x", 1).append("k", new BasicDBObject("$gte", 10).append("$lt", 20)), ranges.get(1));
+        assertEquals(new BasicDBObject("x", 1).append("k", new BasicDBObject("$gte", 20)), ranges.get(2));
+    }
+
+    @org.testng.annotations.Test
+    public void testRangesAreAndedWithConditionOnKey() {
+        DBCollection c = getDatabase().getCollection("ranges");
+        DBObject query = new BasicDBObject("k", new BasicDBObject("$ne", 15));
+        List<DBObject> ranges = c.parallelScan(query).partitionBy("k", Arrays.asList(10)).getRanges();
+
+        assertEquals(2, ranges.size());
+        assertEquals(new BasicDBObject("$and", Arrays.asList(query, new BasicDBObject("k", new BasicDBObject("$lt", 10)))),
+                     ranges.get(0));
+    }
+
+    @org.testng.annotations.Test
+    public void testScanSeesEveryDocumentOnce() {
+        DBCollection c = getDatabase().getCollection("scan");
+        c.drop();
+        for (int i = 0; i < 1000; i++) {
+            c.insert(new BasicDBObject("x", i));
+        }
+
+        final Set<Object> seen = Collections.synchronizedSet(new HashSet<Object>());
+        long count = c.parallelScan(null).partitions(4).batchSize(50).forEach(new ParallelScan.Sink() {
+            public void accept(final DBObject document) {
+                seen.add(document.get("_id"));
+            }
+        });
+
+        assertEquals(1000, count);
+        assertEquals(1000, seen.size());
+    }
+
+    private DB getDatabase() {
+        return cleanupMongo.getDB(cleanupDB);
+    }
+}
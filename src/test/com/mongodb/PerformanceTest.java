@@ -32,7 +32,7 @@ public class PerformanceTest {
     public static DBObject medium;
     public static DBObject large;
 
-    private static void setup() {
+    static void setup() {
         small = new BasicDBObject();
 
         BasicBSONList a = new BasicBSONList();
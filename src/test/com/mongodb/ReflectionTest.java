@@ -17,8 +17,11 @@
 package com.mongodb;
 
 import com.mongodb.util.TestCase;
+import org.bson.io.BasicOutputBuffer;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+
 public class ReflectionTest extends TestCase {
     
     public static class Person extends ReflectionDBObject {
@@ -144,6 +147,44 @@ public class ReflectionTest extends TestCase {
         assertEquals("test", pModified.getName());
     }
 
+    @Test
+    public void testReflectionDBEncoder() {
+        Outer o = new Outer();
+        o.set_id( 5 );
+        o.setName( "eliot" );
+        o.setInner( new Inner( 17 ) );
+
+        assertTrue( Arrays.equals( encode( DefaultDBEncoder.FACTORY , o ) , encode( ReflectionDBEncoder.FACTORY , o ) ) );
+
+        DBCollection c = _db.getCollection( "reflectionEncoder" );
+        c.setObjectClass( Outer.class );
+        DBObject out = new DefaultDBDecoder().decode( encode( ReflectionDBEncoder.FACTORY , o ) , c );
+        assertEquals( Outer.class , out.getClass() );
+        o = (Outer)out;
+        assertEquals( 5 , o.get_id() );
+        assertEquals( "eliot" , o.getName() );
+        assertEquals( 17 , o.getInner().getNumber() );
+    }
+
+    @Test
+    public void testNonPublicClass() {
+        Process p = new Process();
+        p.setName( "test" );
+        p.setStatus( 3 );
+
+        DBCollection c = _db.getCollection( "reflectionNonPublic" );
+        c.setObjectClass( Process.class );
+        Process out = (Process)new DefaultDBDecoder().decode( encode( ReflectionDBEncoder.FACTORY , p ) , c );
+        assertEquals( "test" , out.getName() );
+        assertEquals( 3 , out.getStatus() );
+    }
+
+    private byte[] encode( DBEncoderFactory factory , DBObject o ){
+        BasicOutputBuffer buf = new BasicOutputBuffer();
+        factory.create().writeObject( buf , o );
+        return buf.toByteArray();
+    }
+
     final DB _db;
     
     public static void main( String args[] )
@@ -3,8 +3,14 @@ package com.mongodb;
 import com.mongodb.ReplicaSetStatus.ReplicaSetNode;
 import com.mongodb.util.TestCase;
 import org.testng.Assert;
+import org.bson.io.Bits;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -212,6 +218,127 @@ public class ReplicaSetStatusDomainModelTest extends TestCase {
         assertNotNull(set.getASecondary());
     }
 
+    @Test
+    public void testUpdateReportsMemberGoingDown() throws Exception {
+        FakeMember member = new FakeMember(0);
+        Mongo mongo = new MongoClient();
+        try {
+            List<ReplicaSetStatus.UpdatableReplicaSetNode> all = new ArrayList<ReplicaSetStatus.UpdatableReplicaSetNode>();
+            ReplicaSetStatus.UpdatableReplicaSetNode node = new ReplicaSetStatus.UpdatableReplicaSetNode(member.getAddress(), all,
+                    _logger, mongo, _mongoOptions, _lastPrimarySignal);
+            all.add(node);
+            member.setReply(new BasicDBObject("ismaster", true).append("hosts", Arrays.asList(member.getHost())));
+
+            assertTrue(node.update(new HashSet<ReplicaSetStatus.UpdatableReplicaSetNode>()));
+            assertTrue(node.isOk());
+            assertTrue(node.toReplicaSetNode().master());
+
+            // the server stops answering, dropping the connection instead
+            member.setReply(null);
+            assertTrue(node.update(new HashSet<ReplicaSetStatus.UpdatableReplicaSetNode>()));
+            assertFalse(node.isOk());
+
+            // still down, so nothing new to publish
+            assertFalse(node.update(new HashSet<ReplicaSetStatus.UpdatableReplicaSetNode>()));
+        } finally {
+            member.close();
+            mongo.close();
+        }
+    }
+
+    @Test
+    public void testMembersAreCheckedConcurrently() throws Exception {
+        FakeMember first = new FakeMember(1000);
+        FakeMember second = new FakeMember(1000);
+        List<String> hosts = Arrays.asList(first.getHost(), second.getHost());
+        first.setReply(new BasicDBObject("ismaster", true).append("setName", "rs").append("hosts", hosts));
+        second.setReply(new BasicDBObject("secondary", true).append("setName", "rs").append("hosts", hosts));
+
+        Mongo mongo = new MongoClient();
+        ReplicaSetStatus status = new ReplicaSetStatus(mongo, Arrays.asList(first.getAddress(), second.getAddress()));
+        try {
+            long start = System.currentTimeMillis();
+            ((ReplicaSetStatus.Updater) status._updater).updateAll(10000);
+            assertTrue(System.currentTimeMillis() - start < 1900);
+
+            for (ReplicaSetStatus.UpdatableReplicaSetNode node : ((ReplicaSetStatus.Updater) status._updater).getNodes()) {
+                assertTrue(node.isOk());
+            }
+            assertEquals(first.getAddress(), status.getMaster());
+        } finally {
+            status.close();
+            first.close();
+            second.close();
+            mongo.close();
+        }
+    }
+
+    @Test
+    public void testSlowMemberIsSkippedButKept() throws Exception {
+        FakeMember fast = new FakeMember(0);
+        FakeMember slow = new FakeMember(1500);
+        // the fast member no longer lists the slow one, which must still not be dropped while its check is outstanding
+        fast.setReply(new BasicDBObject("ismaster", true).append("setName", "rs").append("hosts", Arrays.asList(fast.getHost())));
+        slow.setReply(new BasicDBObject("secondary", true).append("setName", "rs")
+                      .append("hosts", Arrays.asList(fast.getHost(), slow.getHost())));
+
+        Mongo mongo = new MongoClient();
+        ReplicaSetStatus status = new ReplicaSetStatus(mongo, Arrays.asList(fast.getAddress(), slow.getAddress()));
+        ReplicaSetStatus.Updater updater = (ReplicaSetStatus.Updater) status._updater;
+        try {
+            long start = System.currentTimeMillis();
+            updater.updateAll(200);
+            assertTrue(System.currentTimeMillis() - start < 1000);
+            assertEquals(fast.getAddress(), status.getMaster());
+            assertEquals(2, updater.getNodes().size());
+
+            // the slow member is still being checked, so it isn't asked again
+            updater.updateAll(200);
+            assertEquals(2, fast.getRequests());
+            assertEquals(1, slow.getRequests());
+            assertEquals(2, updater.getNodes().size());
+        } finally {
+            status.close();
+            fast.close();
+            slow.close();
+            mongo.close();
+        }
+    }
+
+    @Test
+    public void testWakeCutsSleepShort() throws Exception {
+        final ConnectionStatus.BackgroundUpdater updater = new ConnectionStatus.BackgroundUpdater("test");
+
+        updater.wake();
+        long start = System.currentTimeMillis();
+        updater.sleepUnlessWoken(10000);
+        long slept = System.currentTimeMillis() - start;
+        assertTrue(slept < 5000);
+        // but never shorter than the minimum, however often it's woken
+        assertTrue(slept >= ConnectionStatus.updaterMinWokenIntervalMS - 10);
+
+        Thread waker = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    // fall through
+                }
+                updater.wake();
+            }
+        };
+        start = System.currentTimeMillis();
+        waker.start();
+        updater.sleepUnlessWoken(10000);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        waker.join();
+
+        // a wake is only good for one sleep
+        start = System.currentTimeMillis();
+        updater.sleepUnlessWoken(50);
+        assertTrue(System.currentTimeMillis() - start >= 40);
+    }
+
     private int getLow(Map<String, AtomicInteger> counters) {
         int low = Integer.MAX_VALUE;
         for (final String host : counters.keySet()) {
@@ -255,6 +382,81 @@ public class ReplicaSetStatusDomainModelTest extends TestCase {
                 true, !isSecondary, isSecondary, tags, Bytes.MAX_OBJECT_SIZE));
     }
 
+    // a server that answers every command with the same isMaster reply, after a delay
+    private static class FakeMember extends Thread {
+        FakeMember(final long delayMS) throws IOException {
+            _delayMS = delayMS;
+            _serverSocket = new ServerSocket(0);
+            setDaemon(true);
+            start();
+        }
+
+        ServerAddress getAddress() throws UnknownHostException {
+            return new ServerAddress(getHost());
+        }
+
+        String getHost() {
+            return "127.0.0.1:" + _serverSocket.getLocalPort();
+        }
+
+        // null to drop each connection as soon as a command arrives on it
+        void setReply(final DBObject reply) {
+            if (reply != null) {
+                reply.put("ok", 1);
+            }
+            _reply = reply;
+        }
+
+        int getRequests() {
+            return _requests.get();
+        }
+
+        void close() throws IOException {
+            _serverSocket.close();
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    final Socket socket = _serverSocket.accept();
+                    Thread connection = new Thread() {
+                        public void run() {
+                            try {
+                                InputStream in = socket.getInputStream();
+                                OutputStream out = socket.getOutputStream();
+                                while (true) {
+                                    byte[] header = new byte[16];
+                                    Bits.readFully(in, header);
+                                    Bits.readFully(in, new byte[Bits.readInt(header, 0) - 16]);
+                                    _requests.incrementAndGet();
+                                    Thread.sleep(_delayMS);
+                                    DBObject reply = _reply;
+                                    if (reply == null) {
+                                        socket.close();
+                                        return;
+                                    }
+                                    out.write(DBPortTest.reply(Bits.readInt(header, 4), reply));
+                                    out.flush();
+                                }
+                            } catch (Exception e) {
+                                // connection closed
+                            }
+                        }
+                    };
+                    connection.setDaemon(true);
+                    connection.start();
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private final long _delayMS;
+        private final ServerSocket _serverSocket;
+        private final AtomicInteger _requests = new AtomicInteger();
+        private volatile DBObject _reply;
+    }
+
     @SuppressWarnings("deprecation")
     private final MongoOptions _mongoOptions = new MongoOptions();
     private final AtomicReference<String> _setName = new AtomicReference<String>("test");
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import com.mongodb.util.TestCase;
+import org.bson.io.BasicOutputBuffer;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertNotSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class ResponseTest extends TestCase {
+
+    @Test
+    public void testDecodesFromStream() throws IOException {
+        Response res = new Response(new ServerAddress(), null, new ByteArrayInputStream(reply(2)),
+                                    DefaultDBDecoder.FACTORY.create());
+        assertEquals(2, res.size());
+        assertEquals(0, res.get(0).get("x"));
+        assertEquals(1, res.get(1).get("x"));
+    }
+
+    @Test
+    public void testLazyObjectsWrapTheMessageInPlace() throws IOException {
+        byte[] message = reply(2);
+        Response res = new Response(new ServerAddress(), null, ByteBuffer.wrap(message), LazyDBDecoder.FACTORY.create());
+        assertEquals(2, res.size());
+        assertEquals(LazyDBObject.class, res.get(1).getClass());
+        assertEquals(1, res.get(1).get("x"));
+
+        message[message.length - 5] = 42;
+        assertEquals(42, res.get(1).get("x"));
+    }
+
+    @Test
+    public void testDefaultDecodersReadTheMessageInPlace() throws IOException {
+        DefaultDBDecoder decoder = new DefaultDBDecoder() {
+            @Override
+            public DBObject decode(InputStream in, DBCollection collection) throws IOException {
+                throw new AssertionError("copied through a stream");
+            }
+        };
+        Response res = new Response(new ServerAddress(), null, ByteBuffer.wrap(reply(2)), decoder);
+        assertEquals(2, res.size());
+        assertEquals(1, res.get(1).get("x"));
+
+        res = new Response(new ServerAddress(), null, ByteBuffer.wrap(reply(2)), CompactDBDecoder.FACTORY.create());
+        assertEquals(CompactDBObject.class, res.get(1).getClass());
+        assertEquals(1, res.get(1).get("x"));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testBadObjectSize() throws IOException {
+        byte[] message = reply(1);
+        message[Response.HEADER_LENGTH] = 100;
+        new Response(new ServerAddress(), null, ByteBuffer.wrap(message), DefaultDBDecoder.FACTORY.create());
+    }
+
+    @Test
+    public void testBufferPoolReusesBySizeClass() {
+        ByteBufferPool pool = new ByteBufferPool(8192, 8192);
+
+        ByteBuffer buf = pool.get(1500);
+        assertEquals(1500, buf.limit());
+        assertEquals(0, buf.position());
+        assertEquals(2048, buf.capacity());
+
+        pool.release(buf);
+        assertSame(buf, pool.get(1025));
+        assertNotSame(buf, pool.get(1025));
+
+        ByteBuffer big = pool.get(10000);
+        assertEquals(10000, big.capacity());
+        pool.release(big);
+        assertNotSame(big, pool.get(10000));
+    }
+
+    @Test
+    public void testBufferPoolIsBounded() {
+        ByteBufferPool pool = new ByteBufferPool(8192, 8192);
+
+        ByteBuffer first = pool.get(8192);
+        ByteBuffer second = pool.get(8192);
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.get(8192));
+        assertNotSame(second, pool.get(8192));
+    }
+
+    // a reply with the documents { x : 0 } ... { x : num - 1 }
+    private static byte[] reply(int num) {
+        BasicOutputBuffer docs = new BasicOutputBuffer();
+        for (int i = 0; i < num; i++) {
+            new DefaultDBEncoder().writeObject(docs, new BasicDBObject("x", i));
+        }
+
+        BasicOutputBuffer buf = new BasicOutputBuffer();
+        buf.writeInt(Response.HEADER_LENGTH + docs.size());
+        buf.writeInt(0);                // requestId
+        buf.writeInt(0);                // responseTo
+        buf.writeInt(1);                // OP_REPLY
+        buf.writeInt(0);                // flags
+        buf.writeLong(0);               // cursor
+        buf.writeInt(0);                // startingFrom
+        buf.writeInt(num);
+        buf.write(docs.toByteArray());
+        return buf.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.UnknownHostException;
+
+public class ServerDescriptionTest extends Assert {
+
+    @Test
+    public void testFromIsMaster() throws UnknownHostException {
+        ServerAddress address = new ServerAddress("localhost", 27017);
+        BasicDBObject res = new BasicDBObject("ismaster", true)
+                            .append("maxBsonObjectSize", 16 * 1024 * 1024)
+                            .append("maxMessageSizeBytes", 48000000)
+                            .append("maxWriteBatchSize", 1000)
+                            .append("minWireVersion", 0)
+                            .append("maxWireVersion", 2)
+                            .append("ok", 1.0);
+
+        ServerDescription description = ServerDescription.fromIsMaster(address, res);
+        assertEquals(description.getAddress(), address);
+        assertEquals(description.getMaxBsonObjectSize(), 16 * 1024 * 1024);
+        assertEquals(description.getMaxMessageSize(), 48000000);
+        assertEquals(description.getMaxWriteBatchSize(), 1000);
+        assertEquals(description.getMinWireVersion(), 0);
+        assertEquals(description.getMaxWireVersion(), 2);
+        assertFalse(description.isMongos());
+        assertEquals(ServerDescription.fromIsMaster(address, res), description);
+        assertEquals(ServerDescription.fromIsMaster(address, res).hashCode(), description.hashCode());
+
+        assertTrue(ServerDescription.fromIsMaster(address, res.append("msg", "isdbgrid")).isMongos());
+    }
+
+    @Test
+    public void testDefaultsForOldServers() throws UnknownHostException {
+        ServerDescription description = ServerDescription.fromIsMaster(new ServerAddress("localhost", 27017),
+                                                                       new BasicDBObject("ismaster", true).append("ok", 1.0));
+        assertEquals(description.getMaxBsonObjectSize(), Bytes.MAX_OBJECT_SIZE);
+        assertEquals(description.getMaxMessageSize(), 2 * Bytes.MAX_OBJECT_SIZE);
+        assertEquals(description.getMaxWriteBatchSize(), ServerDescription.DEFAULT_MAX_WRITE_BATCH_SIZE);
+        assertEquals(description.getMaxWireVersion(), 0);
+    }
+}
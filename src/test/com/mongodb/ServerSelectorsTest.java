@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ServerSelectorsTest extends Assert {
+
+    private final ServerAddress a;
+    private final ServerAddress b;
+    private final ServerAddress c;
+    private final List<ServerAddress> all;
+    private final FakeLoad load = new FakeLoad();
+
+    public ServerSelectorsTest() throws UnknownHostException {
+        a = new ServerAddress("127.0.0.1", 27017);
+        b = new ServerAddress("127.0.0.1", 27018);
+        c = new ServerAddress("127.0.0.1", 27019);
+        all = Arrays.asList(a, b, c);
+    }
+
+    @Test
+    public void testRandom() {
+        Set<ServerAddress> chosen = new HashSet<ServerAddress>();
+        for (int i = 0; i < 1000; i++) {
+            chosen.add(ServerSelectors.random().select(all, load));
+        }
+        assertEquals(new HashSet<ServerAddress>(all), chosen);
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() {
+        load.set(a, 5, 1);
+        load.set(b, 0, 1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(b, ServerSelectors.powerOfTwoChoices().select(Arrays.asList(a, b), load));
+        }
+
+        // the busiest server can never win a pair
+        load.set(c, 10, 1);
+        for (int i = 0; i < 100; i++) {
+            assertNotEquals(ServerSelectors.powerOfTwoChoices().select(all, load), c);
+        }
+    }
+
+    @Test
+    public void testLeastOutstandingRequests() {
+        load.set(a, 3, 1);
+        load.set(b, 1, 100);
+        load.set(c, 2, 1);
+        assertEquals(b, ServerSelectors.leastOutstandingRequests().select(all, load));
+    }
+
+    @Test
+    public void testLowestResponseTime() {
+        load.set(a, 0, 10);
+        load.set(b, 0, 2);
+        load.set(c, 0, 5);
+        assertEquals(b, ServerSelectors.lowestResponseTime().select(all, load));
+
+        // outstanding operations count against a fast server
+        load.set(b, 4, 2);
+        assertEquals(c, ServerSelectors.lowestResponseTime().select(all, load));
+
+        // a server that has not been timed is tried first
+        load.set(a, 0, 0);
+        assertEquals(a, ServerSelectors.lowestResponseTime().select(all, load));
+    }
+
+    @Test
+    public void testReplicaSetUsesSelector() {
+        LinkedHashMap<String, String> tags = new LinkedHashMap<String, String>();
+        ReplicaSetStatus.ReplicaSetNode primary = node(a, true, tags);
+        ReplicaSetStatus.ReplicaSetNode secondary1 = node(b, false, tags);
+        ReplicaSetStatus.ReplicaSetNode secondary2 = node(c, false, tags);
+        ReplicaSetStatus.ReplicaSet set = new ReplicaSetStatus.ReplicaSet(Arrays.asList(primary, secondary1, secondary2),
+                                                                          new Random(), 15,
+                                                                          ServerSelectors.leastOutstandingRequests(), load);
+        load.set(a, 1, 1);
+        load.set(b, 5, 1);
+        load.set(c, 0, 1);
+        assertSame(secondary2, ReadPreference.secondary().getNode(set));
+        assertSame(secondary2, ReadPreference.nearest().getNode(set));
+        assertSame(primary, ReadPreference.primary().getNode(set));
+
+        load.set(c, 9, 1);
+        assertSame(secondary1, ReadPreference.secondaryPreferred().getNode(set));
+        assertSame(primary, ReadPreference.nearest().getNode(set));
+    }
+
+    @Test(expectedExceptions = MongoException.class)
+    public void testSelectorMustChooseACandidate() throws UnknownHostException {
+        final ServerAddress other = new ServerAddress("127.0.0.1", 1);
+        LinkedHashMap<String, String> tags = new LinkedHashMap<String, String>();
+        ReplicaSetStatus.ReplicaSet set = new ReplicaSetStatus.ReplicaSet(Arrays.asList(node(b, false, tags), node(c, false, tags)),
+                                                                          new Random(), 15, new ServerSelector() {
+            public ServerAddress select(final List<ServerAddress> candidates, final ServerLoad load) {
+                return other;
+            }
+        }, load);
+        ReadPreference.secondary().getNode(set);
+    }
+
+    private static ReplicaSetStatus.ReplicaSetNode node(ServerAddress addr, boolean master, LinkedHashMap<String, String> tags) {
+        return new ReplicaSetStatus.ReplicaSetNode(addr, new HashSet<String>(Arrays.asList(addr.toString())), "set", 10f, true,
+                                                   master, !master, tags, Bytes.MAX_OBJECT_SIZE);
+    }
+
+    static class FakeLoad implements ServerLoad {
+        private final Map<ServerAddress, int[]> inFlight = new HashMap<ServerAddress, int[]>();
+        private final Map<ServerAddress, double[]> responseTimes = new HashMap<ServerAddress, double[]>();
+
+        void set(ServerAddress server, int numInFlight, double responseTimeMillis) {
+            inFlight.put(server, new int[]{numInFlight});
+            responseTimes.put(server, new double[]{responseTimeMillis});
+        }
+
+        public int getInFlight(final ServerAddress server) {
+            return inFlight.containsKey(server) ? inFlight.get(server)[0] : 0;
+        }
+
+        public double getResponseTimeMillis(final ServerAddress server) {
+            return responseTimes.containsKey(server) ? responseTimes.get(server)[0] : 0;
+        }
+    }
+}
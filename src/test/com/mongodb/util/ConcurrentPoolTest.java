@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConcurrentPoolTest extends com.mongodb.util.TestCase {
+
+    class MyPool extends ConcurrentPool<Integer> {
+
+        MyPool( int size ){
+            super( "blah" , size );
+        }
+
+        public Integer createNew(){
+            if (_throwError)
+                throw new OutOfMemoryError();
+
+            return _num++;
+        }
+
+        @Override
+        public void cleanup( Integer t ){
+            _cleanedUp.add( t );
+        }
+
+        @Override
+        protected boolean shouldPrune( Integer t ){
+            return t < _pruneBelow;
+        }
+
+        int _num = 0;
+        int _pruneBelow = 0;
+        boolean _throwError;
+        final List<Integer> _cleanedUp = new ArrayList<Integer>();
+    }
+
+    @org.testng.annotations.Test
+    public void testMostRecentlyReturnedIsReusedFirst() throws InterruptedException {
+        MyPool p = new MyPool( 10 );
+
+        Integer a = p.get();
+        Integer b = p.get();
+        assertEquals( Integer.valueOf(0) , a );
+        assertEquals( Integer.valueOf(1) , b );
+
+        p.done( a );
+        p.done( b );
+        assertEquals( b , p.get() );
+        assertEquals( a , p.get() );
+        assertEquals( Integer.valueOf(2) , p.get() );
+    }
+
+    @org.testng.annotations.Test
+    public void testPruneAndEnsureMinSize() throws InterruptedException {
+        MyPool p = new MyPool( 10 );
+        p.ensureMinSize( 3 );
+        assertEquals( 3 , p.getAvailable() );
+
+        p._pruneBelow = 2;
+        p.prune();
+        assertEquals( 1 , p.getAvailable() );
+        assertEquals( 2 , p._cleanedUp.size() );
+        assertEquals( Integer.valueOf(2) , p.get() );
+
+        p.ensureMinSize( 3 );
+        assertEquals( 3 , p.getTotal() );
+        assertEquals( 1 , p.getInUse() );
+    }
+
+    @org.testng.annotations.Test
+    public void testStatistics() throws InterruptedException {
+        MyPool p = new MyPool( 10 );
+
+        Integer a = p.get();
+        p.get();
+        p.done( a );
+
+        assertEquals( 2 , p.getTotal() );
+        assertEquals( 1 , p.getInUse() );
+        assertEquals( 1 , p.getAvailable() );
+        assertEquals( 10 , p.getMaxSize() );
+    }
+
+    @org.testng.annotations.Test
+    public void testGetTimesOutWhenExhausted() throws InterruptedException {
+        MyPool p = new MyPool( 1 );
+
+        Integer a = p.get();
+        assertNull( p.get( 0 ) );
+        assertNull( p.get( 10 ) );
+
+        p.done( a );
+        assertEquals( a , p.get( 10 ) );
+    }
+
+    @org.testng.annotations.Test
+    public void testThrowErrorFromCreate() throws InterruptedException {
+        MyPool p = new MyPool( 1 );
+        p._throwError = true;
+
+        try {
+            p.get();
+            fail("Should have thrown");
+        } catch (OutOfMemoryError e) {
+            // expected
+        }
+
+        p._throwError = false;
+
+        // now make sure there is still a permit left
+        assertEquals( Integer.valueOf(0) , p.get(0) );
+    }
+
+    @org.testng.annotations.Test
+    public void testDoneWithUnknownMember() throws InterruptedException {
+        MyPool p = new MyPool( 1 );
+        try {
+            p.done( 42 );
+            fail("Should have thrown");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testCloseCleansUpMembers() throws InterruptedException {
+        MyPool p = new MyPool( 2 );
+
+        Integer a = p.get();
+        Integer b = p.get();
+        p.done( a );
+
+        p.close();
+        assertEquals( 1 , p._cleanedUp.size() );
+        assertEquals( 0 , p.getTotal() );
+
+        p.done( b );
+        assertEquals( 2 , p._cleanedUp.size() );
+    }
+}
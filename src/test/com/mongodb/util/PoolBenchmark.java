@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of {@link SimplePool} and {@link ConcurrentPool} when many threads check members in and out
+ * of a pool of the same size, as they do with a connection pool.  Run with
+ * <pre>
+ * java -classpath "..." com.mongodb.util.PoolBenchmark [threads] [poolSize] [seconds]
+ * </pre>
+ */
+@SuppressWarnings("deprecation")
+public class PoolBenchmark {
+
+    public static void main(String... args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4 * Runtime.getRuntime().availableProcessors();
+        int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println(threads + " threads, pool size " + poolSize + ", " + seconds + "s per run");
+        for (int i = 0; i < 3; i++) {
+            final SimplePool<Object> simplePool = new SimplePool<Object>("simple", poolSize) {
+                protected Object createNew() {
+                    return new Object();
+                }
+            };
+            report("SimplePool", run(threads, seconds, new Pool() {
+                public Object get() throws InterruptedException {
+                    return simplePool.get(-1);
+                }
+
+                public void done(Object o) {
+                    simplePool.done(o);
+                }
+            }), seconds);
+
+            final ConcurrentPool<Object> concurrentPool = new ConcurrentPool<Object>("concurrent", poolSize) {
+                protected Object createNew() {
+                    return new Object();
+                }
+            };
+            report("ConcurrentPool", run(threads, seconds, new Pool() {
+                public Object get() throws InterruptedException {
+                    return concurrentPool.get(-1);
+                }
+
+                public void done(Object o) {
+                    concurrentPool.done(o);
+                }
+            }), seconds);
+        }
+    }
+
+    interface Pool {
+        Object get() throws InterruptedException;
+
+        void done(Object o);
+    }
+
+    private static long run(int threads, int seconds, final Pool pool) throws InterruptedException {
+        final AtomicLong ops = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] stopAt = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        long n = 0;
+                        while (System.nanoTime() < stopAt[0]) {
+                            pool.done(pool.get());
+                            n++;
+                        }
+                        ops.addAndGet(n);
+                    } catch (InterruptedException e) {
+                        // done
+                    }
+                }
+            };
+            workers[i].start();
+        }
+
+        stopAt[0] = System.nanoTime() + seconds * 1000000000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.get();
+    }
+
+    private static void report(String name, long ops, int seconds) {
+        System.out.println(name + ": " + (ops / seconds) + " get/done pairs per second");
+    }
+}
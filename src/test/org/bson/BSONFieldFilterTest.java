@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.CompactDBDecoder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.FieldFilterDBDecoderFactory;
+import com.mongodb.LazyDBDecoder;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.Binary;
+import org.bson.types.Code;
+import org.bson.types.CodeWScope;
+import org.bson.types.MaxKey;
+import org.bson.types.MinKey;
+import org.bson.types.ObjectId;
+import org.bson.types.Symbol;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+public class BSONFieldFilterTest extends Assert {
+
+    @Test
+    public void testSkipsEveryType() throws IOException {
+        BSONObject doc = new BasicBSONObject( "null" , null )
+                         .append( "bool" , true )
+                         .append( "int" , 1 )
+                         .append( "long" , 2L )
+                         .append( "double" , 3.0 )
+                         .append( "date" , new Date() )
+                         .append( "ts" , new BSONTimestamp( 1 , 2 ) )
+                         .append( "oid" , new ObjectId() )
+                         .append( "string" , "s" )
+                         .append( "symbol" , new Symbol( "sym" ) )
+                         .append( "code" , new Code( "x" ) )
+                         .append( "codews" , new CodeWScope( "y" , new BasicBSONObject( "a" , 1 ) ) )
+                         .append( "binary" , new Binary( (byte) 0x80 , new byte[]{ 1 , 2 } ) )
+                         .append( "bytes" , new byte[ 3000 ] )
+                         .append( "uuid" , UUID.randomUUID() )
+                         .append( "regex" , Pattern.compile( "^a" ) )
+                         .append( "min" , new MinKey() )
+                         .append( "max" , new MaxKey() )
+                         .append( "object" , new BasicBSONObject( "b" , 1 ) )
+                         .append( "array" , Arrays.asList( 1 , 2 ) )
+                         .append( "last" , "kept" );
+        byte[] bytes = BSON.encode( doc );
+
+        BasicBSONDecoder decoder = new BasicBSONDecoder();
+        decoder.setFieldFilter( new BSONFieldFilter( "last" ) );
+        BasicBSONCallback callback = new BasicBSONCallback();
+        // a stream with a small buffer makes the skips cross reads
+        assertEquals( bytes.length , decoder.decode( new ByteArrayInputStream( bytes ) , callback ) );
+        assertEquals( new BasicBSONObject( "last" , "kept" ) , callback.get() );
+
+        decoder.setFieldFilter( null );
+        assertEquals( doc.keySet() , decoder.readObject( bytes ).keySet() );
+    }
+
+    @Test
+    public void testNestedPaths(){
+        BSONObject doc = new BasicBSONObject( "_id" , 1 )
+                         .append( "name" , "n" )
+                         .append( "address" , new BasicBSONObject( "city" , "c" ).append( "zip" , "z" ) )
+                         .append( "items" , Arrays.asList( new BasicBSONObject( "sku" , 1 ).append( "qty" , 2 ) ,
+                                                           "scalar" ,
+                                                           new BasicBSONObject( "qty" , 3 ) ) )
+                         .append( "scalar" , 4 );
+
+        BasicBSONDecoder decoder = new BasicBSONDecoder();
+        decoder.setFieldFilter( new BSONFieldFilter( "address.city" , "items.sku" , "scalar.x" , "name" , "name.first" ) );
+        BSONObject filtered = decoder.readObject( BSON.encode( doc ) );
+
+        BSONObject expected = new BasicBSONObject( "name" , "n" )
+                              .append( "address" , new BasicBSONObject( "city" , "c" ) )
+                              .append( "items" , Arrays.asList( new BasicBSONObject( "sku" , 1 ) , new BasicBSONObject() ) );
+        assertEquals( expected.toString() , filtered.toString() );
+    }
+
+    @Test
+    public void testDecoderFactory(){
+        BSONObject doc = new BasicBSONObject( "_id" , 1 ).append( "a" , 2 ).append( "b" , 3 );
+        byte[] bytes = BSON.encode( doc );
+
+        DBObject filtered = new FieldFilterDBDecoderFactory( "_id" , "b" ).create().decode( bytes , (DBCollection) null );
+        assertEquals( new BasicDBObject( "_id" , 1 ).append( "b" , 3 ) , filtered );
+        assertTrue( filtered.isPartialObject() );
+
+        filtered = new FieldFilterDBDecoderFactory( CompactDBDecoder.FACTORY , new BSONFieldFilter( "a" ) ).create()
+                   .decode( bytes , (DBCollection) null );
+        assertEquals( new BasicDBObject( "a" , 2 ) , filtered );
+        assertTrue( filtered.isPartialObject() );
+        assertFalse( CompactDBDecoder.FACTORY.create().decode( bytes , (DBCollection) null ).isPartialObject() );
+
+        try {
+            new FieldFilterDBDecoderFactory( LazyDBDecoder.FACTORY , new BSONFieldFilter( "a" ) );
+            fail();
+        }
+        catch ( IllegalArgumentException e ){
+            // expected
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidPath(){
+        new BSONFieldFilter( "a..b" );
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import org.bson.io.BSONByteBuffer;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.BasicBSONList;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+
+import static org.bson.BSON.*;
+
+public class BSONReaderTest extends Assert {
+
+    private final ObjectId id = new ObjectId();
+
+    @Test
+    public void testReadAllTypes() {
+        BSONReader reader = new BSONReader(BSON.encode(document()));
+        reader.startDocument();
+
+        assertEquals(reader.readType(), OID);
+        assertEquals(reader.readName(), "_id");
+        assertEquals(reader.readObjectId(), id);
+
+        assertEquals(reader.readType(), NUMBER_INT);
+        assertEquals(reader.readInt32(), 1);
+        assertEquals(reader.readType(), NUMBER_LONG);
+        assertEquals(reader.readInt64(), 2L);
+        assertEquals(reader.readType(), NUMBER);
+        assertEquals(reader.readDouble(), 3.5);
+        assertEquals(reader.readType(), BOOLEAN);
+        assertTrue(reader.readBoolean());
+        assertEquals(reader.readType(), STRING);
+        assertEquals(reader.readString(), "h\u00e9llo");
+        assertEquals(reader.readType(), DATE);
+        assertEquals(reader.readDateTime(), 1000L);
+        assertEquals(reader.readType(), TIMESTAMP);
+        assertEquals(reader.readTimestamp(), new BSONTimestamp(5, 6));
+        assertEquals(reader.readType(), BINARY);
+        assertEquals(reader.readBinary().getData(), new byte[]{1, 2, 3});
+        assertEquals(reader.readType(), NULL);
+        reader.skipValue();
+
+        assertEquals(reader.readType(), OBJECT);
+        assertEquals(reader.readName(), "embedded");
+        reader.startDocument();
+        assertEquals(reader.readType(), STRING);
+        assertEquals(reader.readString(), "b");
+        assertEquals(reader.readType(), EOO);
+        reader.endDocument();
+
+        assertEquals(reader.readType(), ARRAY);
+        reader.startDocument();
+        assertEquals(reader.readType(), NUMBER_INT);
+        assertEquals(reader.readName(), "0");
+        assertEquals(reader.readInt32(), 7);
+        assertEquals(reader.readType(), NUMBER_INT);
+        assertEquals(reader.readInt32(), 8);
+        assertEquals(reader.readType(), EOO);
+        reader.endDocument();
+
+        assertEquals(reader.readType(), STRING);
+        assertEquals(reader.readName(), "last");
+        assertEquals(reader.readType(), EOO);
+        reader.endDocument();
+    }
+
+    @Test
+    public void testPickFields() {
+        byte[] bytes = BSON.encode(document());
+        BSONReader reader = new BSONReader(BSONByteBuffer.wrap(bytes), 0);
+        int i = 0;
+        String s = null;
+        reader.startDocument();
+        while (reader.readType() != EOO) {
+            if (reader.nameEquals("i")) {
+                i = reader.readInt32();
+            } else if (reader.nameEquals("s")) {
+                s = reader.readString();
+            }
+        }
+        reader.endDocument();
+        assertEquals(i, 1);
+        assertEquals(s, "h\u00e9llo");
+        assertEquals(reader.getPosition(), bytes.length);
+    }
+
+    @Test
+    public void testEndDocumentSkipsTheRest() {
+        byte[] bytes = BSON.encode(document());
+        byte[] twoDocuments = new byte[bytes.length * 2];
+        System.arraycopy(bytes, 0, twoDocuments, 0, bytes.length);
+        System.arraycopy(bytes, 0, twoDocuments, bytes.length, bytes.length);
+
+        BSONReader reader = new BSONReader(twoDocuments, bytes.length);
+        reader.startDocument();
+        reader.readType();
+        assertEquals(reader.readType(), NUMBER_INT);
+        reader.endDocument();
+        assertEquals(reader.getPosition(), twoDocuments.length);
+    }
+
+    @Test
+    public void testNonAsciiName() throws Exception {
+        BSONReader reader = new BSONReader(new ByteArrayInputStream(BSON.encode(new BasicBSONObject("n\u00e4me", 1))));
+        reader.startDocument();
+        reader.readType();
+        assertFalse(reader.nameEquals("name"));
+        assertFalse(reader.nameEquals("n"));
+        assertTrue(reader.nameEquals("n\u00e4me"));
+        assertEquals(reader.readName(), "n\u00e4me");
+    }
+
+    @Test(expectedExceptions = BSONException.class)
+    public void testWrongType() {
+        BSONReader reader = new BSONReader(BSON.encode(new BasicBSONObject("i", 1)));
+        reader.startDocument();
+        reader.readType();
+        reader.readInt64();
+    }
+
+    @Test(expectedExceptions = BSONException.class)
+    public void testReadPastEnd() {
+        BSONReader reader = new BSONReader(BSON.encode(new BasicBSONObject()));
+        reader.startDocument();
+        assertEquals(reader.readType(), EOO);
+        reader.readType();
+    }
+
+    private BSONObject document() {
+        BasicBSONList list = new BasicBSONList();
+        list.add(7);
+        list.add(8);
+        return new BasicBSONObject("_id", id)
+               .append("i", 1)
+               .append("l", 2L)
+               .append("d", 3.5)
+               .append("b", true)
+               .append("s", "h\u00e9llo")
+               .append("date", new Date(1000))
+               .append("ts", new BSONTimestamp(5, 6))
+               .append("bin", new Binary(new byte[]{1, 2, 3}))
+               .append("null", null)
+               .append("embedded", new BasicBSONObject("a", "b"))
+               .append("array", list)
+               .append("last", "x");
+    }
+}
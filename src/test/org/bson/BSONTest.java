@@ -351,6 +351,64 @@ public class BSONTest extends Assert {
         _roundTrip( new BasicBSONObject( "a" , "b" ) );
     }
 
+    @Test
+    public void testFieldNames(){
+        BasicBSONObject o = new BasicBSONObject();
+        for ( int i = 0; i < 300; i++ )
+            o.append( "field" + i , i );
+        o.append( "h\u00e9llo" , "non ascii" );
+        o.append( "x" , "one byte" );
+        StringBuilder longName = new StringBuilder();
+        while ( longName.length() < 2000 )
+            longName.append( "long" );
+        o.append( longName.toString() , "spans the input buffer" );
+
+        BSONDecoder d = new BasicBSONDecoder();
+        byte[] bytes = BSON.encode( o );
+        assertEquals( d.readObject( bytes ) , o );
+        assertEquals( d.readObject( bytes ) , o );
+
+        bytes = BSON.encode( new BasicBSONObject( "name" , 1 ) );
+        BSONObject first = d.readObject( bytes );
+        BSONObject second = d.readObject( bytes );
+        assertSame( first.keySet().iterator().next() , second.keySet().iterator().next() );
+    }
+
+    @Test
+    public void testDecodeInPlace(){
+        StringBuilder big = new StringBuilder();
+        while ( big.length() < 5000 )
+            big.append( "big" );
+        BSONObject o = new BasicBSONObject( "a" , 1 ).append( "s" , big.toString() )
+                .append( "sub" , new BasicBSONObject( "b" , "c" ) ).append( "bin" , new byte[2000] );
+
+        byte[] doc = BSON.encode( o );
+        byte[] padded = new byte[doc.length + 20];
+        System.arraycopy( doc , 0 , padded , 7 , doc.length );
+
+        BasicBSONDecoder d = new BasicBSONDecoder();
+        BSONCallback cb = new BasicBSONCallback();
+        assertEquals( d.decode( padded , 7 , doc.length , cb ) , doc.length );
+        BSONObject out = (BSONObject) cb.get();
+        assertEquals( out.get( "s" ) , big.toString() );
+        assertEquals( out.get( "sub" ) , new BasicBSONObject( "b" , "c" ) );
+        assertEquals( ( (byte[]) out.get( "bin" ) ).length , 2000 );
+
+        // the bytes around the document are left alone
+        byte[] copy = padded.clone();
+        cb.reset();
+        d.decode( padded , 7 , doc.length , cb );
+        assertEquals( padded , copy );
+
+        try {
+            d.decode( padded , 7 , doc.length - 10 , new BasicBSONCallback() );
+            fail( "read past the end of the given bytes" );
+        }
+        catch ( BSONException e ){
+            // expected
+        }
+    }
+
     List<String> _data = new ArrayList<String>();
 
 }
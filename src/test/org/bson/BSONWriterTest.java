@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.BasicBSONList;
+import org.bson.types.ObjectId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+
+public class BSONWriterTest extends Assert {
+
+    @Test
+    public void testWritesSameBytesAsEncoder() {
+        ObjectId id = new ObjectId();
+        BasicOutputBuffer buf = new BasicOutputBuffer();
+        BSONWriter writer = new BSONWriter(buf);
+        writer.writeStartDocument();
+        writer.writeObjectId("_id", id);
+        writer.writeInt32("i", 1);
+        writer.writeInt64("l", 2L);
+        writer.writeDouble("d", 3.5);
+        writer.writeBoolean("b", false);
+        writer.writeString("s", "h\u00e9llo");
+        writer.writeDateTime("date", 1000L);
+        writer.writeBinary("bin", new byte[]{1, 2, 3});
+        writer.writeNull("null");
+        writer.writeStartDocument("embedded");
+        writer.writeString("a", "b");
+        writer.writeEndDocument();
+        writer.writeStartArray("array");
+        writer.writeInt32("0", 7);
+        writer.writeInt32("1", 8);
+        writer.writeEndArray();
+        writer.writeEndDocument();
+        assertEquals(writer.getDepth(), 0);
+
+        BasicBSONList list = new BasicBSONList();
+        list.add(7);
+        list.add(8);
+        BSONObject expected = new BasicBSONObject("_id", id)
+                              .append("i", 1)
+                              .append("l", 2L)
+                              .append("d", 3.5)
+                              .append("b", false)
+                              .append("s", "h\u00e9llo")
+                              .append("date", new Date(1000))
+                              .append("bin", new byte[]{1, 2, 3})
+                              .append("null", null)
+                              .append("embedded", new BasicBSONObject("a", "b"))
+                              .append("array", list);
+        assertEquals(buf.toByteArray(), BSON.encode(expected));
+    }
+
+    @Test(expectedExceptions = BSONException.class)
+    public void testFieldOutsideDocument() {
+        new BSONWriter(new BasicOutputBuffer()).writeInt32("i", 1);
+    }
+
+    @Test(expectedExceptions = BSONException.class)
+    public void testEndWithoutStart() {
+        new BSONWriter(new BasicOutputBuffer()).writeEndDocument();
+    }
+}
@@ -18,9 +18,13 @@
 package org.bson;
 
 import org.bson.io.BasicOutputBuffer;
+import org.bson.types.BasicBSONList;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class BasicBSONEncoderTest extends Assert {
 
     @Test(expectedExceptions = BSONException.class)
@@ -29,4 +33,103 @@ public class BasicBSONEncoderTest extends Assert {
         encoder.set(new BasicOutputBuffer());
         encoder.writeCString("hell\u0000world");
     }
+
+    @Test
+    public void testRegisteredWriter() {
+        BSONCodecRegistry registry = new BSONCodecRegistry();
+        registry.register(Point.class, new BSONValueWriter<Point>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Point value) {
+                encoder.putField(name, new BasicBSONObject("x", value.x).append("y", value.y));
+            }
+        });
+
+        BSONObject decoded = encodeAndDecode(registry, new BasicBSONObject("p", new Point(1, 2))
+                                                       .append("q", new ColoredPoint(3, 4)));
+        assertEquals(decoded.get("p"), new BasicBSONObject("x", 1).append("y", 2));
+        assertEquals(decoded.get("q"), new BasicBSONObject("x", 3).append("y", 4));
+        assertSame(registry.get(ColoredPoint.class), registry.get(Point.class));
+    }
+
+    @Test
+    public void testRegisteredWriterTakesPrecedence() {
+        BSONCodecRegistry registry = new BSONCodecRegistry();
+        assertNotNull(registry.get(String.class));
+        registry.register(String.class, new BSONValueWriter<String>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final String value) {
+                encoder.putField(name, value.length());
+            }
+        });
+
+        assertEquals(encodeAndDecode(registry, new BasicBSONObject("s", "four")).get("s"), 4);
+
+        registry.unregister(String.class);
+        assertEquals(encodeAndDecode(registry, new BasicBSONObject("s", "four")).get("s"), "four");
+    }
+
+    @Test
+    public void testBuiltInDispatch() {
+        BSONCodecRegistry registry = new BSONCodecRegistry();
+        BSONObject decoded = encodeAndDecode(registry, new BasicBSONObject("array", new int[]{1, 2})
+                                                       .append("list", Arrays.asList(1, 2))
+                                                       .append("bsonList", new BasicBSONList())
+                                                       .append("char", 'c'));
+        assertEquals(decoded.get("array"), Arrays.asList(1, 2));
+        assertEquals(decoded.get("list"), Arrays.asList(1, 2));
+        assertEquals(decoded.get("bsonList"), new BasicBSONList());
+        assertEquals(decoded.get("char"), "c");
+        assertNull(registry.get(Point.class));
+    }
+
+    @Test
+    public void testRegistrationIsNotLostToConcurrentLookups() throws InterruptedException {
+        BSONValueWriter<Point> writer = new BSONValueWriter<Point>() {
+            public void write(final BasicBSONEncoder encoder, final String name, final Point value) {
+                encoder.putField(name, value.x);
+            }
+        };
+        for (int i = 0; i < 200; i++) {
+            final BSONCodecRegistry registry = new BSONCodecRegistry();
+            final AtomicBoolean done = new AtomicBoolean();
+            Thread lookups = new Thread() {
+                public void run() {
+                    while (!done.get()) {
+                        registry.get(Point.class);
+                    }
+                }
+            };
+            lookups.start();
+            Thread.yield();
+            registry.register(Point.class, writer);
+            done.set(true);
+            lookups.join();
+            assertSame(registry.get(Point.class), writer);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownClass() {
+        encodeAndDecode(new BSONCodecRegistry(), new BasicBSONObject("p", new Point(1, 2)));
+    }
+
+    private BSONObject encodeAndDecode(final BSONCodecRegistry registry, final BSONObject document) {
+        BasicBSONEncoder encoder = new BasicBSONEncoder();
+        encoder.setCodecRegistry(registry);
+        return new BasicBSONDecoder().readObject(encoder.encode(document));
+    }
+
+    static class Point {
+        final int x;
+        final int y;
+
+        Point(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static class ColoredPoint extends Point {
+        ColoredPoint(final int x, final int y) {
+            super(x, y);
+        }
+    }
 }
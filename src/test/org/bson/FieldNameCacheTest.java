@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008 - 2013 10gen, Inc. <http://10gen.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bson;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FieldNameCacheTest extends Assert {
+
+    @Test
+    public void testGet() throws Exception {
+        FieldNameCache cache = new FieldNameCache(16);
+        byte[] bytes = "xxnamexx".getBytes("UTF-8");
+
+        String first = cache.get(bytes, 2, 4);
+        assertEquals(first, "name");
+        assertSame(cache.get("name".getBytes("UTF-8"), 0, 4), first);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitRate(), 0.5);
+    }
+
+    @Test
+    public void testNonAsciiAndLongNames() throws Exception {
+        FieldNameCache cache = new FieldNameCache(16);
+        byte[] bytes = "h\u00e9llo".getBytes("UTF-8");
+        assertEquals(cache.get(bytes, 0, bytes.length), "h\u00e9llo");
+        assertSame(cache.get(bytes, 0, bytes.length), cache.get(bytes, 0, bytes.length));
+
+        StringBuilder longName = new StringBuilder();
+        while (longName.length() < 100) {
+            longName.append("long");
+        }
+        bytes = longName.toString().getBytes("UTF-8");
+        assertEquals(cache.get(bytes, 0, bytes.length), longName.toString());
+        assertNotSame(cache.get(bytes, 0, bytes.length), cache.get(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(new FieldNameCache(1).getSize(), 1);
+        assertEquals(new FieldNameCache(100).getSize(), 128);
+        assertEquals(new FieldNameCache(128).getSize(), 128);
+        assertEquals(new FieldNameCache(1).getHitRate(), 0.0);
+    }
+
+    @Test
+    public void testReplacement() throws Exception {
+        FieldNameCache cache = new FieldNameCache(1);
+        byte[] a = "a1".getBytes("UTF-8");
+        byte[] b = "b2".getBytes("UTF-8");
+        String first = cache.get(a, 0, 2);
+        assertEquals(cache.get(b, 0, 2), "b2");
+        assertEquals(cache.get(a, 0, 2), "a1");
+        assertNotSame(cache.get(b, 0, 2), first);
+        assertEquals(cache.getHitCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroSize() {
+        new FieldNameCache(0);
+    }
+
+    @Test
+    public void testSharedByDecoders() {
+        FieldNameCache cache = new FieldNameCache(64);
+        byte[] bytes = BSON.encode(new BasicBSONObject("name", 1).append("other", 2));
+
+        BasicBSONDecoder first = new BasicBSONDecoder();
+        first.setFieldNameCache(cache);
+        BasicBSONDecoder second = new BasicBSONDecoder();
+        second.setFieldNameCache(cache);
+
+        String key = first.readObject(bytes).keySet().iterator().next();
+        assertSame(second.readObject(bytes).keySet().iterator().next(), key);
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.getMissCount(), 2);
+
+        second.setFieldNameCache(null);
+        BSONObject uncached = second.readObject(bytes);
+        assertNotSame(uncached.keySet().iterator().next(), key);
+        assertEquals(uncached.get("other"), 2);
+        assertEquals(cache.getHitCount(), 2);
+    }
+
+    @Test
+    public void testLazyBSONObjectKeys() {
+        byte[] bytes = BSON.encode(new BasicBSONObject("lazyName", 1));
+        LazyBSONObject first = new LazyBSONObject(bytes, new LazyBSONCallback());
+        LazyBSONObject second = new LazyBSONObject(bytes, new LazyBSONCallback());
+        assertSame(second.keySet().iterator().next(), first.keySet().iterator().next());
+        assertEquals(second.get("lazyName"), 1);
+    }
+
+    @Test
+    public void testSharedByLazyDecoders() {
+        FieldNameCache cache = new FieldNameCache(64);
+        byte[] bytes = BSON.encode(new BasicBSONObject("name", 1).append("other", 2));
+
+        LazyBSONDecoder decoder = new LazyBSONDecoder();
+        decoder.setFieldNameCache(cache);
+        String key = null;
+        for (String name : decoder.readObject(bytes).keySet()) {
+            key = key != null ? key : name;
+        }
+        assertEquals(cache.getMissCount(), 2);
+        assertSame(decoder.readObject(bytes).keySet().iterator().next(), key);
+        assertEquals(decoder.readObject(bytes).get("other"), 2);
+        // the iterator that stopped early added nothing, the lookup of "other" scanned past "name" to find it
+        assertEquals(cache.getHitCount(), 2);
+
+        decoder.setFieldNameCache(null);
+        BSONObject uncached = decoder.readObject(bytes);
+        assertNotSame(uncached.keySet().iterator().next(), key);
+        assertEquals(uncached.get("other"), 2);
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.getMissCount(), 2);
+    }
+}
@@ -70,6 +70,56 @@ public class PoolOutputBufferTest extends Assert {
         assertEquals( a.asString() , b.toString() );
     }
     
+    @Test
+    public void testWriteCString() throws Exception {
+        StringBuilder b = new StringBuilder();
+        while ( b.length() < PoolOutputBuffer.BUF_SIZE + 100 )
+            b.append( "abc" );
+        b.append( "\u00e9\u4e2d" ).append( "tail" );
+
+        for ( String s : new String[]{ "" , "a" , "h\u00e9llo" , b.toString() } ){
+            byte[] expected = ( s + "\u0000" ).getBytes( "UTF-8" );
+            for ( OutputBuffer buf : new OutputBuffer[]{ new PoolOutputBuffer() , new BasicOutputBuffer() } ){
+                buf.write( 1 );
+                assertEquals( buf.writeCString( s ) , expected.length );
+                byte[] written = buf.toByteArray();
+                assertEquals( Arrays.copyOfRange( written , 1 , written.length ) , expected );
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testTruncateToPosition(){
+        PoolOutputBuffer buf = new PoolOutputBuffer();
+        buf.write( "eliot".getBytes() );
+        buf.truncateToPosition( 2 );
+        assertEquals( 2 , buf.size() );
+        buf.write( "z".getBytes() );
+        assertEquals( "elz" , buf.asString() );
+
+        // across buffers, both on and off a buffer boundary
+        StringBuilder b = new StringBuilder();
+        for ( String x : _data )
+            b.append( x );
+        String all = b.toString();
+        for ( int position : new int[]{ PoolOutputBuffer.BUF_SIZE , PoolOutputBuffer.BUF_SIZE + 7 , 3 } ){
+            PoolOutputBuffer a = new PoolOutputBuffer();
+            a.write( all.getBytes() );
+            a.truncateToPosition( position );
+            assertEquals( a.size() , position );
+            a.write( "tail".getBytes() );
+            assertEquals( a.asString() , all.substring( 0 , position ) + "tail" );
+        }
+
+        try {
+            buf.truncateToPosition( 4 );
+            fail();
+        } catch ( IllegalArgumentException e ){
+            // expected
+        }
+    }
+
     List<String> _data = new ArrayList<String>();
     
 }